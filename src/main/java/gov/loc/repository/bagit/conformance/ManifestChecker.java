@@ -6,7 +6,6 @@ import java.nio.charset.Charset;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.text.Normalizer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
@@ -25,6 +24,7 @@ import gov.loc.repository.bagit.exceptions.MaliciousPathException;
 import gov.loc.repository.bagit.exceptions.UnsupportedAlgorithmException;
 import gov.loc.repository.bagit.hash.StandardBagitAlgorithmNameToSupportedAlgorithmMapping;
 import gov.loc.repository.bagit.reader.ManifestReader;
+import gov.loc.repository.bagit.util.NormalizedFilenameIndex;
 import gov.loc.repository.bagit.util.PathUtils;
 
 /**
@@ -69,9 +69,10 @@ public final class ManifestChecker {
     boolean missingTagManifest = true;
     final List<Path> payloadManifests = new ArrayList<>();
     final List<Path> tagManifests = new ArrayList<>();
+    final NormalizedFilenameIndex normalizedFilenameIndex = new NormalizedFilenameIndex();
     try(final DirectoryStream<Path> files = Files.newDirectoryStream(bagitDir)){
       for(final Path file : files){
-        missingTagManifest = missingTagManifest && checkManifest(file, payloadManifests, tagManifests, encoding, warnings, warningsToIgnore);
+        missingTagManifest = missingTagManifest && checkManifest(file, payloadManifests, tagManifests, encoding, warnings, warningsToIgnore, normalizedFilenameIndex);
       }
     }
     
@@ -86,18 +87,18 @@ public final class ManifestChecker {
   }
   
   private static boolean checkManifest(final Path file, final List<Path> payloadManifests, final List<Path> tagManifests, 
-      final Charset encoding, final Set<BagitWarning> warnings, 
-      final Collection<BagitWarning> warningsToIgnore) throws IOException, InvalidBagitFileFormatException{
+      final Charset encoding, final Set<BagitWarning> warnings, final Collection<BagitWarning> warningsToIgnore, 
+      final NormalizedFilenameIndex normalizedFilenameIndex) throws IOException, InvalidBagitFileFormatException{
     boolean missingTagManifest = true;
     final String filename = PathUtils.getFilename(file);
     if(filename.contains("manifest-")){
       if(filename.startsWith("manifest-")){
         payloadManifests.add(file);
-        checkManifestPayload(file, encoding, warnings, warningsToIgnore, true);
+        checkManifestPayload(file, encoding, warnings, warningsToIgnore, true, normalizedFilenameIndex);
       }
       else{
         tagManifests.add(file);
-        checkManifestPayload(file, encoding, warnings, warningsToIgnore, false);
+        checkManifestPayload(file, encoding, warnings, warningsToIgnore, false, normalizedFilenameIndex);
         missingTagManifest = false;
       }
       
@@ -112,7 +113,7 @@ public final class ManifestChecker {
    * Check for a "bag within a bag", relative paths, and OS specific files in the manifests
    */
   private static void checkManifestPayload(final Path manifestFile, final Charset encoding, final Set<BagitWarning> warnings, 
-      final Collection<BagitWarning> warningsToIgnore, final boolean isPayloadManifest) 
+      final Collection<BagitWarning> warningsToIgnore, final boolean isPayloadManifest, final NormalizedFilenameIndex normalizedFilenameIndex) 
           throws IOException, InvalidBagitFileFormatException{
     
     try(final BufferedReader reader = Files.newBufferedReader(manifestFile, encoding)){
@@ -127,7 +128,7 @@ public final class ManifestChecker {
         
         checkForDifferentCase(path, paths, manifestFile, warnings, warningsToIgnore);
         if(encoding.name().startsWith("UTF")){
-          checkNormalization(path, manifestFile.getParent(), warnings, warningsToIgnore);
+          checkNormalization(path, manifestFile.getParent(), warnings, warningsToIgnore, normalizedFilenameIndex);
         }
         checkForBagWithinBag(line, warnings, warningsToIgnore, isPayloadManifest);
         checkForRelativePaths(line, warnings, warningsToIgnore, manifestFile);
@@ -183,8 +184,10 @@ public final class ManifestChecker {
   
   /*
    * Check that the file specified has not changed its normalization (i.e. have the bytes changed but it still looks the same?)
+   * Each directory is only listed once no matter how many files in it are listed in the manifests.
    */
-  private static void checkNormalization(final String path, final Path rootDir, final Set<BagitWarning> warnings, final Collection<BagitWarning> warningsToIgnore) throws IOException{
+  private static void checkNormalization(final String path, final Path rootDir, final Set<BagitWarning> warnings, 
+      final Collection<BagitWarning> warningsToIgnore, final NormalizedFilenameIndex normalizedFilenameIndex) throws IOException{
     if(!warningsToIgnore.contains(BagitWarning.DIFFERENT_NORMALIZATION)){
       
       final Path fileToCheck = rootDir.resolve(path).normalize();
@@ -193,28 +196,16 @@ public final class ManifestChecker {
         final String formattedMessage = messages.getString("cannot_access_parent_path_error");
         throw new IOException(MessageFormatter.format(formattedMessage, fileToCheck).getMessage()); //to satisfy findbugs
       }
-      final String normalizedFileToCheck = normalizePathToNFD(fileToCheck);
       
-      try(final DirectoryStream<Path> files = Files.newDirectoryStream(dirToCheck)){
-        for(final Path file : files){
-          final String normalizedFile = normalizePathToNFD(file);
-          
-          if(!file.equals(fileToCheck) && normalizedFileToCheck.equals(normalizedFile)){
-            logger.warn(messages.getString("different_normalization_in_manifest_warning"), fileToCheck);
-            warnings.add(BagitWarning.DIFFERENT_NORMALIZATION);
-          }
+      for(final Path file : normalizedFilenameIndex.getFilesWithSameNormalization(fileToCheck)){
+        if(!file.equals(fileToCheck)){
+          logger.warn(messages.getString("different_normalization_in_manifest_warning"), fileToCheck);
+          warnings.add(BagitWarning.DIFFERENT_NORMALIZATION);
         }
       }
     }
   }
   
-  /*
-   * Normalize to Canonical decomposition.
-   */
-  static String normalizePathToNFD(final Path path){
-    return Normalizer.normalize(path.toString(), Normalizer.Form.NFD);
-  }
-  
   /*
    * check for a bag within a bag
    */
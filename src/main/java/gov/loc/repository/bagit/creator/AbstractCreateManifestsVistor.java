@@ -7,14 +7,21 @@ import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.ResourceBundle;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import gov.loc.repository.bagit.domain.Manifest;
+import gov.loc.repository.bagit.hash.FileChannelReadStrategy;
 import gov.loc.repository.bagit.hash.Hasher;
+import gov.loc.repository.bagit.hash.MessageDigestStreamingHasher;
+import gov.loc.repository.bagit.hash.ReadStrategy;
+import gov.loc.repository.bagit.hash.StreamingHasher;
 import gov.loc.repository.bagit.util.PathUtils;
 
 /**
@@ -25,12 +32,26 @@ public abstract class AbstractCreateManifestsVistor extends SimpleFileVisitor<Pa
   private static final Logger logger = LoggerFactory.getLogger(AbstractCreateManifestsVistor.class);
   private static final ResourceBundle messages = ResourceBundle.getBundle("MessageBundle");
   
+  /**
+   * The manifests that are hashed with a {@link MessageDigest}, sharing the same digests as {@link #manifestToHasherMap}
+   * so that a subclass that hashes files with them still fills in the manifests.
+   * @deprecated use {@link #manifestToHasherMap}, which also has the manifests of algorithms that aren't a {@link MessageDigest}
+   */
+  @Deprecated
   protected transient final Map<Manifest, MessageDigest> manifestToMessageDigestMap;
+  protected transient final Map<Manifest, StreamingHasher> manifestToHasherMap;
   protected transient final boolean includeHiddenFiles;
+  protected transient final ReadStrategy readStrategy;
   
   public AbstractCreateManifestsVistor(final Map<Manifest, MessageDigest> manifestToMessageDigestMap, final boolean includeHiddenFiles){
-    this.manifestToMessageDigestMap = manifestToMessageDigestMap;
+    this(manifestToMessageDigestMap == null ? null : Hasher.toManifestToHasherMap(manifestToMessageDigestMap), includeHiddenFiles, new FileChannelReadStrategy());
+  }
+  
+  public AbstractCreateManifestsVistor(final Map<Manifest, StreamingHasher> manifestToHasherMap, final boolean includeHiddenFiles, final ReadStrategy readStrategy){
+    this.manifestToHasherMap = manifestToHasherMap;
+    this.manifestToMessageDigestMap = manifestToHasherMap == null ? null : toManifestToMessageDigestMap(manifestToHasherMap);
     this.includeHiddenFiles = includeHiddenFiles;
+    this.readStrategy = readStrategy;
   }
   
   public FileVisitResult abstractPreVisitDirectory(final Path dir, final String directoryToIgnore) throws IOException {
@@ -52,9 +73,30 @@ public abstract class AbstractCreateManifestsVistor extends SimpleFileVisitor<Pa
       logger.debug(messages.getString("skipping_hidden_file"), path);
     }
     else{
-      Hasher.hash(path, manifestToMessageDigestMap);
+      visitIncludedFile(path, attrs);
     }
     
     return FileVisitResult.CONTINUE;
   }
+  
+  private static Map<Manifest, MessageDigest> toManifestToMessageDigestMap(final Map<Manifest, StreamingHasher> manifestToHasherMap){
+    final Map<Manifest, MessageDigest> map = new HashMap<>();
+    for(final Entry<Manifest, StreamingHasher> entry : manifestToHasherMap.entrySet()){
+      if(entry.getValue() instanceof MessageDigestStreamingHasher){
+        map.put(entry.getKey(), ((MessageDigestStreamingHasher) entry.getValue()).getMessageDigest());
+      }
+    }
+    return Collections.unmodifiableMap(map);
+  }
+  
+  /**
+   * Add the checksums of a file that isn't skipped to the manifests
+   * 
+   * @param path the file to include
+   * @param attrs the attributes of the file
+   * @throws IOException if there is a problem reading the file
+   */
+  protected void visitIncludedFile(final Path path, final BasicFileAttributes attrs) throws IOException{
+    Hasher.hash(path, manifestToHasherMap, readStrategy);
+  }
 }
@@ -4,7 +4,6 @@ import java.io.IOException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.text.SimpleDateFormat;
 import java.util.Collection;
@@ -12,6 +11,7 @@ import java.util.Date;
 import java.util.Locale;
 import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.Executor;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,9 +21,13 @@ import gov.loc.repository.bagit.domain.Bag;
 import gov.loc.repository.bagit.domain.Manifest;
 import gov.loc.repository.bagit.domain.Metadata;
 import gov.loc.repository.bagit.domain.Version;
+import gov.loc.repository.bagit.hash.FileChannelReadStrategy;
 import gov.loc.repository.bagit.hash.Hasher;
+import gov.loc.repository.bagit.hash.ReadStrategy;
+import gov.loc.repository.bagit.hash.StreamingHasher;
 import gov.loc.repository.bagit.hash.SupportedAlgorithm;
 import gov.loc.repository.bagit.util.PathUtils;
+import gov.loc.repository.bagit.verify.LargestFirstFileOrderingStrategy;
 import gov.loc.repository.bagit.writer.BagitFileWriter;
 import gov.loc.repository.bagit.writer.ManifestWriter;
 import gov.loc.repository.bagit.writer.MetadataWriter;
@@ -50,13 +54,13 @@ public final class BagCreator {
    * @param algorithms an collection of {@link SupportedAlgorithm} implementations
    * @param includeHidden to include hidden files when generating the bagit files, like the manifests
    * 
-   * @throws NoSuchAlgorithmException if {@link MessageDigest} can't find the algorithm
+   * @throws NoSuchAlgorithmException if an algorithm is not available
    * @throws IOException if there is a problem writing or moving file(s)
    * 
    * @return a {@link Bag} object representing the newly created bagit bag
    */
   public static Bag bagInPlace(final Path root, final Collection<SupportedAlgorithm> algorithms, final boolean includeHidden) throws NoSuchAlgorithmException, IOException{
-    return bagInPlace(LATEST_NON_DOT_BAGIT_VERSION, root, algorithms, includeHidden, new Metadata());
+    return bagInPlace(LATEST_NON_DOT_BAGIT_VERSION, root, algorithms, includeHidden, new Metadata(), new FileChannelReadStrategy(), null);
   }
   
   /**
@@ -69,13 +73,59 @@ public final class BagCreator {
    * @param includeHidden to include hidden files when generating the bagit files, like the manifests
    * @param metadata the metadata to include when creating the bag. Payload-Oxum and Bagging-Date will be overwritten 
    * 
-   * @throws NoSuchAlgorithmException if {@link MessageDigest} can't find the algorithm
+   * @throws NoSuchAlgorithmException if an algorithm is not available
    * @throws IOException if there is a problem writing or moving file(s)
    * 
    * @return a {@link Bag} object representing the newly created bagit bag
    */
   public static Bag bagInPlace(final Path root, final Collection<SupportedAlgorithm> algorithms, final boolean includeHidden, final Metadata metadata) throws NoSuchAlgorithmException, IOException{
-    return bagInPlace(LATEST_NON_DOT_BAGIT_VERSION, root, algorithms, includeHidden, metadata);
+    return bagInPlace(LATEST_NON_DOT_BAGIT_VERSION, root, algorithms, includeHidden, metadata, new FileChannelReadStrategy(), null);
+  }
+  
+  /**
+   * Creates a bag in place for version 0.97, reading the files with the given {@link ReadStrategy}.
+   * This method moves and creates files, thus if an error is thrown during operation it may leave the filesystem 
+   * in an unknown state of transition. Thus this is <b>not thread safe</b>
+   * 
+   * @param root the directory that will become the base of the bag and where to start searching for content
+   * @param algorithms an collection of {@link SupportedAlgorithm} implementations
+   * @param includeHidden to include hidden files when generating the bagit files, like the manifests
+   * @param metadata the metadata to include when creating the bag. Payload-Oxum and Bagging-Date will be overwritten 
+   * @param readStrategy how the files are read while calculating their checksums, 
+   * for instance a {@link gov.loc.repository.bagit.hash.ParallelDigestReadStrategy} when creating several manifests
+   * 
+   * @throws NoSuchAlgorithmException if an algorithm is not available
+   * @throws IOException if there is a problem writing or moving file(s)
+   * 
+   * @return a {@link Bag} object representing the newly created bagit bag
+   */
+  public static Bag bagInPlace(final Path root, final Collection<SupportedAlgorithm> algorithms, final boolean includeHidden, final Metadata metadata, final ReadStrategy readStrategy) throws NoSuchAlgorithmException, IOException{
+    return bagInPlace(LATEST_NON_DOT_BAGIT_VERSION, root, algorithms, includeHidden, metadata, readStrategy, null);
+  }
+  
+  /**
+   * Creates a bag in place for version 0.97, hashing the payload files in parallel with the largest files first 
+   * so that the threads finish at about the same time. The predicted and actual time to hash the payload files are logged.
+   * This method moves and creates files, thus if an error is thrown during operation it may leave the filesystem 
+   * in an unknown state of transition. Thus this is <b>not thread safe</b>
+   * 
+   * @param root the directory that will become the base of the bag and where to start searching for content
+   * @param algorithms an collection of {@link SupportedAlgorithm} implementations
+   * @param includeHidden to include hidden files when generating the bagit files, like the manifests
+   * @param metadata the metadata to include when creating the bag. Payload-Oxum and Bagging-Date will be overwritten 
+   * @param readStrategy how the files are read while calculating their checksums
+   * @param ordering the schedule to hash the payload files with. Its parallelism should match the number of threads of the executor
+   * @param executor the thread pool used to hash the payload files. It is not shutdown
+   * 
+   * @throws NoSuchAlgorithmException if an algorithm is not available
+   * @throws IOException if there is a problem writing, moving or reading file(s)
+   * 
+   * @return a {@link Bag} object representing the newly created bagit bag
+   */
+  public static Bag bagInPlace(final Path root, final Collection<SupportedAlgorithm> algorithms, final boolean includeHidden, final Metadata metadata, 
+      final ReadStrategy readStrategy, final LargestFirstFileOrderingStrategy ordering, final Executor executor) throws NoSuchAlgorithmException, IOException{
+    return bagInPlace(LATEST_NON_DOT_BAGIT_VERSION, root, algorithms, includeHidden, metadata, readStrategy, 
+        new ParallelPayloadHasher(ordering, executor));
   }
   
   /**
@@ -87,14 +137,14 @@ public final class BagCreator {
    * @param algorithms an collection of {@link SupportedAlgorithm} implementations
    * @param includeHidden to include hidden files when generating the bagit files, like the manifests
    * 
-   * @throws NoSuchAlgorithmException if {@link MessageDigest} can't find the algorithm
+   * @throws NoSuchAlgorithmException if an algorithm is not available
    * @throws IOException if there is a problem writing files or .bagit directory
    * 
    * @return a {@link Bag} object representing the newly created bagit bag
    */
   @Incubating
   public static Bag createDotBagit(final Path root, final Collection<SupportedAlgorithm> algorithms, final boolean includeHidden) throws NoSuchAlgorithmException, IOException{
-    return bagInPlace(DOT_BAGIT_VERSION, root, algorithms, includeHidden, new Metadata());
+    return bagInPlace(DOT_BAGIT_VERSION, root, algorithms, includeHidden, new Metadata(), new FileChannelReadStrategy(), null);
   }
   
   /**
@@ -107,17 +157,18 @@ public final class BagCreator {
    * @param includeHidden to include hidden files when generating the bagit files, like the manifests
    * @param metadata the metadata to include when creating the bag. Payload-Oxum and Bagging-Date will be overwritten
    * 
-   * @throws NoSuchAlgorithmException if {@link MessageDigest} can't find the algorithm
+   * @throws NoSuchAlgorithmException if an algorithm is not available
    * @throws IOException if there is a problem writing files or .bagit directory
    * 
    * @return a {@link Bag} object representing the newly created bagit bag
    */
   @Incubating
   public static Bag createDotBagit(final Path root, final Collection<SupportedAlgorithm> algorithms, final boolean includeHidden, final Metadata metadata) throws NoSuchAlgorithmException, IOException{
-    return bagInPlace(DOT_BAGIT_VERSION, root, algorithms, includeHidden, metadata);
+    return bagInPlace(DOT_BAGIT_VERSION, root, algorithms, includeHidden, metadata, new FileChannelReadStrategy(), null);
   }
   
-  private static Bag bagInPlace(final Version version, final Path root, final Collection<SupportedAlgorithm> algorithms, final boolean includeHidden, final Metadata metadata) throws NoSuchAlgorithmException, IOException{
+  private static Bag bagInPlace(final Version version, final Path root, final Collection<SupportedAlgorithm> algorithms, final boolean includeHidden, 
+      final Metadata metadata, final ReadStrategy readStrategy, final ParallelPayloadHasher parallelHasher) throws NoSuchAlgorithmException, IOException{
     final Bag bag = new Bag(version);
     logger.info(messages.getString("creating_bag"), bag.getVersion(), root);
     bag.setRootDir(root);
@@ -126,11 +177,16 @@ public final class BagCreator {
     
     createBagitFile(bag);
 
-    createPayloadManifests(bag, algorithms, includeHidden);
+    if(parallelHasher == null){
+      createPayloadManifests(bag, algorithms, includeHidden, readStrategy);
+    }
+    else{
+      createPayloadManifests(bag, parallelHasher.calculatePayloadManifests(PathUtils.getDataDir(bag), algorithms, includeHidden, readStrategy));
+    }
     
     createMetadataFile(bag, metadata);
     
-    createTagManifests(bag, algorithms, includeHidden);
+    createTagManifests(bag, algorithms, includeHidden, readStrategy);
     
     return bag;
   }
@@ -162,19 +218,23 @@ public final class BagCreator {
     }
   }
   
-  private static Map<Manifest, MessageDigest> calculatePayloadManifests(final Bag bag, final Collection<SupportedAlgorithm> algorithms, final boolean includeHidden) throws NoSuchAlgorithmException, IOException{
+  private static Map<Manifest, StreamingHasher> calculatePayloadManifests(final Bag bag, final Collection<SupportedAlgorithm> algorithms, final boolean includeHidden, final ReadStrategy readStrategy) throws NoSuchAlgorithmException, IOException{
     final Path dataDir = PathUtils.getDataDir(bag);
     logger.info(messages.getString("creating_payload_manifests"));
-    final Map<Manifest, MessageDigest> payloadFilesMap = Hasher.createManifestToMessageDigestMap(algorithms);
-    final CreatePayloadManifestsVistor payloadVisitor = new CreatePayloadManifestsVistor(payloadFilesMap, includeHidden);
+    final Map<Manifest, StreamingHasher> payloadFilesMap = Hasher.createManifestToHasherMap(algorithms);
+    final CreatePayloadManifestsVistor payloadVisitor = new CreatePayloadManifestsVistor(payloadFilesMap, includeHidden, readStrategy);
     Files.walkFileTree(dataDir, payloadVisitor);
     
     return payloadFilesMap;
   }
   
-  private static void createPayloadManifests(final Bag bag, final Collection<SupportedAlgorithm> algorithms, final boolean includeHidden) throws NoSuchAlgorithmException, IOException{
-    final Map<Manifest, MessageDigest> payloadFilesMap = calculatePayloadManifests(bag, algorithms, includeHidden);
-    bag.getPayLoadManifests().addAll(payloadFilesMap.keySet());
+  private static void createPayloadManifests(final Bag bag, final Collection<SupportedAlgorithm> algorithms, final boolean includeHidden, final ReadStrategy readStrategy) throws NoSuchAlgorithmException, IOException{
+    final Map<Manifest, StreamingHasher> payloadFilesMap = calculatePayloadManifests(bag, algorithms, includeHidden, readStrategy);
+    createPayloadManifests(bag, payloadFilesMap.keySet());
+  }
+  
+  private static void createPayloadManifests(final Bag bag, final Collection<Manifest> manifests) throws IOException{
+    bag.getPayLoadManifests().addAll(manifests);
     ManifestWriter.writePayloadManifests(bag.getPayLoadManifests(), PathUtils.getBagitDir(bag), bag.getRootDir(), bag.getFileEncoding());
   }
   
@@ -192,17 +252,17 @@ public final class BagCreator {
     MetadataWriter.writeBagMetadata(bag.getMetadata(), bag.getVersion(), PathUtils.getBagitDir(bag), bag.getFileEncoding());
   }
   
-  private static Map<Manifest, MessageDigest> calculateTagManifests(final Bag bag, final Collection<SupportedAlgorithm> algorithms, final boolean includeHidden) throws NoSuchAlgorithmException, IOException{
+  private static Map<Manifest, StreamingHasher> calculateTagManifests(final Bag bag, final Collection<SupportedAlgorithm> algorithms, final boolean includeHidden, final ReadStrategy readStrategy) throws NoSuchAlgorithmException, IOException{
     logger.info(messages.getString("creating_tag_manifests"));
-    final Map<Manifest, MessageDigest> tagFilesMap = Hasher.createManifestToMessageDigestMap(algorithms);
-    final CreateTagManifestsVistor tagVistor = new CreateTagManifestsVistor(tagFilesMap, includeHidden);
+    final Map<Manifest, StreamingHasher> tagFilesMap = Hasher.createManifestToHasherMap(algorithms);
+    final CreateTagManifestsVistor tagVistor = new CreateTagManifestsVistor(tagFilesMap, includeHidden, readStrategy);
     Files.walkFileTree(PathUtils.getBagitDir(bag), tagVistor);
     
     return tagFilesMap;
   }
   
-  private static void createTagManifests(final Bag bag, final Collection<SupportedAlgorithm> algorithms, final boolean includeHidden) throws NoSuchAlgorithmException, IOException{
-    final Map<Manifest, MessageDigest> tagFilesMap = calculateTagManifests(bag, algorithms, includeHidden);
+  private static void createTagManifests(final Bag bag, final Collection<SupportedAlgorithm> algorithms, final boolean includeHidden, final ReadStrategy readStrategy) throws NoSuchAlgorithmException, IOException{
+    final Map<Manifest, StreamingHasher> tagFilesMap = calculateTagManifests(bag, algorithms, includeHidden, readStrategy);
     
     bag.getTagManifests().addAll(tagFilesMap.keySet());
     ManifestWriter.writeTagManifests(bag.getTagManifests(), PathUtils.getBagitDir(bag), bag.getRootDir(), bag.getFileEncoding());
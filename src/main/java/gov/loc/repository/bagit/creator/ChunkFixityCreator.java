@@ -0,0 +1,97 @@
+package gov.loc.repository.bagit.creator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gov.loc.repository.bagit.domain.Bag;
+import gov.loc.repository.bagit.domain.ChunkFixity;
+import gov.loc.repository.bagit.domain.Manifest;
+import gov.loc.repository.bagit.hash.ChunkHasher;
+import gov.loc.repository.bagit.hash.FileChannelReadStrategy;
+import gov.loc.repository.bagit.hash.Hasher;
+import gov.loc.repository.bagit.hash.ReadStrategy;
+import gov.loc.repository.bagit.hash.StreamingHasher;
+import gov.loc.repository.bagit.hash.StreamingHasherCache;
+import gov.loc.repository.bagit.hash.SupportedAlgorithm;
+import gov.loc.repository.bagit.util.PathUtils;
+import gov.loc.repository.bagit.writer.ChunkFixityWriter;
+import gov.loc.repository.bagit.writer.ManifestWriter;
+
+/**
+ * Responsible for adding the optional chunk fixity file to a bag that is already on disk.
+ * The checksum of every chunk of the large payload files is stored in a tag file that is listed in the tag manifests,
+ * so that {@link gov.loc.repository.bagit.verify.BagVerifier} can report which byte ranges of a corrupt file are damaged.
+ */
+public final class ChunkFixityCreator {
+  private static final Logger logger = LoggerFactory.getLogger(ChunkFixityCreator.class);
+  private static final ResourceBundle messages = ResourceBundle.getBundle("MessageBundle");
+  private static final ReadStrategy READ_STRATEGY = new FileChannelReadStrategy();
+  
+  /**
+   * The default chunk size of 64 MB
+   */
+  public static final long DEFAULT_CHUNK_SIZE = 64L * 1024 * 1024;
+  
+  private ChunkFixityCreator(){
+    //intentionally left empty
+  }
+  
+  /**
+   * Compute the chunk fixity of every payload file larger than one chunk, write it to the bag and add it to the tag manifests.
+   * Chunks of the same file are hashed in parallel.
+   * 
+   * @param bag the bag, which must already be written to disk
+   * @param algorithm the algorithm used to hash the chunks
+   * @param chunkSize the number of bytes in each chunk
+   * @param executor runs one task per chunk
+   * @return the {@link ChunkFixity} that was written
+   * 
+   * @throws IOException if there is a problem reading or writing a file
+   * @throws NoSuchAlgorithmException if an algorithm is not available
+   * @throws InterruptedException if interrupted while waiting for chunks to be hashed
+   */
+  public static ChunkFixity addChunkFixity(final Bag bag, final SupportedAlgorithm algorithm, final long chunkSize, 
+      final ExecutorService executor) throws IOException, NoSuchAlgorithmException, InterruptedException{
+    logger.info(messages.getString("creating_chunk_fixity"), chunkSize, algorithm.getBagitName());
+    final ChunkFixity chunkFixity = new ChunkFixity(algorithm);
+    
+    final Set<Path> payloadFiles = new TreeSet<>();
+    for(final Manifest manifest : bag.getPayLoadManifests()){
+      payloadFiles.addAll(manifest.getFileToChecksumMap().keySet());
+    }
+    
+    for(final Path file : payloadFiles){
+      final long size = Files.size(file);
+      if(size > chunkSize){
+        chunkFixity.getFileToChunksMap().put(file, ChunkHasher.hashChunks(file, size, chunkSize, algorithm, executor));
+      }
+    }
+    
+    final Path bagitDir = PathUtils.getBagitDir(bag);
+    final Path chunkFixityFile = ChunkFixityWriter.writeChunkFixity(chunkFixity, bagitDir, bag.getRootDir(), bag.getFileEncoding());
+    
+    //changing a manifest changes its hash code, so they have to be put in a new set
+    final Set<Manifest> updatedTagManifests = new HashSet<>();
+    for(final Manifest tagManifest : bag.getTagManifests()){
+      final StreamingHasher hasher = StreamingHasherCache.get(tagManifest.getAlgorithm());
+      Hasher.updateHashers(chunkFixityFile, Collections.singletonList(hasher), READ_STRATEGY);
+      tagManifest.getFileToChecksumMap().put(chunkFixityFile, Hasher.formatHash(hasher.digest()));
+      updatedTagManifests.add(tagManifest);
+    }
+    bag.setTagManifests(updatedTagManifests);
+    ManifestWriter.writeTagManifests(updatedTagManifests, bagitDir, bag.getRootDir(), bag.getFileEncoding());
+    
+    return chunkFixity;
+  }
+}
@@ -8,6 +8,8 @@ import java.security.MessageDigest;
 import java.util.Map;
 
 import gov.loc.repository.bagit.domain.Manifest;
+import gov.loc.repository.bagit.hash.ReadStrategy;
+import gov.loc.repository.bagit.hash.StreamingHasher;
 
 /**
  * Creates the tag manifests by walking the tag files and calculating their checksums
@@ -19,6 +21,10 @@ public class CreateTagManifestsVistor extends AbstractCreateManifestsVistor{
     super(manifestToMessageDigestMap, includeHiddenFiles);
   }
   
+  public CreateTagManifestsVistor(final Map<Manifest, StreamingHasher> manifestToHasherMap, final boolean includeHiddenFiles, final ReadStrategy readStrategy){
+    super(manifestToHasherMap, includeHiddenFiles, readStrategy);
+  }
+  
   @Override
   public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) throws IOException {
     return abstractPreVisitDirectory(dir, "data");
@@ -0,0 +1,145 @@
+package gov.loc.repository.bagit.creator;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gov.loc.repository.bagit.domain.Manifest;
+import gov.loc.repository.bagit.hash.Hasher;
+import gov.loc.repository.bagit.hash.ReadStrategy;
+import gov.loc.repository.bagit.hash.StreamingHasher;
+import gov.loc.repository.bagit.hash.StreamingHasherCache;
+import gov.loc.repository.bagit.hash.SupportedAlgorithm;
+import gov.loc.repository.bagit.verify.LargestFirstFileOrderingStrategy;
+
+/**
+ * Hashes the payload files on a thread pool in the order given by a {@link LargestFirstFileOrderingStrategy},
+ * with only as many files being hashed at once as the strategy has threads, so that the files start in that order.
+ * Mainly used in {@link BagCreator}
+ */
+final class ParallelPayloadHasher {
+  private static final Logger logger = LoggerFactory.getLogger(ParallelPayloadHasher.class);
+  private static final ResourceBundle messages = ResourceBundle.getBundle("MessageBundle");
+
+  private final LargestFirstFileOrderingStrategy ordering;
+  private final Executor executor;
+
+  ParallelPayloadHasher(final LargestFirstFileOrderingStrategy ordering, final Executor executor){
+    this.ordering = ordering;
+    this.executor = executor;
+  }
+
+  @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+  Collection<Manifest> calculatePayloadManifests(final Path dataDir, final Collection<SupportedAlgorithm> algorithms,
+      final boolean includeHidden, final ReadStrategy readStrategy) throws NoSuchAlgorithmException, IOException{
+    logger.info(messages.getString("creating_payload_manifests"));
+    final long start = System.nanoTime();
+    final PayloadFileSizesVistor sizesVistor = new PayloadFileSizesVistor(includeHidden);
+    Files.walkFileTree(dataDir, sizesVistor);
+
+    final Map<SupportedAlgorithm, Map<Path, String>> algorithmToChecksumsMap = new LinkedHashMap<>();
+    for(final SupportedAlgorithm algorithm : algorithms){
+      algorithmToChecksumsMap.put(algorithm, new ConcurrentHashMap<>());
+    }
+
+    final int parallelism = ordering.getConcurrencyWindow();
+    final Semaphore permits = new Semaphore(parallelism);
+    final AtomicReference<Exception> failure = new AtomicReference<>();
+    try{
+      for(final Path file : ordering.order(sizesVistor.getFileToSizeMap())){
+        permits.acquire();
+        if(failure.get() != null){
+          permits.release();
+          break;
+        }
+        submit(file, algorithmToChecksumsMap, readStrategy, permits, failure);
+      }
+      //wait for the files that are still being hashed
+      permits.acquire(parallelism);
+      permits.release(parallelism);
+    }
+    catch(InterruptedException e){
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(e.getMessage());
+    }
+    ordering.finished(System.nanoTime() - start);
+
+    rethrow(failure.get());
+
+    final List<Manifest> manifests = new ArrayList<>();
+    for(final Entry<SupportedAlgorithm, Map<Path, String>> entry : algorithmToChecksumsMap.entrySet()){
+      final Manifest manifest = new Manifest(entry.getKey());
+      manifest.getFileToChecksumMap().putAll(entry.getValue());
+      manifests.add(manifest);
+    }
+    return manifests;
+  }
+
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  private void submit(final Path file, final Map<SupportedAlgorithm, Map<Path, String>> algorithmToChecksumsMap,
+      final ReadStrategy readStrategy, final Semaphore permits, final AtomicReference<Exception> failure){
+    try{
+      executor.execute(() -> {
+        try{
+          hash(file, algorithmToChecksumsMap, readStrategy);
+        }
+        catch(IOException | NoSuchAlgorithmException | RuntimeException e){
+          failure.compareAndSet(null, e);
+        }
+        finally{
+          permits.release();
+        }
+      });
+    }
+    catch(RejectedExecutionException e){
+      permits.release();
+      throw e;
+    }
+  }
+
+  @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+  private static void hash(final Path file, final Map<SupportedAlgorithm, Map<Path, String>> algorithmToChecksumsMap,
+      final ReadStrategy readStrategy) throws IOException, NoSuchAlgorithmException{
+    final Map<SupportedAlgorithm, StreamingHasher> hashers = new LinkedHashMap<>();
+    for(final SupportedAlgorithm algorithm : algorithmToChecksumsMap.keySet()){
+      hashers.put(algorithm, StreamingHasherCache.get(algorithm));
+    }
+
+    Hasher.updateHashers(file, hashers.values(), readStrategy);
+
+    for(final Entry<SupportedAlgorithm, StreamingHasher> entry : hashers.entrySet()){
+      final String hash = Hasher.formatHash(entry.getValue().digest());
+      logger.debug(messages.getString("adding_checksum"), file, hash);
+      algorithmToChecksumsMap.get(entry.getKey()).put(file, hash);
+    }
+  }
+
+  private static void rethrow(final Exception failure) throws IOException, NoSuchAlgorithmException{
+    if(failure instanceof IOException){
+      throw (IOException) failure;
+    }
+    if(failure instanceof NoSuchAlgorithmException){
+      throw (NoSuchAlgorithmException) failure;
+    }
+    if(failure instanceof RuntimeException){
+      throw (RuntimeException) failure;
+    }
+  }
+}
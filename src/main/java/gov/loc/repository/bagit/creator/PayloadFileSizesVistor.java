@@ -0,0 +1,36 @@
+package gov.loc.repository.bagit.creator;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Walks the payload files like {@link CreatePayloadManifestsVistor}, but only records the size of each file 
+ * so that they can be hashed afterwards in a chosen order.
+ * Mainly used in {@link BagCreator}
+ */
+public class PayloadFileSizesVistor extends AbstractCreateManifestsVistor{
+  private transient final Map<Path, Long> fileToSizeMap = new HashMap<>();
+  
+  public PayloadFileSizesVistor(final boolean includeHiddenFiles){
+    super(Collections.emptyMap(), includeHiddenFiles, null);
+  }
+  
+  @Override
+  public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) throws IOException {
+    return abstractPreVisitDirectory(dir, ".bagit");
+  }
+  
+  @Override
+  protected void visitIncludedFile(final Path path, final BasicFileAttributes attrs) {
+    fileToSizeMap.put(path, attrs.size());
+  }
+
+  public Map<Path, Long> getFileToSizeMap() {
+    return fileToSizeMap;
+  }
+}
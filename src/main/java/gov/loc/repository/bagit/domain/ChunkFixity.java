@@ -0,0 +1,62 @@
+package gov.loc.repository.bagit.domain;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import gov.loc.repository.bagit.hash.SupportedAlgorithm;
+
+/**
+ * The checksums of fixed size chunks of large payload files, all computed with the same algorithm.
+ * This is extra information that helps to find which part of a file is damaged; 
+ * the checksums in the manifests are still what decides if a file is valid.
+ */
+public final class ChunkFixity {
+  private final SupportedAlgorithm algorithm;
+  private Map<Path, List<FileChunk>> fileToChunksMap = new HashMap<>();
+  
+  public ChunkFixity(final SupportedAlgorithm algorithm){
+    this.algorithm = algorithm;
+  }
+
+  public Map<Path, List<FileChunk>> getFileToChunksMap() {
+    return fileToChunksMap;
+  }
+
+  public void setFileToChunksMap(final Map<Path, List<FileChunk>> fileToChunksMap) {
+    this.fileToChunksMap = fileToChunksMap;
+  }
+
+  public SupportedAlgorithm getAlgorithm() {
+    return algorithm;
+  }
+
+  @Override
+  public String toString() {
+    return "ChunkFixity [algorithm=" + algorithm + ", fileToChunksMap=" + fileToChunksMap + "]";
+  }
+  
+  @Override
+  public int hashCode() {
+    return Objects.hash(algorithm) + fileToChunksMap.hashCode();
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj){
+      return true;
+    }
+    if (obj == null){
+      return false;
+    }
+    if (!(obj instanceof ChunkFixity)){
+      return false;
+    }
+    
+    final ChunkFixity other = (ChunkFixity) obj;
+    
+    return Objects.equals(algorithm, other.algorithm) && fileToChunksMap.equals(other.getFileToChunksMap()); 
+  }
+}
@@ -0,0 +1,62 @@
+package gov.loc.repository.bagit.domain;
+
+import java.util.Objects;
+
+/**
+ * A range of bytes in a file and the checksum of just those bytes
+ */
+public final class FileChunk {
+  private final long offset;
+  private final long length;
+  private final String checksum;
+  
+  /**
+   * @param offset the position in the file of the first byte of the chunk
+   * @param length the number of bytes in the chunk
+   * @param checksum the checksum of the bytes in the chunk
+   */
+  public FileChunk(final long offset, final long length, final String checksum){
+    this.offset = offset;
+    this.length = length;
+    this.checksum = checksum;
+  }
+
+  public long getOffset() {
+    return offset;
+  }
+
+  public long getLength() {
+    return length;
+  }
+
+  public String getChecksum() {
+    return checksum;
+  }
+
+  @Override
+  public String toString() {
+    return "FileChunk [offset=" + offset + ", length=" + length + ", checksum=" + checksum + "]";
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(offset, length, checksum);
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj){
+      return true;
+    }
+    if (obj == null){
+      return false;
+    }
+    if (!(obj instanceof FileChunk)){
+      return false;
+    }
+    
+    final FileChunk other = (FileChunk) obj;
+    
+    return offset == other.getOffset() && length == other.getLength() && Objects.equals(checksum, other.getChecksum());
+  }
+}
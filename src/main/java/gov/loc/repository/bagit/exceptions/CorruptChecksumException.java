@@ -9,8 +9,59 @@ import org.slf4j.helpers.MessageFormatter;
  */
 public class CorruptChecksumException extends Exception {
   private static final long serialVersionUID = 1L;
+  
+  private transient final Path path;
+  private final String algorithm;
+  private final String hash;
+  private final String computedHash;
 
   public CorruptChecksumException(final String message, final Path path, final String algorithm, final String hash, final String computedHash){
     super(MessageFormatter.arrayFormat(message, new Object[]{path, algorithm, hash, computedHash}).getMessage());
+    this.path = path;
+    this.algorithm = algorithm;
+    this.hash = hash;
+    this.computedHash = computedHash;
+  }
+  
+  /**
+   * Create an exception about the same file with more detail than the cause
+   * 
+   * @param formattedMessage the message to use instead of the message of the cause
+   * @param cause the exception with the details of the corrupt file
+   */
+  protected CorruptChecksumException(final String formattedMessage, final CorruptChecksumException cause){
+    super(formattedMessage, cause);
+    this.path = cause.getPath();
+    this.algorithm = cause.getAlgorithm();
+    this.hash = cause.getHash();
+    this.computedHash = cause.getComputedHash();
+  }
+
+  /**
+   * @return the file whose checksum didn't match
+   */
+  public Path getPath() {
+    return path;
+  }
+
+  /**
+   * @return the name of the algorithm that was used to compute the checksum
+   */
+  public String getAlgorithm() {
+    return algorithm;
+  }
+
+  /**
+   * @return the checksum listed in the manifest
+   */
+  public String getHash() {
+    return hash;
+  }
+
+  /**
+   * @return the checksum computed from the file
+   */
+  public String getComputedHash() {
+    return computedHash;
   }
 }
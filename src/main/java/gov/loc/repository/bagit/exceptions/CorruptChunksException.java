@@ -0,0 +1,43 @@
+package gov.loc.repository.bagit.exceptions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.helpers.MessageFormatter;
+
+import gov.loc.repository.bagit.domain.FileChunk;
+
+/**
+ * Class to represent a corrupt file whose damaged byte ranges were found using the chunk fixity of the bag.
+ */
+public class CorruptChunksException extends CorruptChecksumException {
+  private static final long serialVersionUID = 1L;
+  
+  private transient final List<FileChunk> corruptChunks;
+
+  public CorruptChunksException(final String message, final CorruptChecksumException cause, final List<FileChunk> corruptChunks){
+    super(MessageFormatter.arrayFormat(message, new Object[]{cause.getPath(), cause.getAlgorithm(), cause.getHash(), cause.getComputedHash(), 
+        formatRanges(corruptChunks)}).getMessage(), cause);
+    this.corruptChunks = Collections.unmodifiableList(new ArrayList<>(corruptChunks));
+  }
+  
+  private static String formatRanges(final List<FileChunk> chunks){
+    final StringBuilder sb = new StringBuilder();
+    for(final FileChunk chunk : chunks){
+      if(sb.length() > 0){
+        sb.append(", ");
+      }
+      sb.append(chunk.getOffset()).append('-').append(chunk.getOffset() + chunk.getLength() - 1);
+    }
+    
+    return sb.toString();
+  }
+
+  /**
+   * @return the chunks that don't match, each with the checksum that was computed for it
+   */
+  public List<FileChunk> getCorruptChunks() {
+    return corruptChunks;
+  }
+}
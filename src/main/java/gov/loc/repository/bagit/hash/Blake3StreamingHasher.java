@@ -0,0 +1,401 @@
+package gov.loc.repository.bagit.hash;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A pure Java {@link StreamingHasher} for the 256 bit BLAKE3 hash.
+ * BLAKE3 splits its input into 1 KB chunks that form a binary tree, so unlike SHA-2 a single file can be hashed by many threads.
+ * When an update contains enough whole chunks they are hashed in parallel using a {@link ForkJoinPool},
+ * which means one very large file is no longer limited to a single core.
+ */
+public class Blake3StreamingHasher implements StreamingHasher {
+  private static final int[] IV = {0x6A09E667, 0xBB67AE85, 0x3C6EF372, 0xA54FF53A, 0x510E527F, 0x9B05688C, 0x1F83D9AB, 0x5BE0CD19};
+  private static final int[] MESSAGE_PERMUTATION = {2, 6, 3, 10, 7, 0, 4, 13, 1, 11, 12, 5, 9, 14, 15, 8};
+  private static final int[][] SCHEDULE = createSchedule();
+  private static final int CHUNK_START = 1;
+  private static final int CHUNK_END = 2;
+  private static final int PARENT = 4;
+  private static final int ROOT = 8;
+  private static final int BLOCK_LENGTH = 64;
+  private static final int CHUNK_LENGTH = 1024;
+  private static final int BLOCKS_PER_CHUNK = CHUNK_LENGTH / BLOCK_LENGTH;
+  private static final int MAX_TREE_DEPTH = 54; //enough for 2^64 bytes
+  private static final int CHUNKS_PER_TASK = 64;
+  private static final long DEFAULT_PARALLEL_THRESHOLD = 1024L * 1024L;
+
+  private transient final ForkJoinPool pool;
+  private transient final long parallelThreshold;
+
+  //the state of the chunk currently being hashed
+  private transient final int[] chunkChainingValue = new int[8];
+  private transient final ByteBuffer blockBuffer = ByteBuffer.allocate(BLOCK_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+  private transient int blocksCompressed;
+  private transient long chunkCounter;
+
+  //the chaining values of the completed subtrees, merged lazily
+  private transient final int[][] chainingValueStack = new int[MAX_TREE_DEPTH][8];
+  private transient int chainingValueStackSize;
+
+  private transient final int[] blockWords = new int[16];
+  private transient final int[] compressed = new int[16];
+
+  /**
+   * Create a BLAKE3 hasher that uses the common {@link ForkJoinPool} for updates of 1 MB or more
+   */
+  public Blake3StreamingHasher(){
+    this(ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+  }
+
+  /**
+   * Create a BLAKE3 hasher that hashes large updates on a specific {@link ForkJoinPool}
+   *
+   * @param pool the {@link ForkJoinPool} used to hash chunks in parallel
+   * @param parallelThreshold the minimum number of bytes of whole chunks in one update before they are hashed in parallel
+   */
+  public Blake3StreamingHasher(final ForkJoinPool pool, final long parallelThreshold){
+    this.pool = pool;
+    this.parallelThreshold = parallelThreshold;
+    reset();
+  }
+
+  @Override
+  public void update(final ByteBuffer buffer) {
+    final ByteOrder originalOrder = buffer.order();
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+    while(buffer.hasRemaining()){
+      final int chunkLength = getChunkLength();
+      if(chunkLength == CHUNK_LENGTH){
+        //more input follows, so this chunk can't be the root
+        finishChunk();
+      }
+      else if(chunkLength == 0 && buffer.remaining() > parallelThreshold && buffer.remaining() > CHUNK_LENGTH){
+        hashSubtreesInParallel(buffer);
+      }
+      else{
+        updateChunk(buffer, Math.min(CHUNK_LENGTH - chunkLength, buffer.remaining()));
+      }
+    }
+
+    buffer.order(originalOrder);
+  }
+
+  @Override
+  public byte[] digest() {
+    mergeChainingValueStack(chunkCounter);
+    int flags = outputOfChunk();
+    long counter = chunkCounter;
+    int blockLength = blockBuffer.position();
+
+    //the output of the current chunk is only the root if it is the only one, otherwise merge it with each completed subtree
+    for(int index = chainingValueStackSize - 1; index >= 0; index--){
+      compress(compressed, counter, blockLength, flags);
+      System.arraycopy(compressed, 0, blockWords, 8, 8);
+      System.arraycopy(chainingValueStack[index], 0, blockWords, 0, 8);
+      System.arraycopy(IV, 0, compressed, 0, 8);
+      flags = PARENT;
+      counter = 0;
+      blockLength = BLOCK_LENGTH;
+    }
+
+    compress(compressed, 0, blockLength, flags | ROOT);
+    final byte[] hash = ByteBuffer.allocate(32).order(ByteOrder.LITTLE_ENDIAN)
+        .putInt(compressed[0]).putInt(compressed[1]).putInt(compressed[2]).putInt(compressed[3])
+        .putInt(compressed[4]).putInt(compressed[5]).putInt(compressed[6]).putInt(compressed[7]).array();
+    reset();
+
+    return hash;
+  }
+
+  @Override
+  public void reset() {
+    System.arraycopy(IV, 0, chunkChainingValue, 0, 8);
+    blockBuffer.clear();
+    blocksCompressed = 0;
+    chunkCounter = 0;
+    chainingValueStackSize = 0;
+  }
+
+  @Override
+  public String toString() {
+    return "Blake3StreamingHasher [parallelThreshold=" + parallelThreshold + ", parallelism=" + pool.getParallelism() + "]";
+  }
+
+  private int getChunkLength(){
+    return blocksCompressed * BLOCK_LENGTH + blockBuffer.position();
+  }
+
+  /*
+   * Add length bytes of the buffer to the current chunk.
+   * A full block is only compressed once more input for the chunk arrives since the last block needs the CHUNK_END flag.
+   */
+  private void updateChunk(final ByteBuffer buffer, final int length){
+    int remaining = length;
+    while(remaining > 0){
+      if(!blockBuffer.hasRemaining()){
+        blockBuffer.flip();
+        readWords(blockBuffer, blockWords);
+        blockBuffer.clear();
+        compressBlockOfChunk();
+      }
+      if(blockBuffer.position() == 0 && remaining > BLOCK_LENGTH){
+        readWords(buffer, blockWords);
+        compressBlockOfChunk();
+        remaining -= BLOCK_LENGTH;
+      }
+      else{
+        final int take = Math.min(blockBuffer.remaining(), remaining);
+        final int limit = buffer.limit();
+        buffer.limit(buffer.position() + take);
+        blockBuffer.put(buffer);
+        buffer.limit(limit);
+        remaining -= take;
+      }
+    }
+  }
+
+  private void compressBlockOfChunk(){
+    System.arraycopy(chunkChainingValue, 0, compressed, 0, 8);
+    compress(compressed, chunkCounter, BLOCK_LENGTH, blocksCompressed == 0 ? CHUNK_START : 0);
+    System.arraycopy(compressed, 0, chunkChainingValue, 0, 8);
+    blocksCompressed++;
+  }
+
+  /*
+   * Leaves the input chaining value and last block of the current chunk in compressed and blockWords, ready to be compressed
+   * using the returned flags
+   */
+  private int outputOfChunk(){
+    final int length = blockBuffer.position();
+    while(blockBuffer.hasRemaining()){
+      blockBuffer.put((byte) 0);
+    }
+    blockBuffer.flip();
+    readWords(blockBuffer, blockWords);
+    blockBuffer.clear();
+    blockBuffer.position(length);
+
+    System.arraycopy(chunkChainingValue, 0, compressed, 0, 8);
+    return CHUNK_END | (blocksCompressed == 0 ? CHUNK_START : 0);
+  }
+
+  private void finishChunk(){
+    final int flags = outputOfChunk();
+    compress(compressed, chunkCounter, blockBuffer.position(), flags);
+    //merging the stack reuses compressed, so keep the chaining value somewhere safe
+    System.arraycopy(compressed, 0, chunkChainingValue, 0, 8);
+    pushChainingValue(chunkChainingValue, chunkCounter);
+
+    chunkCounter++;
+    System.arraycopy(IV, 0, chunkChainingValue, 0, 8);
+    blockBuffer.clear();
+    blocksCompressed = 0;
+  }
+
+  /*
+   * Hash as many whole, aligned subtrees as possible in parallel, always leaving at least one byte for the current chunk
+   * so that none of the subtrees can be the root
+   */
+  @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+  private void hashSubtreesInParallel(final ByteBuffer buffer){
+    final List<SubtreeTask> subtrees = new ArrayList<>();
+    long counter = chunkCounter;
+    int position = buffer.position();
+    int remaining = buffer.remaining();
+
+    while(remaining > CHUNK_LENGTH){
+      long subtreeLength = Long.highestOneBit(remaining - 1L);
+      while(((counter * CHUNK_LENGTH) & (subtreeLength - 1)) != 0){
+        subtreeLength >>= 1;
+      }
+      final int chunks = (int) (subtreeLength / CHUNK_LENGTH);
+      subtrees.add(new SubtreeTask(buffer, position, counter, chunks));
+      counter += chunks;
+      position += subtreeLength;
+      remaining -= subtreeLength;
+    }
+
+    pool.invoke(new RecursiveAction(){
+      private static final long serialVersionUID = 1L;
+      @Override
+      protected void compute() {
+        ForkJoinTask.invokeAll(subtrees);
+      }
+    });
+
+    for(final SubtreeTask subtree : subtrees){
+      pushChainingValue(subtree.getRawResult(), subtree.counter);
+    }
+    chunkCounter = counter;
+    buffer.position(position);
+  }
+
+  private void pushChainingValue(final int[] chainingValue, final long counter){
+    mergeChainingValueStack(counter);
+    System.arraycopy(chainingValue, 0, chainingValueStack[chainingValueStackSize], 0, 8);
+    chainingValueStackSize++;
+  }
+
+  /*
+   * the number of completed subtrees is the number of 1 bits in the total number of chunks
+   */
+  private void mergeChainingValueStack(final long totalChunks){
+    while(chainingValueStackSize > Long.bitCount(totalChunks)){
+      final int[] right = chainingValueStack[chainingValueStackSize - 1];
+      final int[] left = chainingValueStack[chainingValueStackSize - 2];
+      parentChainingValue(left, right, blockWords, compressed);
+      System.arraycopy(compressed, 0, left, 0, 8);
+      chainingValueStackSize--;
+    }
+  }
+
+  private void compress(final int[] state, final long counter, final int blockLength, final int flags){
+    compress(state, blockWords, counter, blockLength, flags);
+  }
+
+  private static void parentChainingValue(final int[] left, final int[] right, final int[] words, final int[] state){
+    System.arraycopy(left, 0, words, 0, 8);
+    System.arraycopy(right, 0, words, 8, 8);
+    System.arraycopy(IV, 0, state, 0, 8);
+    compress(state, words, 0, BLOCK_LENGTH, PARENT);
+  }
+
+  private static void readWords(final ByteBuffer buffer, final int[] words){
+    for(int index = 0; index < 16; index++){
+      words[index] = buffer.getInt();
+    }
+  }
+
+  /*
+   * The BLAKE3 compression function. The chaining value is read from the first 8 words of state
+   * and the full 16 word output is written back to it. The state is kept in local variables so it can stay in registers.
+   */
+  @SuppressWarnings("PMD.OneDeclarationPerLine")
+  private static void compress(final int[] state, final int[] words, final long counter, final int blockLength, final int flags){
+    int v0 = state[0], v1 = state[1], v2 = state[2], v3 = state[3], v4 = state[4], v5 = state[5], v6 = state[6], v7 = state[7];
+    int v8 = IV[0], v9 = IV[1], v10 = IV[2], v11 = IV[3];
+    int v12 = (int) counter, v13 = (int) (counter >>> 32), v14 = blockLength, v15 = flags;
+
+    for(final int[] schedule : SCHEDULE){
+      v0 += v4 + words[schedule[0]]; v12 = Integer.rotateRight(v12 ^ v0, 16); v8 += v12; v4 = Integer.rotateRight(v4 ^ v8, 12);
+      v0 += v4 + words[schedule[1]]; v12 = Integer.rotateRight(v12 ^ v0, 8); v8 += v12; v4 = Integer.rotateRight(v4 ^ v8, 7);
+      v1 += v5 + words[schedule[2]]; v13 = Integer.rotateRight(v13 ^ v1, 16); v9 += v13; v5 = Integer.rotateRight(v5 ^ v9, 12);
+      v1 += v5 + words[schedule[3]]; v13 = Integer.rotateRight(v13 ^ v1, 8); v9 += v13; v5 = Integer.rotateRight(v5 ^ v9, 7);
+      v2 += v6 + words[schedule[4]]; v14 = Integer.rotateRight(v14 ^ v2, 16); v10 += v14; v6 = Integer.rotateRight(v6 ^ v10, 12);
+      v2 += v6 + words[schedule[5]]; v14 = Integer.rotateRight(v14 ^ v2, 8); v10 += v14; v6 = Integer.rotateRight(v6 ^ v10, 7);
+      v3 += v7 + words[schedule[6]]; v15 = Integer.rotateRight(v15 ^ v3, 16); v11 += v15; v7 = Integer.rotateRight(v7 ^ v11, 12);
+      v3 += v7 + words[schedule[7]]; v15 = Integer.rotateRight(v15 ^ v3, 8); v11 += v15; v7 = Integer.rotateRight(v7 ^ v11, 7);
+      v0 += v5 + words[schedule[8]]; v15 = Integer.rotateRight(v15 ^ v0, 16); v10 += v15; v5 = Integer.rotateRight(v5 ^ v10, 12);
+      v0 += v5 + words[schedule[9]]; v15 = Integer.rotateRight(v15 ^ v0, 8); v10 += v15; v5 = Integer.rotateRight(v5 ^ v10, 7);
+      v1 += v6 + words[schedule[10]]; v12 = Integer.rotateRight(v12 ^ v1, 16); v11 += v12; v6 = Integer.rotateRight(v6 ^ v11, 12);
+      v1 += v6 + words[schedule[11]]; v12 = Integer.rotateRight(v12 ^ v1, 8); v11 += v12; v6 = Integer.rotateRight(v6 ^ v11, 7);
+      v2 += v7 + words[schedule[12]]; v13 = Integer.rotateRight(v13 ^ v2, 16); v8 += v13; v7 = Integer.rotateRight(v7 ^ v8, 12);
+      v2 += v7 + words[schedule[13]]; v13 = Integer.rotateRight(v13 ^ v2, 8); v8 += v13; v7 = Integer.rotateRight(v7 ^ v8, 7);
+      v3 += v4 + words[schedule[14]]; v14 = Integer.rotateRight(v14 ^ v3, 16); v9 += v14; v4 = Integer.rotateRight(v4 ^ v9, 12);
+      v3 += v4 + words[schedule[15]]; v14 = Integer.rotateRight(v14 ^ v3, 8); v9 += v14; v4 = Integer.rotateRight(v4 ^ v9, 7);
+    }
+
+    state[8] = v8 ^ state[0];
+    state[9] = v9 ^ state[1];
+    state[10] = v10 ^ state[2];
+    state[11] = v11 ^ state[3];
+    state[12] = v12 ^ state[4];
+    state[13] = v13 ^ state[5];
+    state[14] = v14 ^ state[6];
+    state[15] = v15 ^ state[7];
+    state[0] = v0 ^ v8;
+    state[1] = v1 ^ v9;
+    state[2] = v2 ^ v10;
+    state[3] = v3 ^ v11;
+    state[4] = v4 ^ v12;
+    state[5] = v5 ^ v13;
+    state[6] = v6 ^ v14;
+    state[7] = v7 ^ v15;
+  }
+
+  /*
+   * instead of permuting the message words between rounds, look up which word to use in each round
+   */
+  private static int[][] createSchedule(){
+    final int[][] schedule = new int[7][16];
+    for(int index = 0; index < 16; index++){
+      schedule[0][index] = index;
+    }
+    for(int round = 1; round < 7; round++){
+      for(int index = 0; index < 16; index++){
+        schedule[round][index] = schedule[round - 1][MESSAGE_PERMUTATION[index]];
+      }
+    }
+
+    return schedule;
+  }
+
+  /*
+   * Computes the chaining value of a whole subtree of chunks, splitting it in half until it is small enough for one task
+   */
+  private static final class SubtreeTask extends RecursiveTask<int[]>{
+    private static final long serialVersionUID = 1L;
+    private transient final ByteBuffer buffer;
+    private transient final int offset;
+    private transient final long counter;
+    private transient final int chunks;
+
+    private SubtreeTask(final ByteBuffer buffer, final int offset, final long counter, final int chunks){
+      this.buffer = buffer;
+      this.offset = offset;
+      this.counter = counter;
+      this.chunks = chunks;
+    }
+
+    @Override
+    protected int[] compute() {
+      if(chunks <= CHUNKS_PER_TASK){
+        final ByteBuffer view = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        return hashSubtree(view, offset, counter, chunks, new int[16], new int[16]);
+      }
+
+      final int half = chunks / 2;
+      final SubtreeTask left = new SubtreeTask(buffer, offset, counter, half);
+      final SubtreeTask right = new SubtreeTask(buffer, offset + half * CHUNK_LENGTH, counter + half, half);
+      left.fork();
+      final int[] rightChainingValue = right.compute();
+      final int[] leftChainingValue = left.join();
+
+      final int[] state = new int[16];
+      parentChainingValue(leftChainingValue, rightChainingValue, new int[16], state);
+      return state;
+    }
+
+    private static int[] hashSubtree(final ByteBuffer view, final int offset, final long counter, final int chunks,
+        final int[] words, final int[] state){
+      if(chunks == 1){
+        return hashChunk(view, offset, counter, words, state);
+      }
+      final int half = chunks / 2;
+      final int[] left = hashSubtree(view, offset, counter, half, words, new int[16]);
+      final int[] right = hashSubtree(view, offset + half * CHUNK_LENGTH, counter + half, half, words, new int[16]);
+      parentChainingValue(left, right, words, state);
+
+      return state;
+    }
+
+    private static int[] hashChunk(final ByteBuffer view, final int offset, final long counter, final int[] words, final int[] state){
+      System.arraycopy(IV, 0, state, 0, 8);
+      view.position(offset);
+      for(int block = 0; block < BLOCKS_PER_CHUNK; block++){
+        readWords(view, words);
+        final int flags = (block == 0 ? CHUNK_START : 0) | (block == BLOCKS_PER_CHUNK - 1 ? CHUNK_END : 0);
+        compress(state, words, counter, BLOCK_LENGTH, flags);
+      }
+
+      return state;
+    }
+  }
+}
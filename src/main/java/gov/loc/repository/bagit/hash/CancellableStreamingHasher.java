@@ -0,0 +1,47 @@
+package gov.loc.repository.bagit.hash;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Wraps a {@link StreamingHasher} so that hashing can be stopped from another thread. 
+ * Once cancelled, the next update throws a {@link CancellationException}, 
+ * which makes every {@link ReadStrategy} stop reading the file partway through.
+ */
+public class CancellableStreamingHasher implements StreamingHasher {
+  private transient final StreamingHasher hasher;
+  private transient final AtomicBoolean cancelled;
+  
+  /**
+   * @param hasher the {@link StreamingHasher} that computes the hash
+   * @param cancelled set to true by another thread to stop hashing
+   */
+  public CancellableStreamingHasher(final StreamingHasher hasher, final AtomicBoolean cancelled){
+    this.hasher = hasher;
+    this.cancelled = cancelled;
+  }
+
+  @Override
+  public void update(final ByteBuffer buffer) {
+    if(cancelled.get()){
+      throw new CancellationException();
+    }
+    hasher.update(buffer);
+  }
+
+  @Override
+  public byte[] digest() {
+    return hasher.digest();
+  }
+
+  @Override
+  public void reset() {
+    hasher.reset();
+  }
+
+  @Override
+  public String toString() {
+    return "CancellableStreamingHasher [hasher=" + hasher + ", cancelled=" + cancelled.get() + "]";
+  }
+}
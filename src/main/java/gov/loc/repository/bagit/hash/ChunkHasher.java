@@ -0,0 +1,151 @@
+package gov.loc.repository.bagit.hash;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gov.loc.repository.bagit.domain.FileChunk;
+
+/**
+ * Computes the checksums of ranges of a single file, hashing each range on its own thread.
+ * All the ranges are read from one {@link FileChannel} using positional reads, so they don't get in each other's way.
+ */
+public final class ChunkHasher {
+  private static final Logger logger = LoggerFactory.getLogger(ChunkHasher.class);
+  private static final ResourceBundle messages = ResourceBundle.getBundle("MessageBundle");
+  private static final int BUFFER_SIZE = 1024 * 1024;
+  private static final ThreadLocal<ByteBuffer> BUFFERS = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE));
+
+  private ChunkHasher(){
+    //intentionally left empty
+  }
+
+  /**
+   * Split a file into chunks of the same size, except for the last one, and compute the checksum of each of them
+   *
+   * @param file the file to hash
+   * @param size the size of the file in bytes
+   * @param chunkSize the number of bytes in each chunk
+   * @param algorithm the algorithm used to compute the checksums
+   * @param executor runs one task per chunk
+   * @return the chunks in the order they appear in the file, an empty file has no chunks
+   *
+   * @throws IOException if there is a problem reading the file
+   * @throws NoSuchAlgorithmException if the algorithm is not available
+   * @throws InterruptedException if interrupted while waiting for the chunks to be hashed
+   */
+  @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+  public static List<FileChunk> hashChunks(final Path file, final long size, final long chunkSize, final SupportedAlgorithm algorithm, 
+      final ExecutorService executor) throws IOException, NoSuchAlgorithmException, InterruptedException{
+    if(chunkSize <= 0){
+      throw new IllegalArgumentException("chunkSize must be positive but was " + chunkSize);
+    }
+    
+    final List<FileChunk> ranges = new ArrayList<>();
+    for(long offset = 0; offset < size; offset += chunkSize){
+      ranges.add(new FileChunk(offset, Math.min(chunkSize, size - offset), null));
+    }
+    
+    return hashChunks(file, ranges, algorithm, executor);
+  }
+
+  /**
+   * Compute the checksum of each of the given ranges of a file. 
+   * A range that goes past the end of the file is hashed up to the end of the file.
+   *
+   * @param file the file to hash
+   * @param ranges the offset and length of each chunk to hash, any checksum they have is ignored
+   * @param algorithm the algorithm used to compute the checksums
+   * @param executor runs one task per chunk
+   * @return a chunk with the computed checksum for each of the ranges, in the same order
+   *
+   * @throws IOException if there is a problem reading the file
+   * @throws NoSuchAlgorithmException if the algorithm is not available
+   * @throws InterruptedException if interrupted while waiting for the chunks to be hashed
+   */
+  @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+  public static List<FileChunk> hashChunks(final Path file, final List<FileChunk> ranges, final SupportedAlgorithm algorithm, 
+      final ExecutorService executor) throws IOException, NoSuchAlgorithmException, InterruptedException{
+    logger.debug(messages.getString("hashing_chunks"), ranges.size(), file);
+    final List<FileChunk> chunks = new ArrayList<>(ranges.size());
+    
+    try(final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+      final List<Future<String>> futures = new ArrayList<>(ranges.size());
+      try{
+        for(final FileChunk range : ranges){
+          futures.add(executor.submit(() -> hashRange(channel, range.getOffset(), range.getLength(), algorithm)));
+        }
+        for(int index = 0; index < ranges.size(); index++){
+          final FileChunk range = ranges.get(index);
+          chunks.add(new FileChunk(range.getOffset(), range.getLength(), await(futures.get(index))));
+        }
+      }
+      finally{
+        //interrupting a task would close the channel that all of them share
+        for(final Future<String> future : futures){
+          future.cancel(false);
+        }
+      }
+    }
+    
+    return chunks;
+  }
+  
+  /*
+   * Hash one range with the hasher and buffer of the current thread
+   */
+  private static String hashRange(final FileChannel channel, final long offset, final long length, final SupportedAlgorithm algorithm) 
+      throws IOException, NoSuchAlgorithmException{
+    final StreamingHasher hasher = StreamingHasherCache.get(algorithm);
+    final ByteBuffer buffer = BUFFERS.get();
+    final long end = offset + length;
+    long position = offset;
+    
+    while(position < end){
+      buffer.clear();
+      if(end - position < buffer.capacity()){
+        buffer.limit((int) (end - position));
+      }
+      final int read = channel.read(buffer, position);
+      if(read == -1){
+        break;
+      }
+      position += read;
+      buffer.flip();
+      hasher.update(buffer);
+    }
+    
+    return Hasher.formatHash(hasher.digest());
+  }
+  
+  private static String await(final Future<String> future) throws IOException, NoSuchAlgorithmException, InterruptedException{
+    try{
+      return future.get();
+    }
+    catch(ExecutionException e){
+      final Throwable cause = e.getCause();
+      if(cause instanceof IOException){
+        throw (IOException) cause;
+      }
+      if(cause instanceof NoSuchAlgorithmException){
+        throw (NoSuchAlgorithmException) cause;
+      }
+      if(cause instanceof RuntimeException){
+        throw (RuntimeException) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+}
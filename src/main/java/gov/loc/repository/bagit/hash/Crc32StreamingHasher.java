@@ -0,0 +1,34 @@
+package gov.loc.repository.bagit.hash;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * A {@link StreamingHasher} for CRC-32 as defined by ISO 3309, using {@link CRC32}.
+ * The hash is the 4 byte checksum value, most significant byte first.
+ */
+public class Crc32StreamingHasher implements StreamingHasher {
+  private transient final CRC32 crc32 = new CRC32();
+
+  @Override
+  public void update(final ByteBuffer buffer) {
+    crc32.update(buffer);
+  }
+
+  @Override
+  public byte[] digest() {
+    final byte[] hash = toBytes((int) crc32.getValue());
+    crc32.reset();
+    
+    return hash;
+  }
+
+  @Override
+  public void reset() {
+    crc32.reset();
+  }
+  
+  static byte[] toBytes(final int value){
+    return new byte[]{(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value};
+  }
+}
@@ -0,0 +1,159 @@
+package gov.loc.repository.bagit.hash;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.Checksum;
+
+/**
+ * A {@link StreamingHasher} for CRC-32C (Castagnoli) as defined by RFC 3720.
+ * On Java 9 and later this uses the hardware accelerated java.util.zip.CRC32C, 
+ * on Java 8 it falls back to a pure Java slicing-by-8 implementation.
+ * The hash is the 4 byte checksum value, most significant byte first.
+ */
+public class Crc32cStreamingHasher implements StreamingHasher {
+  private static final int POLYNOMIAL = 0x82F63B78; //reversed Castagnoli polynomial
+  private static final int[][] TABLES = createTables();
+  private static final MethodHandle JDK_CONSTRUCTOR;
+  private static final MethodHandle JDK_UPDATE;
+  
+  static{
+    MethodHandle constructor = null;
+    MethodHandle update = null;
+    try{
+      final Class<?> jdkCrc32c = Class.forName("java.util.zip.CRC32C");
+      final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+      constructor = lookup.findConstructor(jdkCrc32c, MethodType.methodType(void.class)).asType(MethodType.methodType(Checksum.class));
+      update = lookup.findVirtual(Checksum.class, "update", MethodType.methodType(void.class, ByteBuffer.class));
+    }
+    catch(ClassNotFoundException | NoSuchMethodException | IllegalAccessException e){
+      //running on Java 8, use the pure Java implementation
+      constructor = null;
+      update = null;
+    }
+    JDK_CONSTRUCTOR = constructor;
+    JDK_UPDATE = update;
+  }
+  
+  private transient final Checksum jdkChecksum;
+  private transient int crc = 0xFFFFFFFF;
+  
+  /**
+   * Create a CRC-32C hasher, using the JDK implementation when it is available
+   */
+  public Crc32cStreamingHasher(){
+    this(JDK_CONSTRUCTOR != null);
+  }
+  
+  /*
+   * allows the pure Java implementation to be tested on any JDK
+   */
+  Crc32cStreamingHasher(final boolean useJdkImplementation){
+    jdkChecksum = useJdkImplementation ? newJdkChecksum() : null;
+  }
+
+  @Override
+  public void update(final ByteBuffer buffer) {
+    if(jdkChecksum == null){
+      updatePureJava(buffer);
+    }
+    else{
+      updateJdk(buffer);
+    }
+  }
+
+  @Override
+  public byte[] digest() {
+    final int value = jdkChecksum == null ? ~crc : (int) jdkChecksum.getValue();
+    reset();
+    
+    return Crc32StreamingHasher.toBytes(value);
+  }
+
+  @Override
+  public void reset() {
+    if(jdkChecksum == null){
+      crc = 0xFFFFFFFF;
+    }
+    else{
+      jdkChecksum.reset();
+    }
+  }
+  
+  @Override
+  public String toString() {
+    return "Crc32cStreamingHasher [implementation=" + (jdkChecksum == null ? "pure Java" : "JDK") + "]";
+  }
+  
+  @SuppressWarnings("PMD.AvoidCatchingThrowable")
+  private void updateJdk(final ByteBuffer buffer){
+    try{
+      JDK_UPDATE.invokeExact(jdkChecksum, buffer);
+    }
+    catch(RuntimeException | Error e){
+      throw e;
+    }
+    catch(Throwable e){
+      throw new IllegalStateException(e);
+    }
+  }
+  
+  /*
+   * slicing-by-8: process 8 bytes at a time using one table lookup per byte
+   */
+  private void updatePureJava(final ByteBuffer buffer){
+    final ByteOrder originalOrder = buffer.order();
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    final int[] t0 = TABLES[0], t1 = TABLES[1], t2 = TABLES[2], t3 = TABLES[3];
+    final int[] t4 = TABLES[4], t5 = TABLES[5], t6 = TABLES[6], t7 = TABLES[7];
+    int value = crc;
+    
+    while(buffer.remaining() >= 8){
+      final long word = buffer.getLong();
+      final int low = (int) word ^ value;
+      final int high = (int) (word >>> 32);
+      value = t7[low & 0xFF] ^ t6[(low >>> 8) & 0xFF] ^ t5[(low >>> 16) & 0xFF] ^ t4[low >>> 24] ^
+          t3[high & 0xFF] ^ t2[(high >>> 8) & 0xFF] ^ t1[(high >>> 16) & 0xFF] ^ t0[high >>> 24];
+    }
+    while(buffer.hasRemaining()){
+      value = (value >>> 8) ^ t0[(value ^ buffer.get()) & 0xFF];
+    }
+    
+    crc = value;
+    buffer.order(originalOrder);
+  }
+  
+  @SuppressWarnings("PMD.AvoidCatchingThrowable")
+  private static Checksum newJdkChecksum(){
+    try{
+      return (Checksum) JDK_CONSTRUCTOR.invokeExact();
+    }
+    catch(RuntimeException | Error e){
+      throw e;
+    }
+    catch(Throwable e){
+      throw new IllegalStateException(e);
+    }
+  }
+  
+  private static int[][] createTables(){
+    final int[][] tables = new int[8][256];
+    for(int index = 0; index < 256; index++){
+      int value = index;
+      for(int bit = 0; bit < 8; bit++){
+        value = (value & 1) == 0 ? value >>> 1 : (value >>> 1) ^ POLYNOMIAL;
+      }
+      tables[0][index] = value;
+    }
+    for(int index = 0; index < 256; index++){
+      for(int table = 1; table < 8; table++){
+        final int previous = tables[table - 1][index];
+        tables[table][index] = (previous >>> 8) ^ tables[0][previous & 0xFF];
+      }
+    }
+    
+    return tables;
+  }
+}
@@ -0,0 +1,150 @@
+package gov.loc.repository.bagit.hash;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Reads a file on the calling thread and computes the checksums on the threads of a separate executor,
+ * so that the threads doing I/O can be sized for the storage and the threads hashing can be sized for the CPU.<br>
+ * Two buffers are used per reading thread: one is read into while the other is hashed.
+ * Hashing a buffer never waits on anything, so the executor can be a small bounded pool shared by all the reading threads.
+ * Files that fit in a single buffer are hashed by the calling thread.
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
+public class DigestExecutorReadStrategy implements ReadStrategy {
+  private static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+  private transient final Executor digestExecutor;
+  private transient final int bufferSize;
+  private transient final FileChannelReadStrategy smallFileStrategy = new FileChannelReadStrategy();
+  private transient final ThreadLocal<ByteBuffer[]> buffers;
+
+  /**
+   * Create a DigestExecutorReadStrategy with two buffers of 1 MB for each reading thread
+   *
+   * @param digestExecutor runs the hashing of each buffer
+   */
+  public DigestExecutorReadStrategy(final Executor digestExecutor){
+    this(digestExecutor, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * @param digestExecutor runs the hashing of each buffer
+   * @param bufferSize the size in bytes of each of the two buffers of a reading thread
+   */
+  public DigestExecutorReadStrategy(final Executor digestExecutor, final int bufferSize){
+    if(bufferSize <= 0){
+      throw new IllegalArgumentException("bufferSize must be positive but was " + bufferSize);
+    }
+    this.digestExecutor = digestExecutor;
+    this.bufferSize = bufferSize;
+    this.buffers = ThreadLocal.withInitial(() -> new ByteBuffer[]{ByteBuffer.allocateDirect(bufferSize), ByteBuffer.allocateDirect(bufferSize)});
+  }
+
+  @Override
+  @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+  public ReadStrategy updateHashers(final Path path, final Collection<StreamingHasher> hashers) throws IOException {
+    try(final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+      final long size = channel.size();
+      if(size <= bufferSize){
+        smallFileStrategy.updateHashers(channel, size, hashers);
+        return smallFileStrategy;
+      }
+
+      final ByteBuffer[] pair = buffers.get();
+      FutureTask<Void> pending = null;
+      try{
+        int index = 0;
+        while(true){
+          final ByteBuffer buffer = pair[index];
+          buffer.clear();
+          fill(channel, buffer);
+          if(buffer.position() == 0){
+            break;
+          }
+          buffer.flip();
+
+          //the other buffer is free again once the previous one is hashed
+          await(pending);
+          final FutureTask<Void> digest = new FutureTask<>(() -> FileChannelReadStrategy.updateHashers(buffer, hashers), null);
+          digestExecutor.execute(digest);
+          pending = digest;
+          index = 1 - index;
+        }
+        await(pending);
+      }
+      finally{
+        finish(pending);
+      }
+    }
+
+    return this;
+  }
+  
+  /*
+   * When reading fails the buffers and hashers must not still be in use once this returns, since they are used for the next file
+   */
+  private static void finish(final FutureTask<Void> pending){
+    if(pending == null){
+      return;
+    }
+    
+    boolean interrupted = false;
+    while(!pending.isDone()){
+      try{
+        pending.get();
+      }
+      catch(InterruptedException e){
+        interrupted = true;
+      }
+      catch(ExecutionException e){
+        //already reported, or replaced by the exception that stopped the reading
+      }
+    }
+    if(interrupted){
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void fill(final FileChannel channel, final ByteBuffer buffer) throws IOException{
+    while(buffer.hasRemaining() && channel.read(buffer) >= 0){
+      //keep reading until the buffer is full or the end of the file
+    }
+  }
+
+  private static void await(final FutureTask<Void> pending) throws IOException{
+    if(pending == null){
+      return;
+    }
+
+    try{
+      pending.get();
+    }
+    catch(InterruptedException e){
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(e.getMessage());
+    }
+    catch(ExecutionException e){
+      if(e.getCause() instanceof RuntimeException){
+        throw (RuntimeException) e.getCause();
+      }
+      if(e.getCause() instanceof Error){
+        throw (Error) e.getCause();
+      }
+      throw new IOException(e.getCause());
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "DigestExecutorReadStrategy [bufferSize=" + bufferSize + "]";
+  }
+}
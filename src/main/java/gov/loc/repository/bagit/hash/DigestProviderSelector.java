@@ -0,0 +1,110 @@
+package gov.loc.repository.bagit.hash;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
+import java.security.Security;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.helpers.MessageFormatter;
+
+/**
+ * Finds the fastest installed security provider for each {@link MessageDigest} algorithm by timing all of them the first time the algorithm is used.
+ * Installing a provider backed by native code, such as one that calls the system libcrypto, 
+ * lets it be chosen automatically for the algorithms where it is faster than the providers that come with Java.
+ */
+public final class DigestProviderSelector {
+  private static final Logger logger = LoggerFactory.getLogger(DigestProviderSelector.class);
+  private static final ResourceBundle messages = ResourceBundle.getBundle("MessageBundle");
+  private static final int BENCHMARK_BUFFER_SIZE = 1024 * 1024;
+  private static final int WARMUP_ROUNDS = 4;
+  private static final int MEASURED_ROUNDS = 8;
+  private static final ConcurrentMap<String, Provider> FASTEST_PROVIDERS = new ConcurrentHashMap<>();
+
+  private DigestProviderSelector(){
+    //intentionally left empty
+  }
+
+  /**
+   * Get the provider that computes the algorithm the fastest, measuring every provider that supports it the first time it is requested
+   *
+   * @param messageDigestName the name of the algorithm as used by {@link MessageDigest#getInstance(String)}
+   * @return the fastest provider of the algorithm
+   * @throws NoSuchAlgorithmException if no provider supports the algorithm, or none of them could compute it when measured
+   */
+  public static Provider getFastestProvider(final String messageDigestName) throws NoSuchAlgorithmException{
+    Provider fastest = FASTEST_PROVIDERS.get(messageDigestName);
+    if(fastest == null){
+      fastest = selectFastestProvider(messageDigestName);
+      FASTEST_PROVIDERS.putIfAbsent(messageDigestName, fastest);
+    }
+    
+    return fastest;
+  }
+  
+  private static Provider selectFastestProvider(final String messageDigestName) throws NoSuchAlgorithmException{
+    final Provider[] providers = Security.getProviders("MessageDigest." + messageDigestName);
+    if(providers == null || providers.length == 0){
+      throw new NoSuchAlgorithmException(messageDigestName);
+    }
+    if(providers.length == 1){
+      logger.info(messages.getString("only_digest_provider"), providers[0].getName(), messageDigestName);
+      return providers[0];
+    }
+    
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(BENCHMARK_BUFFER_SIZE);
+    Provider fastest = null;
+    long fastestTime = Long.MAX_VALUE;
+    for(final Provider provider : providers){
+      try{
+        final long time = measure(MessageDigest.getInstance(messageDigestName, provider), buffer);
+        logger.debug(messages.getString("measured_digest_provider"), provider.getName(), messageDigestName, toMegabytesPerSecond(time));
+        if(time < fastestTime){
+          fastest = provider;
+          fastestTime = time;
+        }
+      }
+      catch(NoSuchAlgorithmException | RuntimeException e){
+        //a provider that fails is never chosen
+        logger.warn(messages.getString("failed_digest_provider"), provider.getName(), messageDigestName, e);
+      }
+    }
+    
+    if(fastest == null){
+      //thrown instead of remembered, so the providers are measured again the next time
+      throw new NoSuchAlgorithmException(MessageFormatter.format(messages.getString("no_working_digest_provider"), providers.length, messageDigestName).getMessage());
+    }
+    
+    logger.info(messages.getString("chose_digest_provider"), fastest.getName(), messageDigestName, toMegabytesPerSecond(fastestTime), providers.length);
+    return fastest;
+  }
+  
+  /*
+   * The warm up rounds give the JIT a chance to compile the provider before it is timed
+   */
+  static long measure(final MessageDigest messageDigest, final ByteBuffer buffer){
+    for(int round = 0; round < WARMUP_ROUNDS; round++){
+      buffer.clear();
+      messageDigest.update(buffer);
+    }
+    messageDigest.digest();
+    
+    final long start = System.nanoTime();
+    for(int round = 0; round < MEASURED_ROUNDS; round++){
+      buffer.clear();
+      messageDigest.update(buffer);
+    }
+    messageDigest.digest();
+    
+    return Math.max(1, System.nanoTime() - start);
+  }
+  
+  private static long toMegabytesPerSecond(final long nanoseconds){
+    return (long) MEASURED_ROUNDS * BENCHMARK_BUFFER_SIZE * 1000L / nanoseconds * 1000L / (1024 * 1024);
+  }
+}
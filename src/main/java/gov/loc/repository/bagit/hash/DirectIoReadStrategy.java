@@ -0,0 +1,190 @@
+package gov.loc.repository.bagit.hash;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.ResourceBundle;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads files with direct I/O (O_DIRECT) so that hashing them doesn't fill the operating system page cache.
+ * This keeps a full fixity sweep of a large repository from evicting the data other applications on the same host are using.<br>
+ * Direct I/O needs com.sun.nio.file.ExtendedOpenOption.DIRECT and ByteBuffer.alignedSlice, which are available from Java 10. 
+ * On older versions, or when the file system refuses direct I/O for a file, it is read using the {@link FileChannelReadStrategy} instead.
+ */
+public class DirectIoReadStrategy implements ReadStrategy {
+  private static final Logger logger = LoggerFactory.getLogger(DirectIoReadStrategy.class);
+  private static final ResourceBundle messages = ResourceBundle.getBundle("MessageBundle");
+  private static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+  //larger than the block size of any common file system, so buffers and positions are always aligned
+  private static final int ALIGNMENT = 64 * 1024;
+  private static final OpenOption DIRECT;
+  private static final MethodHandle ALIGNED_SLICE;
+  
+  static{
+    OpenOption direct = null;
+    MethodHandle alignedSlice = null;
+    try{
+      direct = findDirectOption();
+      alignedSlice = MethodHandles.publicLookup().findVirtual(ByteBuffer.class, "alignedSlice", MethodType.methodType(ByteBuffer.class, int.class));
+    }
+    catch(ClassNotFoundException | IllegalArgumentException | NoSuchMethodException | IllegalAccessException e){
+      //running on Java 9 or older, use the page cache
+      direct = null;
+      alignedSlice = null;
+    }
+    DIRECT = direct;
+    ALIGNED_SLICE = alignedSlice;
+  }
+
+  private transient final int bufferSize;
+  private transient final FileChannelReadStrategy fallbackStrategy = new FileChannelReadStrategy();
+  private transient final SmallFileReadStrategy smallFileStrategy = new DirectIoSmallFileReadStrategy();
+  private transient final ThreadLocal<ByteBuffer> buffers;
+
+  /**
+   * Create a DirectIoReadStrategy that reads 1 MB at a time
+   */
+  public DirectIoReadStrategy(){
+    this(DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Create a DirectIoReadStrategy with a custom buffer size
+   *
+   * @param bufferSize the number of bytes read at a time, a positive multiple of 64 KB
+   */
+  public DirectIoReadStrategy(final int bufferSize){
+    if(bufferSize <= 0 || bufferSize % ALIGNMENT != 0){
+      throw new IllegalArgumentException("bufferSize must be a positive multiple of " + ALIGNMENT + " but was " + bufferSize);
+    }
+    this.bufferSize = bufferSize;
+    this.buffers = ThreadLocal.withInitial(this::createBuffer);
+  }
+  
+  /**
+   * @return true if the running Java version can open files for direct I/O, 
+   * which the file system holding a file may still refuse
+   */
+  public static boolean isSupported(){
+    return DIRECT != null;
+  }
+
+  /**
+   * The {@link gov.loc.repository.bagit.verify.BagVerifier} reads small files whole in batches without going through its read strategy,
+   * so it reads them with this instead to keep them out of the page cache too.
+   *
+   * @return a {@link SmallFileReadStrategy} for files of up to 64 KB that reads them with direct I/O
+   */
+  @Override
+  public SmallFileReadStrategy getSmallFileStrategy() {
+    return smallFileStrategy;
+  }
+
+  @Override
+  public ReadStrategy updateHashers(final Path path, final Collection<StreamingHasher> hashers) throws IOException {
+    if(!isSupported()){
+      return fallbackStrategy.updateHashers(path, hashers);
+    }
+    
+    final FileChannel channel;
+    try{
+      channel = FileChannel.open(path, StandardOpenOption.READ, DIRECT);
+    }
+    catch(NoSuchFileException | AccessDeniedException e){
+      throw e;
+    }
+    catch(IOException | UnsupportedOperationException e){
+      logger.debug(messages.getString("direct_io_refused"), path, e.getMessage());
+      return fallbackStrategy.updateHashers(path, hashers);
+    }
+    
+    try(final FileChannel directChannel = channel){
+      readInto(path, directChannel, hashers);
+    }
+    
+    return this;
+  }
+  
+  /*
+   * Every read has to start at an aligned position, which only a short read at the end of the file breaks
+   */
+  private void readInto(final Path path, final FileChannel channel, final Collection<StreamingHasher> hashers) throws IOException{
+    final ByteBuffer buffer = buffers.get();
+    final long size = channel.size();
+    long position = 0;
+    
+    while(position < size){
+      buffer.clear();
+      final int read = channel.read(buffer);
+      if(read == -1){
+        return;
+      }
+      position += read;
+      buffer.flip();
+      FileChannelReadStrategy.updateHashers(buffer, hashers);
+      
+      if(read % ALIGNMENT != 0 && position < size){
+        readRemainder(path, position, hashers);
+        return;
+      }
+    }
+  }
+  
+  private void readRemainder(final Path path, final long position, final Collection<StreamingHasher> hashers) throws IOException{
+    try(final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+      channel.position(position);
+      fallbackStrategy.updateHashers(channel, channel.size() - position, hashers);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "DirectIoReadStrategy [bufferSize=" + bufferSize + ", supported=" + isSupported() + "]";
+  }
+
+  /*
+   * A small file fits in a single aligned read of the buffer, so it is still read in one call
+   */
+  private final class DirectIoSmallFileReadStrategy extends SmallFileReadStrategy {
+    @Override
+    public ReadStrategy updateHashers(final Path path, final Collection<StreamingHasher> hashers) throws IOException {
+      return DirectIoReadStrategy.this.updateHashers(path, hashers);
+    }
+  }
+
+  @SuppressWarnings("PMD.AvoidCatchingThrowable")
+  private ByteBuffer createBuffer(){
+    final ByteBuffer unaligned = ByteBuffer.allocateDirect(bufferSize + ALIGNMENT);
+    final ByteBuffer aligned;
+    try{
+      aligned = (ByteBuffer) ALIGNED_SLICE.invokeExact(unaligned, ALIGNMENT);
+    }
+    catch(RuntimeException | Error e){
+      throw e;
+    }
+    catch(Throwable e){
+      throw new IllegalStateException(e);
+    }
+    aligned.limit(bufferSize);
+    
+    return aligned.slice();
+  }
+  
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static OpenOption findDirectOption() throws ClassNotFoundException{
+    final Class<? extends Enum> extendedOpenOption = (Class<? extends Enum>) Class.forName("com.sun.nio.file.ExtendedOpenOption");
+    return (OpenOption) Enum.valueOf(extendedOpenOption, "DIRECT");
+  }
+}
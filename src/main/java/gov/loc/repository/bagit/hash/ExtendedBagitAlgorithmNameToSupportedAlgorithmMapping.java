@@ -0,0 +1,22 @@
+package gov.loc.repository.bagit.hash;
+
+import java.util.Locale;
+
+import gov.loc.repository.bagit.exceptions.UnsupportedAlgorithmException;
+
+/**
+ * Provides a mapping between bagit algorithm names and {@link SupportedAlgorithm} 
+ * that includes the {@link ExtendedSupportedAlgorithms} as well as the {@link StandardSupportedAlgorithms}
+ */
+public class ExtendedBagitAlgorithmNameToSupportedAlgorithmMapping extends StandardBagitAlgorithmNameToSupportedAlgorithmMapping {
+
+  @Override
+  public SupportedAlgorithm getSupportedAlgorithm(final String bagitAlgorithmName) throws UnsupportedAlgorithmException {
+    try{
+      return ExtendedSupportedAlgorithms.valueOf(bagitAlgorithmName.toUpperCase(Locale.getDefault()));
+    }
+    catch(IllegalArgumentException e){
+      return super.getSupportedAlgorithm(bagitAlgorithmName);
+    }
+  }
+}
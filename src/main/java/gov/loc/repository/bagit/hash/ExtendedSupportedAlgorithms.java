@@ -0,0 +1,54 @@
+package gov.loc.repository.bagit.hash;
+
+import java.security.MessageDigest;
+
+/**
+ * Fast checksum algorithms that are not available through {@link MessageDigest} and are not part of the bagit specification.
+ * CRC32, CRC32C and XXH64 detect accidental corruption, but unlike the {@link StandardSupportedAlgorithms} they offer no protection 
+ * against deliberate tampering, so only use them for bags that stay within your own systems, for instance while staging.
+ * BLAKE3 is a cryptographic hash that can use several cores for a single file, see {@link Blake3StreamingHasher}.<br>
+ * Use {@link ExtendedBagitAlgorithmNameToSupportedAlgorithmMapping} when reading bags that contain their manifests.
+ */
+public enum ExtendedSupportedAlgorithms implements SupportedAlgorithm{
+  CRC32("CRC32"){
+    @Override
+    public StreamingHasher createStreamingHasher() {
+      return new Crc32StreamingHasher();
+    }
+  },
+  CRC32C("CRC32C"){
+    @Override
+    public StreamingHasher createStreamingHasher() {
+      return new Crc32cStreamingHasher();
+    }
+  },
+  XXH64("XXH64"){
+    @Override
+    public StreamingHasher createStreamingHasher() {
+      return new XxHash64StreamingHasher();
+    }
+  },
+  BLAKE3("BLAKE3"){
+    @Override
+    public StreamingHasher createStreamingHasher() {
+      return new Blake3StreamingHasher();
+    }
+  };
+
+  private final String algorithmName;
+  
+  private ExtendedSupportedAlgorithms(final String algorithmName){
+    this.algorithmName = algorithmName;
+  }
+
+  @Override
+  public String getMessageDigestName() {
+    return algorithmName;
+  }
+
+  @SuppressWarnings({"PMD.UseLocaleWithCaseConversions"})
+  @Override
+  public String getBagitName() {
+    return name().toLowerCase();
+  }
+}
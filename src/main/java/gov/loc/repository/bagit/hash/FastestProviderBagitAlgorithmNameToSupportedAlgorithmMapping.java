@@ -0,0 +1,32 @@
+package gov.loc.repository.bagit.hash;
+
+import gov.loc.repository.bagit.exceptions.UnsupportedAlgorithmException;
+
+/**
+ * Provides the algorithms of another mapping, computing each one with the fastest installed security provider.
+ * See {@link FastestProviderSupportedAlgorithm}
+ */
+public class FastestProviderBagitAlgorithmNameToSupportedAlgorithmMapping implements BagitAlgorithmNameToSupportedAlgorithmMapping {
+  private transient final BagitAlgorithmNameToSupportedAlgorithmMapping mapping;
+  
+  /**
+   * Use the fastest provider for the {@link StandardSupportedAlgorithms}
+   */
+  public FastestProviderBagitAlgorithmNameToSupportedAlgorithmMapping(){
+    this(new StandardBagitAlgorithmNameToSupportedAlgorithmMapping());
+  }
+  
+  /**
+   * Use the fastest provider for the algorithms of another mapping
+   * 
+   * @param mapping the mapping whose algorithms are wrapped
+   */
+  public FastestProviderBagitAlgorithmNameToSupportedAlgorithmMapping(final BagitAlgorithmNameToSupportedAlgorithmMapping mapping){
+    this.mapping = mapping;
+  }
+
+  @Override
+  public SupportedAlgorithm getSupportedAlgorithm(final String bagitAlgorithmName) throws UnsupportedAlgorithmException {
+    return new FastestProviderSupportedAlgorithm(mapping.getSupportedAlgorithm(bagitAlgorithmName));
+  }
+}
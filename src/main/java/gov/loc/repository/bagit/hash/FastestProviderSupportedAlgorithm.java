@@ -0,0 +1,70 @@
+package gov.loc.repository.bagit.hash;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
+
+/**
+ * Wraps a {@link SupportedAlgorithm} so that its {@link MessageDigest} comes from the fastest installed provider,
+ * as chosen by {@link DigestProviderSelector}. 
+ * Algorithms that don't use a {@link MessageDigest} are left as they are, 
+ * and if the chosen provider can't be used the algorithm falls back to the default provider.
+ */
+public class FastestProviderSupportedAlgorithm implements SupportedAlgorithm {
+  private transient final SupportedAlgorithm algorithm;
+  
+  public FastestProviderSupportedAlgorithm(final SupportedAlgorithm algorithm){
+    this.algorithm = algorithm;
+  }
+
+  @Override
+  public String getMessageDigestName() {
+    return algorithm.getMessageDigestName();
+  }
+
+  @Override
+  public String getBagitName() {
+    return algorithm.getBagitName();
+  }
+
+  @Override
+  public StreamingHasher createStreamingHasher() throws NoSuchAlgorithmException {
+    final StreamingHasher hasher = algorithm.createStreamingHasher();
+    if(!(hasher instanceof MessageDigestStreamingHasher)){
+      return hasher;
+    }
+    
+    try{
+      return new MessageDigestStreamingHasher(MessageDigest.getInstance(getMessageDigestName(), DigestProviderSelector.getFastestProvider(getMessageDigestName())));
+    }
+    catch(NoSuchAlgorithmException e){
+      return hasher;
+    }
+  }
+  
+  public SupportedAlgorithm getAlgorithm() {
+    return algorithm;
+  }
+
+  @Override
+  public String toString() {
+    return "FastestProviderSupportedAlgorithm [algorithm=" + algorithm + "]";
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(algorithm);
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj){
+      return true;
+    }
+    if (!(obj instanceof FastestProviderSupportedAlgorithm)){
+      return false;
+    }
+    
+    return Objects.equals(algorithm, ((FastestProviderSupportedAlgorithm) obj).getAlgorithm());
+  }
+}
@@ -0,0 +1,112 @@
+package gov.loc.repository.bagit.hash;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+
+/**
+ * Reads a file using a {@link FileChannel} into a direct {@link ByteBuffer} that is reused by the calling thread,
+ * and feeds it straight into {@link StreamingHasher#update(ByteBuffer)}.
+ * By default the size of each read is chosen based on the size of the file.
+ */
+public class FileChannelReadStrategy implements ReadStrategy {
+  private static final int _64_KB = 1024 * 64;
+  private static final int _1_MB = 1024 * 1024;
+  private static final int _8_MB = _1_MB * 8;
+  private static final long _64_MB = _1_MB * 64L;
+  private static final ThreadLocal<ByteBuffer> BUFFERS = new ThreadLocal<>();
+
+  private transient final int chunkSize;
+
+  /**
+   * Create a FileChannelReadStrategy that chooses the read size based on the size of the file.
+   * Small files are read in 64 KB chunks, medium files in 1 MB chunks, and files over 64 MB in 8 MB chunks.
+   */
+  public FileChannelReadStrategy(){
+    this(0);
+  }
+
+  /**
+   * Create a FileChannelReadStrategy that always reads the specified number of bytes at a time
+   *
+   * @param chunkSize the number of bytes to read at a time, or 0 to choose based on the size of the file
+   */
+  public FileChannelReadStrategy(final int chunkSize){
+    if(chunkSize < 0){
+      throw new IllegalArgumentException("chunkSize must not be negative but was " + chunkSize);
+    }
+    this.chunkSize = chunkSize;
+  }
+
+  @Override
+  public ReadStrategy updateHashers(final Path path, final Collection<StreamingHasher> hashers) throws IOException {
+    try(final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+      updateHashers(channel, channel.size(), hashers);
+    }
+    
+    return this;
+  }
+  
+  /*
+   * Read from an already opened channel so other strategies can delegate to this one
+   */
+  void updateHashers(final FileChannel channel, final long fileSize, final Collection<StreamingHasher> hashers) throws IOException {
+    final int size = getChunkSize(fileSize);
+    final ByteBuffer buffer = getBuffer(size);
+
+    while(channel.read(buffer) != -1){
+      buffer.flip();
+      updateHashers(buffer, hashers);
+      buffer.clear();
+      buffer.limit(size);
+    }
+  }
+
+  /*
+   * Each hasher consumes the buffer, so rewind it before handing it to the next one
+   */
+  static void updateHashers(final ByteBuffer buffer, final Collection<StreamingHasher> hashers){
+    final int start = buffer.position();
+    for(final StreamingHasher hasher : hashers){
+      buffer.position(start);
+      hasher.update(buffer);
+    }
+  }
+
+  int getChunkSize(final long fileSize){
+    if(chunkSize > 0){
+      return chunkSize;
+    }
+    if(fileSize <= _64_KB){
+      return _64_KB;
+    }
+    if(fileSize <= _64_MB){
+      return _1_MB;
+    }
+
+    return _8_MB;
+  }
+
+  @Override
+  public String toString() {
+    return "FileChannelReadStrategy [chunkSize=" + (chunkSize == 0 ? "adaptive" : chunkSize) + "]";
+  }
+
+  /*
+   * Reuse the direct buffer of this thread, only allocating a new one when a larger one is needed
+   */
+  private static ByteBuffer getBuffer(final int size){
+    ByteBuffer buffer = BUFFERS.get();
+    if(buffer == null || buffer.capacity() < size){
+      buffer = ByteBuffer.allocateDirect(size);
+      BUFFERS.set(buffer);
+    }
+    buffer.clear();
+    buffer.limit(size);
+
+    return buffer;
+  }
+}
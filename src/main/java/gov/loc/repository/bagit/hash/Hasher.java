@@ -1,17 +1,15 @@
 package gov.loc.repository.bagit.hash;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Formatter;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.Map.Entry;
@@ -26,8 +24,8 @@ import gov.loc.repository.bagit.domain.Manifest;
  */
 public final class Hasher {
   private static final Logger logger = LoggerFactory.getLogger(Hasher.class);
-  private static final int _64_KB = 1024 * 64;
-  private static final int CHUNK_SIZE = _64_KB;
+  private static final ReadStrategy DEFAULT_READ_STRATEGY = new FileChannelReadStrategy();
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
   private static final ResourceBundle messages = ResourceBundle.getBundle("MessageBundle");
   
   private Hasher(){
@@ -43,9 +41,23 @@ public final class Hasher {
    * @throws IOException if there is a problem reading the file
    */
   public static String hash(final Path path, final MessageDigest messageDigest) throws IOException {
-    updateMessageDigests(path, Arrays.asList(messageDigest));
+    return hash(path, messageDigest, DEFAULT_READ_STRATEGY);
+  }
+  
+  /**
+   * Create a HEX formatted string checksum hash of the file
+   * 
+   * @param path the {@link Path} (file) to hash
+   * @param messageDigest the {@link MessageDigest} object representing the hashing algorithm
+   * @param readStrategy the {@link ReadStrategy} used to read the file
+   * @return the hash as a hex formated string
+   * @throws IOException if there is a problem reading the file
+   */
+  public static String hash(final Path path, final MessageDigest messageDigest, final ReadStrategy readStrategy) throws IOException {
+    final StreamingHasher hasher = new MessageDigestStreamingHasher(messageDigest);
+    updateHashers(path, Collections.singletonList(hasher), readStrategy);
     
-    return formatMessageDigest(messageDigest);
+    return formatHash(hasher.digest());
   }
   
   /**
@@ -56,41 +68,133 @@ public final class Hasher {
    * @throws IOException if there is a problem reading the file
    */
   public static void hash(final Path path, final Map<Manifest, MessageDigest> manifestToMessageDigestMap) throws IOException {
-    updateMessageDigests(path, manifestToMessageDigestMap.values());
-    addMessageDigestHashToManifest(path, manifestToMessageDigestMap);
+    hash(path, toManifestToHasherMap(manifestToMessageDigestMap), DEFAULT_READ_STRATEGY);
+  }
+  
+  /**
+   * Update the Manifests with the file's hash
+   * 
+   * @param path the {@link Path} (file) to hash
+   * @param manifestToHasherMap the map between {@link Manifest} and {@link StreamingHasher}
+   * @param readStrategy the {@link ReadStrategy} used to read the file
+   * @throws IOException if there is a problem reading the file
+   */
+  public static void hash(final Path path, final Map<Manifest, StreamingHasher> manifestToHasherMap, final ReadStrategy readStrategy) throws IOException {
+    updateHashers(path, manifestToHasherMap.values(), readStrategy);
+    addHashToManifest(path, manifestToHasherMap);
+  }
+  
+  /**
+   * Create a HEX formatted string checksum hash of the file for each of the supplied {@link MessageDigest}.
+   * The file is only read once no matter how many {@link MessageDigest} are supplied.
+   * 
+   * @param path the {@link Path} (file) to hash
+   * @param messageDigests the {@link MessageDigest} objects representing the hashing algorithms
+   * @return the mapping between each supplied {@link MessageDigest} and its hash as a hex formated string
+   * @throws IOException if there is a problem reading the file
+   */
+  public static Map<MessageDigest, String> hash(final Path path, final Collection<MessageDigest> messageDigests) throws IOException {
+    return hash(path, messageDigests, DEFAULT_READ_STRATEGY);
+  }
+  
+  /**
+   * Create a HEX formatted string checksum hash of the file for each of the supplied {@link MessageDigest}.
+   * The file is only read once no matter how many {@link MessageDigest} are supplied.
+   * 
+   * @param path the {@link Path} (file) to hash
+   * @param messageDigests the {@link MessageDigest} objects representing the hashing algorithms
+   * @param readStrategy the {@link ReadStrategy} used to read the file
+   * @return the mapping between each supplied {@link MessageDigest} and its hash as a hex formated string
+   * @throws IOException if there is a problem reading the file
+   */
+  @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+  public static Map<MessageDigest, String> hash(final Path path, final Collection<MessageDigest> messageDigests, final ReadStrategy readStrategy) throws IOException {
+    final Map<MessageDigest, StreamingHasher> messageDigestToHasherMap = new LinkedHashMap<>();
+    for(final MessageDigest messageDigest : messageDigests){
+      messageDigestToHasherMap.put(messageDigest, new MessageDigestStreamingHasher(messageDigest));
+    }
+    updateHashers(path, messageDigestToHasherMap.values(), readStrategy);
+    
+    final Map<MessageDigest, String> messageDigestToHashMap = new HashMap<>();
+    for(final Entry<MessageDigest, StreamingHasher> entry : messageDigestToHasherMap.entrySet()){
+      messageDigestToHashMap.put(entry.getKey(), formatHash(entry.getValue().digest()));
+    }
+    
+    return messageDigestToHashMap;
   }
   
   static void updateMessageDigests(final Path path, final Collection<MessageDigest> messageDigests) throws IOException{
-    try(final InputStream is = new BufferedInputStream(Files.newInputStream(path, StandardOpenOption.READ))){
-      final byte[] buffer = new byte[CHUNK_SIZE];
-      int read = is.read(buffer);
-      
-      while(read != -1) {
-        for(final MessageDigest messageDigest : messageDigests){
-          messageDigest.update(buffer, 0, read);
-        }
-        read = is.read(buffer);
-      }
+    final List<StreamingHasher> hashers = new ArrayList<>(messageDigests.size());
+    for(final MessageDigest messageDigest : messageDigests){
+      hashers.add(new MessageDigestStreamingHasher(messageDigest));
     }
+    updateHashers(path, hashers, DEFAULT_READ_STRATEGY);
   }
   
-  private static void addMessageDigestHashToManifest(final Path path, final Map<Manifest, MessageDigest> manifestToMessageDigestMap){
-    for(final Entry<Manifest, MessageDigest> entry : manifestToMessageDigestMap.entrySet()){
-      final String hash = formatMessageDigest(entry.getValue());
+  /**
+   * Update each {@link StreamingHasher} with the content of the file, only reading it once.
+   * The strategy used to read the file and how long it took is logged so that strategies can be compared.
+   * 
+   * @param path the {@link Path} (file) to hash
+   * @param hashers the {@link StreamingHasher} objects representing the hashing algorithms
+   * @param readStrategy the {@link ReadStrategy} used to read the file
+   * @throws IOException if there is a problem reading the file
+   */
+  public static void updateHashers(final Path path, final Collection<StreamingHasher> hashers, final ReadStrategy readStrategy) throws IOException{
+    final long start = System.nanoTime();
+    final ReadStrategy strategyUsed = readStrategy.updateHashers(path, hashers);
+    
+    if(logger.isDebugEnabled()){
+      final long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+      logger.debug(messages.getString("read_file_using_strategy"), path, elapsedMillis, strategyUsed);
+    }
+  }
+  
+  private static void addHashToManifest(final Path path, final Map<Manifest, StreamingHasher> manifestToHasherMap){
+    for(final Entry<Manifest, StreamingHasher> entry : manifestToHasherMap.entrySet()){
+      final String hash = formatHash(entry.getValue().digest());
       logger.debug(messages.getString("adding_checksum"), path, hash);
       entry.getKey().getFileToChecksumMap().put(path, hash);
     }
   }
   
-  //Convert the byte to hex format
-  private static String formatMessageDigest(final MessageDigest messageDigest){
-    try(final Formatter formatter = new Formatter()){
-      for (final byte b : messageDigest.digest()) {
-        formatter.format("%02x", b);
+  /**
+   * Convert the computed hash to a lower case HEX formatted string
+   * 
+   * @param hash the bytes computed by the hashing algorithm
+   * @return the hash as a hex formated string
+   */
+  public static String formatHash(final byte[] hash){
+    final char[] hex = new char[hash.length * 2];
+    for(int index = 0; index < hash.length; index++){
+      hex[index * 2] = HEX_DIGITS[(hash[index] >> 4) & 0xF];
+      hex[index * 2 + 1] = HEX_DIGITS[hash[index] & 0xF];
+    }
+    
+    return new String(hex);
+  }
+  
+  /**
+   * Compare the computed hash with a HEX formatted string checksum hash 
+   * without having to format the computed hash first
+   * 
+   * @param hash the bytes computed by the hashing algorithm
+   * @param expectedHash the lower case hex formated hash, for instance from a manifest
+   * @return true if they represent the same hash
+   */
+  public static boolean isSameHash(final byte[] hash, final String expectedHash){
+    if(expectedHash == null || expectedHash.length() != hash.length * 2){
+      return false;
+    }
+    
+    for(int index = 0; index < hash.length; index++){
+      if(expectedHash.charAt(index * 2) != HEX_DIGITS[(hash[index] >> 4) & 0xF] || 
+          expectedHash.charAt(index * 2 + 1) != HEX_DIGITS[hash[index] & 0xF]){
+        return false;
       }
-      
-      return formatter.toString();
     }
+    
+    return true;
   }
   
   /**
@@ -112,4 +216,39 @@ public final class Hasher {
     
     return map;
   }
+  
+  /**
+   * create a mapping between {@link Manifest} and {@link StreamingHasher} for each each supplied {@link SupportedAlgorithm} 
+   * 
+   * @param algorithms the {@link SupportedAlgorithm} that you which to map to {@link StreamingHasher} 
+   * @return mapping between {@link Manifest} and {@link StreamingHasher}
+   * @throws NoSuchAlgorithmException if an algorithm is not available
+   */
+  @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+  public static Map<Manifest, StreamingHasher> createManifestToHasherMap(final Collection<SupportedAlgorithm> algorithms) throws NoSuchAlgorithmException{
+    final Map<Manifest, StreamingHasher> map = new HashMap<>();
+
+    for(final SupportedAlgorithm algorithm : algorithms){
+      map.put(new Manifest(algorithm), algorithm.createStreamingHasher());
+    }
+    
+    return map;
+  }
+  
+  /**
+   * Wrap each {@link MessageDigest} of the mapping in a {@link StreamingHasher}, keeping the same {@link Manifest}
+   * 
+   * @param manifestToMessageDigestMap the map between {@link Manifest} and {@link MessageDigest}
+   * @return mapping between the same {@link Manifest} and {@link StreamingHasher}
+   */
+  @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+  public static Map<Manifest, StreamingHasher> toManifestToHasherMap(final Map<Manifest, MessageDigest> manifestToMessageDigestMap){
+    final Map<Manifest, StreamingHasher> map = new HashMap<>();
+    
+    for(final Entry<Manifest, MessageDigest> entry : manifestToMessageDigestMap.entrySet()){
+      map.put(entry.getKey(), new MessageDigestStreamingHasher(entry.getValue()));
+    }
+    
+    return map;
+  }
 }
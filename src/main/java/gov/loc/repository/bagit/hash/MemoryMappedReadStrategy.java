@@ -0,0 +1,148 @@
+package gov.loc.repository.bagit.hash;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.ResourceBundle;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads large files by memory mapping them, letting the operating system handle the read ahead.
+ * Files are mapped one window at a time so that files larger than 2 GB can be read.
+ * Files smaller than the threshold are read using the {@link FileChannelReadStrategy} instead,
+ * since the cost of setting up the mapping outweighs the benefit for them.<br>
+ * Each window is unmapped as soon as it has been hashed, so only one window per thread is mapped at a time.
+ * Java has no public way to unmap a buffer, so this uses the JDK's cleaner through reflection,
+ * and on a JVM where that isn't possible the windows stay mapped until they are garbage collected,
+ * which can add up to a lot of address space and open mappings when many large files are read quickly.
+ */
+public class MemoryMappedReadStrategy implements ReadStrategy {
+  private static final Logger logger = LoggerFactory.getLogger(MemoryMappedReadStrategy.class);
+  private static final ResourceBundle messages = ResourceBundle.getBundle("MessageBundle");
+  private static final long _1_MB = 1024L * 1024L;
+  private static final long DEFAULT_THRESHOLD = 256 * _1_MB;
+  private static final long DEFAULT_WINDOW_SIZE = 256 * _1_MB;
+
+  private transient final long threshold;
+  private transient final long windowSize;
+  private static final Unmapper UNMAPPER = createUnmapper();
+
+  private transient final FileChannelReadStrategy smallFileStrategy = new FileChannelReadStrategy();
+
+  /**
+   * Create a MemoryMappedReadStrategy that maps files of 256 MB or more, 256 MB at a time
+   */
+  public MemoryMappedReadStrategy(){
+    this(DEFAULT_THRESHOLD, DEFAULT_WINDOW_SIZE);
+  }
+
+  /**
+   * Create a MemoryMappedReadStrategy with a custom threshold and window size
+   *
+   * @param threshold the minimum file size in bytes for a file to be memory mapped
+   * @param windowSize the number of bytes of the file to map at a time, at most {@link Integer#MAX_VALUE}
+   */
+  public MemoryMappedReadStrategy(final long threshold, final long windowSize){
+    if(windowSize <= 0 || windowSize > Integer.MAX_VALUE){
+      throw new IllegalArgumentException("windowSize must be between 1 and " + Integer.MAX_VALUE + " but was " + windowSize);
+    }
+    this.threshold = threshold;
+    this.windowSize = windowSize;
+  }
+
+  @Override
+  public ReadStrategy updateHashers(final Path path, final Collection<StreamingHasher> hashers) throws IOException {
+    try(final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+      final long size = channel.size();
+      if(size < threshold){
+        smallFileStrategy.updateHashers(channel, size, hashers);
+        return smallFileStrategy;
+      }
+
+      long position = 0;
+      while(position < size){
+        final long length = Math.min(windowSize, size - position);
+        final MappedByteBuffer window = channel.map(MapMode.READ_ONLY, position, length);
+        try{
+          FileChannelReadStrategy.updateHashers(window, hashers);
+        }
+        finally{
+          unmap(path, window);
+        }
+        position += length;
+      }
+    }
+
+    return this;
+  }
+
+  static boolean canUnmap(){
+    return UNMAPPER != null;
+  }
+
+  /*
+   * The window must not be used afterwards, since reading an unmapped buffer crashes the JVM
+   */
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  private static void unmap(final Path path, final MappedByteBuffer window){
+    if(UNMAPPER == null){
+      return;
+    }
+    try{
+      UNMAPPER.unmap(window);
+    }
+    catch(ReflectiveOperationException | RuntimeException e){
+      logger.debug(messages.getString("unable_to_unmap_window"), path, e);
+    }
+  }
+
+  /*
+   * Unsafe.invokeCleaner on Java 9 and later, or the buffer's sun.misc.Cleaner on Java 8, or null if neither can be used
+   */
+  private static Unmapper createUnmapper(){
+    try{
+      final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      final Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+      final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+      theUnsafe.setAccessible(true);
+      final Object unsafe = theUnsafe.get(null);
+      return buffer -> invokeCleaner.invoke(unsafe, buffer);
+    }
+    catch(ReflectiveOperationException | SecurityException e){
+      //not Java 9 or later, so try the way Java 8 does it
+    }
+
+    try{
+      final Method cleanerMethod = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+      final Method cleanMethod = Class.forName("sun.misc.Cleaner").getMethod("clean");
+      return buffer -> {
+        final Object cleaner = cleanerMethod.invoke(buffer);
+        if(cleaner != null){
+          cleanMethod.invoke(cleaner);
+        }
+      };
+    }
+    catch(ReflectiveOperationException | SecurityException e){
+      logger.debug(messages.getString("unmapping_not_available"), e);
+      return null;
+    }
+  }
+
+  private interface Unmapper {
+    void unmap(ByteBuffer buffer) throws ReflectiveOperationException;
+  }
+
+  @Override
+  public String toString() {
+    return "MemoryMappedReadStrategy [threshold=" + threshold + ", windowSize=" + windowSize + "]";
+  }
+}
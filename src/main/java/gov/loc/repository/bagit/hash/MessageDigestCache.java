@@ -0,0 +1,63 @@
+package gov.loc.repository.bagit.hash;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps one {@link MessageDigest} per algorithm for each thread so that they can be reused from file to file
+ * instead of looking up the provider with {@link MessageDigest#getInstance(String)} every time.
+ * A returned {@link MessageDigest} must only be used by the thread that requested it,
+ * and only until that thread requests the same algorithm again.
+ */
+public final class MessageDigestCache {
+  private static final ConcurrentMap<String, MessageDigest> PROTOTYPES = new ConcurrentHashMap<>();
+  private static final ThreadLocal<Map<String, MessageDigest>> DIGESTS = ThreadLocal.withInitial(HashMap::new);
+
+  private MessageDigestCache(){
+    //intentionally left empty
+  }
+
+  /**
+   * Get the reset {@link MessageDigest} for the algorithm belonging to the current thread
+   *
+   * @param algorithm the name of the algorithm as used by {@link MessageDigest#getInstance(String)}
+   * @return a reset {@link MessageDigest} for the algorithm
+   * @throws NoSuchAlgorithmException if {@link MessageDigest} doesn't support the algorithm
+   */
+  public static MessageDigest get(final String algorithm) throws NoSuchAlgorithmException{
+    final Map<String, MessageDigest> digests = DIGESTS.get();
+    MessageDigest messageDigest = digests.get(algorithm);
+
+    if(messageDigest == null){
+      messageDigest = newMessageDigest(algorithm);
+      digests.put(algorithm, messageDigest);
+    }
+    else{
+      messageDigest.reset();
+    }
+
+    return messageDigest;
+  }
+
+  /*
+   * cloning is much cheaper than searching through all the security providers again
+   */
+  static MessageDigest newMessageDigest(final String algorithm) throws NoSuchAlgorithmException{
+    MessageDigest prototype = PROTOTYPES.get(algorithm);
+    if(prototype == null){
+      prototype = MessageDigest.getInstance(algorithm);
+      PROTOTYPES.putIfAbsent(algorithm, prototype);
+    }
+
+    try{
+      return (MessageDigest) prototype.clone();
+    }
+    catch(CloneNotSupportedException e){
+      return MessageDigest.getInstance(algorithm);
+    }
+  }
+}
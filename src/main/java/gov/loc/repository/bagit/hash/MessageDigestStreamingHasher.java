@@ -0,0 +1,40 @@
+package gov.loc.repository.bagit.hash;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+
+/**
+ * A {@link StreamingHasher} backed by a {@link MessageDigest}. 
+ * This is what {@link SupportedAlgorithm#createStreamingHasher()} uses by default.
+ */
+public class MessageDigestStreamingHasher implements StreamingHasher {
+  private transient final MessageDigest messageDigest;
+  
+  public MessageDigestStreamingHasher(final MessageDigest messageDigest){
+    this.messageDigest = messageDigest;
+  }
+
+  public MessageDigest getMessageDigest() {
+    return messageDigest;
+  }
+
+  @Override
+  public void update(final ByteBuffer buffer) {
+    messageDigest.update(buffer);
+  }
+
+  @Override
+  public byte[] digest() {
+    return messageDigest.digest();
+  }
+
+  @Override
+  public void reset() {
+    messageDigest.reset();
+  }
+
+  @Override
+  public String toString() {
+    return "MessageDigestStreamingHasher [messageDigest=" + messageDigest.getAlgorithm() + "]";
+  }
+}
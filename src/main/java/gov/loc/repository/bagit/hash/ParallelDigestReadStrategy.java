@@ -0,0 +1,275 @@
+package gov.loc.repository.bagit.hash;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Reads a file once into a ring of buffers while every {@link StreamingHasher} consumes those same buffers on its own thread.
+ * This means computing several checksums of a file costs about as much as computing the slowest one,
+ * instead of the sum of all of them.<br>
+ * The calling thread does the reading, and a buffer is only reused once every hasher is done with it.
+ * Files smaller than the threshold, or hashed with a single algorithm, are read using the {@link FileChannelReadStrategy} instead.
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
+public class ParallelDigestReadStrategy implements ReadStrategy {
+  private static final int END_OF_FILE = -1;
+  private static final int DEFAULT_BUFFER_COUNT = 8;
+  private static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+  private static final long DEFAULT_THRESHOLD = 1024L * 1024L;
+  private static final ExecutorService DEFAULT_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+    final Thread thread = new Thread(runnable, "bagit-digest");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private transient final ExecutorService executor;
+  private transient final int bufferCount;
+  private transient final int bufferSize;
+  private transient final long threshold;
+  private transient final FileChannelReadStrategy smallFileStrategy = new FileChannelReadStrategy();
+  private transient final ThreadLocal<ByteBuffer[]> rings;
+
+  /**
+   * Create a ParallelDigestReadStrategy that uses a ring of 8 buffers of 1 MB for files of 1 MB or more,
+   * running the hashers on daemon threads that are shared by all instances
+   */
+  public ParallelDigestReadStrategy(){
+    this(DEFAULT_EXECUTOR, DEFAULT_BUFFER_COUNT, DEFAULT_BUFFER_SIZE, DEFAULT_THRESHOLD);
+  }
+
+  /**
+   * Create a ParallelDigestReadStrategy with a custom executor, ring and threshold.
+   * The executor needs a thread for each hasher of each file being read at the same time,
+   * so it should not be a bounded pool that is also used to run the reads.
+   *
+   * @param executor runs one task per hasher for each file
+   * @param bufferCount the number of buffers in the ring, at least 2 so that reading and hashing can overlap
+   * @param bufferSize the size of each buffer in bytes
+   * @param threshold the minimum file size in bytes for the hashers to run in parallel
+   */
+  public ParallelDigestReadStrategy(final ExecutorService executor, final int bufferCount, final int bufferSize, final long threshold){
+    if(bufferCount < 2){
+      throw new IllegalArgumentException("bufferCount must be at least 2 but was " + bufferCount);
+    }
+    if(bufferSize <= 0){
+      throw new IllegalArgumentException("bufferSize must be positive but was " + bufferSize);
+    }
+    this.executor = executor;
+    this.bufferCount = bufferCount;
+    this.bufferSize = bufferSize;
+    this.threshold = threshold;
+    this.rings = ThreadLocal.withInitial(this::createRing);
+  }
+
+  @Override
+  public ReadStrategy updateHashers(final Path path, final Collection<StreamingHasher> hashers) throws IOException {
+    try(final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+      final long size = channel.size();
+      if(hashers.size() < 2 || size < threshold){
+        smallFileStrategy.updateHashers(channel, size, hashers);
+        return smallFileStrategy;
+      }
+
+      new Ring(rings.get(), hashers).readInto(channel);
+    }
+
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return "ParallelDigestReadStrategy [bufferCount=" + bufferCount + ", bufferSize=" + bufferSize + ", threshold=" + threshold + "]";
+  }
+
+  private ByteBuffer[] createRing(){
+    final ByteBuffer[] ring = new ByteBuffer[bufferCount];
+    for(int index = 0; index < bufferCount; index++){
+      ring[index] = ByteBuffer.allocateDirect(bufferSize);
+    }
+    return ring;
+  }
+
+  /*
+   * The state shared between the reading thread and the hashing threads while a single file is hashed.
+   * Buffers are passed around by their index in the ring: the reader takes a free one, fills it and gives it to every consumer.
+   * The last consumer to finish with a buffer returns it to the free queue.
+   */
+  private final class Ring {
+    private final ByteBuffer[] buffers;
+    private final int[] lengths;
+    private final AtomicIntegerArray consumersLeft;
+    private final BlockingQueue<Integer> free;
+    private final List<Consumer> consumers = new ArrayList<>();
+    private volatile boolean hasherFailed;
+
+    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+    private Ring(final ByteBuffer[] buffers, final Collection<StreamingHasher> hashers){
+      this.buffers = buffers;
+      lengths = new int[buffers.length];
+      consumersLeft = new AtomicIntegerArray(buffers.length);
+      free = new ArrayBlockingQueue<>(buffers.length);
+      for(int index = 0; index < buffers.length; index++){
+        free.add(index);
+      }
+      for(final StreamingHasher hasher : hashers){
+        consumers.add(new Consumer(hasher));
+      }
+    }
+
+    private void readInto(final FileChannel channel) throws IOException{
+      final List<Future<?>> futures = new ArrayList<>(consumers.size());
+      IOException readException = null;
+      try{
+        for(final Consumer consumer : consumers){
+          futures.add(executor.submit(consumer));
+        }
+        fill(channel);
+      }
+      catch(IOException e){
+        readException = e;
+      }
+      finally{
+        for(final Consumer consumer : consumers){
+          consumer.queue.add(END_OF_FILE);
+        }
+      }
+
+      final RuntimeException hashException = waitFor(futures);
+      if(readException != null){
+        throw readException;
+      }
+      if(hashException != null){
+        throw hashException;
+      }
+    }
+
+    private void fill(final FileChannel channel) throws IOException{
+      try{
+        //once a hasher fails the result is an exception anyway, so don't read the rest of the file
+        while(!hasherFailed){
+          final int index = free.take();
+          final ByteBuffer buffer = buffers[index];
+          buffer.clear();
+          if(channel.read(buffer) == -1){
+            free.add(index);
+            return;
+          }
+          lengths[index] = buffer.position();
+          consumersLeft.set(index, consumers.size());
+          for(final Consumer consumer : consumers){
+            consumer.queue.add(index);
+          }
+        }
+      }
+      catch(InterruptedException e){
+        Thread.currentThread().interrupt();
+        throw (IOException) new InterruptedIOException().initCause(e);
+      }
+    }
+
+    /*
+     * always wait for every consumer so that none of them is still using the ring when the next file starts
+     */
+    private RuntimeException waitFor(final List<Future<?>> futures) throws InterruptedIOException{
+      RuntimeException hashException = null;
+      boolean interrupted = false;
+      for(final Future<?> future : futures){
+        while(true){
+          try{
+            future.get();
+            break;
+          }
+          catch(InterruptedException e){
+            interrupted = true;
+          }
+          catch(ExecutionException e){
+            if(hashException == null){
+              hashException = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new IllegalStateException(e.getCause());
+            }
+            break;
+          }
+        }
+      }
+      if(interrupted){
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException();
+      }
+      return hashException;
+    }
+
+    private final class Consumer implements Runnable{
+      private final StreamingHasher hasher;
+      private final BlockingQueue<Integer> queue = new ArrayBlockingQueue<>(buffers.length + 1);
+      private final ByteBuffer[] views = new ByteBuffer[buffers.length];
+
+      private Consumer(final StreamingHasher hasher){
+        this.hasher = hasher;
+        for(int index = 0; index < buffers.length; index++){
+          views[index] = buffers[index].duplicate();
+        }
+      }
+
+      @Override
+      public void run() {
+        RuntimeException exception = null;
+        int index = takeUninterruptibly();
+        while(index != END_OF_FILE){
+          if(exception == null){
+            try{
+              final ByteBuffer view = views[index];
+              view.limit(lengths[index]).position(0);
+              hasher.update(view);
+            }
+            catch(RuntimeException e){
+              //keep releasing buffers so the reader doesn't wait forever
+              exception = e;
+              hasherFailed = true;
+            }
+          }
+          if(consumersLeft.decrementAndGet(index) == 0){
+            free.add(index);
+          }
+          index = takeUninterruptibly();
+        }
+
+        if(exception != null){
+          throw exception;
+        }
+      }
+
+      /*
+       * the reader always sends END_OF_FILE, so keep waiting for it even if interrupted
+       */
+      private int takeUninterruptibly(){
+        boolean interrupted = false;
+        Integer index = null;
+        while(index == null){
+          try{
+            index = queue.take();
+          }
+          catch(InterruptedException e){
+            interrupted = true;
+          }
+        }
+        if(interrupted){
+          Thread.currentThread().interrupt();
+        }
+        return index;
+      }
+    }
+  }
+}
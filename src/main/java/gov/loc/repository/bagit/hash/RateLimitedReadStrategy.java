@@ -0,0 +1,189 @@
+package gov.loc.repository.bagit.hash;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Wraps another {@link ReadStrategy} so that files are read no faster than a {@link ReadRateLimiter} allows,
+ * for example to check bags on shared storage without taking the bandwidth other services need.
+ * Share one strategy, or one limiter, between the {@link gov.loc.repository.bagit.verify.BagVerifier} and
+ * {@link gov.loc.repository.bagit.creator.BagCreator} so that all the threads reading count against the same rate.<br>
+ * A file store can have its own limiter, set by its {@link FileStore#name()}, which takes the place of the default for the files on it.
+ * The file store is looked up once for each directory. The bytes are counted as they are hashed, so the reads are slowed down
+ * by the hashing waiting on the limiter, whichever strategy does the reading.<br>
+ * Strategies that read ahead of the hashing, like {@link ReadAheadReadStrategy} and {@link ParallelDigestReadStrategy},
+ * have their buffers read before the bytes in them are counted, and the operating system may read ahead of the pages
+ * of a {@link MemoryMappedReadStrategy} window. The average rate still stays at the limit, but the device can see bursts
+ * of up to the buffers or read ahead of each thread, so use {@link FileChannelReadStrategy} when the limit must be kept closely.
+ */
+public class RateLimitedReadStrategy implements ReadStrategy {
+  private static final Logger logger = LoggerFactory.getLogger(RateLimitedReadStrategy.class);
+  private static final ResourceBundle messages = ResourceBundle.getBundle("MessageBundle");
+
+  private transient final ReadStrategy readStrategy;
+  private transient final ReadRateLimiter defaultLimiter;
+  private transient final Map<String, ReadRateLimiter> storeNameToLimiterMap = new ConcurrentHashMap<>();
+  private transient final Map<Path, ReadRateLimiter> directoryToLimiterMap = new ConcurrentHashMap<>();
+  private transient final SmallFileReadStrategy smallFileStrategy;
+
+  /**
+   * @param readStrategy reads the files
+   * @param defaultLimiter limits the files on file stores that don't have a limiter of their own
+   */
+  public RateLimitedReadStrategy(final ReadStrategy readStrategy, final ReadRateLimiter defaultLimiter){
+    this.readStrategy = readStrategy;
+    this.defaultLimiter = defaultLimiter;
+    this.smallFileStrategy = new RateLimitedSmallFileReadStrategy(readStrategy.getSmallFileStrategy());
+  }
+
+  /**
+   * Limit the files on a file store with their own limiter instead of the default one
+   *
+   * @param storeName the {@link FileStore#name()} of the file store, like <i>server:/export</i>
+   * @param limiter limits the files on the file store
+   */
+  public void setStoreLimiter(final String storeName, final ReadRateLimiter limiter){
+    storeNameToLimiterMap.put(storeName, limiter);
+    directoryToLimiterMap.clear();
+  }
+
+  @Override
+  public ReadStrategy updateHashers(final Path path, final Collection<StreamingHasher> hashers) throws IOException {
+    return readStrategy.updateHashers(path, limit(path, hashers));
+  }
+
+  /**
+   * The {@link gov.loc.repository.bagit.verify.BagVerifier} reads small files whole in batches without going through its read strategy,
+   * so it reads them with this instead to count them against the same limiters.
+   *
+   * @return the small file strategy of the wrapped strategy, limited the same way as this strategy
+   */
+  @Override
+  public SmallFileReadStrategy getSmallFileStrategy() {
+    return smallFileStrategy;
+  }
+
+  /*
+   * Only one of the hashers counts the bytes, since every hasher is given the same bytes
+   */
+  private Collection<StreamingHasher> limit(final Path path, final Collection<StreamingHasher> hashers){
+    if(hashers.isEmpty()){
+      return hashers;
+    }
+
+    final List<StreamingHasher> limitedHashers = new ArrayList<>(hashers.size());
+    final Iterator<StreamingHasher> iterator = hashers.iterator();
+    limitedHashers.add(new RateLimitedStreamingHasher(iterator.next(), getLimiter(path)));
+    while(iterator.hasNext()){
+      limitedHashers.add(iterator.next());
+    }
+    return limitedHashers;
+  }
+
+  ReadRateLimiter getLimiter(final Path path){
+    if(storeNameToLimiterMap.isEmpty()){
+      return defaultLimiter;
+    }
+    final Path directory = path.toAbsolutePath().getParent();
+    if(directory == null){
+      return defaultLimiter;
+    }
+    return directoryToLimiterMap.computeIfAbsent(directory, this::lookupLimiter);
+  }
+
+  private ReadRateLimiter lookupLimiter(final Path directory){
+    try{
+      final FileStore store = Files.getFileStore(directory);
+      final ReadRateLimiter limiter = storeNameToLimiterMap.get(store.name());
+      if(limiter != null){
+        logger.debug(messages.getString("rate_limiting_file_store"), directory, store.name(), limiter.getMegabytesPerSecond());
+        return limiter;
+      }
+    }
+    catch(IOException e){
+      logger.debug(messages.getString("rate_limit_file_store_lookup_error"), directory, e);
+    }
+    return defaultLimiter;
+  }
+
+  @Override
+  public String toString() {
+    return "RateLimitedReadStrategy [readStrategy=" + readStrategy + ", defaultLimiter=" + defaultLimiter
+        + ", storeNameToLimiterMap=" + storeNameToLimiterMap + "]";
+  }
+
+  /*
+   * Reads small files with the small file strategy of the wrapped strategy, like with direct I/O, 
+   * counting them against the limiters of the enclosing strategy
+   */
+  private final class RateLimitedSmallFileReadStrategy extends SmallFileReadStrategy {
+    private final SmallFileReadStrategy wrapped;
+
+    private RateLimitedSmallFileReadStrategy(final SmallFileReadStrategy wrapped){
+      super();
+      this.wrapped = wrapped;
+    }
+
+    @Override
+    public ReadStrategy updateHashers(final Path path, final Collection<StreamingHasher> hashers) throws IOException {
+      return wrapped.updateHashers(path, limit(path, hashers));
+    }
+
+    @Override
+    public boolean isSmall(final long size){
+      return wrapped.isSmall(size);
+    }
+  }
+
+  /*
+   * Waits on the limiter before each buffer is hashed
+   */
+  private static final class RateLimitedStreamingHasher implements StreamingHasher {
+    private final StreamingHasher hasher;
+    private final ReadRateLimiter limiter;
+
+    private RateLimitedStreamingHasher(final StreamingHasher hasher, final ReadRateLimiter limiter){
+      this.hasher = hasher;
+      this.limiter = limiter;
+    }
+
+    @Override
+    public void update(final ByteBuffer buffer) {
+      try{
+        limiter.acquire(buffer.remaining());
+      }
+      catch(InterruptedIOException e){
+        //stops the read strategy the same way as a cancelled check
+        final CancellationException exception = new CancellationException(e.getMessage());
+        exception.initCause(e);
+        throw exception;
+      }
+      hasher.update(buffer);
+    }
+
+    @Override
+    public byte[] digest() {
+      return hasher.digest();
+    }
+
+    @Override
+    public void reset() {
+      hasher.reset();
+    }
+  }
+}
@@ -0,0 +1,188 @@
+package gov.loc.repository.bagit.hash;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Reads a file using an {@link AsynchronousFileChannel}, keeping several reads in flight
+ * so that the next part of the file is being read while the current part is being hashed.
+ * This helps most on spinning disks and network mounts, where waiting on each read leaves the disk idle while hashing.
+ * Files smaller than the threshold are read using the {@link FileChannelReadStrategy} instead.
+ */
+public class ReadAheadReadStrategy implements ReadStrategy {
+  private static final int DEFAULT_DEPTH = 3;
+  private static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+  private transient final int depth;
+  private transient final int bufferSize;
+  private transient final long threshold;
+  private transient final FileChannelReadStrategy smallFileStrategy = new FileChannelReadStrategy();
+  private transient final ThreadLocal<ByteBuffer[]> rings;
+
+  /**
+   * Create a ReadAheadReadStrategy that keeps 3 reads of 1 MB in flight for files larger than 1 MB
+   */
+  public ReadAheadReadStrategy(){
+    this(DEFAULT_DEPTH, DEFAULT_BUFFER_SIZE, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Create a ReadAheadReadStrategy with a custom number of buffers, buffer size and threshold
+   *
+   * @param depth the number of buffers, which is how many reads can be in flight, at least 2
+   * @param bufferSize the number of bytes read at a time
+   * @param threshold the minimum file size in bytes for reads to be done ahead
+   */
+  public ReadAheadReadStrategy(final int depth, final int bufferSize, final long threshold){
+    if(depth < 2){
+      throw new IllegalArgumentException("depth must be at least 2 but was " + depth);
+    }
+    if(bufferSize <= 0){
+      throw new IllegalArgumentException("bufferSize must be positive but was " + bufferSize);
+    }
+    this.depth = depth;
+    this.bufferSize = bufferSize;
+    this.threshold = threshold;
+    this.rings = ThreadLocal.withInitial(this::createRing);
+  }
+
+  @Override
+  public ReadStrategy updateHashers(final Path path, final Collection<StreamingHasher> hashers) throws IOException {
+    if(Files.size(path) < threshold){
+      return smallFileStrategy.updateHashers(path, hashers);
+    }
+
+    try(final AsynchronousFileChannel channel = AsynchronousFileChannel.open(path, StandardOpenOption.READ)){
+      new Pipeline(channel, rings.get()).readInto(hashers);
+    }
+
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return "ReadAheadReadStrategy [depth=" + depth + ", bufferSize=" + bufferSize + ", threshold=" + threshold + "]";
+  }
+
+  private ByteBuffer[] createRing(){
+    final ByteBuffer[] ring = new ByteBuffer[depth];
+    for(int index = 0; index < depth; index++){
+      ring[index] = ByteBuffer.allocateDirect(bufferSize);
+    }
+    return ring;
+  }
+
+  /*
+   * Each buffer in the ring is given a read as soon as it has been hashed,
+   * and the buffers are hashed in the same order as their reads were issued.
+   */
+  private static final class Pipeline {
+    private final AsynchronousFileChannel channel;
+    private final ByteBuffer[] buffers;
+    private final long[] positions;
+    private final Future<?>[] reads;
+    private final long size;
+    private long nextPosition;
+
+    private Pipeline(final AsynchronousFileChannel channel, final ByteBuffer[] buffers) throws IOException{
+      this.channel = channel;
+      this.buffers = buffers;
+      positions = new long[buffers.length];
+      reads = new Future<?>[buffers.length];
+      size = channel.size();
+    }
+
+    private void readInto(final Collection<StreamingHasher> hashers) throws IOException{
+      try{
+        for(int index = 0; index < buffers.length; index++){
+          issueRead(index);
+        }
+
+        int current = 0;
+        while(reads[current] != null){
+          final ByteBuffer buffer = buffers[current];
+          completeRead(current);
+          buffer.flip();
+          FileChannelReadStrategy.updateHashers(buffer, hashers);
+          issueRead(current);
+          current = (current + 1) % buffers.length;
+        }
+      }
+      finally{
+        //the buffers are reused for the next file, so make sure nothing is still being read into them
+        waitForOutstandingReads();
+      }
+    }
+
+    private void issueRead(final int index){
+      reads[index] = null;
+      if(nextPosition < size){
+        final ByteBuffer buffer = buffers[index];
+        buffer.clear();
+        if(size - nextPosition < buffer.capacity()){
+          buffer.limit((int) (size - nextPosition));
+        }
+        positions[index] = nextPosition;
+        nextPosition += buffer.remaining();
+        reads[index] = channel.read(buffer, positions[index]);
+      }
+    }
+
+    /*
+     * A read may return fewer bytes than requested, so finish filling the buffer before it is hashed
+     */
+    private void completeRead(final int index) throws IOException{
+      final ByteBuffer buffer = buffers[index];
+      int read = await(reads[index]);
+      while(read != -1 && buffer.hasRemaining()){
+        read = await(channel.read(buffer, positions[index] + buffer.position()));
+      }
+      reads[index] = null;
+    }
+
+    private static int await(final Future<?> read) throws IOException{
+      try{
+        return (Integer) read.get();
+      }
+      catch(InterruptedException e){
+        Thread.currentThread().interrupt();
+        throw (IOException) new InterruptedIOException().initCause(e);
+      }
+      catch(ExecutionException e){
+        if(e.getCause() instanceof IOException){
+          throw (IOException) e.getCause();
+        }
+        throw new IOException(e.getCause());
+      }
+    }
+
+    private void waitForOutstandingReads(){
+      boolean interrupted = Thread.interrupted();
+      for(final Future<?> read : reads){
+        while(read != null && !read.isDone()){
+          try{
+            read.get();
+          }
+          catch(InterruptedException e){
+            interrupted = true;
+          }
+          catch(ExecutionException e){
+            //already failing, the read only needs to have stopped
+            break;
+          }
+        }
+      }
+      if(interrupted){
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package gov.loc.repository.bagit.hash;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps how fast files are read, shared by every thread reading through a {@link RateLimitedReadStrategy}.<br>
+ * This is a token bucket: each byte read takes a token, tokens are added at the rate in MB/s,
+ * and up to one second of tokens can build up while nothing is being read so that short bursts aren't slowed down.
+ * A thread that takes more tokens than there are goes ahead, and the threads after it wait until the bucket has refilled,
+ * so the average rate over any second stays at the limit. A large read takes its tokens at most a second's worth at a time,
+ * so it can't reserve minutes ahead and hold up the other threads, and a change of rate applies to the rest of it. The rate can be changed at any time, like during business hours.
+ */
+public final class ReadRateLimiter {
+  private static final long BYTES_PER_MEGABYTE = 1024L * 1024;
+  private static final long DEFAULT_BURST_NANOSECONDS = TimeUnit.SECONDS.toNanos(1);
+  public static final double UNLIMITED = Double.POSITIVE_INFINITY;
+
+  private transient final long burstNanoseconds;
+  private transient final LongAdder bytesAcquired = new LongAdder();
+  private volatile double megabytesPerSecond;
+  private volatile double nanosecondsPerByte;
+  private long nextFreeNanoseconds = System.nanoTime();
+
+  /**
+   * @param megabytesPerSecond the most MB read per second, or {@link #UNLIMITED}
+   */
+  public ReadRateLimiter(final double megabytesPerSecond){
+    this(megabytesPerSecond, DEFAULT_BURST_NANOSECONDS);
+  }
+
+  ReadRateLimiter(final double megabytesPerSecond, final long burstNanoseconds){
+    this.burstNanoseconds = burstNanoseconds;
+    setMegabytesPerSecond(megabytesPerSecond);
+  }
+
+  /**
+   * Wait until the bytes can be read without going over the rate
+   *
+   * @param bytes the number of bytes about to be read
+   * @throws InterruptedIOException if the thread is interrupted while waiting
+   */
+  public void acquire(final long bytes) throws InterruptedIOException{
+    long remainingBytes = bytes;
+    while(remainingBytes > 0){
+      final long slice = Math.min(remainingBytes, bytesPerSecond());
+      bytesAcquired.add(slice);
+      waitUntil(reserve(slice), bytes);
+      remainingBytes -= slice;
+    }
+  }
+
+  private static void waitUntil(final long waitUntil, final long bytes) throws InterruptedIOException{
+    long remaining = waitUntil - System.nanoTime();
+    try{
+      while(remaining > 0){
+        TimeUnit.NANOSECONDS.sleep(remaining);
+        remaining = waitUntil - System.nanoTime();
+      }
+    }
+    catch(InterruptedException e){
+      Thread.currentThread().interrupt();
+      final InterruptedIOException exception = new InterruptedIOException("Interrupted while waiting to read " + bytes + " bytes");
+      exception.initCause(e);
+      throw exception;
+    }
+  }
+
+  private long bytesPerSecond(){
+    //a cast from infinity is the largest long
+    return Math.max(1, (long) (megabytesPerSecond * BYTES_PER_MEGABYTE));
+  }
+
+  /*
+   * Take the tokens and return when they are all there, tokens not used while idle are kept for at most the burst
+   */
+  private synchronized long reserve(final long bytes){
+    final long now = System.nanoTime();
+    if(nextFreeNanoseconds - now < -burstNanoseconds){
+      nextFreeNanoseconds = now - burstNanoseconds;
+    }
+    final long waitUntil = nextFreeNanoseconds;
+    nextFreeNanoseconds += (long) (bytes * nanosecondsPerByte);
+    return waitUntil;
+  }
+
+  /**
+   * Change the rate, which applies to the reads that start afterwards
+   *
+   * @param megabytesPerSecond the most MB read per second, or {@link #UNLIMITED}
+   */
+  public void setMegabytesPerSecond(final double megabytesPerSecond){
+    if(!(megabytesPerSecond > 0)){
+      throw new IllegalArgumentException("megabytesPerSecond must be positive but was " + megabytesPerSecond);
+    }
+    this.megabytesPerSecond = megabytesPerSecond;
+    this.nanosecondsPerByte = TimeUnit.SECONDS.toNanos(1) / (megabytesPerSecond * BYTES_PER_MEGABYTE);
+  }
+
+  public double getMegabytesPerSecond() {
+    return megabytesPerSecond;
+  }
+
+  /**
+   * @return the number of bytes read through this limiter so far
+   */
+  public long getBytesAcquired() {
+    return bytesAcquired.sum();
+  }
+
+  @Override
+  public String toString() {
+    return "ReadRateLimiter [megabytesPerSecond=" + megabytesPerSecond + ", bytesAcquired=" + bytesAcquired.sum() + "]";
+  }
+}
@@ -0,0 +1,33 @@
+package gov.loc.repository.bagit.hash;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+
+/**
+ * Implement this interface if you need to change how a file is read while it is being hashed.<br>
+ * See {@link FileChannelReadStrategy} for the default
+ */
+public interface ReadStrategy {
+
+  /**
+   * Read the whole file and update each of the {@link StreamingHasher} with its content
+   *
+   * @param path the {@link Path} (file) to read
+   * @param hashers the {@link StreamingHasher} objects to update
+   * @return the {@link ReadStrategy} that actually read the file, which may differ from this one if it delegates
+   * @throws IOException if there is a problem reading the file
+   */
+  ReadStrategy updateHashers(Path path, Collection<StreamingHasher> hashers) throws IOException;
+
+  /**
+   * The {@link gov.loc.repository.bagit.verify.BagVerifier} reads small files whole in batches without going through its read strategy,
+   * so it reads them with this instead. Override it when the small files need to be read the same way as this strategy reads,
+   * and delegate to the wrapped strategy when wrapping another one.
+   *
+   * @return the {@link SmallFileReadStrategy} for the small files, by default a plain one for files of up to 64 KB
+   */
+  default SmallFileReadStrategy getSmallFileStrategy() {
+    return new SmallFileReadStrategy();
+  }
+}
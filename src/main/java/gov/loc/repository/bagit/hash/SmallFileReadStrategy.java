@@ -0,0 +1,94 @@
+package gov.loc.repository.bagit.hash;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+
+/**
+ * Reads a small file whole in a single call into a buffer that is reused by the calling thread,
+ * without the extra read that is otherwise needed to detect the end of the file.
+ * Files larger than the maximum size are read using another {@link ReadStrategy}.
+ */
+public class SmallFileReadStrategy implements ReadStrategy {
+  private static final int DEFAULT_MAX_SIZE = 64 * 1024;
+  private static final ThreadLocal<ByteBuffer> BUFFERS = new ThreadLocal<>();
+
+  private transient final int maxSize;
+  private transient final ReadStrategy largeFileStrategy;
+
+  /**
+   * Create a SmallFileReadStrategy for files of up to 64 KB, reading larger files using the {@link FileChannelReadStrategy}
+   */
+  public SmallFileReadStrategy(){
+    this(DEFAULT_MAX_SIZE, new FileChannelReadStrategy());
+  }
+
+  /**
+   * Create a SmallFileReadStrategy with a custom maximum size
+   *
+   * @param maxSize the largest file size in bytes that is read in a single call
+   * @param largeFileStrategy the {@link ReadStrategy} used for files larger than maxSize
+   */
+  public SmallFileReadStrategy(final int maxSize, final ReadStrategy largeFileStrategy){
+    if(maxSize <= 0){
+      throw new IllegalArgumentException("maxSize must be positive but was " + maxSize);
+    }
+    this.maxSize = maxSize;
+    this.largeFileStrategy = largeFileStrategy;
+  }
+
+  @Override
+  public ReadStrategy updateHashers(final Path path, final Collection<StreamingHasher> hashers) throws IOException {
+    try(final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+      final long size = channel.size();
+      if(size <= maxSize){
+        final ByteBuffer buffer = getBuffer((int) size);
+        int read = 0;
+        while(buffer.hasRemaining() && read != -1){
+          read = channel.read(buffer);
+        }
+        buffer.flip();
+        FileChannelReadStrategy.updateHashers(buffer, hashers);
+        return this;
+      }
+    }
+
+    return largeFileStrategy.updateHashers(path, hashers);
+  }
+
+  /**
+   * @return this strategy, since it already reads small files whole
+   */
+  @Override
+  public SmallFileReadStrategy getSmallFileStrategy() {
+    return this;
+  }
+
+  /**
+   * @param size the size of a file in bytes
+   * @return true if a file of that size is read whole in a single call
+   */
+  public boolean isSmall(final long size){
+    return size <= maxSize;
+  }
+
+  @Override
+  public String toString() {
+    return "SmallFileReadStrategy [maxSize=" + maxSize + ", largeFileStrategy=" + largeFileStrategy + "]";
+  }
+
+  private ByteBuffer getBuffer(final int size){
+    ByteBuffer buffer = BUFFERS.get();
+    if(buffer == null || buffer.capacity() < maxSize){
+      buffer = ByteBuffer.allocateDirect(maxSize);
+      BUFFERS.set(buffer);
+    }
+    buffer.clear();
+    buffer.limit(size);
+
+    return buffer;
+  }
+}
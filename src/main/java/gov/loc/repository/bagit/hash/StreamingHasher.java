@@ -0,0 +1,33 @@
+package gov.loc.repository.bagit.hash;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+
+/**
+ * Computes a checksum hash incrementally while the content of a file is being read.<br>
+ * Implement this interface, and return it from {@link SupportedAlgorithm#createStreamingHasher()}, 
+ * if you need to use a checksum algorithm that is not available through {@link MessageDigest}.
+ * Implementations do not need to be thread safe.
+ */
+public interface StreamingHasher {
+  
+  /**
+   * Update the hash with the remaining bytes of the buffer. 
+   * Afterwards the position of the buffer is equal to its limit.
+   * 
+   * @param buffer the content to add to the hash
+   */
+  void update(ByteBuffer buffer);
+  
+  /**
+   * Complete the hash computation and reset the hasher so that it can be reused
+   * 
+   * @return the computed hash, most significant byte first
+   */
+  byte[] digest();
+  
+  /**
+   * Discard everything added so far so that the hasher can be reused
+   */
+  void reset();
+}
@@ -0,0 +1,51 @@
+package gov.loc.repository.bagit.hash;
+
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps one {@link StreamingHasher} per algorithm for each thread so that they can be reused from file to file
+ * instead of creating a new one with {@link SupportedAlgorithm#createStreamingHasher()} every time.
+ * A returned {@link StreamingHasher} must only be used by the thread that requested it,
+ * and only until that thread requests the same algorithm again.
+ */
+public final class StreamingHasherCache {
+  private static final ThreadLocal<Map<String, CachedHasher>> HASHERS = ThreadLocal.withInitial(HashMap::new);
+
+  private StreamingHasherCache(){
+    //intentionally left empty
+  }
+
+  /**
+   * Get the reset {@link StreamingHasher} for the algorithm belonging to the current thread
+   *
+   * @param algorithm the {@link SupportedAlgorithm} to compute
+   * @return a reset {@link StreamingHasher} for the algorithm
+   * @throws NoSuchAlgorithmException if the algorithm is not available
+   */
+  public static StreamingHasher get(final SupportedAlgorithm algorithm) throws NoSuchAlgorithmException{
+    final Map<String, CachedHasher> hashers = HASHERS.get();
+    final CachedHasher cached = hashers.get(algorithm.getBagitName());
+    
+    //different mappings may use the same bagit name for different implementations
+    if(cached != null && cached.algorithm.equals(algorithm)){
+      cached.hasher.reset();
+      return cached.hasher;
+    }
+    
+    final StreamingHasher hasher = algorithm.createStreamingHasher();
+    hashers.put(algorithm.getBagitName(), new CachedHasher(algorithm, hasher));
+    return hasher;
+  }
+  
+  private static final class CachedHasher{
+    private final SupportedAlgorithm algorithm;
+    private final StreamingHasher hasher;
+    
+    private CachedHasher(final SupportedAlgorithm algorithm, final StreamingHasher hasher){
+      this.algorithm = algorithm;
+      this.hasher = hasher;
+    }
+  }
+}
@@ -1,12 +1,25 @@
 package gov.loc.repository.bagit.hash;
 
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 /**
- * Easy way to convert between bagit manifest spec and {@link MessageDigest}<br>
+ * Easy way to convert between bagit manifest spec and the {@link StreamingHasher} used to compute the checksums<br>
  * See {@link StandardSupportedAlgorithms} for a list of defaults
  */
 public interface SupportedAlgorithm {
   String getMessageDigestName();
   String getBagitName();
+  
+  /**
+   * Create a new {@link StreamingHasher} that computes this algorithm.
+   * By default this uses the {@link MessageDigest} named by {@link #getMessageDigestName()}, 
+   * override it to use an algorithm that is not available through {@link MessageDigest}.
+   * 
+   * @return a new {@link StreamingHasher} for this algorithm
+   * @throws NoSuchAlgorithmException if the algorithm is not available
+   */
+  default StreamingHasher createStreamingHasher() throws NoSuchAlgorithmException{
+    return new MessageDigestStreamingHasher(MessageDigestCache.newMessageDigest(getMessageDigestName()));
+  }
 }
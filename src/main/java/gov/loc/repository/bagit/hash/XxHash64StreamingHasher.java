@@ -0,0 +1,124 @@
+package gov.loc.repository.bagit.hash;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A pure Java {@link StreamingHasher} for the 64 bit xxHash (XXH64) with a seed of 0. 
+ * The hash is the 8 byte value, most significant byte first, which is the same as the canonical form output by xxhsum.
+ */
+public class XxHash64StreamingHasher implements StreamingHasher {
+  private static final long PRIME1 = 0x9E3779B185EBCA87L;
+  private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+  private static final long PRIME3 = 0x165667B19E3779F9L;
+  private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+  private static final long PRIME5 = 0x27D4EB2F165667C5L;
+  private static final int STRIPE_SIZE = 32;
+  
+  //holds the bytes that did not fill a whole stripe until the next update
+  private transient final ByteBuffer pending = ByteBuffer.allocate(STRIPE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+  private transient long accumulator1;
+  private transient long accumulator2;
+  private transient long accumulator3;
+  private transient long accumulator4;
+  private transient long totalLength;
+  
+  public XxHash64StreamingHasher(){
+    reset();
+  }
+
+  @Override
+  public void update(final ByteBuffer buffer) {
+    final ByteOrder originalOrder = buffer.order();
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    totalLength += buffer.remaining();
+    
+    if(pending.position() > 0){
+      fillPending(buffer);
+      if(pending.hasRemaining()){
+        buffer.order(originalOrder);
+        return;
+      }
+      pending.flip();
+      processStripe(pending);
+      pending.clear();
+    }
+    
+    while(buffer.remaining() >= STRIPE_SIZE){
+      processStripe(buffer);
+    }
+    fillPending(buffer);
+    buffer.order(originalOrder);
+  }
+
+  @Override
+  public byte[] digest() {
+    long hash;
+    if(totalLength >= STRIPE_SIZE){
+      hash = Long.rotateLeft(accumulator1, 1) + Long.rotateLeft(accumulator2, 7) + 
+          Long.rotateLeft(accumulator3, 12) + Long.rotateLeft(accumulator4, 18);
+      hash = mergeRound(hash, accumulator1);
+      hash = mergeRound(hash, accumulator2);
+      hash = mergeRound(hash, accumulator3);
+      hash = mergeRound(hash, accumulator4);
+    }
+    else{
+      hash = PRIME5;
+    }
+    hash += totalLength;
+    
+    pending.flip();
+    while(pending.remaining() >= 8){
+      hash ^= round(0, pending.getLong());
+      hash = Long.rotateLeft(hash, 27) * PRIME1 + PRIME4;
+    }
+    if(pending.remaining() >= 4){
+      hash ^= (pending.getInt() & 0xFFFFFFFFL) * PRIME1;
+      hash = Long.rotateLeft(hash, 23) * PRIME2 + PRIME3;
+    }
+    while(pending.hasRemaining()){
+      hash ^= (pending.get() & 0xFF) * PRIME5;
+      hash = Long.rotateLeft(hash, 11) * PRIME1;
+    }
+    
+    hash ^= hash >>> 33;
+    hash *= PRIME2;
+    hash ^= hash >>> 29;
+    hash *= PRIME3;
+    hash ^= hash >>> 32;
+    
+    reset();
+    return ByteBuffer.allocate(8).putLong(hash).array();
+  }
+
+  @Override
+  public void reset() {
+    accumulator1 = PRIME1 + PRIME2;
+    accumulator2 = PRIME2;
+    accumulator3 = 0;
+    accumulator4 = -PRIME1;
+    totalLength = 0;
+    pending.clear();
+  }
+  
+  private void fillPending(final ByteBuffer buffer){
+    while(pending.hasRemaining() && buffer.hasRemaining()){
+      pending.put(buffer.get());
+    }
+  }
+  
+  private void processStripe(final ByteBuffer stripe){
+    accumulator1 = round(accumulator1, stripe.getLong());
+    accumulator2 = round(accumulator2, stripe.getLong());
+    accumulator3 = round(accumulator3, stripe.getLong());
+    accumulator4 = round(accumulator4, stripe.getLong());
+  }
+  
+  private static long round(final long accumulator, final long input){
+    return Long.rotateLeft(accumulator + input * PRIME2, 31) * PRIME1;
+  }
+  
+  private static long mergeRound(final long hash, final long accumulator){
+    return (hash ^ round(0, accumulator)) * PRIME1 + PRIME4;
+  }
+}
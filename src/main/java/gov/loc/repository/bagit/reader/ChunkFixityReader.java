@@ -0,0 +1,116 @@
+package gov.loc.repository.bagit.reader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.helpers.MessageFormatter;
+
+import gov.loc.repository.bagit.domain.ChunkFixity;
+import gov.loc.repository.bagit.domain.FileChunk;
+import gov.loc.repository.bagit.exceptions.InvalidBagitFileFormatException;
+import gov.loc.repository.bagit.exceptions.MaliciousPathException;
+import gov.loc.repository.bagit.exceptions.UnsupportedAlgorithmException;
+import gov.loc.repository.bagit.hash.BagitAlgorithmNameToSupportedAlgorithmMapping;
+import gov.loc.repository.bagit.util.PathUtils;
+import gov.loc.repository.bagit.writer.ChunkFixityWriter;
+
+/**
+ * This class is responsible for reading and parsing the chunk fixity files written by {@link ChunkFixityWriter}
+ */
+public final class ChunkFixityReader {
+  private static final Logger logger = LoggerFactory.getLogger(ChunkFixityReader.class);
+  private static final ResourceBundle messages = ResourceBundle.getBundle("MessageBundle");
+  
+  private ChunkFixityReader(){
+    //intentionally left empty
+  }
+  
+  /**
+   * Finds and reads all chunk fixity files in a directory
+   * 
+   * @param nameMapping a map between BagIt algorithm names and {@link gov.loc.repository.bagit.hash.SupportedAlgorithm}s
+   * @param bagitDir the directory that contains the manifest(s)
+   * @param bagRootDir the root directory of the bag
+   * @param charset the encoding to use when reading the files
+   * @return every chunk fixity found, which is empty when the bag doesn't have any
+   * 
+   * @throws IOException if there is a problem reading a file
+   * @throws MaliciousPathException if there is path that is referenced in the file that is outside the bag root directory
+   * @throws UnsupportedAlgorithmException if the file uses a algorithm that isn't supported
+   * @throws InvalidBagitFileFormatException if the file is not formatted properly
+   */
+  @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+  public static List<ChunkFixity> readAllChunkFixity(final BagitAlgorithmNameToSupportedAlgorithmMapping nameMapping, final Path bagitDir, 
+      final Path bagRootDir, final Charset charset) throws IOException, MaliciousPathException, UnsupportedAlgorithmException, InvalidBagitFileFormatException{
+    final List<ChunkFixity> chunkFixities = new ArrayList<>();
+    
+    try(final DirectoryStream<Path> files = Files.newDirectoryStream(bagitDir, ChunkFixityWriter.FILENAME_PREFIX + "*.txt")){
+      for(final Path file : files){
+        chunkFixities.add(readChunkFixity(nameMapping, file, bagRootDir, charset));
+      }
+    }
+    
+    return chunkFixities;
+  }
+  
+  /**
+   * Reads a chunk fixity file and converts it to a {@link ChunkFixity} object.
+   * 
+   * @param nameMapping a map between BagIt algorithm names and {@link gov.loc.repository.bagit.hash.SupportedAlgorithm}s
+   * @param chunkFixityFile a specific chunk fixity file
+   * @param bagRootDir the root directory of the bag
+   * @param charset the encoding to use when reading the file
+   * @return the converted chunk fixity object from the file
+   * 
+   * @throws IOException if there is a problem reading a file
+   * @throws MaliciousPathException if there is path that is referenced in the file that is outside the bag root directory
+   * @throws UnsupportedAlgorithmException if the file uses a algorithm that isn't supported
+   * @throws InvalidBagitFileFormatException if the file is not formatted properly
+   */
+  @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+  public static ChunkFixity readChunkFixity(final BagitAlgorithmNameToSupportedAlgorithmMapping nameMapping, final Path chunkFixityFile, 
+      final Path bagRootDir, final Charset charset) throws IOException, MaliciousPathException, UnsupportedAlgorithmException, InvalidBagitFileFormatException{
+    logger.debug(messages.getString("reading_chunk_fixity"), chunkFixityFile);
+    final String filename = PathUtils.getFilename(chunkFixityFile);
+    final String alg = filename.substring(ChunkFixityWriter.FILENAME_PREFIX.length(), filename.length() - ".txt".length());
+    final ChunkFixity chunkFixity = new ChunkFixity(nameMapping.getSupportedAlgorithm(alg));
+    final Map<Path, List<FileChunk>> fileToChunksMap = new HashMap<>();
+    
+    try(final BufferedReader br = Files.newBufferedReader(chunkFixityFile, charset)){
+      String line = br.readLine();
+      while(line != null){
+        final String[] parts = line.split("\\s+", 4);
+        if(parts.length != 4){
+          throw new InvalidBagitFileFormatException(MessageFormatter.format(messages.getString("invalid_chunk_fixity_line_error"), line, chunkFixityFile).getMessage());
+        }
+        final Path file = TagFileReader.createFileFromManifest(bagRootDir, parts[3]);
+        fileToChunksMap.computeIfAbsent(file, key -> new ArrayList<>()).add(new FileChunk(parseLong(parts[1], line, chunkFixityFile), 
+            parseLong(parts[2], line, chunkFixityFile), parts[0]));
+        line = br.readLine();
+      }
+    }
+    chunkFixity.setFileToChunksMap(fileToChunksMap);
+    
+    return chunkFixity;
+  }
+  
+  private static long parseLong(final String value, final String line, final Path chunkFixityFile) throws InvalidBagitFileFormatException{
+    try{
+      return Long.parseLong(value);
+    }
+    catch(NumberFormatException e){
+      throw new InvalidBagitFileFormatException(MessageFormatter.format(messages.getString("invalid_chunk_fixity_line_error"), line, chunkFixityFile).getMessage(), e);
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package gov.loc.repository.bagit.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Finds the files in a directory whose names only differ in their unicode normalization, like a file listed in a manifest
+ * written on a system that uses NFC while the file on disk uses NFD.<br>
+ * Each directory is listed and each name in it is normalized the first time a file in that directory is looked up,
+ * so looking up every file of a large directory doesn't list that directory again for each of them.
+ * This is thread safe so one index can be shared by all the threads doing the lookups.
+ * Changes made to a directory after it has been listed are not seen, so only use an index for a single check of a bag.
+ */
+public final class NormalizedFilenameIndex {
+  private static final Logger logger = LoggerFactory.getLogger(NormalizedFilenameIndex.class);
+  private static final ResourceBundle messages = ResourceBundle.getBundle("MessageBundle");
+
+  private transient final Map<Path, Map<String, List<Path>>> directoryToNormalizedNamesMap = new ConcurrentHashMap<>();
+
+  /**
+   * Get the files in the same directory as the given file whose name is the same once both are normalized to NFD.
+   * That includes the file itself if it exists.
+   *
+   * @param file the file to look for
+   * @return the files with the same normalized name, or an empty list if there are none
+   * @throws IOException if the directory of the file can't be listed
+   */
+  public List<Path> getFilesWithSameNormalization(final Path file) throws IOException{
+    final Path directory = file.getParent();
+    if(directory == null){
+      return Collections.emptyList();
+    }
+
+    final List<Path> matches = getNormalizedNames(directory).get(normalize(PathUtils.getFilename(file)));
+    if(matches == null){
+      return Collections.emptyList();
+    }
+    return Collections.unmodifiableList(matches);
+  }
+
+  private Map<String, List<Path>> getNormalizedNames(final Path directory) throws IOException{
+    //check first since computeIfAbsent locks even when the directory has already been listed
+    final Map<String, List<Path>> normalizedNames = directoryToNormalizedNamesMap.get(directory);
+    if(normalizedNames != null){
+      return normalizedNames;
+    }
+
+    try{
+      //other threads looking up the same directory wait for it to be listed instead of listing it too
+      return directoryToNormalizedNamesMap.computeIfAbsent(directory, key -> {
+        try{
+          return listNormalizedNames(key);
+        }
+        catch(IOException e){
+          throw new UncheckedIOException(e);
+        }
+      });
+    }
+    catch(UncheckedIOException e){
+      throw e.getCause();
+    }
+  }
+
+  @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+  private static Map<String, List<Path>> listNormalizedNames(final Path directory) throws IOException{
+    logger.debug(messages.getString("listing_normalized_filenames"), directory);
+    final Map<String, List<Path>> normalizedNames = new HashMap<>();
+
+    try(final DirectoryStream<Path> files = Files.newDirectoryStream(directory)){
+      for(final Path file : files){
+        normalizedNames.computeIfAbsent(normalize(PathUtils.getFilename(file)), key -> new ArrayList<>(1)).add(file);
+      }
+    }
+
+    return normalizedNames;
+  }
+
+  private static String normalize(final String name){
+    return Normalizer.normalize(name, Normalizer.Form.NFD);
+  }
+}
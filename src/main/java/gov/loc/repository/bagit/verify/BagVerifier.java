@@ -5,16 +5,28 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.ResourceBundle;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import gov.loc.repository.bagit.domain.Bag;
+import gov.loc.repository.bagit.domain.ChunkFixity;
 import gov.loc.repository.bagit.domain.Manifest;
 import gov.loc.repository.bagit.exceptions.CorruptChecksumException;
 import gov.loc.repository.bagit.exceptions.FileNotInPayloadDirectoryException;
@@ -28,7 +40,11 @@ import gov.loc.repository.bagit.exceptions.PayloadOxumDoesNotExistException;
 import gov.loc.repository.bagit.exceptions.UnsupportedAlgorithmException;
 import gov.loc.repository.bagit.exceptions.VerificationException;
 import gov.loc.repository.bagit.hash.BagitAlgorithmNameToSupportedAlgorithmMapping;
+import gov.loc.repository.bagit.hash.FileChannelReadStrategy;
+import gov.loc.repository.bagit.hash.ReadStrategy;
+import gov.loc.repository.bagit.hash.SmallFileReadStrategy;
 import gov.loc.repository.bagit.hash.StandardBagitAlgorithmNameToSupportedAlgorithmMapping;
+import gov.loc.repository.bagit.hash.SupportedAlgorithm;
 
 /**
  * Responsible for verifying if a bag is valid, complete
@@ -36,25 +52,38 @@ import gov.loc.repository.bagit.hash.StandardBagitAlgorithmNameToSupportedAlgori
 public final class BagVerifier implements AutoCloseable{
   private static final Logger logger = LoggerFactory.getLogger(BagVerifier.class);
   private static final ResourceBundle messages = ResourceBundle.getBundle("MessageBundle");
+  private static final int MAX_FILES_PER_BATCH = 256;
+  private static final long FAIL_FAST_POLL_MILLISECONDS = 5;
+  private static final FileOrderingStrategy TAG_FILE_ORDERING_STRATEGY = new DirectoryFileOrderingStrategy();
+  public static final long DEFAULT_MILLISECONDS_BETWEEN_PROGRESS_REPORTS = 1000;
   
   private final PayloadVerifier manifestVerifier;
+  private final BagitAlgorithmNameToSupportedAlgorithmMapping nameMapping;
   private final ExecutorService executor;
+  private ReadStrategy readStrategy = new FileChannelReadStrategy();
+  private SmallFileReadStrategy smallFileStrategy = new SmallFileReadStrategy();
+  private FileOrderingStrategy fileOrderingStrategy = new DirectoryFileOrderingStrategy();
+  private boolean failFast;
+  private FileStoreScheduler fileStoreScheduler;
+  private VerificationJournal journal;
+  private ProgressListener progressListener;
+  private long millisecondsBetweenProgressReports = DEFAULT_MILLISECONDS_BETWEEN_PROGRESS_REPORTS;
   
   /**
-   * Create a BagVerifier with a cached thread pool and a 
+   * Create a BagVerifier with a {@link BoundedThreadPoolExecutor} and a 
    * {@link StandardBagitAlgorithmNameToSupportedAlgorithmMapping}
    */
   public BagVerifier(){
-    this(Executors.newCachedThreadPool(), new StandardBagitAlgorithmNameToSupportedAlgorithmMapping());
+    this(new BoundedThreadPoolExecutor(), new StandardBagitAlgorithmNameToSupportedAlgorithmMapping());
   }
   
   /**
-   * Create a BagVerifier with a cached thread pool and a custom mapping
+   * Create a BagVerifier with a {@link BoundedThreadPoolExecutor} and a custom mapping
    * 
    * @param nameMapping the mapping between BagIt algorithm name and the java supported algorithm
    */
   public BagVerifier(final BagitAlgorithmNameToSupportedAlgorithmMapping nameMapping){
-    this(Executors.newCachedThreadPool(), nameMapping);
+    this(new BoundedThreadPoolExecutor(), nameMapping);
   }
   
   /**
@@ -75,6 +104,7 @@ public final class BagVerifier implements AutoCloseable{
    */
   public BagVerifier(final ExecutorService executor, final BagitAlgorithmNameToSupportedAlgorithmMapping nameMapping){
     manifestVerifier = new PayloadVerifier(nameMapping, executor);
+    this.nameMapping = nameMapping;
     this.executor = executor;
   }
   
@@ -118,7 +148,8 @@ public final class BagVerifier implements AutoCloseable{
    * @param bag the {@link Bag} object to check
    * @param ignoreHiddenFiles ignore hidden files unless explicitly listed in manifest(s)
    * 
-   * @throws CorruptChecksumException when the computed hash doesn't match given hash
+   * @throws CorruptChecksumException when the computed hash doesn't match given hash. 
+   * If the bag has chunk fixity for the file this is a {@link gov.loc.repository.bagit.exceptions.CorruptChunksException} with the damaged byte ranges
    * @throws IOException if there was an error with the file
    * @throws MissingPayloadManifestException if there is not at least one payload manifest
    * @throws MissingBagitFileException  if there is no bagit.txt file
@@ -132,37 +163,128 @@ public final class BagVerifier implements AutoCloseable{
    */
   public void isValid(final Bag bag, final boolean ignoreHiddenFiles) throws IOException, MissingPayloadManifestException, MissingBagitFileException, MissingPayloadDirectoryException, FileNotInPayloadDirectoryException, InterruptedException, MaliciousPathException, CorruptChecksumException, VerificationException, UnsupportedAlgorithmException, InvalidBagitFileFormatException{
     logger.info(messages.getString("checking_bag_is_valid"), bag.getRootDir());
-    isComplete(bag, ignoreHiddenFiles);
+    final PayloadIndex index = checkComplete(bag, ignoreHiddenFiles);
     
     logger.debug(messages.getString("checking_payload_checksums"));
-    for(final Manifest payloadManifest : bag.getPayLoadManifests()){
-      checkHashes(payloadManifest);
+    startPhase(VerificationPhase.PAYLOAD_CHECKSUMS);
+    try{
+      checkHashes(bag.getPayLoadManifests(), fileOrderingStrategy, index.getFileToSizeMap(), VerificationPhase.PAYLOAD_CHECKSUMS);
+    }
+    catch(CorruptChecksumException e){
+      if(failFast){
+        throw e;
+      }
+      throw ChunkFixityVerifier.findCorruptChunks(bag, e, nameMapping, executor);
     }
     
     logger.debug(messages.getString("checking_tag_file_checksums"));
-    for(final Manifest tagManifest : bag.getTagManifests()){
-      checkHashes(tagManifest);
+    startPhase(VerificationPhase.TAG_CHECKSUMS);
+    checkHashes(bag.getTagManifests(), TAG_FILE_ORDERING_STRATEGY, Collections.emptyMap(), VerificationPhase.TAG_CHECKSUMS);
+    
+    if(journal != null){
+      //the next verification starts a new pass instead of trusting this one
+      journal.finishPass();
     }
   }
   
-  /*
-   * Check the supplied checksum hashes against the generated checksum hashes
+  /**
+   * Check the whole bag in one pass and report every problem found, instead of throwing an exception at the first one.
+   * The report lists every corrupt file with the expected and computed checksums, every file that is missing, 
+   * every file that isn't in the manifests, and every file that couldn't be read. Fail fast mode is not used.
+   * The bag must have the mandatory elements checked by {@link #isComplete(Bag, boolean)} for its files to be checked.
+   * 
+   * @param bag the {@link Bag} object to check
+   * @param ignoreHiddenFiles ignore hidden files unless explicitly listed in manifest(s)
+   * @return a {@link VerificationReport} with all the problems found
+   * 
+   * @throws IOException if there was an error reading the manifests or walking the payload directory
+   * @throws MissingPayloadManifestException if there is not at least one payload manifest
+   * @throws MissingBagitFileException  if there is no bagit.txt file
+   * @throws MissingPayloadDirectoryException if there is no /data directory
+   * @throws FileNotInPayloadDirectoryException if a fetch item is not in the payload directory
+   * @throws InterruptedException if the threads are interrupted while checking the files
+   * @throws MaliciousPathException if there is path that is referenced in the manifest that is outside the bag root directory
+   * @throws UnsupportedAlgorithmException if the manifest uses a algorithm that isn't supported
+   * @throws InvalidBagitFileFormatException if the manifest is not formatted properly
    */
-  @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
-  void checkHashes(final Manifest manifest) throws CorruptChecksumException, InterruptedException, VerificationException{
-    final CountDownLatch latch = new CountDownLatch( manifest.getFileToChecksumMap().size());
+  public VerificationReport verify(final Bag bag, final boolean ignoreHiddenFiles) throws IOException, MissingPayloadManifestException, 
+    MissingBagitFileException, MissingPayloadDirectoryException, FileNotInPayloadDirectoryException, InterruptedException, 
+    MaliciousPathException, UnsupportedAlgorithmException, InvalidBagitFileFormatException{
+    logger.info(messages.getString("checking_bag_is_valid"), bag.getRootDir());
+    startPhase(VerificationPhase.MANDATORY_ELEMENTS);
+    checkMandatoryElements(bag);
     
-    //TODO maybe return all of these at some point...
-    final Collection<Exception> exceptions = Collections.synchronizedCollection(new ArrayList<>());
+    final VerificationReport report = new VerificationReport();
+    startPhase(VerificationPhase.COMPLETENESS);
+    final PayloadIndex index = manifestVerifier.indexPayload(bag, ignoreHiddenFiles);
+    report.addMissingFiles(index.getMissingFiles());
+    report.addFilesNotInManifests(index.getFilesNotInManifests());
+    
+    logger.debug(messages.getString("checking_payload_checksums"));
+    startPhase(VerificationPhase.PAYLOAD_CHECKSUMS);
+    reportHashFailures(bag, bag.getPayLoadManifests(), fileOrderingStrategy, index.getFileToSizeMap(), report, VerificationPhase.PAYLOAD_CHECKSUMS);
     
-    for(final Entry<Path, String> entry : manifest.getFileToChecksumMap().entrySet()){
-      executor.execute(new CheckManifestHashesTask(entry, manifest.getAlgorithm().getMessageDigestName(), latch, exceptions));
+    logger.debug(messages.getString("checking_tag_file_checksums"));
+    startPhase(VerificationPhase.TAG_CHECKSUMS);
+    reportHashFailures(bag, bag.getTagManifests(), TAG_FILE_ORDERING_STRATEGY, Collections.emptyMap(), report, VerificationPhase.TAG_CHECKSUMS);
+    
+    if(journal != null && report.isValid()){
+      journal.finishPass();
     }
     
-    latch.await();
+    logger.info(messages.getString("verification_report_summary"), bag.getRootDir(), report.getCorruptFiles().size(), 
+        report.getMissingFiles().size(), report.getFilesNotInManifests().size(), report.getErrors().size());
+    return report;
+  }
+  
+  /*
+   * Check the files that aren't missing, and add the ones that are corrupt or couldn't be read to the report
+   */
+  private void reportHashFailures(final Bag bag, final Collection<Manifest> manifests, final FileOrderingStrategy ordering, 
+      final Map<Path, Long> fileToSizeMap, final VerificationReport report, final VerificationPhase phase) throws InterruptedException{
+    final boolean findCorruptChunks = phase == VerificationPhase.PAYLOAD_CHECKSUMS;
+    List<ChunkFixity> chunkFixities = null;
+    for(final Exception e : collectHashFailures(manifests, ordering, report.getMissingFiles(), fileToSizeMap, false, phase)){
+      if(e instanceof CorruptChecksumException){
+        final CorruptChecksumException corruptFile = (CorruptChecksumException) e;
+        if(findCorruptChunks){
+          //read the chunk fixity once for all the corrupt files, and only if there are any
+          if(chunkFixities == null){
+            chunkFixities = ChunkFixityVerifier.readChunkFixity(bag, nameMapping);
+          }
+          report.addCorruptFile(ChunkFixityVerifier.findCorruptChunks(chunkFixities, corruptFile, executor));
+        }
+        else{
+          report.addCorruptFile(corruptFile);
+        }
+      }
+      else{
+        report.addError(e);
+      }
+    }
+  }
+  
+  /*
+   * Check the supplied checksum hashes against the generated checksum hashes
+   */
+  void checkHashes(final Manifest manifest) throws CorruptChecksumException, InterruptedException, VerificationException{
+    checkHashes(Collections.singleton(manifest));
+  }
+  
+  /*
+   * Check the supplied checksum hashes against the generated checksum hashes.
+   * Each file is only read once, no matter how many of the manifests list it.
+   */
+  void checkHashes(final Collection<Manifest> manifests) throws CorruptChecksumException, InterruptedException, VerificationException{
+    checkHashes(manifests, fileOrderingStrategy, Collections.emptyMap(), VerificationPhase.PAYLOAD_CHECKSUMS);
+  }
+  
+  private void checkHashes(final Collection<Manifest> manifests, final FileOrderingStrategy ordering, final Map<Path, Long> fileToSizeMap, 
+      final VerificationPhase phase) throws CorruptChecksumException, InterruptedException, VerificationException{
+    final List<Exception> exceptions = collectHashFailures(manifests, ordering, Collections.emptySet(), fileToSizeMap, failFast, phase);
     
     if(!exceptions.isEmpty()){
-      final Exception e = exceptions.iterator().next();
+      final Exception e = exceptions.get(0);
       if(e instanceof CorruptChecksumException){
         logger.debug(messages.getString("checksums_not_matching_error"), exceptions.size());
         throw (CorruptChecksumException)e;
@@ -172,6 +294,255 @@ public final class BagVerifier implements AutoCloseable{
     }
   }
   
+  /*
+   * Check the files picked by another verifier, like the SamplingVerifier, all of them even if the journal has them as verified.
+   * Their progress is reported as payload checksums.
+   */
+  List<Exception> checkFiles(final Map<Path, Map<SupportedAlgorithm, String>> fileToChecksumsMap, final Map<Path, Long> fileToSizeMap) throws InterruptedException{
+    return collectHashFailures(fileToChecksumsMap, fileOrderingStrategy, fileToSizeMap, false, VerificationPhase.PAYLOAD_CHECKSUMS);
+  }
+  
+  /*
+   * Check every file listed in the manifests, except the ones to skip, and return what went wrong with them.
+   * The sizes already known, like from walking the payload directory, are used instead of looking them up again.
+   */
+  private List<Exception> collectHashFailures(final Collection<Manifest> manifests, final FileOrderingStrategy ordering, 
+      final Set<Path> filesToSkip, final Map<Path, Long> fileToSizeMap, final boolean stopAtFirstFailure, final VerificationPhase phase) throws InterruptedException{
+    final Map<Path, Map<SupportedAlgorithm, String>> fileToChecksumsMap = groupChecksumsByFile(manifests);
+    fileToChecksumsMap.keySet().removeAll(filesToSkip);
+    skipAlreadyVerified(fileToChecksumsMap);
+    return collectHashFailures(fileToChecksumsMap, ordering, fileToSizeMap, stopAtFirstFailure, phase);
+  }
+  
+  /*
+   * With a progress listener the sizes of all the files are looked up first to know the total,
+   * and the bytes of the large files are counted as they are read
+   */
+  @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+  private List<Exception> collectHashFailures(final Map<Path, Map<SupportedAlgorithm, String>> fileToChecksumsMap, final FileOrderingStrategy ordering, 
+      final Map<Path, Long> knownSizes, final boolean stopAtFirstFailure, final VerificationPhase phase) throws InterruptedException{
+    final long start = System.nanoTime();
+    final CountDownLatch latch = new CountDownLatch(fileToChecksumsMap.size());
+    final Collection<Exception> exceptions = Collections.synchronizedCollection(new ArrayList<>());
+    
+    final AtomicBoolean cancelled = new AtomicBoolean();
+    final ProgressTracker tracker = progressListener == null ? null : new ProgressTracker(progressListener, getListener(), phase, 
+        fileToChecksumsMap.keySet(), knownSizes, smallFileStrategy, millisecondsBetweenProgressReports);
+    final FileCheckListener listener = tracker == null ? getListener() : tracker;
+    final ReadStrategy largeFileStrategy = tracker == null ? readStrategy : tracker.countBytes(readStrategy);
+    final Map<Path, Long> fileToSizeMap = tracker == null ? knownSizes : tracker.getFileToSizeMap();
+    
+    try{
+      final List<Map<Path, Map<SupportedAlgorithm, String>>> batches = batchByDirectory(order(ordering, fileToChecksumsMap.keySet(), fileToSizeMap), 
+          fileToChecksumsMap, ordering, getDeviceLookup());
+      final int window = ordering.getConcurrencyWindow();
+      if(window > 0){
+        executeInWindow(batches, window, latch, exceptions, cancelled, fileToSizeMap, largeFileStrategy, listener, stopAtFirstFailure);
+      }
+      else{
+        for(final Map<Path, Map<SupportedAlgorithm, String>> batch : batches){
+          //submitting waits while the queue is full, so stop as soon as a file has failed instead of queuing the rest
+          if(cancelIfFailed(exceptions, cancelled, stopAtFirstFailure)){
+            break;
+          }
+          final Executor batchExecutor = getExecutor(batch);
+          batchExecutor.execute(new CheckFileBatchHashesTask(batch, latch, exceptions, getLargeFileExecutors(batchExecutor), smallFileStrategy, 
+              largeFileStrategy, cancelled, fileToSizeMap, listener));
+        }
+      }
+      
+      awaitChecks(latch, exceptions, cancelled, stopAtFirstFailure);
+      ordering.finished(System.nanoTime() - start);
+      if(tracker != null){
+        tracker.finish();
+      }
+    }
+    catch(InterruptedException e){
+      //nobody is waiting for the result anymore
+      cancelled.set(true);
+      throw e;
+    }
+    
+    synchronized(exceptions){
+      return new ArrayList<>(exceptions);
+    }
+  }
+  
+  /*
+   * In fail fast mode stop waiting as soon as a file fails, and cancel the checks that are still queued or running
+   */
+  private static void awaitChecks(final CountDownLatch latch, final Collection<Exception> exceptions, final AtomicBoolean cancelled, 
+      final boolean stopAtFirstFailure) throws InterruptedException{
+    if(!stopAtFirstFailure){
+      latch.await();
+      return;
+    }
+    
+    while(!latch.await(FAIL_FAST_POLL_MILLISECONDS, TimeUnit.MILLISECONDS)){
+      if(cancelIfFailed(exceptions, cancelled, stopAtFirstFailure)){
+        logger.info(messages.getString("cancelled_remaining_checks"), latch.getCount());
+        return;
+      }
+    }
+  }
+  
+  private static boolean cancelIfFailed(final Collection<Exception> exceptions, final AtomicBoolean cancelled, final boolean stopAtFirstFailure){
+    if(stopAtFirstFailure && !exceptions.isEmpty()){
+      cancelled.set(true);
+    }
+    return cancelled.get();
+  }
+  
+  /*
+   * Only let a few batches run at once, each checking all of its files on its own thread, so the files are read in about the order given
+   */
+  @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+  private void executeInWindow(final List<Map<Path, Map<SupportedAlgorithm, String>>> batches, final int window, 
+      final CountDownLatch latch, final Collection<Exception> exceptions, final AtomicBoolean cancelled, final Map<Path, Long> fileToSizeMap, 
+      final ReadStrategy largeFileStrategy, final FileCheckListener listener, final boolean stopAtFirstFailure) throws InterruptedException{
+    final Semaphore permits = new Semaphore(window);
+    final Executor sameThread = Runnable::run;
+    
+    for(final Map<Path, Map<SupportedAlgorithm, String>> batch : batches){
+      final CheckFileBatchHashesTask task = new CheckFileBatchHashesTask(batch, latch, exceptions, sameThread, smallFileStrategy, largeFileStrategy, cancelled, fileToSizeMap, listener);
+      permits.acquire();
+      if(cancelIfFailed(exceptions, cancelled, stopAtFirstFailure)){
+        permits.release();
+        return;
+      }
+      try{
+        getExecutor(batch).execute(() -> {
+          try{
+            task.run();
+          }
+          finally{
+            permits.release();
+          }
+        });
+      }
+      catch(RejectedExecutionException e){
+        permits.release();
+        throw e;
+      }
+    }
+  }
+  
+  /*
+   * When resuming from a journal, don't check the files again that were verified against the same checksums and haven't changed since
+   */
+  private void skipAlreadyVerified(final Map<Path, Map<SupportedAlgorithm, String>> fileToChecksumsMap){
+    if(journal == null){
+      return;
+    }
+    final int before = fileToChecksumsMap.size();
+    fileToChecksumsMap.entrySet().removeIf(entry -> journal.isAlreadyVerified(entry.getKey(), entry.getValue()));
+    logger.info(messages.getString("skipping_already_verified_files"), before - fileToChecksumsMap.size(), journal.getJournalFile());
+  }
+  
+  private FileCheckListener getListener(){
+    return journal == null ? FileCheckListener.NONE : journal;
+  }
+  
+  private void startPhase(final VerificationPhase phase){
+    if(progressListener != null){
+      progressListener.phaseStarted(phase);
+    }
+  }
+  
+  /*
+   * With a file store scheduler each batch is read by the threads for the device its files are on
+   */
+  private Executor getExecutor(final Map<Path, Map<SupportedAlgorithm, String>> batch){
+    if(fileStoreScheduler == null){
+      return executor;
+    }
+    return fileStoreScheduler.getExecutor(batch.keySet().iterator().next());
+  }
+  
+  /*
+   * With a file store scheduler each large file is read by the threads for its own device, which needn't be the device of the first file in its batch
+   */
+  private Function<Path, Executor> getLargeFileExecutors(final Executor batchExecutor){
+    if(fileStoreScheduler == null){
+      return file -> batchExecutor;
+    }
+    return fileStoreScheduler::getExecutor;
+  }
+  
+  /*
+   * Only tell the devices of the files apart when they are read by the threads for each device
+   */
+  private Function<Path, Object> getDeviceLookup(){
+    if(fileStoreScheduler == null){
+      return file -> null;
+    }
+    return fileStoreScheduler::getDevice;
+  }
+  
+  /*
+   * Give the ordering the sizes already known when there is one for every file, so that orderings that need them don't look them up again.
+   * The files are kept in the same order for orderings that only use the files.
+   */
+  @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+  private static List<Path> order(final FileOrderingStrategy ordering, final Set<Path> files, final Map<Path, Long> fileToSizeMap){
+    if(fileToSizeMap.keySet().containsAll(files)){
+      final Map<Path, Long> sizes = new LinkedHashMap<>();
+      for(final Path file : files){
+        sizes.put(file, fileToSizeMap.get(file));
+      }
+      return ordering.order(sizes);
+    }
+    return ordering.order(files);
+  }
+  
+  /*
+   * Split the ordered files into batches of consecutive files from the same directory, so that small files can be checked without a task for each of them.
+   * A directory can hold symbolic links to other devices, so a batch is also split where the device changes.
+   */
+  @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+  private static List<Map<Path, Map<SupportedAlgorithm, String>>> batchByDirectory(final List<Path> orderedFiles, 
+      final Map<Path, Map<SupportedAlgorithm, String>> fileToChecksumsMap, final FileOrderingStrategy ordering, final Function<Path, Object> deviceLookup){
+    final List<Map<Path, Map<SupportedAlgorithm, String>>> batches = new ArrayList<>();
+    Map<Path, Map<SupportedAlgorithm, String>> batch = new LinkedHashMap<>();
+    Path batchDirectory = null;
+    Object batchDevice = null;
+    boolean batchCanGrow = true;
+    
+    for(final Path file : orderedFiles){
+      final boolean canGroup = ordering.canGroup(file);
+      final Object device = deviceLookup.apply(file);
+      if(!batch.isEmpty() && (!canGroup || !batchCanGrow || batch.size() >= MAX_FILES_PER_BATCH 
+          || !Objects.equals(batchDirectory, file.getParent()) || !Objects.equals(batchDevice, device))){
+        batches.add(batch);
+        batch = new LinkedHashMap<>();
+      }
+      batchDirectory = file.getParent();
+      batchDevice = device;
+      batchCanGrow = canGroup;
+      batch.put(file, fileToChecksumsMap.get(file));
+    }
+    if(!batch.isEmpty()){
+      batches.add(batch);
+    }
+    
+    return batches;
+  }
+  
+  /*
+   * Gather the checksums from all the manifests for each file so that we only have to read it once
+   */
+  static Map<Path, Map<SupportedAlgorithm, String>> groupChecksumsByFile(final Collection<Manifest> manifests){
+    final Map<Path, Map<SupportedAlgorithm, String>> fileToChecksumsMap = new HashMap<>();
+    
+    for(final Manifest manifest : manifests){
+      for(final Entry<Path, String> entry : manifest.getFileToChecksumMap().entrySet()){
+        fileToChecksumsMap.computeIfAbsent(entry.getKey(), key -> new HashMap<>()).put(manifest.getAlgorithm(), entry.getValue());
+      }
+    }
+    
+    return fileToChecksumsMap;
+  }
+  
   /**
    * See <a href="https://tools.ietf.org/html/draft-kunze-bagit-13#section-3">https://tools.ietf.org/html/draft-kunze-bagit-13#section-3</a><br>
    * A bag is <b>complete</b> if <br>
@@ -199,8 +570,25 @@ public final class BagVerifier implements AutoCloseable{
   public void isComplete(final Bag bag, final boolean ignoreHiddenFiles) throws 
     IOException, MissingPayloadManifestException, MissingBagitFileException, MissingPayloadDirectoryException, 
     FileNotInPayloadDirectoryException, InterruptedException, MaliciousPathException, UnsupportedAlgorithmException, InvalidBagitFileFormatException{
+    checkComplete(bag, ignoreHiddenFiles);
+  }
+  
+  /*
+   * Walk the payload directory once, and keep the sizes found to use when checking the checksums
+   */
+  private PayloadIndex checkComplete(final Bag bag, final boolean ignoreHiddenFiles) throws IOException, MissingPayloadManifestException, 
+    MissingBagitFileException, MissingPayloadDirectoryException, FileNotInPayloadDirectoryException, InterruptedException, UnsupportedAlgorithmException{
     logger.info(messages.getString("checking_bag_is_complete"), bag.getRootDir());
-    
+    startPhase(VerificationPhase.MANDATORY_ELEMENTS);
+    checkMandatoryElements(bag);
+    startPhase(VerificationPhase.COMPLETENESS);
+    final PayloadIndex index = manifestVerifier.indexPayload(bag, ignoreHiddenFiles);
+    PayloadVerifier.verifyPayload(index);
+    return index;
+  }
+  
+  private static void checkMandatoryElements(final Bag bag) throws IOException, MissingPayloadManifestException, 
+    MissingBagitFileException, MissingPayloadDirectoryException, FileNotInPayloadDirectoryException{
     MandatoryVerifier.checkFetchItemsExist(bag.getItemsToFetch(), bag.getRootDir());
     
     MandatoryVerifier.checkBagitFileExists(bag.getRootDir(), bag.getVersion());
@@ -208,8 +596,6 @@ public final class BagVerifier implements AutoCloseable{
     MandatoryVerifier.checkPayloadDirectoryExists(bag);
     
     MandatoryVerifier.checkIfAtLeastOnePayloadManifestsExist(bag.getRootDir(), bag.getVersion());
-    
-    manifestVerifier.verifyPayload(bag, ignoreHiddenFiles);
   }
   
   public ExecutorService getExecutor() {
@@ -219,4 +605,107 @@ public final class BagVerifier implements AutoCloseable{
   public PayloadVerifier getManifestVerifier() {
     return manifestVerifier;
   }
+
+  public ReadStrategy getReadStrategy() {
+    return readStrategy;
+  }
+
+  /**
+   * Change how files are read when checking their checksums.
+   * The small files read in batches are read with its {@link ReadStrategy#getSmallFileStrategy()}, so with a 
+   * {@link gov.loc.repository.bagit.hash.RateLimitedReadStrategy} they are limited too,
+   * and with a {@link gov.loc.repository.bagit.hash.DirectIoReadStrategy} they are read with direct I/O too.
+   * 
+   * @param readStrategy the {@link ReadStrategy} to use when reading files
+   */
+  public void setReadStrategy(final ReadStrategy readStrategy) {
+    this.readStrategy = readStrategy;
+    this.smallFileStrategy = readStrategy.getSmallFileStrategy();
+  }
+
+  public boolean isFailFast() {
+    return failFast;
+  }
+
+  /**
+   * In fail fast mode {@link #isValid(Bag, boolean)} throws as soon as one file fails, 
+   * instead of waiting for every file to be checked. The checks that are still queued are skipped,
+   * and the files being read are abandoned partway through. The corrupt byte ranges are not looked up in the chunk fixity.
+   * 
+   * @param failFast true to stop at the first file that fails
+   */
+  public void setFailFast(final boolean failFast) {
+    this.failFast = failFast;
+  }
+
+  public FileStoreScheduler getFileStoreScheduler() {
+    return fileStoreScheduler;
+  }
+
+  /**
+   * Read the payload and tag files with the threads of the device they are on instead of the executor of this verifier.
+   * The scheduler is not closed when this verifier is closed.
+   * To also compute the checksums on a separate pool, set the {@link FileStoreScheduler#getReadStrategy()} as the read strategy.
+   * 
+   * @param fileStoreScheduler the {@link FileStoreScheduler} to use, or null to use the executor of this verifier
+   */
+  public void setFileStoreScheduler(final FileStoreScheduler fileStoreScheduler) {
+    this.fileStoreScheduler = fileStoreScheduler;
+  }
+
+  public VerificationJournal getJournal() {
+    return journal;
+  }
+
+  /**
+   * Record each file checked in a journal, and skip the files that the journal has as already verified against the same checksums
+   * and that still have the same size and last modified time, so that a verification that was stopped can be resumed.
+   * Once the bag is found valid the pass is marked as complete in the journal, so the next verification checks every file again.
+   * The journal is not closed when this verifier is closed.
+   * 
+   * @param journal the {@link VerificationJournal} to use, or null to check every file
+   */
+  public void setJournal(final VerificationJournal journal) {
+    this.journal = journal;
+  }
+
+  public ProgressListener getProgressListener() {
+    return progressListener;
+  }
+
+  /**
+   * Tell a listener when each phase starts and, while the checksums are computed, how many files and bytes are done out of the total,
+   * so that a long verification can show it is still moving and when it should finish.
+   * The sizes of the files are looked up before the checksums are computed to know the total.
+   * 
+   * @param progressListener the {@link ProgressListener} to tell, or null to not report progress
+   */
+  public void setProgressListener(final ProgressListener progressListener) {
+    this.progressListener = progressListener;
+  }
+
+  public long getMillisecondsBetweenProgressReports() {
+    return millisecondsBetweenProgressReports;
+  }
+
+  /**
+   * @param millisecondsBetweenProgressReports the shortest time between two progress reports, 1 second by default
+   */
+  public void setMillisecondsBetweenProgressReports(final long millisecondsBetweenProgressReports) {
+    this.millisecondsBetweenProgressReports = millisecondsBetweenProgressReports;
+  }
+
+  public FileOrderingStrategy getFileOrderingStrategy() {
+    return fileOrderingStrategy;
+  }
+
+  /**
+   * Change the order in which payload files are checked, for example to read them in about the order they are on disk,
+   * or the largest files first so that the threads finish at about the same time
+   * 
+   * @param fileOrderingStrategy the {@link FileOrderingStrategy} to use when checking checksums
+   */
+  public void setFileOrderingStrategy(final FileOrderingStrategy fileOrderingStrategy) {
+    this.fileOrderingStrategy = fileOrderingStrategy;
+  }
 }
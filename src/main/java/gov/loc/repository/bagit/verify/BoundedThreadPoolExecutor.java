@@ -0,0 +1,92 @@
+package gov.loc.repository.bagit.verify;
+
+import java.util.ResourceBundle;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A fixed number of threads with a bounded queue of tasks, so that verifying a bag with millions of files
+ * uses the same number of threads and about the same memory as verifying a small one.
+ * When the queue is full, submitting another task waits for room instead of starting a thread or queuing without limit.
+ * Tasks submitted by one of the pool's own threads are run by that thread instead of waiting,
+ * so tasks that hand off work to the pool can't deadlock it.
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
+public class BoundedThreadPoolExecutor extends ThreadPoolExecutor {
+  private static final Logger logger = LoggerFactory.getLogger(BoundedThreadPoolExecutor.class);
+  private static final ResourceBundle messages = ResourceBundle.getBundle("MessageBundle");
+
+  public static final int DEFAULT_PARALLELISM = Math.max(2, Runtime.getRuntime().availableProcessors());
+  public static final int DEFAULT_QUEUED_TASKS_PER_THREAD = 16;
+  private static final long WAIT_FOR_ROOM_MILLISECONDS = 100;
+
+  private final ThreadLocal<Boolean> isPoolThread = new ThreadLocal<>();
+
+  /**
+   * Create a pool with {@link #DEFAULT_PARALLELISM} threads,
+   * each with room for {@link #DEFAULT_QUEUED_TASKS_PER_THREAD} waiting tasks
+   */
+  public BoundedThreadPoolExecutor(){
+    this(DEFAULT_PARALLELISM, DEFAULT_PARALLELISM * DEFAULT_QUEUED_TASKS_PER_THREAD);
+  }
+
+  /**
+   * @param parallelism the number of threads doing work
+   * @param maxQueuedTasks the number of tasks that can wait for a thread before submitting more tasks waits
+   */
+  public BoundedThreadPoolExecutor(final int parallelism, final int maxQueuedTasks){
+    super(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(maxQueuedTasks), new WaitForRoomPolicy());
+  }
+
+  @Override
+  protected void beforeExecute(final Thread thread, final Runnable runnable) {
+    isPoolThread.set(Boolean.TRUE);
+    super.beforeExecute(thread, runnable);
+  }
+
+  boolean isPoolThread(){
+    return Boolean.TRUE.equals(isPoolThread.get());
+  }
+
+  /*
+   * Run the task in the submitting thread if it belongs to the pool, otherwise wait until the queue has room for it.
+   * The pool can be shutdown while waiting, so it is checked between waits, and again once the task is queued
+   * the same way ThreadPoolExecutor.execute does, since the threads may already have stopped and would never run it.
+   */
+  private static final class WaitForRoomPolicy implements RejectedExecutionHandler{
+    @Override
+    public void rejectedExecution(final Runnable runnable, final ThreadPoolExecutor executor) {
+      if(executor.isShutdown()){
+        throw new RejectedExecutionException(messages.getString("executor_shutdown_error"));
+      }
+
+      if(((BoundedThreadPoolExecutor) executor).isPoolThread()){
+        runnable.run();
+        return;
+      }
+
+      try{
+        logger.trace(messages.getString("waiting_for_room_in_queue"));
+        while(!executor.getQueue().offer(runnable, WAIT_FOR_ROOM_MILLISECONDS, TimeUnit.MILLISECONDS)){
+          if(executor.isShutdown()){
+            throw new RejectedExecutionException(messages.getString("executor_shutdown_error"));
+          }
+        }
+      }
+      catch(InterruptedException e){
+        Thread.currentThread().interrupt();
+        throw new RejectedExecutionException(e);
+      }
+
+      if(executor.isShutdown() && executor.remove(runnable)){
+        throw new RejectedExecutionException(messages.getString("executor_shutdown_error"));
+      }
+    }
+  }
+}
@@ -0,0 +1,193 @@
+package gov.loc.repository.bagit.verify;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gov.loc.repository.bagit.domain.Bag;
+import gov.loc.repository.bagit.domain.Manifest;
+import gov.loc.repository.bagit.exceptions.CorruptChecksumException;
+import gov.loc.repository.bagit.hash.SupportedAlgorithm;
+
+/**
+ * Checks as much of a bag as fits in a time or byte budget, then saves where it stopped in a {@link VerificationCursor}
+ * so that the next run continues from there. Run it regularly, like every night, to keep checking a bag too large to check in one go.<br>
+ * The payload and tag files listed in the manifests are checked in sorted order, in groups of at most 1024 files or 1 GiB,
+ * and the cursor is saved after each group. A group is only started if it is expected to fit in what is left of the budget,
+ * going by how fast the files before it were checked, so a run goes over the time budget by no more than the error in that guess.
+ * A file larger than the whole budget is checked anyway when it is the first of a run, so the cursor can always move forward.<br>
+ * The files are checked with the {@link BagVerifier}, using its read strategy, ordering, and threads.
+ * Completeness is not checked, see {@link PayloadVerifier#indexPayload(Bag, boolean)} for that.
+ */
+public final class BudgetedVerifier {
+  private static final Logger logger = LoggerFactory.getLogger(BudgetedVerifier.class);
+  private static final ResourceBundle messages = ResourceBundle.getBundle("MessageBundle");
+  public static final long UNLIMITED = Long.MAX_VALUE;
+  public static final int DEFAULT_FILES_PER_GROUP = 1024;
+  public static final long DEFAULT_BYTES_PER_GROUP = 1024L * 1024 * 1024;
+
+  private transient final BagVerifier verifier;
+  private transient final int filesPerGroup;
+  private transient final long bytesPerGroup;
+  private transient final long expectedBytesPerSecond;
+
+  /**
+   * Check in groups of at most 1024 files or 1 GiB,
+   * expecting {@link LargestFirstFileOrderingStrategy#DEFAULT_BYTES_PER_SECOND_PER_THREAD} until the first group is checked
+   *
+   * @param verifier checks the files
+   */
+  public BudgetedVerifier(final BagVerifier verifier){
+    this(verifier, DEFAULT_FILES_PER_GROUP, DEFAULT_BYTES_PER_GROUP, LargestFirstFileOrderingStrategy.DEFAULT_BYTES_PER_SECOND_PER_THREAD);
+  }
+
+  /**
+   * @param verifier checks the files
+   * @param filesPerGroup the most files checked before the cursor is saved
+   * @param bytesPerGroup the most bytes checked before the cursor is saved, unless a single file is larger
+   * @param expectedBytesPerSecond how fast the first group is expected to be checked, later groups go by how fast the earlier ones were
+   */
+  public BudgetedVerifier(final BagVerifier verifier, final int filesPerGroup, final long bytesPerGroup, final long expectedBytesPerSecond){
+    if(filesPerGroup < 1 || bytesPerGroup < 1 || expectedBytesPerSecond < 1){
+      throw new IllegalArgumentException("filesPerGroup, bytesPerGroup, and expectedBytesPerSecond must be at least 1 but were "
+          + filesPerGroup + ", " + bytesPerGroup + ", and " + expectedBytesPerSecond);
+    }
+    this.verifier = verifier;
+    this.filesPerGroup = filesPerGroup;
+    this.bytesPerGroup = bytesPerGroup;
+    this.expectedBytesPerSecond = expectedBytesPerSecond;
+  }
+
+  /**
+   * Check the files after the cursor until the budget is spent or every file has been checked,
+   * in which case the cursor goes back to the first file for the next run
+   *
+   * @param bag the bag to check
+   * @param cursor where the previous run stopped, saved as the files are checked
+   * @param maxMilliseconds how long to check files for, or {@link #UNLIMITED}
+   * @param maxBytes how many bytes to read, or {@link #UNLIMITED}
+   * @return what was found in the files checked by this run
+   *
+   * @throws IOException if the cursor can't be saved
+   * @throws InterruptedException if the threads are interrupted while checking the files
+   */
+  @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+  public VerificationReport verify(final Bag bag, final VerificationCursor cursor, final long maxMilliseconds, final long maxBytes)
+      throws IOException, InterruptedException{
+    if(maxMilliseconds < 1 || maxBytes < 1){
+      throw new IllegalArgumentException("maxMilliseconds and maxBytes must be at least 1 but were " + maxMilliseconds + " and " + maxBytes);
+    }
+    final long start = System.nanoTime();
+    final long maxNanoseconds = TimeUnit.MILLISECONDS.toNanos(maxMilliseconds);
+
+    final Collection<Manifest> manifests = new ArrayList<>(bag.getPayLoadManifests());
+    manifests.addAll(bag.getTagManifests());
+    final Map<Path, Map<SupportedAlgorithm, String>> fileToChecksumsMap = BagVerifier.groupChecksumsByFile(manifests);
+    final List<Path> files = new ArrayList<>(fileToChecksumsMap.keySet());
+    Collections.sort(files);
+
+    int next = resumePosition(files, bag.getRootDir(), cursor);
+    logger.info(messages.getString("resuming_budgeted_verification"), bag.getRootDir(), cursor.getLastFileChecked(), files.size() - next, files.size());
+
+    final VerificationReport report = new VerificationReport();
+    double bytesPerNanosecond = expectedBytesPerSecond / (double) TimeUnit.SECONDS.toNanos(1);
+    long bytesChecked = 0;
+    long filesChecked = 0;
+    boolean budgetSpent = false;
+    while(next < files.size() && !budgetSpent){
+      final Map<Path, Map<SupportedAlgorithm, String>> group = new LinkedHashMap<>();
+      final Map<Path, Long> fileToSizeMap = new HashMap<>();
+      long groupBytes = 0;
+      int groupFiles = 0;
+      while(next < files.size() && groupFiles < filesPerGroup && groupBytes < bytesPerGroup){
+        final Path file = files.get(next);
+        final long size = sizeOf(file);
+        if(size >= 0){
+          final long bytes = bytesChecked + groupBytes + size;
+          final double predictedNanoseconds = System.nanoTime() - start + (groupBytes + size) / bytesPerNanosecond;
+          if(bytes > maxBytes || predictedNanoseconds > maxNanoseconds){
+            if(bytesChecked + groupBytes > 0){
+              budgetSpent = true;
+              break;
+            }
+            logger.warn(messages.getString("file_larger_than_budget"), file);
+          }
+          group.put(file, fileToChecksumsMap.get(file));
+          fileToSizeMap.put(file, size);
+          groupBytes += size;
+        }
+        else{
+          //a missing file takes no time to check, so it is always part of the group
+          report.addMissingFiles(Collections.singleton(file));
+        }
+        groupFiles++;
+        next++;
+      }
+
+      if(groupFiles > 0){
+        final long groupStart = System.nanoTime();
+        addToReport(report, verifier.checkFiles(group, fileToSizeMap));
+        final long groupNanoseconds = System.nanoTime() - groupStart;
+        if(groupBytes > 0 && groupNanoseconds > 0){
+          bytesPerNanosecond = groupBytes / (double) groupNanoseconds;
+        }
+        bytesChecked += groupBytes;
+        filesChecked += groupFiles;
+        cursor.advance(bag.getRootDir().relativize(files.get(next - 1)), groupFiles, groupBytes);
+      }
+    }
+
+    if(next >= files.size()){
+      cursor.finishPass();
+      logger.info(messages.getString("budgeted_verification_pass_complete"), bag.getRootDir(), cursor.getCompletedPasses());
+    }
+    else{
+      logger.info(messages.getString("budget_spent"), filesChecked, bytesChecked, bag.getRootDir(), files.size() - next);
+    }
+    return report;
+  }
+
+  /*
+   * The index of the first file after the one the cursor is at. The files are sorted, so it is found by binary search
+   * even if the file the cursor is at has since been removed from the manifests.
+   */
+  static int resumePosition(final List<Path> files, final Path rootDir, final VerificationCursor cursor){
+    if(cursor.getLastFileChecked() == null){
+      return 0;
+    }
+    final int index = Collections.binarySearch(files, rootDir.resolve(cursor.getLastFileChecked()));
+    return index >= 0 ? index + 1 : -index - 1;
+  }
+
+  private static long sizeOf(final Path file){
+    try{
+      return Files.size(file);
+    }
+    catch(IOException e){
+      return -1;
+    }
+  }
+
+  private static void addToReport(final VerificationReport report, final List<Exception> failures){
+    for(final Exception e : failures){
+      if(e instanceof CorruptChecksumException){
+        report.addCorruptFile((CorruptChecksumException) e);
+      }
+      else{
+        report.addError(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,187 @@
+package gov.loc.repository.bagit.verify;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.ResourceBundle;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gov.loc.repository.bagit.exceptions.CorruptChecksumException;
+import gov.loc.repository.bagit.hash.ReadStrategy;
+import gov.loc.repository.bagit.hash.SmallFileReadStrategy;
+import gov.loc.repository.bagit.hash.SupportedAlgorithm;
+
+/**
+ * Checks a batch of files, usually from the same directory, against the checksum hashes listed for them in every manifest.
+ * Small files are read whole and checked one after another by this task, which saves handing each of them to the executor.
+ * Larger files are handed to the executor as their own {@link CheckFileHashesTask} so that they are still checked in parallel,
+ * which can be a different executor for each file, like the threads for the device the file is on.
+ * The latch is counted down once for each file.
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
+public class CheckFileBatchHashesTask implements Runnable {
+  private static final Logger logger = LoggerFactory.getLogger(CheckFileBatchHashesTask.class);
+  private static final ResourceBundle messages = ResourceBundle.getBundle("MessageBundle");
+  
+  private transient final Map<Path, Map<SupportedAlgorithm, String>> fileToChecksumsMap;
+  private transient final CountDownLatch latch;
+  private transient final Collection<Exception> exceptions;
+  private transient final Function<Path, ? extends Executor> executorForFile;
+  private transient final SmallFileReadStrategy smallFileStrategy;
+  private transient final ReadStrategy largeFileStrategy;
+  private transient final AtomicBoolean cancelled;
+  private transient final Map<Path, Long> fileToSizeMap;
+  private transient final FileCheckListener listener;
+
+  public CheckFileBatchHashesTask(final Map<Path, Map<SupportedAlgorithm, String>> fileToChecksumsMap, final CountDownLatch latch, 
+      final Collection<Exception> exceptions, final Executor executor, final SmallFileReadStrategy smallFileStrategy, final ReadStrategy largeFileStrategy) {
+    this(fileToChecksumsMap, latch, exceptions, executor, smallFileStrategy, largeFileStrategy, new AtomicBoolean());
+  }
+
+  /**
+   * @param fileToChecksumsMap the files to check with the checksum listed for each of them in each manifest
+   * @param latch counted down once for each file
+   * @param exceptions where any problem with a file is added
+   * @param executor runs the checks of the large files
+   * @param smallFileStrategy reads the small files and decides which files are small
+   * @param largeFileStrategy reads the large files
+   * @param cancelled set to true by another thread to skip the remaining files and stop reading the current ones
+   */
+  public CheckFileBatchHashesTask(final Map<Path, Map<SupportedAlgorithm, String>> fileToChecksumsMap, final CountDownLatch latch, 
+      final Collection<Exception> exceptions, final Executor executor, final SmallFileReadStrategy smallFileStrategy, 
+      final ReadStrategy largeFileStrategy, final AtomicBoolean cancelled) {
+    this(fileToChecksumsMap, latch, exceptions, executor, smallFileStrategy, largeFileStrategy, cancelled, Collections.emptyMap());
+  }
+
+  /**
+   * @param fileToChecksumsMap the files to check with the checksum listed for each of them in each manifest
+   * @param latch counted down once for each file
+   * @param exceptions where any problem with a file is added
+   * @param executor runs the checks of the large files
+   * @param smallFileStrategy reads the small files and decides which files are small
+   * @param largeFileStrategy reads the large files
+   * @param cancelled set to true by another thread to skip the remaining files and stop reading the current ones
+   * @param fileToSizeMap the sizes already known, like from a {@link PayloadIndex}, files not in it are looked up
+   */
+  public CheckFileBatchHashesTask(final Map<Path, Map<SupportedAlgorithm, String>> fileToChecksumsMap, final CountDownLatch latch, 
+      final Collection<Exception> exceptions, final Executor executor, final SmallFileReadStrategy smallFileStrategy, 
+      final ReadStrategy largeFileStrategy, final AtomicBoolean cancelled, final Map<Path, Long> fileToSizeMap) {
+    this(fileToChecksumsMap, latch, exceptions, executor, smallFileStrategy, largeFileStrategy, cancelled, fileToSizeMap, FileCheckListener.NONE);
+  }
+
+  /**
+   * @param fileToChecksumsMap the files to check with the checksum listed for each of them in each manifest
+   * @param latch counted down once for each file
+   * @param exceptions where any problem with a file is added
+   * @param executor runs the checks of the large files
+   * @param smallFileStrategy reads the small files and decides which files are small
+   * @param largeFileStrategy reads the large files
+   * @param cancelled set to true by another thread to skip the remaining files and stop reading the current ones
+   * @param fileToSizeMap the sizes already known, like from a {@link PayloadIndex}, files not in it are looked up
+   * @param listener told if each file was verified or failed
+   */
+  public CheckFileBatchHashesTask(final Map<Path, Map<SupportedAlgorithm, String>> fileToChecksumsMap, final CountDownLatch latch, 
+      final Collection<Exception> exceptions, final Executor executor, final SmallFileReadStrategy smallFileStrategy, 
+      final ReadStrategy largeFileStrategy, final AtomicBoolean cancelled, final Map<Path, Long> fileToSizeMap, final FileCheckListener listener) {
+    this(fileToChecksumsMap, latch, exceptions, file -> executor, smallFileStrategy, largeFileStrategy, cancelled, fileToSizeMap, listener);
+  }
+
+  /**
+   * @param fileToChecksumsMap the files to check with the checksum listed for each of them in each manifest
+   * @param latch counted down once for each file
+   * @param exceptions where any problem with a file is added
+   * @param executorForFile gives the executor that runs the check of each large file
+   * @param smallFileStrategy reads the small files and decides which files are small
+   * @param largeFileStrategy reads the large files
+   * @param cancelled set to true by another thread to skip the remaining files and stop reading the current ones
+   * @param fileToSizeMap the sizes already known, like from a {@link PayloadIndex}, files not in it are looked up
+   * @param listener told if each file was verified or failed
+   */
+  public CheckFileBatchHashesTask(final Map<Path, Map<SupportedAlgorithm, String>> fileToChecksumsMap, final CountDownLatch latch, 
+      final Collection<Exception> exceptions, final Function<Path, ? extends Executor> executorForFile, final SmallFileReadStrategy smallFileStrategy, 
+      final ReadStrategy largeFileStrategy, final AtomicBoolean cancelled, final Map<Path, Long> fileToSizeMap, final FileCheckListener listener) {
+    this.fileToChecksumsMap = fileToChecksumsMap;
+    this.latch = latch;
+    this.exceptions = exceptions;
+    this.executorForFile = executorForFile;
+    this.smallFileStrategy = smallFileStrategy;
+    this.largeFileStrategy = largeFileStrategy;
+    this.cancelled = cancelled;
+    this.fileToSizeMap = fileToSizeMap;
+    this.listener = listener;
+  }
+
+  @Override
+  @SuppressWarnings({"PMD.AvoidInstantiatingObjectsInLoops", "PMD.AvoidCatchingGenericException"})
+  public void run() {
+    logger.debug(messages.getString("checking_batch_of_files"), fileToChecksumsMap.size());
+    for(final Entry<Path, Map<SupportedAlgorithm, String>> entry : fileToChecksumsMap.entrySet()){
+      boolean handedOff = false;
+      try{
+        if(cancelled.get()){
+          logger.debug(messages.getString("stopped_checking_file"), entry.getKey());
+        }
+        else if(smallFileStrategy.isSmall(getSize(entry.getKey()))){
+          //looked up before reading so that a change made while the file is read isn't taken as verified
+          final BasicFileAttributes attributes = Files.readAttributes(entry.getKey(), BasicFileAttributes.class);
+          CheckFileHashesTask.checkFile(entry.getKey(), entry.getValue(), smallFileStrategy, cancelled);
+          listener.fileVerified(entry.getKey(), entry.getValue(), attributes);
+        }
+        else{
+          executorForFile.apply(entry.getKey()).execute(new CheckFileHashesTask(entry.getKey(), entry.getValue(), latch, exceptions, largeFileStrategy, cancelled, listener));
+          handedOff = true;
+        }
+      }
+      catch(NoSuchFileException e){
+        //if the file doesn't exist it will be caught when indexing the payload
+        logger.debug(messages.getString("file_to_check_does_not_exist"), entry.getKey());
+      }
+      catch(IOException | CorruptChecksumException | NoSuchAlgorithmException e){
+        exceptions.add(e);
+        listener.fileFailed(entry.getKey(), e);
+      }
+      catch(CancellationException e){
+        if(cancelled.get()){
+          logger.debug(messages.getString("stopped_checking_file"), entry.getKey());
+        }
+        else{
+          final Exception failure = CheckFileHashesTask.stoppedWithoutBeingCancelled(e);
+          exceptions.add(failure);
+          listener.fileFailed(entry.getKey(), failure);
+        }
+      }
+      catch(RuntimeException e){
+        //keep going so that every file in the batch is counted down
+        exceptions.add(e);
+        listener.fileFailed(entry.getKey(), e);
+      }
+      finally{
+        if(!handedOff){
+          latch.countDown();
+        }
+      }
+    }
+  }
+
+  private long getSize(final Path file) throws IOException{
+    final Long size = fileToSizeMap.get(file);
+    if(size == null){
+      return Files.size(file);
+    }
+    return size;
+  }
+}
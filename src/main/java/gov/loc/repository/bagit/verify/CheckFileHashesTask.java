@@ -0,0 +1,157 @@
+package gov.loc.repository.bagit.verify;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.ResourceBundle;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gov.loc.repository.bagit.exceptions.CorruptChecksumException;
+import gov.loc.repository.bagit.hash.CancellableStreamingHasher;
+import gov.loc.repository.bagit.hash.FileChannelReadStrategy;
+import gov.loc.repository.bagit.hash.Hasher;
+import gov.loc.repository.bagit.hash.ReadStrategy;
+import gov.loc.repository.bagit.hash.StreamingHasher;
+import gov.loc.repository.bagit.hash.StreamingHasherCache;
+import gov.loc.repository.bagit.hash.SupportedAlgorithm;
+
+/**
+ * Checks a given file against the checksum hashes listed for it in every manifest,
+ * computing all the checksum hashes while only reading the file once.
+ * This is thread safe so you can call many at a time.
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
+public class CheckFileHashesTask implements Runnable {
+  private static final Logger logger = LoggerFactory.getLogger(CheckFileHashesTask.class);
+  private static final ResourceBundle messages = ResourceBundle.getBundle("MessageBundle");
+
+  private transient final Path file;
+  private transient final Map<SupportedAlgorithm, String> algorithmToChecksumMap;
+  private transient final CountDownLatch latch;
+  private transient final Collection<Exception> exceptions;
+  private transient final ReadStrategy readStrategy;
+  private transient final AtomicBoolean cancelled;
+  private transient final FileCheckListener listener;
+
+  public CheckFileHashesTask(final Path file, final Map<SupportedAlgorithm, String> algorithmToChecksumMap, final CountDownLatch latch, final Collection<Exception> exceptions) {
+    this(file, algorithmToChecksumMap, latch, exceptions, new FileChannelReadStrategy());
+  }
+
+  public CheckFileHashesTask(final Path file, final Map<SupportedAlgorithm, String> algorithmToChecksumMap, final CountDownLatch latch, final Collection<Exception> exceptions, final ReadStrategy readStrategy) {
+    this(file, algorithmToChecksumMap, latch, exceptions, readStrategy, new AtomicBoolean());
+  }
+
+  /**
+   * @param file the file to check
+   * @param algorithmToChecksumMap the checksum listed for the file in each manifest
+   * @param latch counted down once the file has been checked
+   * @param exceptions where any problem with the file is added
+   * @param readStrategy how the file is read
+   * @param cancelled set to true by another thread to skip the file, or stop reading it if it has already started
+   */
+  public CheckFileHashesTask(final Path file, final Map<SupportedAlgorithm, String> algorithmToChecksumMap, final CountDownLatch latch, 
+      final Collection<Exception> exceptions, final ReadStrategy readStrategy, final AtomicBoolean cancelled) {
+    this(file, algorithmToChecksumMap, latch, exceptions, readStrategy, cancelled, FileCheckListener.NONE);
+  }
+
+  /**
+   * @param file the file to check
+   * @param algorithmToChecksumMap the checksum listed for the file in each manifest
+   * @param latch counted down once the file has been checked
+   * @param exceptions where any problem with the file is added
+   * @param readStrategy how the file is read
+   * @param cancelled set to true by another thread to skip the file, or stop reading it if it has already started
+   * @param listener told if the file was verified or failed
+   */
+  public CheckFileHashesTask(final Path file, final Map<SupportedAlgorithm, String> algorithmToChecksumMap, final CountDownLatch latch, 
+      final Collection<Exception> exceptions, final ReadStrategy readStrategy, final AtomicBoolean cancelled, final FileCheckListener listener) {
+    this.file = file;
+    this.algorithmToChecksumMap = algorithmToChecksumMap;
+    this.latch = latch;
+    this.exceptions = exceptions;
+    this.readStrategy = readStrategy;
+    this.cancelled = cancelled;
+    this.listener = listener;
+  }
+
+  @Override
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  public void run() {
+    try {
+      if(!cancelled.get()){
+        //looked up before reading so that a change made while the file is read isn't taken as verified
+        final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        checkFile(file, algorithmToChecksumMap, readStrategy, cancelled);
+        listener.fileVerified(file, algorithmToChecksumMap, attributes);
+      }
+    } catch (NoSuchFileException e) {
+      //if the file doesn't exist it will be caught when indexing the payload
+      logger.debug(messages.getString("file_to_check_does_not_exist"), file);
+    } catch (IOException | CorruptChecksumException | NoSuchAlgorithmException e) {
+      exceptions.add(e);
+      listener.fileFailed(file, e);
+    } catch (CancellationException e) {
+      if(cancelled.get()){
+        logger.debug(messages.getString("stopped_checking_file"), file);
+      }
+      else{
+        final Exception failure = stoppedWithoutBeingCancelled(e);
+        exceptions.add(failure);
+        listener.fileFailed(file, failure);
+      }
+    } catch (RuntimeException e) {
+      //the latch is still counted down, so the file has to be reported or it would pass without being checked
+      exceptions.add(e);
+      listener.fileFailed(file, e);
+    }
+    finally {
+      latch.countDown();
+    }
+  }
+
+  /*
+   * A check that stopped without the verification being cancelled, like when its thread was interrupted waiting on a rate limiter,
+   * never finished reading the file, so it is a failure and not a skip. The cause, like an InterruptedIOException, says why.
+   */
+  static Exception stoppedWithoutBeingCancelled(final CancellationException e){
+    return e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+  }
+
+  /*
+   * Hash the file with every algorithm at once and compare with the expected checksum hashes
+   */
+  @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+  static void checkFile(final Path file, final Map<SupportedAlgorithm, String> algorithmToChecksumMap, final ReadStrategy readStrategy, 
+      final AtomicBoolean cancelled) throws IOException, CorruptChecksumException, NoSuchAlgorithmException{
+    logger.debug(messages.getString("checking_checksums_in_all_manifests"), file, algorithmToChecksumMap.size());
+    final List<StreamingHasher> hashers = new ArrayList<>(algorithmToChecksumMap.size());
+    for(final SupportedAlgorithm algorithm : algorithmToChecksumMap.keySet()){
+      hashers.add(new CancellableStreamingHasher(StreamingHasherCache.get(algorithm), cancelled));
+    }
+    
+    Hasher.updateHashers(file, hashers, readStrategy);
+
+    //iteration order of an unmodified map is stable, so the hashers line up with the algorithms
+    int index = 0;
+    for(final Entry<SupportedAlgorithm, String> entry : algorithmToChecksumMap.entrySet()){
+      final byte[] hash = hashers.get(index).digest();
+      if(!Hasher.isSameHash(hash, entry.getValue())){
+        throw new CorruptChecksumException(messages.getString("corrupt_checksum_error"), file, entry.getKey().getMessageDigestName(), entry.getValue(), Hasher.formatHash(hash));
+      }
+      index++;
+    }
+  }
+}
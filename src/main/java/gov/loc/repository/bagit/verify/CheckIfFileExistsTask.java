@@ -1,10 +1,8 @@
 package gov.loc.repository.bagit.verify;
 
 import java.io.IOException;
-import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.text.Normalizer;
 import java.util.ResourceBundle;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
@@ -12,6 +10,8 @@ import java.util.concurrent.CountDownLatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import gov.loc.repository.bagit.util.NormalizedFilenameIndex;
+
 /**
  * A simple task to check if a file exists on the filesystem. This is thread safe, so many can be called at once.
  */
@@ -22,20 +22,32 @@ public class CheckIfFileExistsTask implements Runnable {
   private transient final Path file;
   private transient final Set<Path> missingFiles;
   private transient final CountDownLatch latch;
+  private transient final NormalizedFilenameIndex normalizedFilenameIndex;
   
   public CheckIfFileExistsTask(final Path file, final Set<Path> missingFiles, final CountDownLatch latch) {
+    this(file, missingFiles, latch, new NormalizedFilenameIndex());
+  }
+  
+  /**
+   * @param file the file to check
+   * @param missingFiles where the file is added if it doesn't exist
+   * @param latch counted down once the file has been checked
+   * @param normalizedFilenameIndex shared by all the tasks so each directory is only listed once
+   */
+  public CheckIfFileExistsTask(final Path file, final Set<Path> missingFiles, final CountDownLatch latch, 
+      final NormalizedFilenameIndex normalizedFilenameIndex) {
     this.file = file;
     this.latch = latch;
     this.missingFiles = missingFiles;
+    this.normalizedFilenameIndex = normalizedFilenameIndex;
   }
 
   @Override
   public void run() {
-    final boolean existsNormalized = existsNormalized();
     final boolean fileExists = Files.exists(file);
     
     if(!fileExists){
-      if(existsNormalized){
+      if(existsNormalized()){
         logger.warn(messages.getString("different_normalization_on_filesystem_warning"), file);
       }
       else{
@@ -53,20 +65,11 @@ public class CheckIfFileExistsTask implements Runnable {
    * @return true if the normalized filename matches one on disk in the specified folder
    */
   private boolean existsNormalized(){
-    final String normalizedFile = Normalizer.normalize(file.toString(), Normalizer.Form.NFD);
-    final Path parent = file.getParent();
-    if(parent != null){
-      try(final DirectoryStream<Path> files = Files.newDirectoryStream(parent)){
-        for(final Path fileToCheck : files){
-          final String normalizedFileToCheck = Normalizer.normalize(fileToCheck.toString(), Normalizer.Form.NFD);
-          if(normalizedFile.equals(normalizedFileToCheck)){
-            return true;
-          }
-        }
-      }
-      catch(IOException e){
-        logger.error(messages.getString("error_reading_normalized_file"), parent, normalizedFile, e);
-      }
+    try{
+      return !normalizedFilenameIndex.getFilesWithSameNormalization(file).isEmpty();
+    }
+    catch(IOException e){
+      logger.error(messages.getString("error_reading_normalized_file"), file.getParent(), file, e);
     }
     
     return false;
@@ -6,6 +6,7 @@ import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Map.Entry;
 import java.util.ResourceBundle;
 import java.util.concurrent.CountDownLatch;
@@ -14,7 +15,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import gov.loc.repository.bagit.exceptions.CorruptChecksumException;
+import gov.loc.repository.bagit.hash.FileChannelReadStrategy;
 import gov.loc.repository.bagit.hash.Hasher;
+import gov.loc.repository.bagit.hash.MessageDigestCache;
+import gov.loc.repository.bagit.hash.MessageDigestStreamingHasher;
+import gov.loc.repository.bagit.hash.ReadStrategy;
+import gov.loc.repository.bagit.hash.StreamingHasher;
 
 /**
  * Checks a give file to make sure the given checksum hash matches the computed checksum hash.
@@ -29,19 +35,25 @@ public class CheckManifestHashesTask implements Runnable {
   private transient final CountDownLatch latch;
   private transient final Collection<Exception> exceptions;
   private transient final String algorithm;
+  private transient final ReadStrategy readStrategy;
   
   public CheckManifestHashesTask(final Entry<Path, String> entry, final String algorithm, final CountDownLatch latch, final Collection<Exception> exceptions) {
+    this(entry, algorithm, latch, exceptions, new FileChannelReadStrategy());
+  }
+  
+  public CheckManifestHashesTask(final Entry<Path, String> entry, final String algorithm, final CountDownLatch latch, final Collection<Exception> exceptions, final ReadStrategy readStrategy) {
     this.entry = entry;
     this.algorithm = algorithm;
     this.latch = latch;
     this.exceptions = exceptions;
+    this.readStrategy = readStrategy;
   }
 
   @Override
   public void run() {
     try {
-      final MessageDigest messageDigest = MessageDigest.getInstance(algorithm);
-      checkManifestEntry(entry, messageDigest, algorithm);
+      final MessageDigest messageDigest = MessageDigestCache.get(algorithm);
+      checkManifestEntry(entry, messageDigest, algorithm, readStrategy);
     } catch (IOException | CorruptChecksumException | NoSuchAlgorithmException e) {
       exceptions.add(e);
     }
@@ -49,12 +61,17 @@ public class CheckManifestHashesTask implements Runnable {
   }
   
   protected static void checkManifestEntry(final Entry<Path, String> entry, final MessageDigest messageDigest, final String algorithm) throws IOException, CorruptChecksumException{
+    checkManifestEntry(entry, messageDigest, algorithm, new FileChannelReadStrategy());
+  }
+  
+  protected static void checkManifestEntry(final Entry<Path, String> entry, final MessageDigest messageDigest, final String algorithm, final ReadStrategy readStrategy) throws IOException, CorruptChecksumException{
     if(Files.exists(entry.getKey())){
       logger.debug(messages.getString("checking_checksums"), entry.getKey(), entry.getValue());
-      final String hash = Hasher.hash(entry.getKey(), messageDigest);
-      logger.debug("computed hash [{}] for file [{}]", hash, entry.getKey());
-      if(!hash.equals(entry.getValue())){
-        throw new CorruptChecksumException(messages.getString("corrupt_checksum_error"), entry.getKey(), algorithm, entry.getValue(), hash);
+      final StreamingHasher hasher = new MessageDigestStreamingHasher(messageDigest);
+      Hasher.updateHashers(entry.getKey(), Collections.singletonList(hasher), readStrategy);
+      final byte[] hash = hasher.digest();
+      if(!Hasher.isSameHash(hash, entry.getValue())){
+        throw new CorruptChecksumException(messages.getString("corrupt_checksum_error"), entry.getKey(), algorithm, entry.getValue(), Hasher.formatHash(hash));
       }
     }
     //if the file doesn't exist it will be caught by checkAllFilesListedInManifestExist method
@@ -0,0 +1,137 @@
+package gov.loc.repository.bagit.verify;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.concurrent.ExecutorService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gov.loc.repository.bagit.domain.Bag;
+import gov.loc.repository.bagit.domain.ChunkFixity;
+import gov.loc.repository.bagit.domain.FileChunk;
+import gov.loc.repository.bagit.exceptions.CorruptChecksumException;
+import gov.loc.repository.bagit.exceptions.CorruptChunksException;
+import gov.loc.repository.bagit.exceptions.InvalidBagitFileFormatException;
+import gov.loc.repository.bagit.exceptions.MaliciousPathException;
+import gov.loc.repository.bagit.exceptions.UnsupportedAlgorithmException;
+import gov.loc.repository.bagit.hash.BagitAlgorithmNameToSupportedAlgorithmMapping;
+import gov.loc.repository.bagit.hash.ChunkHasher;
+import gov.loc.repository.bagit.reader.ChunkFixityReader;
+import gov.loc.repository.bagit.util.PathUtils;
+
+/**
+ * Uses the chunk fixity of a bag, if it has any, to find which byte ranges of a corrupt file are damaged.
+ */
+public final class ChunkFixityVerifier {
+  private static final Logger logger = LoggerFactory.getLogger(ChunkFixityVerifier.class);
+  private static final ResourceBundle messages = ResourceBundle.getBundle("MessageBundle");
+  
+  private ChunkFixityVerifier(){
+    //intentionally left empty
+  }
+  
+  /**
+   * Check the chunks of a file that didn't match its manifest checksum, hashing the chunks in parallel.
+   * The chunk fixity is only used to find the damage, so any problem using it leaves the original exception as it was.
+   * When there can be more than one corrupt file, read the chunk fixity once with {@link #readChunkFixity(Bag, BagitAlgorithmNameToSupportedAlgorithmMapping)}
+   * and use {@link #findCorruptChunks(List, CorruptChecksumException, ExecutorService)} for each file instead.
+   * 
+   * @param bag the bag that contains the corrupt file
+   * @param exception the exception for the corrupt file
+   * @param nameMapping the mapping between BagIt algorithm name and the java supported algorithm
+   * @param executor runs one task per chunk
+   * @return a {@link CorruptChunksException} with the damaged byte ranges, 
+   * or the original exception if the file has no chunk fixity or all its chunks match
+   * 
+   * @throws InterruptedException if interrupted while waiting for the chunks to be hashed
+   */
+  public static CorruptChecksumException findCorruptChunks(final Bag bag, final CorruptChecksumException exception, 
+      final BagitAlgorithmNameToSupportedAlgorithmMapping nameMapping, final ExecutorService executor) throws InterruptedException{
+    return findCorruptChunks(readChunkFixity(bag, nameMapping), exception, executor);
+  }
+  
+  /**
+   * Read all the chunk fixity files of a bag
+   * 
+   * @param bag the bag to read the chunk fixity of
+   * @param nameMapping the mapping between BagIt algorithm name and the java supported algorithm
+   * @return the chunk fixity for each algorithm, which is empty if the bag has none or it can't be read
+   */
+  public static List<ChunkFixity> readChunkFixity(final Bag bag, final BagitAlgorithmNameToSupportedAlgorithmMapping nameMapping){
+    try{
+      return ChunkFixityReader.readAllChunkFixity(nameMapping, PathUtils.getBagitDir(bag), bag.getRootDir(), bag.getFileEncoding());
+    }
+    catch(IOException | MaliciousPathException | UnsupportedAlgorithmException | InvalidBagitFileFormatException e){
+      logger.warn(messages.getString("unable_to_read_chunk_fixity"), bag.getRootDir(), e);
+      return Collections.emptyList();
+    }
+  }
+  
+  /**
+   * Check the chunks of a file that didn't match its manifest checksum, hashing the chunks in parallel.
+   * The chunk fixity is only used to find the damage, so any problem using it leaves the original exception as it was.
+   * 
+   * @param chunkFixities the chunk fixity of the bag, from {@link #readChunkFixity(Bag, BagitAlgorithmNameToSupportedAlgorithmMapping)}
+   * @param exception the exception for the corrupt file
+   * @param executor runs one task per chunk
+   * @return a {@link CorruptChunksException} with the damaged byte ranges, 
+   * or the original exception if the file has no chunk fixity or all its chunks match
+   * 
+   * @throws InterruptedException if interrupted while waiting for the chunks to be hashed
+   */
+  public static CorruptChecksumException findCorruptChunks(final List<ChunkFixity> chunkFixities, final CorruptChecksumException exception, 
+      final ExecutorService executor) throws InterruptedException{
+    final Path file = exception.getPath();
+    
+    try{
+      for(final ChunkFixity chunkFixity : chunkFixities){
+        final List<FileChunk> expectedChunks = chunkFixity.getFileToChunksMap().get(file);
+        if(expectedChunks != null && !expectedChunks.isEmpty()){
+          logger.info(messages.getString("locating_corrupt_chunks"), file);
+          final List<FileChunk> corruptChunks = compareChunks(file, expectedChunks, chunkFixity, executor);
+          if(!corruptChunks.isEmpty()){
+            return new CorruptChunksException(messages.getString("corrupt_chunks_error"), exception, corruptChunks);
+          }
+        }
+      }
+    }
+    catch(IOException | NoSuchAlgorithmException e){
+      logger.warn(messages.getString("unable_to_locate_corrupt_chunks"), file, e);
+    }
+    
+    return exception;
+  }
+  
+  /*
+   * Hash the same ranges again and keep the ones that changed, plus anything appended after the last chunk.
+   * The checksums are compared exactly, the same as Hasher.isSameHash compares the manifest checksums.
+   */
+  private static List<FileChunk> compareChunks(final Path file, final List<FileChunk> expectedChunks, final ChunkFixity chunkFixity, 
+      final ExecutorService executor) throws IOException, NoSuchAlgorithmException, InterruptedException{
+    final List<FileChunk> ranges = new ArrayList<>(expectedChunks);
+    final FileChunk lastChunk = expectedChunks.get(expectedChunks.size() - 1);
+    final long expectedSize = lastChunk.getOffset() + lastChunk.getLength();
+    final long size = Files.size(file);
+    if(size > expectedSize){
+      ranges.add(new FileChunk(expectedSize, size - expectedSize, null));
+    }
+    
+    final List<FileChunk> computedChunks = ChunkHasher.hashChunks(file, ranges, chunkFixity.getAlgorithm(), executor);
+    final List<FileChunk> corruptChunks = new ArrayList<>();
+    for(int index = 0; index < computedChunks.size(); index++){
+      final FileChunk computed = computedChunks.get(index);
+      if(index >= expectedChunks.size() || !computed.getChecksum().equals(expectedChunks.get(index).getChecksum())){
+        corruptChunks.add(computed);
+      }
+    }
+    
+    return corruptChunks;
+  }
+}
@@ -0,0 +1,35 @@
+package gov.loc.repository.bagit.verify;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups files by their directory, keeping the order in which the directories and the files in them were given.
+ * This is the default {@link FileOrderingStrategy}.
+ */
+public class DirectoryFileOrderingStrategy implements FileOrderingStrategy {
+
+  @Override
+  public List<Path> order(final Collection<Path> files) {
+    final Map<Path, List<Path>> directoryToFilesMap = new LinkedHashMap<>();
+    for(final Path file : files){
+      directoryToFilesMap.computeIfAbsent(file.getParent(), key -> new ArrayList<>()).add(file);
+    }
+    
+    final List<Path> ordered = new ArrayList<>(files.size());
+    for(final List<Path> directoryFiles : directoryToFilesMap.values()){
+      ordered.addAll(directoryFiles);
+    }
+    
+    return ordered;
+  }
+  
+  @Override
+  public String toString() {
+    return "DirectoryFileOrderingStrategy";
+  }
+}
@@ -0,0 +1,53 @@
+package gov.loc.repository.bagit.verify;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+
+import gov.loc.repository.bagit.hash.SupportedAlgorithm;
+
+/**
+ * Told about each file once it has been checked against the checksums listed for it in every manifest.
+ * Called by the thread that checked the file, so implementations must be thread safe and should return quickly.
+ */
+public interface FileCheckListener {
+  /**
+   * Does nothing, used when no one is listening
+   */
+  FileCheckListener NONE = new FileCheckListener(){
+    @Override
+    public void fileVerified(final Path file, final Map<SupportedAlgorithm, String> algorithmToChecksumMap) {
+      //intentionally left empty
+    }
+
+    @Override
+    public void fileFailed(final Path file, final Exception problem) {
+      //intentionally left empty
+    }
+  };
+
+  /**
+   * @param file the file whose checksums all matched
+   * @param algorithmToChecksumMap the checksum listed for the file in each manifest, which it matched
+   */
+  void fileVerified(Path file, Map<SupportedAlgorithm, String> algorithmToChecksumMap);
+
+  /**
+   * Called instead of {@link #fileVerified(Path, Map)} when the size and last modified time of the file were looked up
+   * before it was read, so that a file changed while or after it was read can be told apart from the one that was checked.
+   * By default just calls {@link #fileVerified(Path, Map)}.
+   *
+   * @param file the file whose checksums all matched
+   * @param algorithmToChecksumMap the checksum listed for the file in each manifest, which it matched
+   * @param attributesBeforeRead the attributes of the file from just before it was read
+   */
+  default void fileVerified(final Path file, final Map<SupportedAlgorithm, String> algorithmToChecksumMap, final BasicFileAttributes attributesBeforeRead){
+    fileVerified(file, algorithmToChecksumMap);
+  }
+
+  /**
+   * @param file the file that didn't match a checksum or couldn't be read
+   * @param problem why the file failed
+   */
+  void fileFailed(Path file, Exception problem);
+}
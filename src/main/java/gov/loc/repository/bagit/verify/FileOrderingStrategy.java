@@ -0,0 +1,63 @@
+package gov.loc.repository.bagit.verify;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implement this interface to change the order in which {@link BagVerifier} checks the files of a bag.
+ * Files in the same directory should be next to each other, since consecutive files of a directory are checked together.<br>
+ * See {@link DirectoryFileOrderingStrategy} for the default
+ */
+public interface FileOrderingStrategy {
+  
+  /**
+   * Put the files in the order they should be checked
+   * 
+   * @param files the files to check
+   * @return the same files in the order to check them
+   */
+  List<Path> order(Collection<Path> files);
+  
+  /**
+   * Put the files in the order they should be checked, when the size of every file is already known, like from walking the directory.
+   * Override it to use the sizes instead of looking them up again. By default just calls {@link #order(Collection)}.
+   * 
+   * @param sizes the size of each file to check
+   * @return the same files in the order to check them
+   */
+  default List<Path> order(final Map<Path, Long> sizes){
+    return order(sizes.keySet());
+  }
+  
+  /**
+   * Limit how many groups of files are checked at the same time, so that the order is mostly kept while reading.
+   * Within a limited window the files of a group are all read by the same thread, one after another.
+   * 
+   * @return the maximum number of groups of files that are checked at the same time, or 0 for no limit
+   */
+  default int getConcurrencyWindow(){
+    return 0;
+  }
+  
+  /**
+   * Whether the file can be checked in the same group as the files before it from its directory. 
+   * A file that can't be grouped is checked on its own.
+   * 
+   * @param file one of the files that was ordered
+   * @return true if the file can be grouped with the files before it
+   */
+  default boolean canGroup(final Path file){
+    return true;
+  }
+  
+  /**
+   * Called once all the files that were ordered have been checked
+   * 
+   * @param elapsedNanoseconds how long it took to check the files
+   */
+  default void finished(final long elapsedNanoseconds){
+    //intentionally left empty
+  }
+}
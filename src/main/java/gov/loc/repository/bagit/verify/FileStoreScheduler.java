@@ -0,0 +1,177 @@
+package gov.loc.repository.bagit.verify;
+
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gov.loc.repository.bagit.hash.DigestExecutorReadStrategy;
+import gov.loc.repository.bagit.hash.ReadStrategy;
+
+/**
+ * Gives each storage device its own bounded thread pool for reading files, so that a slow network mount
+ * can't take the threads that a fast local disk could be using, and each device is read with its own number of concurrent reads.
+ * The checksums are computed on a separate pool sized for the CPU, see {@link #getReadStrategy()}.<br>
+ * Files are grouped by the device they are on, following symbolic links, and the device is looked up
+ * with {@link Files#getFileStore(Path)} the first time it is seen. A limit can be set for a file store by its name,
+ * for example <i>server:/export</i>, or for all file stores of a type, for example <i>nfs</i>.
+ */
+public class FileStoreScheduler implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(FileStoreScheduler.class);
+  private static final ResourceBundle messages = ResourceBundle.getBundle("MessageBundle");
+  private static final String DEVICE_ATTRIBUTE = "unix:dev";
+  public static final int DEFAULT_CONCURRENCY = 4;
+
+  private transient final int defaultConcurrency;
+  private transient final Map<String, Integer> storeNameToConcurrencyMap = new ConcurrentHashMap<>();
+  private transient final Map<String, Integer> storeTypeToConcurrencyMap = new ConcurrentHashMap<>();
+  private transient final Map<Object, ExecutorService> deviceToExecutorMap = new ConcurrentHashMap<>();
+  private transient final Map<FileStore, ExecutorService> storeToExecutorMap = new ConcurrentHashMap<>();
+  private transient final ExecutorService unknownStoreExecutor;
+  private transient final ExecutorService digestExecutor;
+  private transient final ReadStrategy readStrategy;
+
+  /**
+   * Create a FileStoreScheduler that reads 4 files at once from each device,
+   * and computes the checksums on {@link BoundedThreadPoolExecutor#DEFAULT_PARALLELISM} threads
+   */
+  public FileStoreScheduler(){
+    this(DEFAULT_CONCURRENCY, BoundedThreadPoolExecutor.DEFAULT_PARALLELISM);
+  }
+
+  /**
+   * @param defaultConcurrency the number of files read at once from a device that has no limit of its own
+   * @param digestThreads the number of threads computing the checksums
+   */
+  public FileStoreScheduler(final int defaultConcurrency, final int digestThreads){
+    checkConcurrency(defaultConcurrency);
+    checkConcurrency(digestThreads);
+    this.defaultConcurrency = defaultConcurrency;
+    this.unknownStoreExecutor = createExecutor(defaultConcurrency);
+    this.digestExecutor = createExecutor(digestThreads);
+    this.readStrategy = new DigestExecutorReadStrategy(digestExecutor);
+  }
+
+  /**
+   * Set how many files are read at once from a file store, which takes precedence over the limit for its type
+   *
+   * @param storeName the {@link FileStore#name()} of the file store
+   * @param concurrency the number of files read at once
+   */
+  public void setStoreConcurrency(final String storeName, final int concurrency){
+    checkConcurrency(concurrency);
+    storeNameToConcurrencyMap.put(storeName, concurrency);
+  }
+
+  /**
+   * Set how many files are read at once from each file store of a type
+   *
+   * @param storeType the {@link FileStore#type()} of the file stores, like nfs or ext4
+   * @param concurrency the number of files read at once
+   */
+  public void setTypeConcurrency(final String storeType, final int concurrency){
+    checkConcurrency(concurrency);
+    storeTypeToConcurrencyMap.put(storeType, concurrency);
+  }
+
+  /**
+   * Get the pool that reads files from the same device as this file
+   *
+   * @param file the file to read
+   * @return the thread pool for the device of the file
+   */
+  public ExecutorService getExecutor(final Path file){
+    try{
+      final Object device = Files.getAttribute(file, DEVICE_ATTRIBUTE);
+      return deviceToExecutorMap.computeIfAbsent(device, key -> getExecutor(file, getFileStore(file)));
+    }
+    catch(UnsupportedOperationException | IllegalArgumentException e){
+      //no device numbers, so look up the file store every time
+      return getExecutor(file, getFileStore(file));
+    }
+    catch(IOException e){
+      logger.debug(messages.getString("file_store_not_found"), file);
+      return unknownStoreExecutor;
+    }
+  }
+
+  /**
+   * Identify the device a file is on, so that files on the same device can be read together
+   *
+   * @param file the file to read
+   * @return the device number, or the file store when there are no device numbers, or null if neither can be found
+   */
+  public Object getDevice(final Path file){
+    try{
+      return Files.getAttribute(file, DEVICE_ATTRIBUTE);
+    }
+    catch(UnsupportedOperationException | IllegalArgumentException e){
+      return getFileStore(file);
+    }
+    catch(IOException e){
+      logger.debug(messages.getString("file_store_not_found"), file);
+      return null;
+    }
+  }
+
+  private ExecutorService getExecutor(final Path file, final FileStore store){
+    if(store == null){
+      return unknownStoreExecutor;
+    }
+
+    return storeToExecutorMap.computeIfAbsent(store, key -> {
+      final Integer byName = storeNameToConcurrencyMap.get(store.name());
+      final Integer byType = storeTypeToConcurrencyMap.get(store.type());
+      final int concurrency = byName != null ? byName : byType != null ? byType : defaultConcurrency;
+      logger.info(messages.getString("file_store_concurrency"), store.name(), store.type(), file, concurrency);
+      return createExecutor(concurrency);
+    });
+  }
+
+  private static FileStore getFileStore(final Path file){
+    try{
+      return Files.getFileStore(file);
+    }
+    catch(IOException e){
+      logger.debug(messages.getString("file_store_not_found"), file);
+      return null;
+    }
+  }
+
+  /**
+   * Reads files on the calling thread, which is one of the threads for the device,
+   * and computes the checksums on the threads sized for the CPU
+   *
+   * @return a {@link ReadStrategy} that uses the pool of threads sized for the CPU
+   */
+  public ReadStrategy getReadStrategy(){
+    return readStrategy;
+  }
+
+  private static ExecutorService createExecutor(final int threads){
+    return new BoundedThreadPoolExecutor(threads, threads * BoundedThreadPoolExecutor.DEFAULT_QUEUED_TASKS_PER_THREAD);
+  }
+
+  private static void checkConcurrency(final int concurrency){
+    if(concurrency < 1){
+      throw new IllegalArgumentException("concurrency must be at least 1 but was " + concurrency);
+    }
+  }
+
+  @Override
+  public void close() throws SecurityException {
+    //shutdown the thread pools so the resources aren't leaked
+    for(final ExecutorService executor : storeToExecutorMap.values()){
+      executor.shutdown();
+    }
+    unknownStoreExecutor.shutdown();
+    digestExecutor.shutdown();
+  }
+}
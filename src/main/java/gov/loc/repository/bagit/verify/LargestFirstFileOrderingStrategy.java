@@ -0,0 +1,191 @@
+package gov.loc.repository.bagit.verify;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.PriorityQueue;
+import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gov.loc.repository.bagit.hash.SmallFileReadStrategy;
+
+/**
+ * Checks the largest files first, so that one huge file doesn't start last and keep a single thread busy
+ * long after the others have run out of work. Each large file is checked on its own, and the small files
+ * are checked afterwards in groups by directory. As many files are checked at the same time as there are threads.<br>
+ * Before checking, the time it should take is predicted from the sizes of the files and the number of threads,
+ * and afterwards both the predicted and the actual time are logged, and kept until the next files are ordered.
+ * The actual time is used to improve the prediction for the next files.
+ */
+public class LargestFirstFileOrderingStrategy implements FileOrderingStrategy {
+  private static final Logger logger = LoggerFactory.getLogger(LargestFirstFileOrderingStrategy.class);
+  private static final ResourceBundle messages = ResourceBundle.getBundle("MessageBundle");
+  public static final long DEFAULT_BYTES_PER_SECOND_PER_THREAD = 100L * 1024 * 1024;
+
+  private transient final int parallelism;
+  private transient final SmallFileReadStrategy smallFileStrategy = new SmallFileReadStrategy();
+  private transient Map<Path, Long> fileToSizeMap = new HashMap<>();
+  private transient double bytesPerSecondPerThread;
+  private transient long busiestThreadBytes;
+  private transient long predictedNanoseconds;
+  private transient long actualNanoseconds;
+
+  /**
+   * Create a LargestFirstFileOrderingStrategy for {@link BoundedThreadPoolExecutor#DEFAULT_PARALLELISM} threads
+   */
+  public LargestFirstFileOrderingStrategy(){
+    this(BoundedThreadPoolExecutor.DEFAULT_PARALLELISM);
+  }
+
+  /**
+   * Create a LargestFirstFileOrderingStrategy that predicts the time assuming each thread reads
+   * {@link #DEFAULT_BYTES_PER_SECOND_PER_THREAD} until a first check is finished
+   *
+   * @param parallelism the number of files checked at the same time, which should be the number of threads of the executor
+   */
+  public LargestFirstFileOrderingStrategy(final int parallelism){
+    this(parallelism, DEFAULT_BYTES_PER_SECOND_PER_THREAD);
+  }
+
+  /**
+   * @param parallelism the number of files checked at the same time, which should be the number of threads of the executor
+   * @param bytesPerSecondPerThread how fast a thread is expected to read and hash, until a first check is finished
+   */
+  public LargestFirstFileOrderingStrategy(final int parallelism, final long bytesPerSecondPerThread){
+    if(parallelism < 1){
+      throw new IllegalArgumentException("parallelism must be at least 1 but was " + parallelism);
+    }
+    if(bytesPerSecondPerThread < 1){
+      throw new IllegalArgumentException("bytesPerSecondPerThread must be at least 1 but was " + bytesPerSecondPerThread);
+    }
+    this.parallelism = parallelism;
+    this.bytesPerSecondPerThread = bytesPerSecondPerThread;
+  }
+
+  @Override
+  public List<Path> order(final Collection<Path> files) {
+    final Map<Path, Long> sizes = new HashMap<>();
+    for(final Path file : files){
+      sizes.put(file, getSize(file));
+    }
+
+    return order(sizes);
+  }
+
+  @Override
+  public List<Path> order(final Map<Path, Long> sizes){
+    final List<Path> largeFiles = new ArrayList<>();
+    final List<Path> smallFiles = new ArrayList<>();
+    for(final Entry<Path, Long> entry : sizes.entrySet()){
+      if(smallFileStrategy.isSmall(entry.getValue())){
+        smallFiles.add(entry.getKey());
+      }
+      else{
+        largeFiles.add(entry.getKey());
+      }
+    }
+
+    largeFiles.sort(Comparator.comparing((Path file) -> sizes.get(file)).reversed().thenComparing(Path::toString));
+    smallFiles.sort(Comparator.comparing(Path::toString));
+
+    final List<Path> ordered = new ArrayList<>(sizes.size());
+    ordered.addAll(largeFiles);
+    ordered.addAll(new DirectoryFileOrderingStrategy().order(smallFiles));
+
+    fileToSizeMap = sizes;
+    predict(ordered);
+    logger.info(messages.getString("predicted_largest_first_time"), largeFiles.size(), parallelism,
+        TimeUnit.NANOSECONDS.toMillis(predictedNanoseconds), busiestThreadBytes);
+
+    return ordered;
+  }
+
+  /*
+   * Give each file in turn to the thread with the least work, and the busiest thread sets how long it takes
+   */
+  private void predict(final List<Path> ordered){
+    final PriorityQueue<Long> threadBytes = new PriorityQueue<>();
+    for(int i=0; i<parallelism; i++){
+      threadBytes.add(0L);
+    }
+    for(final Path file : ordered){
+      threadBytes.add(threadBytes.poll() + Math.max(0, fileToSizeMap.get(file)));
+    }
+
+    long busiest = 0;
+    for(final Long bytes : threadBytes){
+      busiest = Math.max(busiest, bytes);
+    }
+    busiestThreadBytes = busiest;
+    predictedNanoseconds = (long) (busiest / bytesPerSecondPerThread * TimeUnit.SECONDS.toNanos(1));
+    actualNanoseconds = 0;
+  }
+
+  private static long getSize(final Path file){
+    try{
+      return Files.size(file);
+    }
+    catch(IOException e){
+      //missing files are reported elsewhere, so just check them with the small files
+      return -1;
+    }
+  }
+
+  @Override
+  public int getConcurrencyWindow() {
+    return parallelism;
+  }
+
+  @Override
+  public boolean canGroup(final Path file) {
+    final Long size = fileToSizeMap.get(file);
+    return size == null || smallFileStrategy.isSmall(size);
+  }
+
+  @Override
+  public void finished(final long elapsedNanoseconds) {
+    actualNanoseconds = elapsedNanoseconds;
+    logger.info(messages.getString("actual_largest_first_time"), TimeUnit.NANOSECONDS.toMillis(elapsedNanoseconds),
+        TimeUnit.NANOSECONDS.toMillis(predictedNanoseconds));
+
+    if(elapsedNanoseconds > 0 && busiestThreadBytes > 0){
+      bytesPerSecondPerThread = busiestThreadBytes / ((double) elapsedNanoseconds / TimeUnit.SECONDS.toNanos(1));
+    }
+  }
+
+  /**
+   * @return how long checking the files last ordered was predicted to take, in milliseconds
+   */
+  public long getPredictedMilliseconds() {
+    return TimeUnit.NANOSECONDS.toMillis(predictedNanoseconds);
+  }
+
+  /**
+   * @return how long checking the files last ordered actually took, in milliseconds, or 0 if it hasn't finished
+   */
+  public long getActualMilliseconds() {
+    return TimeUnit.NANOSECONDS.toMillis(actualNanoseconds);
+  }
+
+  /**
+   * @return the number of bytes read by the thread with the most work, according to the prediction
+   */
+  public long getBusiestThreadBytes() {
+    return busiestThreadBytes;
+  }
+
+  @Override
+  public String toString() {
+    return "LargestFirstFileOrderingStrategy [parallelism=" + parallelism + "]";
+  }
+}
@@ -13,7 +13,11 @@ import gov.loc.repository.bagit.exceptions.FileNotInManifestException;
 
 /**
  * Implements {@link SimpleFileVisitor} to ensure that the encountered file is in one of the manifests.
+ *
+ * @deprecated {@link PayloadVerifier} now walks the payload once with a {@link PayloadIndexVistor} and compares the files
+ * with the manifests afterwards, use {@link PayloadVerifier#indexPayload(gov.loc.repository.bagit.domain.Bag, boolean)} instead
  */
+@Deprecated
 public class PayloadFileExistsInAtLeastOneManifestVistor extends AbstractPayloadFileExistsInManifestsVistor {
   private transient final Set<Path> filesListedInManifests;
 
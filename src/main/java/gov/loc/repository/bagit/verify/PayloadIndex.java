@@ -0,0 +1,67 @@
+package gov.loc.repository.bagit.verify;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The result of walking the payload directory once and joining it with the manifests of the bag.
+ * It has the size of every file found in the payload directory, the files listed in a manifest that don't exist,
+ * and the files in the payload directory that are not listed in the manifests.
+ * The sizes are reused when checking the checksums so the files don't need to be looked up again.
+ * Made by {@link PayloadVerifier#indexPayload}
+ */
+public final class PayloadIndex {
+  private final Map<Path, Long> fileToSizeMap;
+  private final Set<Path> missingFiles;
+  private final Map<Path, String> fileNotInManifestToAlgorithmMap;
+
+  PayloadIndex(final Map<Path, Long> fileToSizeMap, final Set<Path> missingFiles, final Map<Path, String> fileNotInManifestToAlgorithmMap){
+    this.fileToSizeMap = fileToSizeMap;
+    this.missingFiles = missingFiles;
+    this.fileNotInManifestToAlgorithmMap = fileNotInManifestToAlgorithmMap;
+  }
+
+  /**
+   * @return true if every listed file exists and every file in the payload directory is listed
+   */
+  public boolean isComplete(){
+    return missingFiles.isEmpty() && fileNotInManifestToAlgorithmMap.isEmpty();
+  }
+
+  /**
+   * @return the size of each file found in the payload directory
+   */
+  public Map<Path, Long> getFileToSizeMap() {
+    return Collections.unmodifiableMap(fileToSizeMap);
+  }
+
+  /**
+   * @return the files listed in a manifest that don't exist
+   */
+  public Set<Path> getMissingFiles() {
+    return Collections.unmodifiableSet(missingFiles);
+  }
+
+  /**
+   * @return the files in the payload directory that are not listed in a manifest.
+   * For version 1.0 and later this includes files missing from at least one of the payload manifests
+   */
+  public Set<Path> getFilesNotInManifests() {
+    return Collections.unmodifiableSet(fileNotInManifestToAlgorithmMap.keySet());
+  }
+
+  /*
+   * The bagit name of a payload manifest that doesn't list the file, or null if the file only had to be in one of the manifests
+   */
+  String getManifestNotListing(final Path file){
+    return fileNotInManifestToAlgorithmMap.get(file);
+  }
+
+  @Override
+  public String toString() {
+    return "PayloadIndex [files=" + fileToSizeMap.size() + ", missingFiles=" + missingFiles +
+        ", filesNotInManifests=" + fileNotInManifestToAlgorithmMap.keySet() + "]";
+  }
+}
@@ -0,0 +1,33 @@
+package gov.loc.repository.bagit.verify;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+
+/**
+ * Implements {@link SimpleFileVisitor} to record the size of every file in the payload directory,
+ * skipping the same directories as the other payload visitors. Symbolic links to files are followed.
+ */
+public class PayloadIndexVistor extends AbstractPayloadFileExistsInManifestsVistor {
+  private transient final Map<Path, Long> fileToSizeMap;
+
+  public PayloadIndexVistor(final Map<Path, Long> fileToSizeMap, final boolean ignoreHiddenFiles) {
+    super(ignoreHiddenFiles);
+    this.fileToSizeMap = fileToSizeMap;
+  }
+
+  @Override
+  public FileVisitResult visitFile(final Path path, final BasicFileAttributes attrs) throws IOException{
+    if(attrs.isRegularFile()){
+      fileToSizeMap.put(path.normalize(), attrs.size());
+    }
+    else if(attrs.isSymbolicLink() && Files.isRegularFile(path)){
+      fileToSizeMap.put(path.normalize(), Files.size(path));
+    }
+    return FileVisitResult.CONTINUE;
+  }
+}
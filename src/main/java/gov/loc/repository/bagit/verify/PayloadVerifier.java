@@ -1,16 +1,16 @@
 package gov.loc.repository.bagit.verify;
 
 import java.io.IOException;
-import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.Set;
 import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,13 +19,14 @@ import org.slf4j.helpers.MessageFormatter;
 import gov.loc.repository.bagit.domain.Bag;
 import gov.loc.repository.bagit.domain.Manifest;
 import gov.loc.repository.bagit.domain.Version;
+import gov.loc.repository.bagit.exceptions.FileNotInManifestException;
 import gov.loc.repository.bagit.exceptions.FileNotInPayloadDirectoryException;
 import gov.loc.repository.bagit.exceptions.InvalidBagitFileFormatException;
 import gov.loc.repository.bagit.exceptions.MaliciousPathException;
 import gov.loc.repository.bagit.exceptions.UnsupportedAlgorithmException;
 import gov.loc.repository.bagit.hash.BagitAlgorithmNameToSupportedAlgorithmMapping;
 import gov.loc.repository.bagit.hash.StandardBagitAlgorithmNameToSupportedAlgorithmMapping;
-import gov.loc.repository.bagit.reader.ManifestReader;
+import gov.loc.repository.bagit.util.NormalizedFilenameIndex;
 import gov.loc.repository.bagit.util.PathUtils;
 
 /**
@@ -39,20 +40,20 @@ public class PayloadVerifier implements AutoCloseable{
   private transient final ExecutorService executor;
   
   /**
-   * Create a PayloadVerifier using a cached thread pool and the 
+   * Create a PayloadVerifier using a {@link BoundedThreadPoolExecutor} and the 
    * {@link StandardBagitAlgorithmNameToSupportedAlgorithmMapping} mapping
    */
   public PayloadVerifier(){
-    this(new StandardBagitAlgorithmNameToSupportedAlgorithmMapping(), Executors.newCachedThreadPool());
+    this(new StandardBagitAlgorithmNameToSupportedAlgorithmMapping(), new BoundedThreadPoolExecutor());
   }
 
   /**
-   * Create a PayloadVerifier using a cached thread pool and a custom mapping
+   * Create a PayloadVerifier using a {@link BoundedThreadPoolExecutor} and a custom mapping
    * 
    * @param nameMapping the mapping between BagIt algorithm name and the java supported algorithm
    */
   public PayloadVerifier(final BagitAlgorithmNameToSupportedAlgorithmMapping nameMapping) {
-    this(nameMapping, Executors.newCachedThreadPool());
+    this(nameMapping, new BoundedThreadPoolExecutor());
   }
   
   /**
@@ -99,81 +100,148 @@ public class PayloadVerifier implements AutoCloseable{
       throws IOException, MaliciousPathException, UnsupportedAlgorithmException, 
       InvalidBagitFileFormatException, FileNotInPayloadDirectoryException, InterruptedException {
     
+    verifyPayload(indexPayload(bag, ignoreHiddenFiles));
+  }
+  
+  /**
+   * Throw an exception for the first problem in the index, checking the missing files first.
+   * 
+   * @param index the result of {@link #indexPayload(Bag, boolean)}
+   * @throws FileNotInPayloadDirectoryException if a file is listed in a manifest but doesn't exist in the payload directory
+   * @throws FileNotInManifestException if a file is in the payload directory but isn't listed in the manifests
+   */
+  public static void verifyPayload(final PayloadIndex index) throws FileNotInPayloadDirectoryException, FileNotInManifestException{
+    if (!index.getMissingFiles().isEmpty()) {
+      final String formattedMessage = messages.getString("missing_payload_files_error");
+      throw new FileNotInPayloadDirectoryException(MessageFormatter.format(formattedMessage, index.getMissingFiles()).getMessage());
+    }
+    
+    for(final Path file : index.getFilesNotInManifests()){
+      final String algorithm = index.getManifestNotListing(file);
+      if(algorithm == null){
+        final String formattedMessage = messages.getString("file_not_in_any_manifest_error");
+        throw new FileNotInManifestException(MessageFormatter.format(formattedMessage, file).getMessage());
+      }
+      final String formattedMessage = messages.getString("file_not_in_manifest_error");
+      throw new FileNotInManifestException(MessageFormatter.format(formattedMessage, file, algorithm).getMessage());
+    }
+  }
+  
+  /**
+   * Find all the files in the payload directory that are not listed in the manifest and 
+   * all files listed in the manifests that don't exist, adding them to the report instead of stopping at the first one.
+   * 
+   * @param bag the bag to check to check
+   * @param ignoreHiddenFiles to ignore hidden files unless they are specifically listed in a manifest
+   * @param report where to add the missing files and the files that are not listed in the manifests
+   * @throws IOException if there is a problem reading a file
+   * @throws MaliciousPathException the path in the manifest was specifically crafted to cause harm
+   * @throws UnsupportedAlgorithmException if the algorithm used for the manifest is unsupported
+   * @throws InvalidBagitFileFormatException if any of the manifests don't conform to the bagit specification
+   * @throws InterruptedException if a thread is interrupted while doing work
+   */
+  public void verifyPayload(final Bag bag, final boolean ignoreHiddenFiles, final VerificationReport report)
+      throws IOException, MaliciousPathException, UnsupportedAlgorithmException, 
+      InvalidBagitFileFormatException, InterruptedException {
+    
+    final PayloadIndex index = indexPayload(bag, ignoreHiddenFiles);
+    report.addMissingFiles(index.getMissingFiles());
+    report.addFilesNotInManifests(index.getFilesNotInManifests());
+  }
+  
+  /**
+   * Walk the payload directory once, recording the size of each file, and join the files found with the manifests of the bag.
+   * Only the listed files that were not found while walking, like tag files or files in hidden directories, are looked up individually.
+   * 
+   * @param bag the bag to index
+   * @param ignoreHiddenFiles to ignore hidden files unless they are specifically listed in a manifest
+   * @return the sizes of the payload files, the missing files, and the files not in the manifests
+   * @throws IOException if there is a problem walking the payload directory
+   * @throws UnsupportedAlgorithmException if the algorithm used for a manifest is unsupported by the mapping of this verifier
+   * @throws InterruptedException if a thread is interrupted while doing work
+   */
+  public PayloadIndex indexPayload(final Bag bag, final boolean ignoreHiddenFiles) throws IOException, UnsupportedAlgorithmException, InterruptedException{
+    final Path payloadDir = PathUtils.getDataDir(bag);
+    final Map<Path, Long> fileToSizeMap = new HashMap<>();
+    if (Files.exists(payloadDir)) {
+      Files.walkFileTree(payloadDir, new PayloadIndexVistor(fileToSizeMap, ignoreHiddenFiles));
+    }
+    
     final Set<Path> allFilesListedInManifests = getAllFilesListedInManifests(bag);
-    checkAllFilesListedInManifestExist(allFilesListedInManifests);
-
+    final Set<Path> filesNotFound = new HashSet<>();
+    for(final Path file : allFilesListedInManifests){
+      if(!fileToSizeMap.containsKey(file)){
+        filesNotFound.add(file);
+      }
+    }
+    final Set<Path> missingFiles = findMissingFiles(filesNotFound);
+    
+    final Map<Path, String> fileNotInManifestToAlgorithmMap = new HashMap<>();
     if (bag.getVersion().isOlder(new Version(1, 0))) {
-      checkAllFilesInPayloadDirAreListedInAtLeastOneAManifest(allFilesListedInManifests, PathUtils.getDataDir(bag), ignoreHiddenFiles);
-    } else {
-      CheckAllFilesInPayloadDirAreListedInAllManifests(bag.getPayLoadManifests(), PathUtils.getDataDir(bag), ignoreHiddenFiles);
+      logger.debug(messages.getString("checking_file_in_at_least_one_manifest"), payloadDir);
+      for(final Path file : fileToSizeMap.keySet()){
+        if(!allFilesListedInManifests.contains(file)){
+          fileNotInManifestToAlgorithmMap.put(file, null);
+        }
+      }
+    }
+    else {
+      //as per the bagit-spec 1.0+ all files have to be listed in all manifests
+      logger.debug(messages.getString("checking_file_in_all_manifests"), payloadDir);
+      for(final Path file : fileToSizeMap.keySet()){
+        addIfNotInAllManifests(file, bag.getPayLoadManifests(), fileNotInManifestToAlgorithmMap);
+      }
+    }
+    
+    logger.info(messages.getString("indexed_payload"), fileToSizeMap.size(), payloadDir, missingFiles.size(), fileNotInManifestToAlgorithmMap.size());
+    return new PayloadIndex(fileToSizeMap, missingFiles, fileNotInManifestToAlgorithmMap);
+  }
+  
+  private static void addIfNotInAllManifests(final Path file, final Set<Manifest> payLoadManifests, final Map<Path, String> fileNotInManifestToAlgorithmMap){
+    if(payLoadManifests.isEmpty()){
+      fileNotInManifestToAlgorithmMap.put(file, null);
+      return;
+    }
+    for(final Manifest manifest : payLoadManifests){
+      if(!manifest.getFileToChecksumMap().containsKey(file)){
+        fileNotInManifestToAlgorithmMap.put(file, manifest.getAlgorithm().getBagitName());
+        return;
+      }
     }
   }
 
   /*
-   * get all the files listed in all the manifests
+   * get all the files listed in all the manifests that were read with the bag, instead of reading them again
    */
-  private Set<Path> getAllFilesListedInManifests(final Bag bag)
-      throws IOException, MaliciousPathException, UnsupportedAlgorithmException, InvalidBagitFileFormatException {
+  private Set<Path> getAllFilesListedInManifests(final Bag bag) throws UnsupportedAlgorithmException {
     logger.debug(messages.getString("all_files_in_manifests"));
     final Set<Path> filesListedInManifests = new HashSet<>();
 
-    try(DirectoryStream<Path> directoryStream = 
-        Files.newDirectoryStream(PathUtils.getBagitDir(bag.getVersion(), bag.getRootDir()))){
-      for (final Path path : directoryStream) {
-        final String filename = PathUtils.getFilename(path);
-        if (filename.startsWith("tagmanifest-") || filename.startsWith("manifest-")) {
-          logger.debug(messages.getString("get_listing_in_manifest"), path);
-          final Manifest manifest = ManifestReader.readManifest(nameMapping, path, bag.getRootDir(),
-              bag.getFileEncoding());
-          filesListedInManifests.addAll(manifest.getFileToChecksumMap().keySet());
-        }
-      }
+    for(final Manifest manifest : bag.getPayLoadManifests()){
+      nameMapping.getSupportedAlgorithm(manifest.getAlgorithm().getBagitName());
+      filesListedInManifests.addAll(manifest.getFileToChecksumMap().keySet());
+    }
+    for(final Manifest manifest : bag.getTagManifests()){
+      nameMapping.getSupportedAlgorithm(manifest.getAlgorithm().getBagitName());
+      filesListedInManifests.addAll(manifest.getFileToChecksumMap().keySet());
     }
 
     return filesListedInManifests;
   }
-
-  /*
-   * Make sure all the listed files actually exist
-   */
+  
   @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
-  private void checkAllFilesListedInManifestExist(final Set<Path> files) throws FileNotInPayloadDirectoryException, InterruptedException {
+  private Set<Path> findMissingFiles(final Set<Path> files) throws InterruptedException {
     final CountDownLatch latch = new CountDownLatch(files.size());
     final Set<Path> missingFiles = new ConcurrentSkipListSet<>();
+    final NormalizedFilenameIndex normalizedFilenameIndex = new NormalizedFilenameIndex();
 
     logger.info(messages.getString("check_all_files_in_manifests_exist"));
     for (final Path file : files) {
-      executor.execute(new CheckIfFileExistsTask(file, missingFiles, latch));
+      executor.execute(new CheckIfFileExistsTask(file, missingFiles, latch, normalizedFilenameIndex));
     }
 
     latch.await();
-
-    if (!missingFiles.isEmpty()) {
-      final String formattedMessage = messages.getString("missing_payload_files_error");
-      throw new FileNotInPayloadDirectoryException(MessageFormatter.format(formattedMessage, missingFiles).getMessage());
-    }
-  }
-
-  /*
-   * Make sure all files in the directory are in at least 1 manifest
-   */
-  private static void checkAllFilesInPayloadDirAreListedInAtLeastOneAManifest(final Set<Path> filesListedInManifests,
-      final Path payloadDir, final boolean ignoreHiddenFiles) throws IOException {
-    logger.debug(messages.getString("checking_file_in_at_least_one_manifest"), payloadDir);
-    if (Files.exists(payloadDir)) {
-      Files.walkFileTree(payloadDir,
-          new PayloadFileExistsInAtLeastOneManifestVistor(filesListedInManifests, ignoreHiddenFiles));
-    }
-  }
-
-  /*
-   * as per the bagit-spec 1.0+ all files have to be listed in all manifests
-   */
-  private static void CheckAllFilesInPayloadDirAreListedInAllManifests(final Set<Manifest> payLoadManifests,
-      final Path payloadDir, final boolean ignoreHiddenFiles) throws IOException {
-    logger.debug(messages.getString("checking_file_in_all_manifests"), payloadDir);
-    if (Files.exists(payloadDir)) {
-      Files.walkFileTree(payloadDir, new PayloadFileExistsInAllManifestsVistor(payLoadManifests, ignoreHiddenFiles));
-    }
+    
+    return missingFiles;
   }
 }
@@ -0,0 +1,102 @@
+package gov.loc.repository.bagit.verify;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Orders files close to how they are laid out on disk, so that spinning disks and tape backed file systems
+ * read them mostly sequentially instead of seeking back and forth.<br>
+ * Files are grouped by directory and sorted by inode number within it, and the directories are sorted by the smallest inode number of their files.
+ * File systems usually allocate inodes and data in the same region, so this is close to physical order without needing the block map of each file.
+ * Where inode numbers are not available (for example on Windows) files are sorted by name.
+ * Only a few groups of files are checked at the same time, so the reads stay in roughly the same order.
+ */
+public class PhysicalLayoutFileOrderingStrategy implements FileOrderingStrategy {
+  private static final Logger logger = LoggerFactory.getLogger(PhysicalLayoutFileOrderingStrategy.class);
+  private static final ResourceBundle messages = ResourceBundle.getBundle("MessageBundle");
+  private static final int DEFAULT_CONCURRENCY_WINDOW = 4;
+  private static final String INODE_ATTRIBUTE = "unix:ino";
+  
+  private transient final int concurrencyWindow;
+  
+  /**
+   * Create a PhysicalLayoutFileOrderingStrategy that checks 4 groups of files at the same time
+   */
+  public PhysicalLayoutFileOrderingStrategy(){
+    this(DEFAULT_CONCURRENCY_WINDOW);
+  }
+  
+  /**
+   * Create a PhysicalLayoutFileOrderingStrategy with a custom window
+   * 
+   * @param concurrencyWindow the number of groups of files that are checked at the same time, at least 1
+   */
+  public PhysicalLayoutFileOrderingStrategy(final int concurrencyWindow){
+    if(concurrencyWindow < 1){
+      throw new IllegalArgumentException("concurrencyWindow must be at least 1 but was " + concurrencyWindow);
+    }
+    this.concurrencyWindow = concurrencyWindow;
+  }
+
+  @Override
+  public List<Path> order(final Collection<Path> files) {
+    final Map<Path, Long> fileToInodeMap = new HashMap<>();
+    final Map<Path, List<Path>> directoryToFilesMap = new HashMap<>();
+    for(final Path file : files){
+      fileToInodeMap.put(file, getInode(file));
+      directoryToFilesMap.computeIfAbsent(file.getParent(), key -> new ArrayList<>()).add(file);
+    }
+    
+    final Comparator<Path> byInode = Comparator.comparing((Path file) -> fileToInodeMap.get(file)).thenComparing(Path::getFileName);
+    final List<List<Path>> directories = new ArrayList<>(directoryToFilesMap.values());
+    for(final List<Path> directoryFiles : directories){
+      directoryFiles.sort(byInode);
+    }
+    directories.sort(Comparator.comparing((List<Path> directoryFiles) -> directoryFiles.get(0), byInode));
+    
+    final List<Path> ordered = new ArrayList<>(files.size());
+    for(final List<Path> directoryFiles : directories){
+      ordered.addAll(directoryFiles);
+    }
+    
+    return ordered;
+  }
+  
+  /*
+   * Files without an inode number are put after the others
+   */
+  private static Long getInode(final Path file){
+    try{
+      final Object inode = Files.getAttribute(file, INODE_ATTRIBUTE);
+      if(inode instanceof Long){
+        return (Long) inode;
+      }
+    }
+    catch(IOException | UnsupportedOperationException | IllegalArgumentException e){
+      logger.debug(messages.getString("inode_not_available"), file, e.getMessage());
+    }
+    
+    return Long.MAX_VALUE;
+  }
+  
+  @Override
+  public int getConcurrencyWindow(){
+    return concurrencyWindow;
+  }
+  
+  @Override
+  public String toString() {
+    return "PhysicalLayoutFileOrderingStrategy [concurrencyWindow=" + concurrencyWindow + "]";
+  }
+}
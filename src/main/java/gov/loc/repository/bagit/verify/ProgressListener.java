@@ -0,0 +1,19 @@
+package gov.loc.repository.bagit.verify;
+
+/**
+ * Told how far a {@link BagVerifier} has got, so that a long verification can show that it is still moving and when it should finish.
+ * Progress is reported at most once per interval, see {@link BagVerifier#setMillisecondsBetweenProgressReports(long)},
+ * by whichever hashing thread happens to finish a file or read a buffer after the interval is over, and once more at the end of each phase.
+ * Implementations must be thread safe and should return quickly since a hashing thread is waiting on them.
+ */
+public interface ProgressListener {
+  /**
+   * @param phase the step the verifier has just started
+   */
+  void phaseStarted(VerificationPhase phase);
+
+  /**
+   * @param progress the files and bytes checked so far in the current phase
+   */
+  void progress(VerificationProgress progress);
+}
@@ -0,0 +1,204 @@
+package gov.loc.repository.bagit.verify;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gov.loc.repository.bagit.hash.ReadStrategy;
+import gov.loc.repository.bagit.hash.SmallFileReadStrategy;
+import gov.loc.repository.bagit.hash.StreamingHasher;
+import gov.loc.repository.bagit.hash.SupportedAlgorithm;
+
+/**
+ * Counts the files and bytes checked in a phase and passes them on to a {@link ProgressListener} at most once per interval.
+ * The hashing threads add to striped counters, and only the thread that wins the race for a report that is due reads them,
+ * so counting doesn't make the threads wait on each other. Large files are counted as they are read,
+ * and the small files read whole in batches are counted once they have been checked.
+ */
+final class ProgressTracker implements FileCheckListener {
+  private static final Logger logger = LoggerFactory.getLogger(ProgressTracker.class);
+  private static final ResourceBundle messages = ResourceBundle.getBundle("MessageBundle");
+
+  private transient final ProgressListener listener;
+  private transient final FileCheckListener next;
+  private transient final VerificationPhase phase;
+  private transient final SmallFileReadStrategy smallFileStrategy;
+  private transient final Map<Path, Long> fileToSizeMap;
+  private transient final long totalFiles;
+  private transient final long totalBytes;
+  private transient final long nanosecondsBetweenReports;
+  private transient final long start = System.nanoTime();
+  private transient final LongAdder filesChecked = new LongAdder();
+  private transient final LongAdder bytesRead = new LongAdder();
+  private transient final AtomicLong nextReport;
+
+  /**
+   * @param files the files checked in this phase, whose sizes are looked up now unless they are already known
+   */
+  ProgressTracker(final ProgressListener listener, final FileCheckListener next, final VerificationPhase phase, final Set<Path> files, 
+      final Map<Path, Long> knownSizes, final SmallFileReadStrategy smallFileStrategy, final long millisecondsBetweenReports){
+    this.listener = listener;
+    this.next = next;
+    this.phase = phase;
+    this.smallFileStrategy = smallFileStrategy;
+    this.nanosecondsBetweenReports = TimeUnit.MILLISECONDS.toNanos(millisecondsBetweenReports);
+    this.nextReport = new AtomicLong(start + nanosecondsBetweenReports);
+    this.fileToSizeMap = lookupSizes(files, knownSizes);
+    this.totalFiles = files.size();
+    long bytes = 0;
+    for(final long size : fileToSizeMap.values()){
+      bytes += size;
+    }
+    this.totalBytes = bytes;
+  }
+
+  private static Map<Path, Long> lookupSizes(final Set<Path> files, final Map<Path, Long> knownSizes){
+    final Map<Path, Long> sizes = new HashMap<>(files.size() * 2);
+    for(final Path file : files){
+      final Long size = knownSizes.get(file);
+      if(size != null){
+        sizes.put(file, size);
+      }
+      else{
+        try{
+          sizes.put(file, Files.size(file));
+        }
+        catch(IOException e){
+          //a missing file isn't read, so it adds nothing to the total
+          logger.debug(messages.getString("progress_size_lookup_error"), file, e);
+        }
+      }
+    }
+    return sizes;
+  }
+
+  @Override
+  public void fileVerified(final Path file, final Map<SupportedAlgorithm, String> algorithmToChecksumMap) {
+    fileChecked(file);
+    next.fileVerified(file, algorithmToChecksumMap);
+  }
+
+  @Override
+  public void fileVerified(final Path file, final Map<SupportedAlgorithm, String> algorithmToChecksumMap, final BasicFileAttributes attributesBeforeRead) {
+    fileChecked(file);
+    next.fileVerified(file, algorithmToChecksumMap, attributesBeforeRead);
+  }
+
+  @Override
+  public void fileFailed(final Path file, final Exception problem) {
+    fileChecked(file);
+    next.fileFailed(file, problem);
+  }
+
+  private void fileChecked(final Path file){
+    filesChecked.increment();
+    final Long size = fileToSizeMap.get(file);
+    if(size != null && smallFileStrategy.isSmall(size)){
+      bytesRead.add(size);
+    }
+    reportIfDue();
+  }
+
+  /**
+   * @param readStrategy reads the large files
+   * @return a strategy that counts the bytes of each file as they are read
+   */
+  ReadStrategy countBytes(final ReadStrategy readStrategy){
+    return (path, hashers) -> readStrategy.updateHashers(path, countBytes(hashers));
+  }
+
+  /*
+   * Only one of the hashers counts the bytes, since every hasher is given the same bytes
+   */
+  private Collection<StreamingHasher> countBytes(final Collection<StreamingHasher> hashers){
+    if(hashers.isEmpty()){
+      return hashers;
+    }
+    final List<StreamingHasher> countingHashers = new ArrayList<>(hashers.size());
+    final Iterator<StreamingHasher> iterator = hashers.iterator();
+    countingHashers.add(new CountingStreamingHasher(iterator.next()));
+    while(iterator.hasNext()){
+      countingHashers.add(iterator.next());
+    }
+    return countingHashers;
+  }
+
+  private void reportIfDue(){
+    final long now = System.nanoTime();
+    final long due = nextReport.get();
+    if(now - due >= 0 && nextReport.compareAndSet(due, now + nanosecondsBetweenReports)){
+      report(now);
+    }
+  }
+
+  /*
+   * Report where the phase ended up
+   */
+  void finish(){
+    report(System.nanoTime());
+  }
+
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  private void report(final long now){
+    final VerificationProgress progress = new VerificationProgress(phase, filesChecked.sum(), totalFiles, bytesRead.sum(), totalBytes, 
+        TimeUnit.NANOSECONDS.toMillis(now - start));
+    try{
+      listener.progress(progress);
+    }
+    catch(RuntimeException e){
+      //a broken listener shouldn't make the file being checked fail
+      logger.warn(messages.getString("progress_listener_error"), listener, e);
+    }
+  }
+
+  /**
+   * @return the size of every file in the phase that exists
+   */
+  Map<Path, Long> getFileToSizeMap() {
+    return fileToSizeMap;
+  }
+
+  /*
+   * Counts each buffer before it is hashed
+   */
+  private final class CountingStreamingHasher implements StreamingHasher {
+    private final StreamingHasher hasher;
+
+    private CountingStreamingHasher(final StreamingHasher hasher){
+      this.hasher = hasher;
+    }
+
+    @Override
+    public void update(final ByteBuffer buffer) {
+      bytesRead.add(buffer.remaining());
+      reportIfDue();
+      hasher.update(buffer);
+    }
+
+    @Override
+    public byte[] digest() {
+      return hasher.digest();
+    }
+
+    @Override
+    public void reset() {
+      hasher.reset();
+    }
+  }
+}
@@ -0,0 +1,22 @@
+package gov.loc.repository.bagit.verify;
+
+/**
+ * How {@link SamplingVerifier} picks the payload files to check.
+ */
+public enum SamplingMethod {
+  /**
+   * Every file is as likely to be picked as any other, the bound is on the fraction of files that are corrupt
+   */
+  RANDOM,
+  /**
+   * Larger files are more likely to be picked, in proportion to their size, so the bound is on the fraction of bytes that are corrupt.
+   * A bound can only be given when the sample finds nothing wrong, otherwise it is unknown, see {@link SamplingReport#getUpperBound()}.
+   * The payload directory is walked to get the sizes.
+   */
+  BY_SIZE,
+  /**
+   * Each directory gets its share of the sample in proportion to how many files it has, and the files in it are picked at random,
+   * so that no directory is left out by chance. The bound is on the fraction of files that are corrupt.
+   */
+  BY_DIRECTORY
+}
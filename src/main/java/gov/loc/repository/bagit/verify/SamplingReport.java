@@ -0,0 +1,137 @@
+package gov.loc.repository.bagit.verify;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import gov.loc.repository.bagit.exceptions.CorruptChecksumException;
+
+/**
+ * The result of checking a sample of the payload files of a bag with {@link SamplingVerifier},
+ * with enough information to repeat the same sample and the statistical bound on the corruption that the sample could have missed.
+ */
+public final class SamplingReport {
+  private final SamplingMethod method;
+  private final long seed;
+  private final double confidence;
+  private final int populationSize;
+  private final int sampleSize;
+  private final long bytesRead;
+  private final List<CorruptChecksumException> corruptFiles = new ArrayList<>();
+  private final Set<Path> missingFiles = new TreeSet<>();
+  private final List<Exception> errors = new ArrayList<>();
+
+  SamplingReport(final SamplingMethod method, final long seed, final double confidence, final int populationSize, final int sampleSize, final long bytesRead){
+    this.method = method;
+    this.seed = seed;
+    this.confidence = confidence;
+    this.populationSize = populationSize;
+    this.sampleSize = sampleSize;
+    this.bytesRead = bytesRead;
+  }
+
+  /**
+   * @return true if every file in the sample exists and matches its checksums
+   */
+  public boolean isValid(){
+    return getFailures() == 0;
+  }
+
+  /**
+   * @return the number of files in the sample that are corrupt, missing, or couldn't be read
+   */
+  public int getFailures(){
+    return corruptFiles.size() + missingFiles.size() + errors.size();
+  }
+
+  /**
+   * The most of the payload that could be corrupt given what was found in the sample, at the confidence level of the sample.
+   * For example 0.01 at a confidence of 0.95 means that there is at most a 5% chance that 1% or more of the payload is corrupt.<br>
+   * For {@link SamplingMethod#RANDOM} and {@link SamplingMethod#BY_DIRECTORY} this is a fraction of the files, from the same hypergeometric model
+   * used to size the sample, so a sample sized for a tolerable fraction that finds nothing wrong has a bound of that fraction, rounded up to a whole file.<br>
+   * For {@link SamplingMethod#BY_SIZE} this is a fraction of the bytes, counting a file of unknown size as a single byte.
+   * While nothing wrong has been found, each file picked is corrupt with at least the chance of the corrupt fraction of the bytes,
+   * which gives a bound. Once a corrupt file is found that no longer holds, so the bound is unknown and this returns {@link Double#NaN}.
+   *
+   * @return the upper bound of the fraction of the payload that is corrupt, between 0 and 1, or {@link Double#NaN} if it is unknown
+   */
+  public double getUpperBound(){
+    if(method == SamplingMethod.BY_SIZE){
+      return SamplingVerifier.sizeWeightedUpperBound(sampleSize, getFailures(), populationSize, confidence);
+    }
+    return SamplingVerifier.upperBound(sampleSize, getFailures(), populationSize, confidence);
+  }
+
+  public SamplingMethod getMethod() {
+    return method;
+  }
+
+  /**
+   * @return the seed to pass to {@link SamplingVerifier} to check the same sample again
+   */
+  public long getSeed() {
+    return seed;
+  }
+
+  public double getConfidence() {
+    return confidence;
+  }
+
+  /**
+   * @return the number of payload files the sample was picked from
+   */
+  public int getPopulationSize() {
+    return populationSize;
+  }
+
+  public int getSampleSize() {
+    return sampleSize;
+  }
+
+  public long getBytesRead() {
+    return bytesRead;
+  }
+
+  /**
+   * @return the sampled files whose computed checksum didn't match the manifest
+   */
+  public List<CorruptChecksumException> getCorruptFiles() {
+    return Collections.unmodifiableList(corruptFiles);
+  }
+
+  /**
+   * @return the sampled files that don't exist
+   */
+  public Set<Path> getMissingFiles() {
+    return Collections.unmodifiableSet(missingFiles);
+  }
+
+  /**
+   * @return the errors that stopped a sampled file from being checked, like not being able to read it
+   */
+  public List<Exception> getErrors() {
+    return Collections.unmodifiableList(errors);
+  }
+
+  void addCorruptFile(final CorruptChecksumException corruptFile){
+    corruptFiles.add(corruptFile);
+  }
+
+  void addMissingFile(final Path file){
+    missingFiles.add(file);
+  }
+
+  void addError(final Exception error){
+    errors.add(error);
+  }
+
+  @Override
+  public String toString() {
+    return "SamplingReport [method=" + method + ", seed=" + seed + ", confidence=" + confidence + ", populationSize=" + populationSize
+        + ", sampleSize=" + sampleSize + ", bytesRead=" + bytesRead + ", upperBound=" + getUpperBound() + ", corruptFiles=" + corruptFiles
+        + ", missingFiles=" + missingFiles + ", errors=" + errors + "]";
+  }
+}
@@ -0,0 +1,366 @@
+package gov.loc.repository.bagit.verify;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.ResourceBundle;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gov.loc.repository.bagit.domain.Bag;
+import gov.loc.repository.bagit.exceptions.CorruptChecksumException;
+import gov.loc.repository.bagit.hash.SupportedAlgorithm;
+import gov.loc.repository.bagit.util.PathUtils;
+
+/**
+ * Checks a random sample of the payload files of a bag instead of all of them, for regular audits of collections too large to check in full.
+ * The sample is just large enough to show, with the given confidence, that no more than the given fraction of the payload is corrupt
+ * when no problems are found in it. The sample can be picked in different ways, see {@link SamplingMethod},
+ * and the same seed always picks the same sample from the same manifests.<br>
+ * The files are checked with the {@link BagVerifier}, using its read strategy, ordering, and threads. Tag files are not sampled.
+ */
+public final class SamplingVerifier {
+  private static final Logger logger = LoggerFactory.getLogger(SamplingVerifier.class);
+  private static final ResourceBundle messages = ResourceBundle.getBundle("MessageBundle");
+  private static final int EXACT_LOG_FACTORIALS = 256;
+  private static final double ROUNDING_TOLERANCE = 1e-9;
+
+  private transient final BagVerifier verifier;
+
+  /**
+   * @param verifier checks the sampled files
+   */
+  public SamplingVerifier(final BagVerifier verifier){
+    this.verifier = verifier;
+  }
+
+  /**
+   * Check a sample of the payload files picked with a random seed, which is in the report so the same sample can be checked again
+   *
+   * @param bag the bag to sample
+   * @param method how to pick the files
+   * @param confidence how sure to be of the bound, like 0.95
+   * @param tolerableCorruptFraction the most of the payload that can be corrupt without the sample having to find it, like 0.01
+   * @return what was found in the sample
+   *
+   * @throws IOException if the payload directory can't be walked when sampling by size
+   * @throws InterruptedException if the threads are interrupted while checking the files
+   */
+  public SamplingReport sample(final Bag bag, final SamplingMethod method, final double confidence, final double tolerableCorruptFraction)
+      throws IOException, InterruptedException{
+    return sample(bag, method, confidence, tolerableCorruptFraction, new Random().nextLong());
+  }
+
+  /**
+   * Check a sample of the payload files
+   *
+   * @param bag the bag to sample
+   * @param method how to pick the files
+   * @param confidence how sure to be of the bound, like 0.95
+   * @param tolerableCorruptFraction the most of the payload that can be corrupt without the sample having to find it, like 0.01
+   * @param seed picks the sample, the same seed picks the same files
+   * @return what was found in the sample
+   *
+   * @throws IOException if the payload directory can't be walked when sampling by size
+   * @throws InterruptedException if the threads are interrupted while checking the files
+   */
+  public SamplingReport sample(final Bag bag, final SamplingMethod method, final double confidence, final double tolerableCorruptFraction,
+      final long seed) throws IOException, InterruptedException{
+    checkFraction("confidence", confidence);
+    checkFraction("tolerableCorruptFraction", tolerableCorruptFraction);
+
+    //sorted so the same seed picks the same files no matter the order of the manifests
+    final Map<Path, Map<SupportedAlgorithm, String>> fileToChecksumsMap = BagVerifier.groupChecksumsByFile(bag.getPayLoadManifests());
+    final List<Path> files = new ArrayList<>(fileToChecksumsMap.keySet());
+    Collections.sort(files);
+
+    final int sampleSize = sampleSize(confidence, tolerableCorruptFraction, files.size());
+    logger.info(messages.getString("sampling_payload_files"), sampleSize, files.size(), bag.getRootDir(), method, seed);
+    final Random random = new Random(seed);
+    final List<Path> sample;
+    switch(method){
+      case BY_SIZE:
+        sample = sampleBySize(files, getSizes(bag), sampleSize, random);
+        break;
+      case BY_DIRECTORY:
+        sample = sampleByDirectory(files, sampleSize, random);
+        break;
+      default:
+        sample = sampleRandomly(files, sampleSize, random);
+    }
+
+    return check(sample, fileToChecksumsMap, method, seed, confidence, files.size());
+  }
+
+  private SamplingReport check(final List<Path> sample, final Map<Path, Map<SupportedAlgorithm, String>> fileToChecksumsMap, final SamplingMethod method,
+      final long seed, final double confidence, final int populationSize) throws InterruptedException{
+    final Map<Path, Map<SupportedAlgorithm, String>> sampledFileToChecksumsMap = new HashMap<>();
+    final Map<Path, Long> fileToSizeMap = new HashMap<>();
+    final Set<Path> missingFiles = new HashSet<>();
+    long bytesRead = 0;
+    for(final Path file : sample){
+      try{
+        final long size = Files.size(file);
+        fileToSizeMap.put(file, size);
+        bytesRead += size;
+        sampledFileToChecksumsMap.put(file, fileToChecksumsMap.get(file));
+      }
+      catch(IOException e){
+        //a missing file can't be checked, but it is still part of the sample
+        missingFiles.add(file);
+      }
+    }
+
+    final SamplingReport report = new SamplingReport(method, seed, confidence, populationSize, sample.size(), bytesRead);
+    for(final Path file : missingFiles){
+      report.addMissingFile(file);
+    }
+    for(final Exception e : verifier.checkFiles(sampledFileToChecksumsMap, fileToSizeMap)){
+      if(e instanceof CorruptChecksumException){
+        report.addCorruptFile((CorruptChecksumException) e);
+      }
+      else{
+        report.addError(e);
+      }
+    }
+
+    logger.info(messages.getString("sampling_report_summary"), report.getSampleSize(), report.getBytesRead(), report.getFailures(),
+        report.getConfidence(), report.getUpperBound());
+    return report;
+  }
+
+  private static Map<Path, Long> getSizes(final Bag bag) throws IOException{
+    final Map<Path, Long> fileToSizeMap = new HashMap<>();
+    final Path dataDir = PathUtils.getDataDir(bag);
+    if(Files.exists(dataDir)){
+      Files.walkFileTree(dataDir, new PayloadIndexVistor(fileToSizeMap, false));
+    }
+    return fileToSizeMap;
+  }
+
+  /*
+   * Pick without replacement, each file as likely as any other
+   */
+  static List<Path> sampleRandomly(final List<Path> files, final int sampleSize, final Random random){
+    final List<Path> shuffled = new ArrayList<>(files);
+    for(int index = 0; index < sampleSize; index++){
+      Collections.swap(shuffled, index, index + random.nextInt(shuffled.size() - index));
+    }
+    return new ArrayList<>(shuffled.subList(0, sampleSize));
+  }
+
+  /*
+   * Pick without replacement with a chance in proportion to the size, by giving each file a random key weighted by its size and keeping the largest keys.
+   * Files without a known size, like files that are missing, still get the weight of a single byte so they can be picked.
+   */
+  @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+  static List<Path> sampleBySize(final List<Path> files, final Map<Path, Long> fileToSizeMap, final int sampleSize, final Random random){
+    final PriorityQueue<WeightedFile> largestKeys = new PriorityQueue<>(Math.max(1, sampleSize));
+    for(final Path file : files){
+      final Long size = fileToSizeMap.get(file);
+      final double weight = size == null ? 1 : Math.max(1, size);
+      //log(u)/w orders the files the same way as u^(1/w) without losing precision for large weights
+      final WeightedFile weightedFile = new WeightedFile(file, Math.log(1 - random.nextDouble()) / weight);
+      if(largestKeys.size() < sampleSize){
+        largestKeys.add(weightedFile);
+      }
+      else if(sampleSize > 0 && largestKeys.peek().key < weightedFile.key){
+        largestKeys.poll();
+        largestKeys.add(weightedFile);
+      }
+    }
+
+    final List<Path> sample = new ArrayList<>(largestKeys.size());
+    for(final WeightedFile weightedFile : largestKeys){
+      sample.add(weightedFile.file);
+    }
+    Collections.sort(sample);
+    return sample;
+  }
+
+  /*
+   * Give each directory its share of the sample by the largest remainder method, then pick at random within each directory
+   */
+  @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+  static List<Path> sampleByDirectory(final List<Path> files, final int sampleSize, final Random random){
+    final Map<Path, List<Path>> directoryToFilesMap = new LinkedHashMap<>();
+    for(final Path file : files){
+      directoryToFilesMap.computeIfAbsent(file.getParent(), key -> new ArrayList<>()).add(file);
+    }
+
+    final List<List<Path>> strata = new ArrayList<>(directoryToFilesMap.values());
+    final int[] shares = new int[strata.size()];
+    final double[] remainders = new double[strata.size()];
+    int allocated = 0;
+    for(int index = 0; index < strata.size(); index++){
+      final double exactShare = (double) sampleSize * strata.get(index).size() / files.size();
+      shares[index] = (int) exactShare;
+      remainders[index] = exactShare - shares[index];
+      allocated += shares[index];
+    }
+    while(allocated < sampleSize){
+      int largest = -1;
+      for(int index = 0; index < strata.size(); index++){
+        if(shares[index] < strata.get(index).size() && (largest < 0 || remainders[index] > remainders[largest])){
+          largest = index;
+        }
+      }
+      shares[largest]++;
+      remainders[largest] = -1;
+      allocated++;
+    }
+
+    final List<Path> sample = new ArrayList<>(sampleSize);
+    for(int index = 0; index < strata.size(); index++){
+      sample.addAll(sampleRandomly(strata.get(index), shares[index], random));
+    }
+    return sample;
+  }
+
+  /**
+   * The number of files to check so that, if more than the tolerable fraction of the files were corrupt,
+   * a sample without any corrupt files would happen with less than 1 - confidence probability.
+   * Uses the hypergeometric distribution, so small populations need fewer files than the usual binomial estimate.
+   *
+   * @param confidence how sure to be, like 0.95
+   * @param tolerableCorruptFraction the most of the files that can be corrupt without the sample having to find it, like 0.01
+   * @param populationSize the number of files to pick from
+   * @return the number of files to check, at most the population size
+   */
+  public static int sampleSize(final double confidence, final double tolerableCorruptFraction, final int populationSize){
+    checkFraction("confidence", confidence);
+    checkFraction("tolerableCorruptFraction", tolerableCorruptFraction);
+    if(populationSize == 0){
+      return 0;
+    }
+
+    final int corruptFiles = Math.max(1, (int) Math.ceil(tolerableCorruptFraction * populationSize));
+    double noCorruptFilesPicked = 1;
+    int sampleSize = 0;
+    while(noCorruptFilesPicked > 1 - confidence && sampleSize < populationSize){
+      noCorruptFilesPicked *= (double) (populationSize - corruptFiles - sampleSize) / (populationSize - sampleSize);
+      sampleSize++;
+    }
+    return sampleSize;
+  }
+
+  /*
+   * The smallest fraction of corrupt files that would have given this few failures with no more than 1 - confidence probability,
+   * from the same hypergeometric model used to size the sample, or the exact fraction when every file was checked.
+   * So a clean sample of the size from sampleSize(confidence, tolerable, N) has a bound of the tolerable fraction, rounded up to a whole file.
+   */
+  static double upperBound(final int sampleSize, final int failures, final int populationSize, final double confidence){
+    if(sampleSize >= populationSize){
+      return populationSize == 0 ? 0 : (double) failures / populationSize;
+    }
+    if(failures >= sampleSize){
+      return 1;
+    }
+
+    //the chance of at most this many failures only goes down as there are more corrupt files
+    int low = failures;
+    int high = populationSize;
+    while(low < high){
+      final int middle = low + (high - low) / 2;
+      //allow for rounding, the probabilities here are summed from logs rather than multiplied out as when sizing the sample
+      if(hypergeometricCumulativeProbability(populationSize, middle, sampleSize, failures) > (1 - confidence) * (1 + ROUNDING_TOLERANCE)){
+        low = middle + 1;
+      }
+      else{
+        high = middle;
+      }
+    }
+    return (double) low / populationSize;
+  }
+
+  /*
+   * The bound on the fraction of bytes for a sample picked in proportion to size. Until a corrupt file is picked only clean weight
+   * has been removed, so each pick is corrupt with at least the corrupt fraction p, and a clean sample of n has at most (1 - p)^n probability.
+   * After a corrupt file is picked the remaining corrupt weight could be any fraction, so there is no bound.
+   */
+  static double sizeWeightedUpperBound(final int sampleSize, final int failures, final int populationSize, final double confidence){
+    if(failures > 0){
+      return Double.NaN;
+    }
+    if(sampleSize >= populationSize){
+      return 0;
+    }
+    return 1 - Math.pow(1 - confidence, 1.0 / sampleSize);
+  }
+
+  /*
+   * The probability of at most k corrupt files in a sample of n picked without replacement from N files of which D are corrupt
+   */
+  private static double hypergeometricCumulativeProbability(final int N, final int D, final int n, final int k){
+    final double logAllSamples = logChoose(N, n);
+    double probability = 0;
+    for(int i = Math.max(0, n - (N - D)); i <= Math.min(k, D); i++){
+      probability += Math.exp(logChoose(D, i) + logChoose(N - D, n - i) - logAllSamples);
+    }
+    return Math.min(1, probability);
+  }
+
+  private static double logChoose(final int n, final int k){
+    return logFactorial(n) - logFactorial(k) - logFactorial(n - k);
+  }
+
+  /*
+   * Summed exactly for small numbers, and with Stirling's series, which is accurate to about 1e-13 from there on
+   */
+  private static double logFactorial(final int n){
+    if(n < EXACT_LOG_FACTORIALS){
+      double sum = 0;
+      for(int i = 2; i <= n; i++){
+        sum += Math.log(i);
+      }
+      return sum;
+    }
+    final double x = n;
+    return x * Math.log(x) - x + 0.5 * Math.log(2 * Math.PI * x) + 1 / (12 * x) - 1 / (360 * x * x * x);
+  }
+
+  private static void checkFraction(final String name, final double value){
+    if(!(value > 0 && value < 1)){
+      throw new IllegalArgumentException(name + " must be between 0 and 1 but was " + value);
+    }
+  }
+
+  /*
+   * A file with the random key that decides if it is picked
+   */
+  private static final class WeightedFile implements Comparable<WeightedFile> {
+    private final Path file;
+    private final double key;
+
+    WeightedFile(final Path file, final double key){
+      this.file = file;
+      this.key = key;
+    }
+
+    @Override
+    public int compareTo(final WeightedFile other) {
+      return Double.compare(key, other.key);
+    }
+
+    @Override
+    public boolean equals(final Object other){
+      return other instanceof WeightedFile && compareTo((WeightedFile) other) == 0;
+    }
+
+    @Override
+    public int hashCode(){
+      return Double.hashCode(key);
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package gov.loc.repository.bagit.verify;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Where a {@link BudgetedVerifier} stopped checking a bag, saved to a file after every group of files checked
+ * so that the next run, even in a new JVM, continues from there.
+ * The files of a bag are always checked in the same order, and the cursor holds the last one checked relative to the root of the bag.
+ */
+public final class VerificationCursor {
+  private static final String LAST_FILE_CHECKED = "lastFileChecked";
+  private static final String COMPLETED_PASSES = "completedPasses";
+  private static final String FILES_CHECKED_IN_PASS = "filesCheckedInPass";
+  private static final String BYTES_CHECKED_IN_PASS = "bytesCheckedInPass";
+
+  private transient final Path cursorFile;
+  private Path lastFileChecked;
+  private long completedPasses;
+  private long filesCheckedInPass;
+  private long bytesCheckedInPass;
+
+  /**
+   * Open a cursor, continuing from where it was if the file already exists
+   *
+   * @param cursorFile where the cursor is saved
+   * @throws IOException if the file exists but can't be read
+   */
+  public VerificationCursor(final Path cursorFile) throws IOException{
+    this.cursorFile = cursorFile;
+    if(Files.exists(cursorFile)){
+      load();
+    }
+  }
+
+  private void load() throws IOException{
+    final Properties properties = new Properties();
+    try(final Reader reader = Files.newBufferedReader(cursorFile, StandardCharsets.UTF_8)){
+      properties.load(reader);
+    }
+
+    final String lastFile = properties.getProperty(LAST_FILE_CHECKED);
+    lastFileChecked = lastFile == null ? null : Paths.get(lastFile);
+    completedPasses = Long.parseLong(properties.getProperty(COMPLETED_PASSES, "0"));
+    filesCheckedInPass = Long.parseLong(properties.getProperty(FILES_CHECKED_IN_PASS, "0"));
+    bytesCheckedInPass = Long.parseLong(properties.getProperty(BYTES_CHECKED_IN_PASS, "0"));
+  }
+
+  /*
+   * Write to a temporary file and move it over the cursor so a crash while saving never leaves a partly written cursor
+   */
+  private void save() throws IOException{
+    final Properties properties = new Properties();
+    if(lastFileChecked != null){
+      properties.setProperty(LAST_FILE_CHECKED, lastFileChecked.toString());
+    }
+    properties.setProperty(COMPLETED_PASSES, Long.toString(completedPasses));
+    properties.setProperty(FILES_CHECKED_IN_PASS, Long.toString(filesCheckedInPass));
+    properties.setProperty(BYTES_CHECKED_IN_PASS, Long.toString(bytesCheckedInPass));
+
+    final Path tempFile = cursorFile.resolveSibling(cursorFile.getFileName() + ".tmp");
+    try(final Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)){
+      properties.store(writer, null);
+    }
+    try{
+      Files.move(tempFile, cursorFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+    catch(AtomicMoveNotSupportedException e){
+      Files.move(tempFile, cursorFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /*
+   * Move past the files just checked and save
+   */
+  void advance(final Path lastFile, final long files, final long bytes) throws IOException{
+    lastFileChecked = lastFile;
+    filesCheckedInPass += files;
+    bytesCheckedInPass += bytes;
+    save();
+  }
+
+  /*
+   * Every file has been checked, so start over from the first file next time
+   */
+  void finishPass() throws IOException{
+    lastFileChecked = null;
+    completedPasses++;
+    filesCheckedInPass = 0;
+    bytesCheckedInPass = 0;
+    save();
+  }
+
+  public Path getCursorFile() {
+    return cursorFile;
+  }
+
+  /**
+   * @return the last file checked relative to the root of the bag, or null if the next run starts from the first file
+   */
+  public Path getLastFileChecked() {
+    return lastFileChecked;
+  }
+
+  /**
+   * @return how many times every file of the bag has been checked
+   */
+  public long getCompletedPasses() {
+    return completedPasses;
+  }
+
+  public long getFilesCheckedInPass() {
+    return filesCheckedInPass;
+  }
+
+  public long getBytesCheckedInPass() {
+    return bytesCheckedInPass;
+  }
+
+  @Override
+  public String toString() {
+    return "VerificationCursor [cursorFile=" + cursorFile + ", lastFileChecked=" + lastFileChecked + ", completedPasses=" + completedPasses
+        + ", filesCheckedInPass=" + filesCheckedInPass + ", bytesCheckedInPass=" + bytesCheckedInPass + "]";
+  }
+}
@@ -0,0 +1,344 @@
+package gov.loc.repository.bagit.verify;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.ResourceBundle;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gov.loc.repository.bagit.hash.SupportedAlgorithm;
+import gov.loc.repository.bagit.util.PathUtils;
+
+/**
+ * An append-only record of the files checked by a {@link BagVerifier}, so that a verification that was stopped,
+ * for example because the JVM was restarted, can resume where it left off instead of starting over.<br>
+ * Each line has the result, the size, the last modified time, the checksums it was checked against, and the path of a file.
+ * When a journal is opened the existing lines are read, and a file that was verified, still has the same size
+ * and last modified time, and is still listed with the same checksums in the same algorithms is skipped by {@link BagVerifier#setJournal(VerificationJournal)}.
+ * Files that failed are always checked again.<br>
+ * Once every file of a bag has been checked, {@link #finishPass()} marks the pass as complete so that the next verification
+ * with the same journal starts a new pass and checks every file again.<br>
+ * Lines are kept in memory and appended together once enough of them have built up or enough time has passed,
+ * so the lines of the last few files checked before a crash may be lost, and those files are just checked again.
+ * Call {@link #close()} to write the remaining lines.
+ */
+public final class VerificationJournal implements FileCheckListener, AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(VerificationJournal.class);
+  private static final ResourceBundle messages = ResourceBundle.getBundle("MessageBundle");
+  private static final String VERIFIED = "VERIFIED";
+  private static final String FAILED = "FAILED";
+  private static final String PASS_COMPLETE = "PASS_COMPLETE";
+  private static final String NO_CHECKSUMS = "-";
+  private static final String SEPARATOR = "\t";
+  private static final int FIELDS = 5;
+  public static final int DEFAULT_LINES_PER_WRITE = 1024;
+  public static final long DEFAULT_MILLISECONDS_BETWEEN_WRITES = 1000;
+
+  private transient final Path journalFile;
+  private transient final int linesPerWrite;
+  private transient final long nanosecondsBetweenWrites;
+  private transient final Map<Path, FileState> verifiedFiles = new ConcurrentHashMap<>();
+  private transient final FileChannel channel;
+  private transient final StringBuilder pendingLines = new StringBuilder();
+  private transient int pendingLineCount;
+  private transient long lastWrite = System.nanoTime();
+
+  /**
+   * Open a journal, resuming from it if it already exists, that writes every 1024 lines or every second
+   *
+   * @param journalFile the file the lines are appended to
+   * @throws IOException if the journal can't be read or opened for appending
+   */
+  public VerificationJournal(final Path journalFile) throws IOException{
+    this(journalFile, DEFAULT_LINES_PER_WRITE, DEFAULT_MILLISECONDS_BETWEEN_WRITES);
+  }
+
+  /**
+   * Open a journal, resuming from it if it already exists
+   *
+   * @param journalFile the file the lines are appended to
+   * @param linesPerWrite how many lines are kept in memory before they are written
+   * @param millisecondsBetweenWrites the longest time lines are kept in memory before they are written
+   * @throws IOException if the journal can't be read or opened for appending
+   */
+  public VerificationJournal(final Path journalFile, final int linesPerWrite, final long millisecondsBetweenWrites) throws IOException{
+    if(linesPerWrite < 1){
+      throw new IllegalArgumentException("linesPerWrite must be at least 1 but was " + linesPerWrite);
+    }
+    this.journalFile = journalFile;
+    this.linesPerWrite = linesPerWrite;
+    this.nanosecondsBetweenWrites = TimeUnit.MILLISECONDS.toNanos(millisecondsBetweenWrites);
+
+    boolean lastLineIsIncomplete = false;
+    if(Files.exists(journalFile)){
+      read();
+      lastLineIsIncomplete = isLastLineIncomplete(journalFile);
+    }
+    channel = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    if(lastLineIsIncomplete){
+      //so the next line doesn't get added to the end of a line that was only partly written
+      write(ByteBuffer.wrap(new byte[]{'\n'}));
+    }
+  }
+
+  private void read() throws IOException{
+    try(final BufferedReader reader = Files.newBufferedReader(journalFile, StandardCharsets.UTF_8)){
+      String line = reader.readLine();
+      while(line != null){
+        readLine(line);
+        line = reader.readLine();
+      }
+    }
+    logger.info(messages.getString("resuming_from_journal"), verifiedFiles.size(), journalFile);
+  }
+
+  @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+  private void readLine(final String line){
+    final String[] parts = line.split(SEPARATOR, FIELDS);
+    try{
+      if(parts.length == FIELDS && VERIFIED.equals(parts[0])){
+        verifiedFiles.put(Paths.get(PathUtils.decodeFilname(parts[4])), new FileState(Long.parseLong(parts[1]), Long.parseLong(parts[2]), parts[3]));
+      }
+      else if(parts.length == FIELDS && FAILED.equals(parts[0])){
+        verifiedFiles.remove(Paths.get(PathUtils.decodeFilname(parts[4])));
+      }
+      else if(PASS_COMPLETE.equals(line)){
+        //everything before was from a pass that has finished, so the files are checked again
+        verifiedFiles.clear();
+      }
+      else if(!line.isEmpty()){
+        //like the last line when the JVM stopped partway through writing it
+        logger.debug(messages.getString("skipping_journal_line"), line, journalFile);
+      }
+    }
+    catch(NumberFormatException | InvalidPathException e){
+      logger.debug(messages.getString("skipping_journal_line"), line, journalFile);
+    }
+  }
+
+  private static boolean isLastLineIncomplete(final Path journalFile) throws IOException{
+    try(final FileChannel reader = FileChannel.open(journalFile, StandardOpenOption.READ)){
+      final long size = reader.size();
+      if(size == 0){
+        return false;
+      }
+      final ByteBuffer last = ByteBuffer.allocate(1);
+      reader.read(last, size - 1);
+      return last.get(0) != '\n';
+    }
+  }
+
+  /**
+   * @param file the file to look up
+   * @param algorithmToChecksumMap the checksum listed for the file in each manifest
+   * @return true if the journal has the file as verified in this pass against the same checksums, 
+   * and it still has the same size and last modified time
+   */
+  public boolean isAlreadyVerified(final Path file, final Map<SupportedAlgorithm, String> algorithmToChecksumMap){
+    final FileState state = verifiedFiles.get(key(file));
+    if(state == null){
+      return false;
+    }
+
+    final FileState current = currentState(file, algorithmToChecksumMap);
+    return state.equals(current);
+  }
+
+  /**
+   * Journal the file with its size and last modified time as they are now. Prefer {@link #fileVerified(Path, Map, BasicFileAttributes)}
+   * with the attributes from before the file was read, since a file changed after it was read would be journaled as verified here.
+   */
+  @Override
+  public void fileVerified(final Path file, final Map<SupportedAlgorithm, String> algorithmToChecksumMap) {
+    final FileState state = currentState(file, algorithmToChecksumMap);
+    if(state != null){
+      verified(file, state);
+    }
+  }
+
+  /**
+   * Journal the file with the size and last modified time it had before it was read, so that if it was changed since,
+   * the next verification doesn't match it and checks it again.
+   */
+  @Override
+  public void fileVerified(final Path file, final Map<SupportedAlgorithm, String> algorithmToChecksumMap, final BasicFileAttributes attributesBeforeRead) {
+    verified(file, state(attributesBeforeRead, algorithmToChecksumMap));
+  }
+
+  private void verified(final Path file, final FileState state){
+    verifiedFiles.put(key(file), state);
+    append(VERIFIED, state, file);
+  }
+
+  @Override
+  public void fileFailed(final Path file, final Exception problem) {
+    verifiedFiles.remove(key(file));
+    final FileState state = currentState(file, Collections.emptyMap());
+    append(FAILED, state == null ? new FileState(-1, -1, NO_CHECKSUMS) : state, file);
+  }
+
+  /**
+   * Mark every file of the bag as checked, so that the next verification with this journal checks them all again
+   * instead of trusting what was checked in this pass. Called by {@link BagVerifier} once a bag has been found valid.
+   *
+   * @throws IOException if the marker can't be written
+   */
+  public void finishPass() throws IOException{
+    synchronized(pendingLines){
+      pendingLines.append(PASS_COMPLETE).append('\n');
+      pendingLineCount++;
+    }
+    flush();
+    verifiedFiles.clear();
+  }
+
+  private void append(final String result, final FileState state, final Path file){
+    final String line = result + SEPARATOR + state.size + SEPARATOR + state.lastModified + SEPARATOR + state.checksums 
+        + SEPARATOR + PathUtils.encodeFilename(key(file)) + "\n";
+    synchronized(pendingLines){
+      pendingLines.append(line);
+      pendingLineCount++;
+      if(pendingLineCount >= linesPerWrite || System.nanoTime() - lastWrite >= nanosecondsBetweenWrites){
+        try{
+          writePendingLines();
+        }
+        catch(IOException e){
+          logger.warn(messages.getString("journal_write_error"), journalFile, e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Write the lines kept in memory and force them to the storage device
+   *
+   * @throws IOException if the lines can't be written
+   */
+  public void flush() throws IOException{
+    synchronized(pendingLines){
+      writePendingLines();
+    }
+    channel.force(false);
+  }
+
+  private void writePendingLines() throws IOException{
+    if(pendingLineCount > 0){
+      write(ByteBuffer.wrap(pendingLines.toString().getBytes(StandardCharsets.UTF_8)));
+      pendingLines.setLength(0);
+      pendingLineCount = 0;
+    }
+    lastWrite = System.nanoTime();
+  }
+
+  private void write(final ByteBuffer buffer) throws IOException{
+    while(buffer.hasRemaining()){
+      channel.write(buffer);
+    }
+  }
+
+  private static Path key(final Path file){
+    return file.toAbsolutePath().normalize();
+  }
+
+  private static FileState currentState(final Path file, final Map<SupportedAlgorithm, String> algorithmToChecksumMap){
+    try{
+      return state(Files.readAttributes(file, BasicFileAttributes.class), algorithmToChecksumMap);
+    }
+    catch(IOException e){
+      logger.debug(messages.getString("journal_file_state_error"), file, e);
+      return null;
+    }
+  }
+
+  private static FileState state(final BasicFileAttributes attributes, final Map<SupportedAlgorithm, String> algorithmToChecksumMap){
+    return new FileState(attributes.size(), attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS), encodeChecksums(algorithmToChecksumMap));
+  }
+
+  /*
+   * The checksums sorted by algorithm name, like md5:1234,sha256:abcd
+   */
+  private static String encodeChecksums(final Map<SupportedAlgorithm, String> algorithmToChecksumMap){
+    if(algorithmToChecksumMap.isEmpty()){
+      return NO_CHECKSUMS;
+    }
+    final Map<String, String> sorted = new TreeMap<>();
+    for(final Entry<SupportedAlgorithm, String> entry : algorithmToChecksumMap.entrySet()){
+      sorted.put(entry.getKey().getBagitName(), entry.getValue());
+    }
+    final StringBuilder checksums = new StringBuilder();
+    for(final Entry<String, String> entry : sorted.entrySet()){
+      if(checksums.length() > 0){
+        checksums.append(',');
+      }
+      checksums.append(entry.getKey()).append(':').append(entry.getValue());
+    }
+    return checksums.toString();
+  }
+
+  public Path getJournalFile() {
+    return journalFile;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try{
+      flush();
+    }
+    finally{
+      channel.close();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "VerificationJournal [journalFile=" + journalFile + ", verifiedFiles=" + verifiedFiles.size() + "]";
+  }
+
+  /*
+   * What the file looked like when it was verified, and what it was checked against
+   */
+  private static final class FileState {
+    private final long size;
+    private final long lastModified;
+    private final String checksums;
+
+    FileState(final long size, final long lastModified, final String checksums){
+      this.size = size;
+      this.lastModified = lastModified;
+      this.checksums = checksums;
+    }
+
+    @Override
+    public boolean equals(final Object other){
+      if(this == other){
+        return true;
+      }
+      if(!(other instanceof FileState)){
+        return false;
+      }
+      final FileState state = (FileState) other;
+      return size == state.size && lastModified == state.lastModified && checksums.equals(state.checksums);
+    }
+
+    @Override
+    public int hashCode(){
+      return (Long.hashCode(size) * 31 + Long.hashCode(lastModified)) * 31 + checksums.hashCode();
+    }
+  }
+}
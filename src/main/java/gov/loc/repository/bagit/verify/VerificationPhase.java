@@ -0,0 +1,23 @@
+package gov.loc.repository.bagit.verify;
+
+/**
+ * The steps of checking a bag, in the order {@link BagVerifier} goes through them, see {@link ProgressListener#phaseStarted(VerificationPhase)}.
+ */
+public enum VerificationPhase {
+  /**
+   * Checking that bagit.txt, the payload directory, a payload manifest, and the fetched files exist
+   */
+  MANDATORY_ELEMENTS,
+  /**
+   * Walking the payload directory to find missing files and files not in the manifests
+   */
+  COMPLETENESS,
+  /**
+   * Computing the checksums of the payload files
+   */
+  PAYLOAD_CHECKSUMS,
+  /**
+   * Computing the checksums of the tag files
+   */
+  TAG_CHECKSUMS
+}
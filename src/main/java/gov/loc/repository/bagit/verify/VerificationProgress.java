@@ -0,0 +1,78 @@
+package gov.loc.repository.bagit.verify;
+
+/**
+ * How far the checksums of a phase have got when it was reported to a {@link ProgressListener}.
+ * The rate is the average since the phase started, and the estimate assumes the remaining bytes are read at that rate.
+ */
+public final class VerificationProgress {
+  public static final long UNKNOWN = -1;
+
+  private final VerificationPhase phase;
+  private final long filesChecked;
+  private final long totalFiles;
+  private final long bytesRead;
+  private final long totalBytes;
+  private final long elapsedMilliseconds;
+
+  VerificationProgress(final VerificationPhase phase, final long filesChecked, final long totalFiles, final long bytesRead, 
+      final long totalBytes, final long elapsedMilliseconds){
+    this.phase = phase;
+    this.filesChecked = filesChecked;
+    this.totalFiles = totalFiles;
+    this.bytesRead = bytesRead;
+    this.totalBytes = totalBytes;
+    this.elapsedMilliseconds = elapsedMilliseconds;
+  }
+
+  /**
+   * @return the average number of bytes read per second since the phase started
+   */
+  public double getBytesPerSecond(){
+    return elapsedMilliseconds == 0 ? 0 : bytesRead * 1000.0 / elapsedMilliseconds;
+  }
+
+  /**
+   * @return how long the rest of the phase should take, going by the bytes left or the files left when nothing has been read yet, 
+   * or {@link #UNKNOWN} before anything has been checked
+   */
+  public long getEstimatedMillisecondsRemaining(){
+    if(bytesRead > 0){
+      return (long) (Math.max(0, totalBytes - bytesRead) * (double) elapsedMilliseconds / bytesRead);
+    }
+    if(filesChecked > 0){
+      return (long) (Math.max(0, totalFiles - filesChecked) * (double) elapsedMilliseconds / filesChecked);
+    }
+    return UNKNOWN;
+  }
+
+  public VerificationPhase getPhase() {
+    return phase;
+  }
+
+  public long getFilesChecked() {
+    return filesChecked;
+  }
+
+  public long getTotalFiles() {
+    return totalFiles;
+  }
+
+  public long getBytesRead() {
+    return bytesRead;
+  }
+
+  public long getTotalBytes() {
+    return totalBytes;
+  }
+
+  public long getElapsedMilliseconds() {
+    return elapsedMilliseconds;
+  }
+
+  @Override
+  public String toString() {
+    return "VerificationProgress [phase=" + phase + ", filesChecked=" + filesChecked + ", totalFiles=" + totalFiles + ", bytesRead=" + bytesRead
+        + ", totalBytes=" + totalBytes + ", elapsedMilliseconds=" + elapsedMilliseconds + ", estimatedMillisecondsRemaining=" 
+        + getEstimatedMillisecondsRemaining() + "]";
+  }
+}
@@ -0,0 +1,81 @@
+package gov.loc.repository.bagit.verify;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import gov.loc.repository.bagit.exceptions.CorruptChecksumException;
+
+/**
+ * Everything that is wrong with the files of a bag, gathered in one pass by {@link BagVerifier#verify}
+ * instead of stopping at the first problem.
+ */
+public final class VerificationReport {
+  private final List<CorruptChecksumException> corruptFiles = new ArrayList<>();
+  private final Set<Path> missingFiles = new TreeSet<>();
+  private final Set<Path> filesNotInManifests = new TreeSet<>();
+  private final List<Exception> errors = new ArrayList<>();
+
+  /**
+   * @return true if no problems were found
+   */
+  public boolean isValid(){
+    return corruptFiles.isEmpty() && missingFiles.isEmpty() && filesNotInManifests.isEmpty() && errors.isEmpty();
+  }
+
+  /**
+   * @return the files whose computed checksum didn't match the manifest, with the expected and computed checksums.
+   * If the bag has chunk fixity for a file this is a {@link gov.loc.repository.bagit.exceptions.CorruptChunksException} with the damaged byte ranges
+   */
+  public List<CorruptChecksumException> getCorruptFiles() {
+    return Collections.unmodifiableList(corruptFiles);
+  }
+
+  /**
+   * @return the files that are listed in a manifest but don't exist
+   */
+  public Set<Path> getMissingFiles() {
+    return Collections.unmodifiableSet(missingFiles);
+  }
+
+  /**
+   * @return the files in the payload directory that are not listed in a manifest.
+   * For version 1.0 and later this includes files missing from at least one of the payload manifests
+   */
+  public Set<Path> getFilesNotInManifests() {
+    return Collections.unmodifiableSet(filesNotInManifests);
+  }
+
+  /**
+   * @return the errors that stopped a file from being checked, like not being able to read it
+   */
+  public List<Exception> getErrors() {
+    return Collections.unmodifiableList(errors);
+  }
+
+  void addCorruptFile(final CorruptChecksumException corruptFile){
+    corruptFiles.add(corruptFile);
+  }
+
+  void addMissingFiles(final Collection<Path> files){
+    missingFiles.addAll(files);
+  }
+
+  void addFilesNotInManifests(final Collection<Path> files){
+    filesNotInManifests.addAll(files);
+  }
+
+  void addError(final Exception error){
+    errors.add(error);
+  }
+
+  @Override
+  public String toString() {
+    return "VerificationReport [corruptFiles=" + corruptFiles + ", missingFiles=" + missingFiles +
+        ", filesNotInManifests=" + filesNotInManifests + ", errors=" + errors + "]";
+  }
+}
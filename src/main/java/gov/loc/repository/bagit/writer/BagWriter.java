@@ -3,8 +3,8 @@ package gov.loc.repository.bagit.writer;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map.Entry;
 import java.util.ResourceBundle;
@@ -15,7 +15,11 @@ import org.slf4j.LoggerFactory;
 
 import gov.loc.repository.bagit.domain.Bag;
 import gov.loc.repository.bagit.domain.Manifest;
+import gov.loc.repository.bagit.hash.FileChannelReadStrategy;
 import gov.loc.repository.bagit.hash.Hasher;
+import gov.loc.repository.bagit.hash.ReadStrategy;
+import gov.loc.repository.bagit.hash.StreamingHasher;
+import gov.loc.repository.bagit.hash.StreamingHasherCache;
 import gov.loc.repository.bagit.util.PathUtils;
 
 /**
@@ -24,6 +28,7 @@ import gov.loc.repository.bagit.util.PathUtils;
 public final class BagWriter {
   private static final Logger logger = LoggerFactory.getLogger(BagWriter.class);
   private static final ResourceBundle messages = ResourceBundle.getBundle("MessageBundle");
+  private static final ReadStrategy READ_STRATEGY = new FileChannelReadStrategy();
 
   private BagWriter(){
     //intentionally left empty
@@ -39,7 +44,7 @@ public final class BagWriter {
    * @param outputDir the output directory that will become the root of the bag
    * 
    * @throws IOException if there is a problem writing a file
-   * @throws NoSuchAlgorithmException when trying to generate a {@link MessageDigest} which is used during update.
+   * @throws NoSuchAlgorithmException when trying to generate a {@link StreamingHasher} which is used during update.
    */
   public static void write(final Bag bag, final Path outputDir) throws IOException, NoSuchAlgorithmException{
     logger.debug(messages.getString("writing_payload_files"));
@@ -85,8 +90,9 @@ public final class BagWriter {
       for(final Path originalPath : tagManifest.getFileToChecksumMap().keySet()){
         final Path relativePath = bag.getRootDir().relativize(originalPath);
         final Path pathToUpdate = newBagRootDir.resolve(relativePath);
-        final MessageDigest messageDigest = MessageDigest.getInstance(tagManifest.getAlgorithm().getMessageDigestName());
-        final String newChecksum = Hasher.hash(pathToUpdate, messageDigest);
+        final StreamingHasher hasher = StreamingHasherCache.get(tagManifest.getAlgorithm());
+        Hasher.updateHashers(pathToUpdate, Collections.singletonList(hasher), READ_STRATEGY);
+        final String newChecksum = Hasher.formatHash(hasher.digest());
         newManifest.getFileToChecksumMap().put(pathToUpdate, newChecksum);
       }
       
@@ -0,0 +1,61 @@
+package gov.loc.repository.bagit.writer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.ResourceBundle;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gov.loc.repository.bagit.domain.ChunkFixity;
+import gov.loc.repository.bagit.domain.FileChunk;
+
+/**
+ * Responsible for writing out a {@link ChunkFixity} to the filesystem.
+ * Each line of the file is the checksum, offset and length of one chunk followed by the path of the file it belongs to.
+ */
+public final class ChunkFixityWriter {
+  private static final Logger logger = LoggerFactory.getLogger(ChunkFixityWriter.class);
+  private static final ResourceBundle messages = ResourceBundle.getBundle("MessageBundle");
+  
+  /**
+   * The start of the name of every chunk fixity file, it is followed by the bagit name of the algorithm and .txt
+   */
+  public static final String FILENAME_PREFIX = "chunk-fixity-";
+  
+  private ChunkFixityWriter(){
+    //intentionally left empty
+  }
+  
+  /**
+   * Write the chunk fixity file to the output directory
+   * 
+   * @param chunkFixity the {@link ChunkFixity} to write out
+   * @param outputDir the directory where the file is written, usually the same as the manifests
+   * @param bagitRootDir the path to the root of the bag
+   * @param charsetName the name of the encoding for the file
+   * @return the path of the written file
+   * 
+   * @throws IOException if there was a problem writing the file
+   */
+  public static Path writeChunkFixity(final ChunkFixity chunkFixity, final Path outputDir, final Path bagitRootDir, final Charset charsetName) throws IOException{
+    final Path chunkFixityPath = outputDir.resolve(FILENAME_PREFIX + chunkFixity.getAlgorithm().getBagitName() + ".txt");
+    logger.debug(messages.getString("writing_chunk_fixity_to_path"), chunkFixityPath);
+    
+    try(final BufferedWriter writer = Files.newBufferedWriter(chunkFixityPath, charsetName)){
+      for(final Entry<Path, List<FileChunk>> entry : chunkFixity.getFileToChunksMap().entrySet()){
+        final String relativePath = RelativePathWriter.formatRelativePathString(bagitRootDir, entry.getKey());
+        for(final FileChunk chunk : entry.getValue()){
+          writer.write(chunk.getChecksum() + " " + chunk.getOffset() + " " + chunk.getLength() + "  " + relativePath);
+        }
+      }
+    }
+    
+    return chunkFixityPath;
+  }
+}
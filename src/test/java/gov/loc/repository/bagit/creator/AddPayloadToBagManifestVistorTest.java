@@ -6,6 +6,7 @@ import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.security.MessageDigest;
 import java.util.HashMap;
 import java.util.Map;
@@ -16,7 +17,10 @@ import org.junit.jupiter.api.Test;
 import gov.loc.repository.bagit.TempFolderTest;
 import gov.loc.repository.bagit.TestUtils;
 import gov.loc.repository.bagit.domain.Manifest;
+import gov.loc.repository.bagit.hash.Hasher;
+import gov.loc.repository.bagit.hash.ReadAheadReadStrategy;
 import gov.loc.repository.bagit.hash.StandardSupportedAlgorithms;
+import gov.loc.repository.bagit.hash.StreamingHasher;
 
 public class AddPayloadToBagManifestVistorTest extends TempFolderTest {
 
@@ -36,6 +40,41 @@ public class AddPayloadToBagManifestVistorTest extends TempFolderTest {
     Assertions.assertTrue(manifest.getFileToChecksumMap().containsKey(start.resolve("fooDir/.keep")));
   }
   
+  @Test
+  public void testReadAheadStrategyIsUsed() throws Exception{
+    Manifest manifest = new Manifest(StandardSupportedAlgorithms.MD5);
+    Map<Manifest, StreamingHasher> map = new HashMap<>();
+    map.put(manifest, StandardSupportedAlgorithms.MD5.createStreamingHasher());
+    Path start = Paths.get(new File("src/test/resources/bags/v0_97/bag").toURI()).resolve("data");
+    
+    CreatePayloadManifestsVistor sut = new CreatePayloadManifestsVistor(map, false, new ReadAheadReadStrategy(2, 8, 0));
+    Files.walkFileTree(start, sut);
+    
+    Path file = start.resolve("dir1/test3.txt");
+    Assertions.assertEquals(Hasher.hash(file, MessageDigest.getInstance("MD5")), manifest.getFileToChecksumMap().get(file));
+  }
+  
+  @Test
+  @SuppressWarnings("deprecation")
+  public void testSubclassCanStillHashWithMessageDigests() throws Exception{
+    Manifest manifest = new Manifest(StandardSupportedAlgorithms.MD5);
+    Map<Manifest, StreamingHasher> map = new HashMap<>();
+    map.put(manifest, StandardSupportedAlgorithms.MD5.createStreamingHasher());
+    Path start = Paths.get(new File("src/test/resources/bags/v0_97/bag").toURI()).resolve("data");
+    
+    CreatePayloadManifestsVistor sut = new CreatePayloadManifestsVistor(map, false, new ReadAheadReadStrategy(2, 8, 0)){
+      @Override
+      public FileVisitResult visitFile(final Path path, final BasicFileAttributes attrs) throws IOException{
+        Hasher.hash(path, manifestToMessageDigestMap);
+        return FileVisitResult.CONTINUE;
+      }
+    };
+    Files.walkFileTree(start, sut);
+    
+    Path file = start.resolve("dir1/test3.txt");
+    Assertions.assertEquals(Hasher.hash(file, MessageDigest.getInstance("MD5")), manifest.getFileToChecksumMap().get(file));
+  }
+  
   @Test
   public void testSkipDotBagitDir() throws IOException{
     Path dotBagitDirectory = createDirectory(".bagit");
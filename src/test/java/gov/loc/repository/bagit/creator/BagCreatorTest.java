@@ -8,6 +8,8 @@ import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -16,9 +18,16 @@ import gov.loc.repository.bagit.TempFolderTest;
 import gov.loc.repository.bagit.TestUtils;
 import gov.loc.repository.bagit.domain.Bag;
 import gov.loc.repository.bagit.domain.Manifest;
+import gov.loc.repository.bagit.domain.Metadata;
 import gov.loc.repository.bagit.domain.Version;
+import gov.loc.repository.bagit.hash.FileChannelReadStrategy;
+import gov.loc.repository.bagit.hash.ParallelDigestReadStrategy;
 import gov.loc.repository.bagit.hash.StandardSupportedAlgorithms;
+import gov.loc.repository.bagit.reader.BagReader;
 import gov.loc.repository.bagit.util.PathUtils;
+import gov.loc.repository.bagit.verify.BagVerifier;
+import gov.loc.repository.bagit.verify.BoundedThreadPoolExecutor;
+import gov.loc.repository.bagit.verify.LargestFirstFileOrderingStrategy;
 
 public class BagCreatorTest extends TempFolderTest {
   
@@ -60,6 +69,43 @@ public class BagCreatorTest extends TempFolderTest {
     }
   }
   
+  @Test
+  public void testBagInPlaceWithParallelDigests() throws Exception{
+    createTestStructure();
+    ExecutorService executor = Executors.newCachedThreadPool();
+    
+    Bag bag = BagCreator.bagInPlace(folder, Arrays.asList(StandardSupportedAlgorithms.MD5, StandardSupportedAlgorithms.SHA256), false, 
+        new Metadata(), new ParallelDigestReadStrategy(executor, 2, 16, 0));
+    executor.shutdown();
+    
+    Assertions.assertEquals(2, bag.getPayLoadManifests().size());
+    try(BagVerifier verifier = new BagVerifier()){
+      verifier.isValid(new BagReader().read(folder), false);
+    }
+  }
+  
+  @Test
+  public void testBagInPlaceLargestFirst() throws Exception{
+    TestStructure structure = createTestStructure();
+    Files.write(folder.resolve("large.bin"), new byte[300_000]);
+    Files.write(folder.resolve("larger.bin"), new byte[500_000]);
+    BoundedThreadPoolExecutor executor = new BoundedThreadPoolExecutor(2, 4);
+    LargestFirstFileOrderingStrategy ordering = new LargestFirstFileOrderingStrategy(2);
+    
+    Bag bag = BagCreator.bagInPlace(folder, Arrays.asList(StandardSupportedAlgorithms.MD5, StandardSupportedAlgorithms.SHA256), false, 
+        new Metadata(), new FileChannelReadStrategy(), ordering, executor);
+    executor.shutdown();
+    
+    Assertions.assertEquals(2, bag.getPayLoadManifests().size());
+    for(Manifest manifest : bag.getPayLoadManifests()){
+      Assertions.assertEquals(structure.regularPayloadFiles.size() + 2, manifest.getFileToChecksumMap().size());
+    }
+    Assertions.assertEquals(500_000, ordering.getBusiestThreadBytes());
+    try(BagVerifier verifier = new BagVerifier()){
+      verifier.isValid(new BagReader().read(folder), false);
+    }
+  }
+  
   @Test
   public void testBagInPlaceIncludingHidden() throws IOException, NoSuchAlgorithmException{
     TestStructure structure = createTestStructure();
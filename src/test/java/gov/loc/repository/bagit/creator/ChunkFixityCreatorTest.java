@@ -0,0 +1,66 @@
+package gov.loc.repository.bagit.creator;
+
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import gov.loc.repository.bagit.PrivateConstructorTest;
+import gov.loc.repository.bagit.domain.Bag;
+import gov.loc.repository.bagit.domain.ChunkFixity;
+import gov.loc.repository.bagit.domain.FileChunk;
+import gov.loc.repository.bagit.domain.Manifest;
+import gov.loc.repository.bagit.hash.StandardSupportedAlgorithms;
+import gov.loc.repository.bagit.reader.BagReader;
+import gov.loc.repository.bagit.verify.BagVerifier;
+
+public class ChunkFixityCreatorTest extends PrivateConstructorTest {
+  
+  @Test
+  public void testClassIsWellDefined() throws NoSuchMethodException, InvocationTargetException, InstantiationException, IllegalAccessException{
+    assertUtilityClassWellDefined(ChunkFixityCreator.class);
+  }
+  
+  @Test
+  public void testAddChunkFixity() throws Exception{
+    Path bagDir = createDirectory("chunkFixityBag");
+    byte[] content = new byte[10_000];
+    new Random(5).nextBytes(content);
+    Files.write(bagDir.resolve("large.bin"), content);
+    Files.write(bagDir.resolve("small.bin"), new byte[]{1, 2, 3});
+    Bag bag = BagCreator.bagInPlace(bagDir, Arrays.asList(StandardSupportedAlgorithms.MD5), false);
+    
+    ExecutorService executor = Executors.newCachedThreadPool();
+    try{
+      ChunkFixity chunkFixity = ChunkFixityCreator.addChunkFixity(bag, StandardSupportedAlgorithms.SHA256, 4096, executor);
+      
+      Assertions.assertEquals(1, chunkFixity.getFileToChunksMap().size());
+      List<FileChunk> chunks = chunkFixity.getFileToChunksMap().get(bagDir.resolve("data").resolve("large.bin"));
+      Assertions.assertEquals(3, chunks.size());
+      Assertions.assertEquals(8192, chunks.get(2).getOffset());
+      Assertions.assertEquals(10_000 - 8192, chunks.get(2).getLength());
+    }
+    finally{
+      executor.shutdown();
+    }
+    
+    Path chunkFixityFile = bagDir.resolve("chunk-fixity-sha256.txt");
+    Assertions.assertTrue(Files.exists(chunkFixityFile));
+    for(Manifest tagManifest : bag.getTagManifests()){
+      Assertions.assertTrue(tagManifest.getFileToChecksumMap().containsKey(chunkFixityFile));
+    }
+    
+    Bag readBag = new BagReader().read(bagDir);
+    Assertions.assertEquals(bag.getTagManifests(), readBag.getTagManifests());
+    try(BagVerifier verifier = new BagVerifier()){
+      verifier.isValid(readBag, false);
+    }
+  }
+}
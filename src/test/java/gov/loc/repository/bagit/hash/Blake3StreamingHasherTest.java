@@ -0,0 +1,75 @@
+package gov.loc.repository.bagit.hash;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import gov.loc.repository.bagit.TempFolderTest;
+
+public class Blake3StreamingHasherTest extends TempFolderTest {
+  
+  @Test
+  public void testOfficialVectors(){
+    Assertions.assertEquals("af1349b9f5f9a1a6a0404dea36dcc9499bcb25c9adc112b7cc9a93cae41f3262", hash(new Blake3StreamingHasher(), new byte[0], 1));
+    Assertions.assertEquals("6437b3ac38465133ffb63b75273a8db548c558465d79db03fd359c6cd5bd9d85", 
+        hash(new Blake3StreamingHasher(), "abc".getBytes(StandardCharsets.US_ASCII), 3));
+    Assertions.assertEquals("d00278ae47eb27b34faecf67b4fe263f82d5412916c1ffd97c8cb7fb814b8444", hash(new Blake3StreamingHasher(), testInput(1025), 1025));
+    Assertions.assertEquals("bc3e3d41a1146b069abffad3c0d44860cf664390afce4d9661f7902e7943e085", hash(new Blake3StreamingHasher(), testInput(102400), 102400));
+  }
+  
+  @Test
+  public void testParallelHashingMatchesSequentialHashing(){
+    byte[] content = new byte[300_007];
+    new Random(11).nextBytes(content);
+    String expected = hash(new Blake3StreamingHasher(ForkJoinPool.commonPool(), Long.MAX_VALUE), content, content.length);
+    
+    for(int updateSize : new int[]{content.length, 65_536, 1000, 4097}){
+      Assertions.assertEquals(expected, hash(new Blake3StreamingHasher(ForkJoinPool.commonPool(), 0), content, updateSize), "update size " + updateSize);
+    }
+  }
+  
+  @Test
+  public void testHashFileWithLargeReads() throws Exception{
+    byte[] content = testInput(102400);
+    Path file = createFile("blake3");
+    Files.write(file, content);
+    
+    StreamingHasher sut = new Blake3StreamingHasher(ForkJoinPool.commonPool(), 0);
+    new FileChannelReadStrategy(65_536).updateHashers(file, Arrays.asList(sut));
+    
+    Assertions.assertEquals("bc3e3d41a1146b069abffad3c0d44860cf664390afce4d9661f7902e7943e085", Hasher.formatHash(sut.digest()));
+  }
+  
+  @Test
+  public void testDigestResetsTheHasher(){
+    Blake3StreamingHasher sut = new Blake3StreamingHasher();
+    hash(sut, testInput(5000), 777);
+    
+    Assertions.assertEquals("af1349b9f5f9a1a6a0404dea36dcc9499bcb25c9adc112b7cc9a93cae41f3262", Hasher.formatHash(sut.digest()));
+  }
+  
+  /*
+   * the input used by the official BLAKE3 test vectors
+   */
+  private static byte[] testInput(final int length){
+    byte[] input = new byte[length];
+    for(int index = 0; index < length; index++){
+      input[index] = (byte) (index % 251);
+    }
+    return input;
+  }
+  
+  private static String hash(final StreamingHasher hasher, final byte[] content, final int updateSize){
+    for(int offset = 0; offset < content.length; offset += updateSize){
+      hasher.update(ByteBuffer.wrap(content, offset, Math.min(updateSize, content.length - offset)).slice());
+    }
+    return Hasher.formatHash(hasher.digest());
+  }
+}
@@ -0,0 +1,24 @@
+package gov.loc.repository.bagit.hash;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CancellableStreamingHasherTest {
+
+  @Test
+  public void testUpdateThrowsOnceCancelled() throws Exception{
+    AtomicBoolean cancelled = new AtomicBoolean();
+    CancellableStreamingHasher sut = new CancellableStreamingHasher(new MessageDigestStreamingHasher(MessageDigest.getInstance("MD5")), cancelled);
+    
+    sut.update(ByteBuffer.wrap(new byte[]{1, 2, 3}));
+    Assertions.assertArrayEquals(MessageDigest.getInstance("MD5").digest(new byte[]{1, 2, 3}), sut.digest());
+    
+    cancelled.set(true);
+    Assertions.assertThrows(CancellationException.class, () -> { sut.update(ByteBuffer.wrap(new byte[]{1})); });
+  }
+}
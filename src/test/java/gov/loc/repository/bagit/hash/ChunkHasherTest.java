@@ -0,0 +1,74 @@
+package gov.loc.repository.bagit.hash;
+
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import gov.loc.repository.bagit.PrivateConstructorTest;
+import gov.loc.repository.bagit.domain.FileChunk;
+
+public class ChunkHasherTest extends PrivateConstructorTest {
+  
+  @Test
+  public void testClassIsWellDefined() throws NoSuchMethodException, InvocationTargetException, InstantiationException, IllegalAccessException{
+    assertUtilityClassWellDefined(ChunkHasher.class);
+  }
+  
+  @Test
+  public void testChunksMatchHashOfEachRange() throws Exception{
+    byte[] content = new byte[2_500_000];
+    new Random(11).nextBytes(content);
+    Path file = createFile("randomContent");
+    Files.write(file, content);
+    
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try{
+      List<FileChunk> chunks = ChunkHasher.hashChunks(file, content.length, 1024 * 1024, StandardSupportedAlgorithms.SHA256, executor);
+      
+      Assertions.assertEquals(3, chunks.size());
+      long offset = 0;
+      for(FileChunk chunk : chunks){
+        Assertions.assertEquals(offset, chunk.getOffset());
+        byte[] range = Arrays.copyOfRange(content, (int) offset, (int) (offset + chunk.getLength()));
+        Assertions.assertEquals(Hasher.formatHash(MessageDigest.getInstance("SHA-256").digest(range)), chunk.getChecksum());
+        offset += chunk.getLength();
+      }
+      Assertions.assertEquals(content.length, offset);
+    }
+    finally{
+      executor.shutdown();
+    }
+  }
+  
+  @Test
+  public void testRangePastEndOfFileIsHashedToTheEnd() throws Exception{
+    Path file = createFile("shortFile");
+    Files.write(file, new byte[]{1, 2, 3, 4});
+    
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try{
+      List<FileChunk> chunks = ChunkHasher.hashChunks(file, Arrays.asList(new FileChunk(2, 10, "ignored")), StandardSupportedAlgorithms.MD5, executor);
+      
+      Assertions.assertEquals(new FileChunk(2, 10, Hasher.formatHash(MessageDigest.getInstance("MD5").digest(new byte[]{3, 4}))), chunks.get(0));
+    }
+    finally{
+      executor.shutdown();
+    }
+  }
+  
+  @Test
+  public void testChunkSizeMustBePositive() throws Exception{
+    Path file = createFile("emptyFile");
+    Assertions.assertThrows(IllegalArgumentException.class, 
+        () -> { ChunkHasher.hashChunks(file, 0, 0, StandardSupportedAlgorithms.MD5, Executors.newSingleThreadExecutor()); });
+  }
+}
@@ -0,0 +1,74 @@
+package gov.loc.repository.bagit.hash;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import gov.loc.repository.bagit.TempFolderTest;
+
+public class DigestExecutorReadStrategyTest extends TempFolderTest {
+  private final ExecutorService digestExecutor = Executors.newFixedThreadPool(1);
+  
+  @AfterEach
+  public void shutdown(){
+    digestExecutor.shutdown();
+  }
+
+  @Test
+  public void testHashesMatchWholeFileHash() throws Exception{
+    DigestExecutorReadStrategy sut = new DigestExecutorReadStrategy(digestExecutor, 4096);
+    for(int length : new int[]{100_001, 8192, 4097}){
+      byte[] content = new byte[length];
+      new Random(length).nextBytes(content);
+      Path file = createFile("content" + length);
+      Files.write(file, content);
+      
+      MessageDigest md5 = MessageDigest.getInstance("MD5");
+      MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+      ReadStrategy used = sut.updateHashers(file, Arrays.asList(new MessageDigestStreamingHasher(md5), new MessageDigestStreamingHasher(sha256)));
+      
+      Assertions.assertSame(sut, used);
+      Assertions.assertArrayEquals(MessageDigest.getInstance("MD5").digest(content), md5.digest(), "length " + length);
+      Assertions.assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(content), sha256.digest(), "length " + length);
+    }
+  }
+  
+  @Test
+  public void testFilesThatFitInOneBufferAreHashedByTheCallingThread() throws Exception{
+    Path file = createFile("smallFile");
+    Files.write(file, new byte[]{1, 2, 3});
+    
+    ReadStrategy used = new DigestExecutorReadStrategy(digestExecutor).updateHashers(file, Arrays.asList(new Crc32StreamingHasher()));
+    
+    Assertions.assertTrue(used instanceof FileChannelReadStrategy);
+  }
+  
+  @Test
+  public void testHasherFailureIsRethrown() throws Exception{
+    Path file = createFile("largeFile");
+    Files.write(file, new byte[10_000]);
+    StreamingHasher failing = new Crc32StreamingHasher(){
+      @Override
+      public void update(final ByteBuffer buffer) {
+        throw new IllegalStateException("failed");
+      }
+    };
+    
+    DigestExecutorReadStrategy sut = new DigestExecutorReadStrategy(digestExecutor, 1024);
+    Assertions.assertThrows(IllegalStateException.class, () -> { sut.updateHashers(file, Arrays.asList(failing)); });
+  }
+  
+  @Test
+  public void testBufferSizeMustBePositive(){
+    Assertions.assertThrows(IllegalArgumentException.class, () -> { new DigestExecutorReadStrategy(digestExecutor, 0); });
+  }
+}
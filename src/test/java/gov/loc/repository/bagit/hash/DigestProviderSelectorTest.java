@@ -0,0 +1,141 @@
+package gov.loc.repository.bagit.hash;
+
+import java.lang.reflect.InvocationTargetException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
+import java.security.Security;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import gov.loc.repository.bagit.PrivateConstructorTest;
+
+public class DigestProviderSelectorTest extends PrivateConstructorTest {
+  private static final String TEST_ALGORITHM = "BAGIT-TEST-DIGEST";
+  private static final String FAILING_ALGORITHM = "BAGIT-FAILING-DIGEST";
+  
+  @Test
+  public void testClassIsWellDefined() throws NoSuchMethodException, InvocationTargetException, InstantiationException, IllegalAccessException{
+    assertUtilityClassWellDefined(DigestProviderSelector.class);
+  }
+  
+  @Test
+  public void testChoiceIsRemembered() throws Exception{
+    Provider provider = DigestProviderSelector.getFastestProvider("SHA-256");
+    
+    Assertions.assertNotNull(MessageDigest.getInstance("SHA-256", provider));
+    Assertions.assertSame(provider, DigestProviderSelector.getFastestProvider("SHA-256"));
+  }
+  
+  @Test
+  public void testFastestOfSeveralProvidersIsChosen() throws Exception{
+    Provider first = new TestProvider("BagitTestProvider1");
+    Provider second = new TestProvider("BagitTestProvider2");
+    Security.addProvider(first);
+    Security.addProvider(second);
+    try{
+      Provider chosen = DigestProviderSelector.getFastestProvider(TEST_ALGORITHM);
+      
+      Assertions.assertTrue(chosen == first || chosen == second);
+    }
+    finally{
+      Security.removeProvider(first.getName());
+      Security.removeProvider(second.getName());
+    }
+  }
+  
+  @Test
+  public void testProvidersThatAllFailAreNotChosen() throws Exception{
+    Provider first = new FailingProvider("BagitFailingProvider1");
+    Provider second = new FailingProvider("BagitFailingProvider2");
+    Security.addProvider(first);
+    Security.addProvider(second);
+    try{
+      Assertions.assertThrows(NoSuchAlgorithmException.class, () -> { DigestProviderSelector.getFastestProvider(FAILING_ALGORITHM); });
+      Assertions.assertThrows(NoSuchAlgorithmException.class, () -> { DigestProviderSelector.getFastestProvider(FAILING_ALGORITHM); });
+    }
+    finally{
+      Security.removeProvider(first.getName());
+      Security.removeProvider(second.getName());
+    }
+  }
+  
+  @Test
+  public void testUnknownAlgorithmThrowsException(){
+    Assertions.assertThrows(NoSuchAlgorithmException.class, () -> { DigestProviderSelector.getFastestProvider("FOO-BAR"); });
+  }
+  
+  private static final class TestProvider extends Provider{
+    private static final long serialVersionUID = 1L;
+
+    private TestProvider(final String name){
+      super(name, 1.0, "provides SHA-256 under a name only used by this test");
+      put("MessageDigest." + TEST_ALGORITHM, SHA256Digest.class.getName());
+    }
+  }
+  
+  private static final class FailingProvider extends Provider{
+    private static final long serialVersionUID = 1L;
+
+    private FailingProvider(final String name){
+      super(name, 1.0, "provides a digest that always fails under a name only used by this test");
+      put("MessageDigest." + FAILING_ALGORITHM, FailingDigest.class.getName());
+    }
+  }
+  
+  public static final class FailingDigest extends MessageDigest{
+    public FailingDigest(){
+      super(FAILING_ALGORITHM);
+    }
+
+    @Override
+    protected void engineUpdate(final byte input) {
+      throw new IllegalStateException("always fails");
+    }
+
+    @Override
+    protected void engineUpdate(final byte[] input, final int offset, final int len) {
+      throw new IllegalStateException("always fails");
+    }
+
+    @Override
+    protected byte[] engineDigest() {
+      throw new IllegalStateException("always fails");
+    }
+
+    @Override
+    protected void engineReset() {
+      //nothing to reset
+    }
+  }
+  
+  public static final class SHA256Digest extends MessageDigest{
+    private final MessageDigest sha256;
+    
+    public SHA256Digest() throws NoSuchAlgorithmException{
+      super(TEST_ALGORITHM);
+      sha256 = MessageDigest.getInstance("SHA-256");
+    }
+
+    @Override
+    protected void engineUpdate(final byte input) {
+      sha256.update(input);
+    }
+
+    @Override
+    protected void engineUpdate(final byte[] input, final int offset, final int len) {
+      sha256.update(input, offset, len);
+    }
+
+    @Override
+    protected byte[] engineDigest() {
+      return sha256.digest();
+    }
+
+    @Override
+    protected void engineReset() {
+      sha256.reset();
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package gov.loc.repository.bagit.hash;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import gov.loc.repository.bagit.TempFolderTest;
+
+public class DirectIoReadStrategyTest extends TempFolderTest {
+  private static final int[] SIZES = {0, 1, 4095, 4096, 65_537, 131_072, 300_001};
+
+  @Test
+  public void testHashesMatchOnDefaultFileSystem() throws Exception{
+    DirectIoReadStrategy sut = new DirectIoReadStrategy(128 * 1024);
+    
+    for(int size : SIZES){
+      Path file = folder.resolve("file" + size);
+      ReadStrategy used = assertHashesMatch(sut, file, size);
+      if(DirectIoReadStrategy.isSupported() && "ext4".equals(Files.getFileStore(folder).type())){
+        Assertions.assertSame(sut, used);
+      }
+    }
+  }
+  
+  @Test
+  public void testHashesMatchOnTmpfs() throws Exception{
+    Path shm = Paths.get("/dev/shm");
+    Assumptions.assumeTrue(Files.isDirectory(shm) && Files.isWritable(shm), "tmpfs is not available");
+    Path tmpfsFolder = Files.createTempDirectory(shm, "junitTempFolder");
+    
+    try{
+      DirectIoReadStrategy sut = new DirectIoReadStrategy(128 * 1024);
+      for(int size : SIZES){
+        assertHashesMatch(sut, tmpfsFolder.resolve("file" + size), size);
+      }
+    }
+    finally{
+      delete(tmpfsFolder);
+    }
+  }
+  
+  @Test
+  public void testFallsBackWhenDirectIoIsNotSupported() throws Exception{
+    Assumptions.assumeFalse(DirectIoReadStrategy.isSupported());
+    
+    ReadStrategy used = assertHashesMatch(new DirectIoReadStrategy(), folder.resolve("file"), 1000);
+    Assertions.assertTrue(used instanceof FileChannelReadStrategy);
+  }
+  
+  @Test
+  public void testSmallFilesAreReadWithDirectIo() throws Exception{
+    DirectIoReadStrategy sut = new DirectIoReadStrategy();
+    SmallFileReadStrategy smallFileStrategy = sut.getSmallFileStrategy();
+    
+    Assertions.assertTrue(smallFileStrategy.isSmall(64 * 1024));
+    for(int size : new int[]{0, 1, 4095, 65_536}){
+      ReadStrategy used = assertHashesMatch(smallFileStrategy, folder.resolve("small" + size), size);
+      if(DirectIoReadStrategy.isSupported() && "ext4".equals(Files.getFileStore(folder).type())){
+        Assertions.assertSame(sut, used);
+      }
+    }
+  }
+  
+  @Test
+  public void testBufferSizeMustBeAligned(){
+    Assertions.assertThrows(IllegalArgumentException.class, () -> { new DirectIoReadStrategy(0); });
+    Assertions.assertThrows(IllegalArgumentException.class, () -> { new DirectIoReadStrategy(100_000); });
+  }
+  
+  private static ReadStrategy assertHashesMatch(final ReadStrategy sut, final Path file, final int size) throws Exception{
+    byte[] content = new byte[size];
+    new Random(size).nextBytes(content);
+    Files.write(file, content);
+    
+    MessageDigest md5 = MessageDigest.getInstance("MD5");
+    MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+    ReadStrategy used = sut.updateHashers(file, Arrays.asList(new MessageDigestStreamingHasher(md5), new MessageDigestStreamingHasher(sha256)));
+    
+    Assertions.assertArrayEquals(MessageDigest.getInstance("MD5").digest(content), md5.digest(), "MD5 of " + size + " bytes");
+    Assertions.assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(content), sha256.digest(), "SHA-256 of " + size + " bytes");
+    return used;
+  }
+  
+  private static void delete(final Path directory) throws IOException{
+    Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+        Files.delete(file);
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+        Files.delete(dir);
+        return FileVisitResult.CONTINUE;
+      }
+    });
+  }
+}
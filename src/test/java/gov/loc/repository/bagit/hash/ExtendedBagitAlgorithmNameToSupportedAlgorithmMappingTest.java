@@ -0,0 +1,22 @@
+package gov.loc.repository.bagit.hash;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import gov.loc.repository.bagit.exceptions.UnsupportedAlgorithmException;
+
+public class ExtendedBagitAlgorithmNameToSupportedAlgorithmMappingTest {
+  private final BagitAlgorithmNameToSupportedAlgorithmMapping sut = new ExtendedBagitAlgorithmNameToSupportedAlgorithmMapping();
+  
+  @Test
+  public void testExtendedAndStandardAlgorithms() throws UnsupportedAlgorithmException{
+    Assertions.assertEquals(ExtendedSupportedAlgorithms.CRC32C, sut.getSupportedAlgorithm("crc32c"));
+    Assertions.assertEquals(ExtendedSupportedAlgorithms.XXH64, sut.getSupportedAlgorithm("xxh64"));
+    Assertions.assertEquals(StandardSupportedAlgorithms.SHA256, sut.getSupportedAlgorithm("sha256"));
+  }
+  
+  @Test
+  public void testUnsupportedAlgorithm(){
+    Assertions.assertThrows(UnsupportedAlgorithmException.class, () -> { sut.getSupportedAlgorithm("foo"); });
+  }
+}
@@ -0,0 +1,92 @@
+package gov.loc.repository.bagit.hash;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ExtendedSupportedAlgorithmsTest {
+  private static final byte[] CHECK_INPUT = "123456789".getBytes(StandardCharsets.US_ASCII);
+  
+  @Test
+  public void testCrc32(){
+    Assertions.assertEquals("cbf43926", hash(new Crc32StreamingHasher(), CHECK_INPUT));
+  }
+  
+  @Test
+  public void testCrc32c(){
+    Assertions.assertEquals("e3069283", hash(new Crc32cStreamingHasher(), CHECK_INPUT));
+    Assertions.assertEquals("e3069283", hash(new Crc32cStreamingHasher(false), CHECK_INPUT));
+    Assertions.assertEquals("00000000", hash(new Crc32cStreamingHasher(false), new byte[0]));
+  }
+  
+  @Test
+  public void testPureJavaCrc32cMatchesDefault(){
+    byte[] content = new byte[10_007];
+    new Random(3).nextBytes(content);
+    
+    Assertions.assertEquals(hashInChunks(new Crc32cStreamingHasher(), content, 4096), hashInChunks(new Crc32cStreamingHasher(false), content, 13));
+  }
+  
+  @Test
+  public void testXxHash64(){
+    Assertions.assertEquals("ef46db3751d8e999", hash(new XxHash64StreamingHasher(), new byte[0]));
+    Assertions.assertEquals("d24ec4f1a98c6e5b", hash(new XxHash64StreamingHasher(), "a".getBytes(StandardCharsets.US_ASCII)));
+    Assertions.assertEquals("8cb841db40e6ae83", hash(new XxHash64StreamingHasher(), CHECK_INPUT));
+    Assertions.assertEquals("0b242d361fda71bc", hash(new XxHash64StreamingHasher(), 
+        "The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.US_ASCII)));
+  }
+  
+  @Test
+  public void testXxHash64IsTheSameNoMatterHowTheContentIsSplit(){
+    byte[] content = new byte[1000];
+    new Random(1).nextBytes(content);
+    
+    for(int chunkSize : new int[]{1, 7, 31, 32, 33, 100, 1000}){
+      Assertions.assertEquals("2db79e7ec7a923fa", hashInChunks(new XxHash64StreamingHasher(), content, chunkSize));
+    }
+  }
+  
+  @Test
+  public void testDigestResetsTheHasher() throws Exception{
+    for(ExtendedSupportedAlgorithms algorithm : ExtendedSupportedAlgorithms.values()){
+      StreamingHasher hasher = algorithm.createStreamingHasher();
+      String first = hash(hasher, CHECK_INPUT);
+      hasher.update(ByteBuffer.wrap(new byte[]{1, 2, 3}));
+      hasher.reset();
+      Assertions.assertEquals(first, hash(hasher, CHECK_INPUT), algorithm.getBagitName());
+    }
+  }
+  
+  @Test
+  public void testBufferOrderIsRestored(){
+    ByteBuffer buffer = ByteBuffer.wrap(CHECK_INPUT);
+    new XxHash64StreamingHasher().update(buffer);
+    
+    Assertions.assertFalse(buffer.hasRemaining());
+    Assertions.assertEquals(ByteOrder.BIG_ENDIAN, buffer.order());
+  }
+  
+  @Test
+  public void testBagitNames(){
+    Assertions.assertEquals("crc32c", ExtendedSupportedAlgorithms.CRC32C.getBagitName());
+    Assertions.assertEquals("xxh64", ExtendedSupportedAlgorithms.XXH64.getBagitName());
+  }
+  
+  private static String hash(final StreamingHasher hasher, final byte[] content){
+    hasher.update(ByteBuffer.wrap(content));
+    return Hasher.formatHash(hasher.digest());
+  }
+  
+  private static String hashInChunks(final StreamingHasher hasher, final byte[] content, final int chunkSize){
+    for(int offset = 0; offset < content.length; offset += chunkSize){
+      ByteBuffer chunk = ByteBuffer.allocateDirect(Math.min(chunkSize, content.length - offset));
+      chunk.put(content, offset, chunk.capacity()).flip();
+      hasher.update(chunk);
+    }
+    return Hasher.formatHash(hasher.digest());
+  }
+}
@@ -0,0 +1,51 @@
+package gov.loc.repository.bagit.hash;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class FastestProviderSupportedAlgorithmTest {
+
+  @Test
+  public void testMessageDigestAlgorithmComputesSameHash() throws Exception{
+    FastestProviderSupportedAlgorithm sut = new FastestProviderSupportedAlgorithm(StandardSupportedAlgorithms.SHA512);
+    byte[] content = "some content".getBytes(StandardCharsets.UTF_8);
+    
+    StreamingHasher hasher = sut.createStreamingHasher();
+    hasher.update(ByteBuffer.wrap(content));
+    
+    Assertions.assertTrue(hasher instanceof MessageDigestStreamingHasher);
+    Assertions.assertArrayEquals(MessageDigest.getInstance("SHA-512").digest(content), hasher.digest());
+    Assertions.assertEquals("sha512", sut.getBagitName());
+    Assertions.assertEquals("SHA-512", sut.getMessageDigestName());
+  }
+  
+  @Test
+  public void testOtherAlgorithmsAreLeftAsTheyAre() throws Exception{
+    FastestProviderSupportedAlgorithm sut = new FastestProviderSupportedAlgorithm(ExtendedSupportedAlgorithms.CRC32C);
+    
+    Assertions.assertTrue(sut.createStreamingHasher() instanceof Crc32cStreamingHasher);
+  }
+  
+  @Test
+  public void testEquality(){
+    FastestProviderSupportedAlgorithm sut = new FastestProviderSupportedAlgorithm(StandardSupportedAlgorithms.MD5);
+    
+    Assertions.assertEquals(new FastestProviderSupportedAlgorithm(StandardSupportedAlgorithms.MD5), sut);
+    Assertions.assertEquals(new FastestProviderSupportedAlgorithm(StandardSupportedAlgorithms.MD5).hashCode(), sut.hashCode());
+    Assertions.assertNotEquals(new FastestProviderSupportedAlgorithm(StandardSupportedAlgorithms.SHA1), sut);
+    Assertions.assertNotEquals(StandardSupportedAlgorithms.MD5, sut);
+  }
+  
+  @Test
+  public void testMappingWrapsAlgorithms() throws Exception{
+    BagitAlgorithmNameToSupportedAlgorithmMapping mapping = new FastestProviderBagitAlgorithmNameToSupportedAlgorithmMapping(
+        new ExtendedBagitAlgorithmNameToSupportedAlgorithmMapping());
+    
+    Assertions.assertEquals(new FastestProviderSupportedAlgorithm(StandardSupportedAlgorithms.SHA256), mapping.getSupportedAlgorithm("sha256"));
+    Assertions.assertEquals(new FastestProviderSupportedAlgorithm(ExtendedSupportedAlgorithms.XXH64), mapping.getSupportedAlgorithm("xxh64"));
+  }
+}
@@ -0,0 +1,55 @@
+package gov.loc.repository.bagit.hash;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import gov.loc.repository.bagit.TempFolderTest;
+
+public class FileChannelReadStrategyTest extends TempFolderTest {
+
+  @Test
+  public void testSmallChunksMatchWholeFileHash() throws Exception{
+    byte[] content = new byte[100_000];
+    new Random(42).nextBytes(content);
+    Path file = createFile("randomContent");
+    Files.write(file, content);
+
+    MessageDigest md5 = MessageDigest.getInstance("MD5");
+    MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+    new FileChannelReadStrategy(4096).updateHashers(file, Arrays.asList(new MessageDigestStreamingHasher(md5), new MessageDigestStreamingHasher(sha256)));
+
+    Assertions.assertArrayEquals(MessageDigest.getInstance("MD5").digest(content), md5.digest());
+    Assertions.assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(content), sha256.digest());
+  }
+
+  @Test
+  public void testEmptyFile() throws Exception{
+    Path file = createFile("emptyFile");
+
+    MessageDigest md5 = MessageDigest.getInstance("MD5");
+    new FileChannelReadStrategy().updateHashers(file, Arrays.asList(new MessageDigestStreamingHasher(md5)));
+
+    Assertions.assertArrayEquals(MessageDigest.getInstance("MD5").digest(new byte[0]), md5.digest());
+  }
+
+  @Test
+  public void testAdaptiveChunkSize(){
+    FileChannelReadStrategy sut = new FileChannelReadStrategy();
+
+    Assertions.assertEquals(64 * 1024, sut.getChunkSize(10));
+    Assertions.assertEquals(1024 * 1024, sut.getChunkSize(10 * 1024 * 1024));
+    Assertions.assertEquals(8 * 1024 * 1024, sut.getChunkSize(10L * 1024 * 1024 * 1024));
+    Assertions.assertEquals(4096, new FileChannelReadStrategy(4096).getChunkSize(10L * 1024 * 1024 * 1024));
+  }
+
+  @Test
+  public void testNegativeChunkSizeIsRejected(){
+    Assertions.assertThrows(IllegalArgumentException.class, () -> { new FileChannelReadStrategy(-1); });
+  }
+}
@@ -8,6 +8,7 @@ import java.nio.file.Paths;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.Map;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -31,6 +32,32 @@ public class HasherTest extends PrivateConstructorTest {
     Assertions.assertEquals(expectedHash, hash);
   }
   
+  @Test
+  public void testHashWithSeveralDigests() throws IOException, NoSuchAlgorithmException{
+    Path path = Paths.get(new File("src/test/resources/bagitFiles/bagit-0.97.txt").toURI());
+    MessageDigest md5 = MessageDigest.getInstance("MD5");
+    MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+    
+    Map<MessageDigest, String> hashes = Hasher.hash(path, Arrays.asList(md5, sha1));
+    Assertions.assertEquals("41b89090f32a9ef33226b48f1b98dddf", hashes.get(md5));
+    Assertions.assertEquals(Hasher.hash(path, MessageDigest.getInstance("SHA-1")), hashes.get(sha1));
+  }
+  
+  @Test
+  public void testFormatHash(){
+    Assertions.assertEquals("00ff7f80", Hasher.formatHash(new byte[]{0, (byte)0xff, 0x7f, (byte)0x80}));
+    Assertions.assertEquals("", Hasher.formatHash(new byte[0]));
+  }
+  
+  @Test
+  public void testIsSameHash(){
+    byte[] hash = new byte[]{0x0a, (byte)0xbc};
+    Assertions.assertTrue(Hasher.isSameHash(hash, "0abc"));
+    Assertions.assertFalse(Hasher.isSameHash(hash, "0abd"));
+    Assertions.assertFalse(Hasher.isSameHash(hash, "0ab"));
+    Assertions.assertFalse(Hasher.isSameHash(hash, null));
+  }
+  
   @Test
   public void testHashBadInput() throws IOException, NoSuchAlgorithmException{
     Path path = createDirectory("newPath");
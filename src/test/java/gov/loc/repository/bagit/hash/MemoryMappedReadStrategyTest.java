@@ -0,0 +1,67 @@
+package gov.loc.repository.bagit.hash;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import gov.loc.repository.bagit.TempFolderTest;
+
+public class MemoryMappedReadStrategyTest extends TempFolderTest {
+
+  @Test
+  public void testSlidingWindowsMatchWholeFileHash() throws Exception{
+    byte[] content = new byte[100_003];
+    new Random(7).nextBytes(content);
+    Path file = createFile("randomContent");
+    Files.write(file, content);
+
+    MemoryMappedReadStrategy sut = new MemoryMappedReadStrategy(0, 4096);
+    MessageDigest md5 = MessageDigest.getInstance("MD5");
+    MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+    ReadStrategy used = sut.updateHashers(file, Arrays.asList(new MessageDigestStreamingHasher(md5), new MessageDigestStreamingHasher(sha1)));
+
+    Assertions.assertSame(sut, used);
+    Assertions.assertArrayEquals(MessageDigest.getInstance("MD5").digest(content), md5.digest());
+    Assertions.assertArrayEquals(MessageDigest.getInstance("SHA-1").digest(content), sha1.digest());
+  }
+
+  @Test
+  public void testWindowsAreUnmappedAfterHashing() throws Exception{
+    Assertions.assertTrue(MemoryMappedReadStrategy.canUnmap());
+    byte[] content = new byte[10_000];
+    new Random(11).nextBytes(content);
+    Path file = createFile("unmapped");
+    Files.write(file, content);
+
+    //hashing again after the windows were unmapped reads them from a new mapping
+    MemoryMappedReadStrategy sut = new MemoryMappedReadStrategy(0, 1024);
+    for(int i = 0; i < 3; i++){
+      MessageDigest md5 = MessageDigest.getInstance("MD5");
+      sut.updateHashers(file, Arrays.asList(new MessageDigestStreamingHasher(md5)));
+      Assertions.assertArrayEquals(MessageDigest.getInstance("MD5").digest(content), md5.digest());
+    }
+  }
+
+  @Test
+  public void testSmallFilesAreNotMapped() throws Exception{
+    Path file = createFile("smallFile");
+    Files.write(file, new byte[]{1, 2, 3});
+
+    MessageDigest md5 = MessageDigest.getInstance("MD5");
+    ReadStrategy used = new MemoryMappedReadStrategy().updateHashers(file, Arrays.asList(new MessageDigestStreamingHasher(md5)));
+
+    Assertions.assertTrue(used instanceof FileChannelReadStrategy);
+    Assertions.assertArrayEquals(MessageDigest.getInstance("MD5").digest(new byte[]{1, 2, 3}), md5.digest());
+  }
+
+  @Test
+  public void testWindowSizeMustFitInABuffer(){
+    Assertions.assertThrows(IllegalArgumentException.class, () -> { new MemoryMappedReadStrategy(0, Integer.MAX_VALUE + 1L); });
+    Assertions.assertThrows(IllegalArgumentException.class, () -> { new MemoryMappedReadStrategy(0, 0); });
+  }
+}
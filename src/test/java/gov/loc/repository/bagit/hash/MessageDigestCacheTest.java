@@ -0,0 +1,46 @@
+package gov.loc.repository.bagit.hash;
+
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import gov.loc.repository.bagit.PrivateConstructorTest;
+
+public class MessageDigestCacheTest extends PrivateConstructorTest {
+
+  @Test
+  public void testClassIsWellDefined() throws NoSuchMethodException, InvocationTargetException, InstantiationException, IllegalAccessException{
+    assertUtilityClassWellDefined(MessageDigestCache.class);
+  }
+  
+  @Test
+  public void testDigestIsReusedAndReset() throws NoSuchAlgorithmException{
+    MessageDigest first = MessageDigestCache.get("MD5");
+    first.update("some partial content".getBytes(StandardCharsets.UTF_8));
+    
+    MessageDigest second = MessageDigestCache.get("MD5");
+    Assertions.assertSame(first, second);
+    Assertions.assertArrayEquals(MessageDigest.getInstance("MD5").digest(), second.digest());
+  }
+  
+  @Test
+  public void testEachThreadGetsItsOwnDigest() throws Exception{
+    MessageDigest mine = MessageDigestCache.get("SHA-256");
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    MessageDigest theirs = executor.submit(() -> MessageDigestCache.get("SHA-256")).get();
+    executor.shutdown();
+    
+    Assertions.assertNotSame(mine, theirs);
+  }
+  
+  @Test
+  public void testUnknownAlgorithm(){
+    Assertions.assertThrows(NoSuchAlgorithmException.class, () -> { MessageDigestCache.get("FOO"); });
+  }
+}
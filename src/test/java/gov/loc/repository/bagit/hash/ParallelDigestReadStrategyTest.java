@@ -0,0 +1,83 @@
+package gov.loc.repository.bagit.hash;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import gov.loc.repository.bagit.TempFolderTest;
+
+public class ParallelDigestReadStrategyTest extends TempFolderTest {
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  
+  @AfterEach
+  public void shutdownExecutor(){
+    executor.shutdownNow();
+  }
+  
+  @Test
+  public void testEachHasherSeesTheWholeFile() throws Exception{
+    byte[] content = new byte[1_000_003];
+    new Random(13).nextBytes(content);
+    Path file = createFile("randomContent");
+    Files.write(file, content);
+    
+    ParallelDigestReadStrategy sut = new ParallelDigestReadStrategy(executor, 3, 4096, 0);
+    MessageDigest md5 = MessageDigest.getInstance("MD5");
+    MessageDigest sha512 = MessageDigest.getInstance("SHA-512");
+    StreamingHasher xxh64 = new XxHash64StreamingHasher();
+    ReadStrategy used = sut.updateHashers(file, Arrays.asList(new MessageDigestStreamingHasher(md5), new MessageDigestStreamingHasher(sha512), xxh64));
+    
+    Assertions.assertSame(sut, used);
+    Assertions.assertArrayEquals(MessageDigest.getInstance("MD5").digest(content), md5.digest());
+    Assertions.assertArrayEquals(MessageDigest.getInstance("SHA-512").digest(content), sha512.digest());
+    StreamingHasher expected = new XxHash64StreamingHasher();
+    expected.update(ByteBuffer.wrap(content));
+    Assertions.assertArrayEquals(expected.digest(), xxh64.digest());
+  }
+  
+  @Test
+  public void testSingleHasherIsReadOnTheCallingThread() throws Exception{
+    Path file = createFile("smallFile");
+    Files.write(file, new byte[]{1, 2, 3});
+    
+    ReadStrategy used = new ParallelDigestReadStrategy(executor, 2, 16, 0).updateHashers(file, Arrays.asList(new Crc32StreamingHasher()));
+    
+    Assertions.assertTrue(used instanceof FileChannelReadStrategy);
+  }
+  
+  @Test
+  public void testFailingHasherDoesNotBlockTheReader() throws Exception{
+    Path file = createFile("someContent");
+    Files.write(file, new byte[10_000]);
+    StreamingHasher failing = new Crc32StreamingHasher(){
+      @Override
+      public void update(final ByteBuffer buffer) {
+        throw new IllegalStateException("failing on purpose");
+      }
+    };
+    MessageDigest md5 = MessageDigest.getInstance("MD5");
+    
+    ParallelDigestReadStrategy sut = new ParallelDigestReadStrategy(executor, 2, 16, 0);
+    Assertions.assertThrows(IllegalStateException.class, 
+        () -> { sut.updateHashers(file, Arrays.asList(failing, new MessageDigestStreamingHasher(md5))); });
+    
+    //the ring is free again for the next file
+    md5.reset();
+    sut.updateHashers(file, Arrays.asList(new MessageDigestStreamingHasher(md5), new Crc32StreamingHasher()));
+    Assertions.assertArrayEquals(MessageDigest.getInstance("MD5").digest(new byte[10_000]), md5.digest());
+  }
+  
+  @Test
+  public void testRingNeedsAtLeastTwoBuffers(){
+    Assertions.assertThrows(IllegalArgumentException.class, () -> { new ParallelDigestReadStrategy(executor, 1, 16, 0); });
+  }
+}
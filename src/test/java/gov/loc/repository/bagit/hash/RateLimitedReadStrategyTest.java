@@ -0,0 +1,80 @@
+package gov.loc.repository.bagit.hash;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import gov.loc.repository.bagit.TempFolderTest;
+
+public class RateLimitedReadStrategyTest extends TempFolderTest {
+
+  @Test
+  public void testHashesMatchAndBytesAreCountedOnce() throws Exception{
+    byte[] content = new byte[100_001];
+    new Random(17).nextBytes(content);
+    Path file = createFile("randomContent");
+    Files.write(file, content);
+    
+    ReadRateLimiter limiter = new ReadRateLimiter(ReadRateLimiter.UNLIMITED);
+    RateLimitedReadStrategy sut = new RateLimitedReadStrategy(new FileChannelReadStrategy(), limiter);
+    MessageDigest md5 = MessageDigest.getInstance("MD5");
+    MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+    ReadStrategy used = sut.updateHashers(file, Arrays.asList(new MessageDigestStreamingHasher(md5), new MessageDigestStreamingHasher(sha256)));
+    
+    Assertions.assertTrue(used instanceof FileChannelReadStrategy);
+    Assertions.assertArrayEquals(MessageDigest.getInstance("MD5").digest(content), md5.digest());
+    Assertions.assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(content), sha256.digest());
+    Assertions.assertEquals(content.length, limiter.getBytesAcquired());
+  }
+  
+  @Test
+  public void testFileStoreUsesItsOwnLimiter() throws Exception{
+    Path file = createFile("someFile");
+    Files.write(file, new byte[]{1, 2, 3});
+    
+    ReadRateLimiter defaultLimiter = new ReadRateLimiter(ReadRateLimiter.UNLIMITED);
+    ReadRateLimiter storeLimiter = new ReadRateLimiter(ReadRateLimiter.UNLIMITED);
+    RateLimitedReadStrategy sut = new RateLimitedReadStrategy(new FileChannelReadStrategy(), defaultLimiter);
+    Assertions.assertSame(defaultLimiter, sut.getLimiter(file));
+    
+    sut.setStoreLimiter(Files.getFileStore(file).name(), storeLimiter);
+    sut.updateHashers(file, Arrays.asList(new Crc32StreamingHasher()));
+    
+    Assertions.assertSame(storeLimiter, sut.getLimiter(file));
+    Assertions.assertEquals(3, storeLimiter.getBytesAcquired());
+    Assertions.assertEquals(0, defaultLimiter.getBytesAcquired());
+  }
+  
+  @Test
+  public void testSmallFilesAreLimitedThroughWrappers() throws Exception{
+    Path file = createFile("someFile");
+    Files.write(file, new byte[]{1, 2, 3, 4, 5});
+    
+    ReadRateLimiter limiter = new ReadRateLimiter(ReadRateLimiter.UNLIMITED);
+    RateLimitedReadStrategy rateLimited = new RateLimitedReadStrategy(new SmallFileReadStrategy(4, new FileChannelReadStrategy()), limiter);
+    ReadStrategy wrapper = new ReadStrategy(){
+      @Override
+      public ReadStrategy updateHashers(final Path path, final Collection<StreamingHasher> hashers) throws IOException{
+        return rateLimited.updateHashers(path, hashers);
+      }
+
+      @Override
+      public SmallFileReadStrategy getSmallFileStrategy(){
+        return rateLimited.getSmallFileStrategy();
+      }
+    };
+    
+    SmallFileReadStrategy smallFileStrategy = wrapper.getSmallFileStrategy();
+    Assertions.assertTrue(smallFileStrategy.isSmall(4));
+    Assertions.assertFalse(smallFileStrategy.isSmall(5), "the size limit of the wrapped small file strategy is kept");
+    smallFileStrategy.updateHashers(file, Arrays.asList(new Crc32StreamingHasher()));
+    Assertions.assertEquals(5, limiter.getBytesAcquired());
+  }
+}
@@ -0,0 +1,62 @@
+package gov.loc.repository.bagit.hash;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import gov.loc.repository.bagit.TempFolderTest;
+
+public class ReadAheadReadStrategyTest extends TempFolderTest {
+
+  @Test
+  public void testReadAheadMatchesWholeFileHash() throws Exception{
+    byte[] content = new byte[100_001];
+    new Random(17).nextBytes(content);
+    Path file = createFile("randomContent");
+    Files.write(file, content);
+    
+    ReadAheadReadStrategy sut = new ReadAheadReadStrategy(3, 4096, 0);
+    MessageDigest md5 = MessageDigest.getInstance("MD5");
+    MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+    ReadStrategy used = sut.updateHashers(file, Arrays.asList(new MessageDigestStreamingHasher(md5), new MessageDigestStreamingHasher(sha256)));
+    
+    Assertions.assertSame(sut, used);
+    Assertions.assertArrayEquals(MessageDigest.getInstance("MD5").digest(content), md5.digest());
+    Assertions.assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(content), sha256.digest());
+  }
+  
+  @Test
+  public void testBuffersAreReusedForTheNextFile() throws Exception{
+    ReadAheadReadStrategy sut = new ReadAheadReadStrategy(2, 1000, 0);
+    for(int length : new int[]{5000, 1000, 999, 0}){
+      byte[] content = new byte[length];
+      new Random(length).nextBytes(content);
+      Path file = createFile("content" + length);
+      Files.write(file, content);
+      
+      MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+      sut.updateHashers(file, Arrays.asList(new MessageDigestStreamingHasher(sha1)));
+      Assertions.assertArrayEquals(MessageDigest.getInstance("SHA-1").digest(content), sha1.digest(), "length " + length);
+    }
+  }
+  
+  @Test
+  public void testSmallFilesAreReadDirectly() throws Exception{
+    Path file = createFile("smallFile");
+    Files.write(file, new byte[]{1, 2, 3});
+    
+    ReadStrategy used = new ReadAheadReadStrategy().updateHashers(file, Arrays.asList(new Crc32StreamingHasher()));
+    
+    Assertions.assertTrue(used instanceof FileChannelReadStrategy);
+  }
+  
+  @Test
+  public void testAtLeastTwoBuffersAreNeeded(){
+    Assertions.assertThrows(IllegalArgumentException.class, () -> { new ReadAheadReadStrategy(1, 1024, 0); });
+  }
+}
@@ -0,0 +1,77 @@
+package gov.loc.repository.bagit.hash;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ReadRateLimiterTest {
+
+  @Test
+  public void testReadsAreSpreadOverTime() throws Exception{
+    //1 MB/s without any burst, so each 100 KB waits about 100 ms for the one before it
+    ReadRateLimiter sut = new ReadRateLimiter(1, 0);
+    long start = System.nanoTime();
+    for(int i=0; i<3; i++){
+      sut.acquire(100 * 1024);
+    }
+    long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    
+    Assertions.assertTrue(elapsed >= 180, "was " + elapsed + " ms");
+    Assertions.assertEquals(300 * 1024, sut.getBytesAcquired());
+  }
+  
+  @Test
+  public void testRateCanBeChangedWhileInUse() throws Exception{
+    ReadRateLimiter sut = new ReadRateLimiter(1, 0);
+    sut.acquire(1024);
+    sut.setMegabytesPerSecond(ReadRateLimiter.UNLIMITED);
+    long start = System.nanoTime();
+    for(int i=0; i<100; i++){
+      sut.acquire(10 * 1024 * 1024);
+    }
+    
+    Assertions.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+    Assertions.assertEquals(ReadRateLimiter.UNLIMITED, sut.getMegabytesPerSecond());
+  }
+  
+  @Test
+  public void testIdleTimeAllowsBurst() throws Exception{
+    ReadRateLimiter sut = new ReadRateLimiter(1, TimeUnit.SECONDS.toNanos(1));
+    Thread.sleep(200);
+    long start = System.nanoTime();
+    //a tenth of a second worth, well within what built up while idle
+    sut.acquire(100 * 1024);
+    sut.acquire(1);
+    
+    Assertions.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 50);
+  }
+  
+  @Test
+  public void testInterruptWhileWaiting() throws Exception{
+    ReadRateLimiter sut = new ReadRateLimiter(1, 0);
+    sut.acquire(1024 * 1024);
+    Thread.currentThread().interrupt();
+    
+    Assertions.assertThrows(InterruptedIOException.class, () -> { sut.acquire(1); });
+    Assertions.assertTrue(Thread.interrupted());
+  }
+  
+  @Test
+  public void testLargeReadsWaitASecondAtATime() throws Exception{
+    ReadRateLimiter sut = new ReadRateLimiter(1, 0);
+    Thread.currentThread().interrupt();
+    
+    //the first second's worth goes ahead, and only the wait for the next one is interrupted
+    Assertions.assertThrows(InterruptedIOException.class, () -> { sut.acquire(60L * 1024 * 1024); });
+    Assertions.assertTrue(Thread.interrupted());
+    Assertions.assertEquals(2 * 1024 * 1024, sut.getBytesAcquired());
+  }
+  
+  @Test
+  public void testRateMustBePositive(){
+    Assertions.assertThrows(IllegalArgumentException.class, () -> { new ReadRateLimiter(0); });
+    Assertions.assertThrows(IllegalArgumentException.class, () -> { new ReadRateLimiter(Double.NaN); });
+  }
+}
@@ -0,0 +1,74 @@
+package gov.loc.repository.bagit.hash;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import gov.loc.repository.bagit.TempFolderTest;
+
+public class SmallFileReadStrategyTest extends TempFolderTest {
+
+  @Test
+  public void testSmallFileIsReadWhole() throws Exception{
+    byte[] content = new byte[1000];
+    new Random(3).nextBytes(content);
+    Path file = createFile("smallFile");
+    Files.write(file, content);
+
+    SmallFileReadStrategy sut = new SmallFileReadStrategy();
+    MessageDigest md5 = MessageDigest.getInstance("MD5");
+    MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+    ReadStrategy used = sut.updateHashers(file, Arrays.asList(new MessageDigestStreamingHasher(md5), new MessageDigestStreamingHasher(sha1)));
+
+    Assertions.assertSame(sut, used);
+    Assertions.assertArrayEquals(MessageDigest.getInstance("MD5").digest(content), md5.digest());
+    Assertions.assertArrayEquals(MessageDigest.getInstance("SHA-1").digest(content), sha1.digest());
+  }
+
+  @Test
+  public void testBufferIsReusedForSmallerFiles() throws Exception{
+    Path bigger = createFile("bigger");
+    Files.write(bigger, new byte[]{1, 2, 3, 4, 5});
+    Path smaller = createFile("smaller");
+    Files.write(smaller, new byte[]{6, 7});
+    Path empty = createFile("empty");
+
+    SmallFileReadStrategy sut = new SmallFileReadStrategy(16, new FileChannelReadStrategy());
+    MessageDigest md5 = MessageDigest.getInstance("MD5");
+    sut.updateHashers(bigger, Arrays.asList(new MessageDigestStreamingHasher(md5)));
+    md5.reset();
+    sut.updateHashers(smaller, Arrays.asList(new MessageDigestStreamingHasher(md5)));
+    Assertions.assertArrayEquals(MessageDigest.getInstance("MD5").digest(new byte[]{6, 7}), md5.digest());
+    
+    sut.updateHashers(empty, Arrays.asList(new MessageDigestStreamingHasher(md5)));
+    Assertions.assertArrayEquals(MessageDigest.getInstance("MD5").digest(), md5.digest());
+  }
+
+  @Test
+  public void testLargeFilesUseOtherStrategy() throws Exception{
+    byte[] content = new byte[100];
+    new Random(4).nextBytes(content);
+    Path file = createFile("largeFile");
+    Files.write(file, content);
+
+    FileChannelReadStrategy largeFileStrategy = new FileChannelReadStrategy();
+    SmallFileReadStrategy sut = new SmallFileReadStrategy(99, largeFileStrategy);
+    MessageDigest md5 = MessageDigest.getInstance("MD5");
+    ReadStrategy used = sut.updateHashers(file, Arrays.asList(new MessageDigestStreamingHasher(md5)));
+
+    Assertions.assertSame(largeFileStrategy, used);
+    Assertions.assertFalse(sut.isSmall(content.length));
+    Assertions.assertTrue(sut.isSmall(99));
+    Assertions.assertArrayEquals(MessageDigest.getInstance("MD5").digest(content), md5.digest());
+  }
+
+  @Test
+  public void testMaxSizeMustBePositive(){
+    Assertions.assertThrows(IllegalArgumentException.class, () -> { new SmallFileReadStrategy(0, new FileChannelReadStrategy()); });
+  }
+}
@@ -0,0 +1,53 @@
+package gov.loc.repository.bagit.hash;
+
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.security.NoSuchAlgorithmException;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import gov.loc.repository.bagit.PrivateConstructorTest;
+
+public class StreamingHasherCacheTest extends PrivateConstructorTest {
+
+  @Test
+  public void testClassIsWellDefined() throws NoSuchMethodException, InvocationTargetException, InstantiationException, IllegalAccessException{
+    assertUtilityClassWellDefined(StreamingHasherCache.class);
+  }
+  
+  @Test
+  public void testHasherIsReusedAndReset() throws NoSuchAlgorithmException{
+    StreamingHasher first = StreamingHasherCache.get(ExtendedSupportedAlgorithms.XXH64);
+    first.update(ByteBuffer.wrap(new byte[]{1, 2, 3}));
+    
+    StreamingHasher second = StreamingHasherCache.get(ExtendedSupportedAlgorithms.XXH64);
+    Assertions.assertSame(first, second);
+    Assertions.assertEquals("ef46db3751d8e999", Hasher.formatHash(second.digest()));
+  }
+  
+  @Test
+  public void testDefaultHasherUsesMessageDigest() throws NoSuchAlgorithmException{
+    StreamingHasher hasher = StreamingHasherCache.get(StandardSupportedAlgorithms.MD5);
+    
+    Assertions.assertTrue(hasher instanceof MessageDigestStreamingHasher);
+    Assertions.assertEquals("d41d8cd98f00b204e9800998ecf8427e", Hasher.formatHash(hasher.digest()));
+  }
+  
+  @Test
+  public void testDifferentAlgorithmWithSameBagitNameIsNotReused() throws NoSuchAlgorithmException{
+    StreamingHasher standard = StreamingHasherCache.get(StandardSupportedAlgorithms.MD5);
+    SupportedAlgorithm custom = new SupportedAlgorithm(){
+      @Override
+      public String getMessageDigestName() {
+        return "SHA-1";
+      }
+      @Override
+      public String getBagitName() {
+        return "md5";
+      }
+    };
+    
+    Assertions.assertNotSame(standard, StreamingHasherCache.get(custom));
+  }
+}
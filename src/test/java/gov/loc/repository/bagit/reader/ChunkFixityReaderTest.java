@@ -0,0 +1,69 @@
+package gov.loc.repository.bagit.reader;
+
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import gov.loc.repository.bagit.PrivateConstructorTest;
+import gov.loc.repository.bagit.domain.ChunkFixity;
+import gov.loc.repository.bagit.domain.FileChunk;
+import gov.loc.repository.bagit.exceptions.InvalidBagitFileFormatException;
+import gov.loc.repository.bagit.exceptions.MaliciousPathException;
+import gov.loc.repository.bagit.hash.StandardBagitAlgorithmNameToSupportedAlgorithmMapping;
+import gov.loc.repository.bagit.hash.StandardSupportedAlgorithms;
+
+public class ChunkFixityReaderTest extends PrivateConstructorTest {
+  
+  @Test
+  public void testClassIsWellDefined() throws NoSuchMethodException, InvocationTargetException, InstantiationException, IllegalAccessException{
+    assertUtilityClassWellDefined(ChunkFixityReader.class);
+  }
+  
+  @Test
+  public void testReadAllChunkFixity() throws Exception{
+    Path rootDir = createDirectory("chunkFixityBag");
+    Files.write(rootDir.resolve("chunk-fixity-md5.txt"), "abcd 0 5  data/file.bin\nef01 5 2  data/file.bin\n".getBytes(StandardCharsets.UTF_8));
+    Files.write(rootDir.resolve("manifest-md5.txt"), "abcd  data/file.bin\n".getBytes(StandardCharsets.UTF_8));
+    
+    List<ChunkFixity> chunkFixities = ChunkFixityReader.readAllChunkFixity(new StandardBagitAlgorithmNameToSupportedAlgorithmMapping(), rootDir, rootDir, StandardCharsets.UTF_8);
+    
+    Assertions.assertEquals(1, chunkFixities.size());
+    ChunkFixity chunkFixity = chunkFixities.get(0);
+    Assertions.assertEquals(StandardSupportedAlgorithms.MD5, chunkFixity.getAlgorithm());
+    List<FileChunk> chunks = chunkFixity.getFileToChunksMap().get(rootDir.resolve("data/file.bin"));
+    Assertions.assertEquals(new FileChunk(0, 5, "abcd"), chunks.get(0));
+    Assertions.assertEquals(new FileChunk(5, 2, "ef01"), chunks.get(1));
+  }
+  
+  @Test
+  public void testMissingFieldsThrowsException() throws Exception{
+    Path file = createFile("chunk-fixity-md5.txt");
+    Files.write(file, "abcd 0  data/file.bin\n".getBytes(StandardCharsets.UTF_8));
+    
+    Assertions.assertThrows(InvalidBagitFileFormatException.class, () -> { 
+      ChunkFixityReader.readChunkFixity(new StandardBagitAlgorithmNameToSupportedAlgorithmMapping(), file, folder, StandardCharsets.UTF_8); });
+  }
+  
+  @Test
+  public void testOffsetMustBeANumber() throws Exception{
+    Path file = createFile("chunk-fixity-md5.txt");
+    Files.write(file, "abcd zero 5  data/file.bin\n".getBytes(StandardCharsets.UTF_8));
+    
+    Assertions.assertThrows(InvalidBagitFileFormatException.class, () -> { 
+      ChunkFixityReader.readChunkFixity(new StandardBagitAlgorithmNameToSupportedAlgorithmMapping(), file, folder, StandardCharsets.UTF_8); });
+  }
+  
+  @Test
+  public void testPathOutsideBagThrowsException() throws Exception{
+    Path file = createFile("chunk-fixity-md5.txt");
+    Files.write(file, "abcd 0 5  ../file.bin\n".getBytes(StandardCharsets.UTF_8));
+    
+    Assertions.assertThrows(MaliciousPathException.class, () -> { 
+      ChunkFixityReader.readChunkFixity(new StandardBagitAlgorithmNameToSupportedAlgorithmMapping(), file, folder, StandardCharsets.UTF_8); });
+  }
+}
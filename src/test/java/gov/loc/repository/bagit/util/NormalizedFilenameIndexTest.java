@@ -0,0 +1,47 @@
+package gov.loc.repository.bagit.util;
+
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import gov.loc.repository.bagit.TempFolderTest;
+
+public class NormalizedFilenameIndexTest extends TempFolderTest {
+  private static final String FILENAME = "Núñez.txt";
+  
+  @Test
+  public void testFindsFileWithDifferentNormalization() throws Exception{
+    Path nfdFile = createFile(Normalizer.normalize(FILENAME, Normalizer.Form.NFD));
+    Path nfcFile = folder.resolve(Normalizer.normalize(FILENAME, Normalizer.Form.NFC));
+    NormalizedFilenameIndex sut = new NormalizedFilenameIndex();
+    
+    List<Path> matches = sut.getFilesWithSameNormalization(nfcFile);
+    
+    Assertions.assertEquals(1, matches.size());
+    Assertions.assertEquals(nfdFile, matches.get(0));
+  }
+  
+  @Test
+  public void testNoMatches() throws Exception{
+    createFile("foo.txt");
+    NormalizedFilenameIndex sut = new NormalizedFilenameIndex();
+    
+    Assertions.assertTrue(sut.getFilesWithSameNormalization(folder.resolve("bar.txt")).isEmpty());
+    Assertions.assertTrue(sut.getFilesWithSameNormalization(folder.getRoot()).isEmpty());
+  }
+  
+  @Test
+  public void testDirectoryIsOnlyListedOnce() throws Exception{
+    createFile("foo.txt");
+    NormalizedFilenameIndex sut = new NormalizedFilenameIndex();
+    Assertions.assertFalse(sut.getFilesWithSameNormalization(folder.resolve("foo.txt")).isEmpty());
+    
+    createFile("bar.txt");
+    
+    Assertions.assertTrue(sut.getFilesWithSameNormalization(folder.resolve("bar.txt")).isEmpty(), 
+        "the directory was already listed so the new file should not be seen");
+  }
+}
@@ -1,23 +1,49 @@
 package gov.loc.repository.bagit.verify;
 
 import java.io.File;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
 import java.security.Security;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import gov.loc.repository.bagit.TempFolderTest;
+import gov.loc.repository.bagit.creator.BagCreator;
 import gov.loc.repository.bagit.domain.Bag;
 import gov.loc.repository.bagit.domain.Manifest;
 import gov.loc.repository.bagit.exceptions.CorruptChecksumException;
+import gov.loc.repository.bagit.exceptions.FileNotInPayloadDirectoryException;
 import gov.loc.repository.bagit.exceptions.UnsupportedAlgorithmException;
 import gov.loc.repository.bagit.exceptions.VerificationException;
+import gov.loc.repository.bagit.hash.BagitAlgorithmNameToSupportedAlgorithmMapping;
+import gov.loc.repository.bagit.hash.ExtendedBagitAlgorithmNameToSupportedAlgorithmMapping;
+import gov.loc.repository.bagit.hash.ExtendedSupportedAlgorithms;
+import gov.loc.repository.bagit.hash.FileChannelReadStrategy;
+import gov.loc.repository.bagit.hash.RateLimitedReadStrategy;
+import gov.loc.repository.bagit.hash.ReadRateLimiter;
+import gov.loc.repository.bagit.hash.ReadStrategy;
 import gov.loc.repository.bagit.hash.StandardSupportedAlgorithms;
+import gov.loc.repository.bagit.hash.StreamingHasher;
 import gov.loc.repository.bagit.hash.SupportedAlgorithm;
 import gov.loc.repository.bagit.reader.BagReader;
 
@@ -132,6 +158,383 @@ public class BagVerifierTest extends TempFolderTest{
     sut.isValid(bag, true);
   }
   
+  @Test
+  public void testMultipleManifestsAreVerifiedTogether() throws Exception{
+    Path bagDir = createMultipleManifestBag();
+    Bag bag = reader.read(bagDir);
+    Assertions.assertEquals(3, bag.getPayLoadManifests().size());
+    
+    sut.isValid(bag, true);
+  }
+  
+  @Test
+  public void testCorruptFileInMultipleManifests() throws Exception{
+    Path bagDir = createMultipleManifestBag();
+    Bag bag = reader.read(bagDir);
+    Files.write(bagDir.resolve("data").resolve("file1.txt"), "corrupted".getBytes(StandardCharsets.UTF_8));
+    
+    Assertions.assertThrows(CorruptChecksumException.class, () -> { sut.isValid(bag, true); });
+  }
+  
+  @Test
+  public void testExtendedAlgorithmManifests() throws Exception{
+    Path bagDir = createDirectory("extendedAlgorithmBag");
+    Files.write(bagDir.resolve("file.txt"), "some content".getBytes(StandardCharsets.UTF_8));
+    BagCreator.bagInPlace(bagDir, Arrays.asList(ExtendedSupportedAlgorithms.CRC32C, ExtendedSupportedAlgorithms.XXH64, 
+        ExtendedSupportedAlgorithms.BLAKE3), false);
+    
+    BagitAlgorithmNameToSupportedAlgorithmMapping mapping = new ExtendedBagitAlgorithmNameToSupportedAlgorithmMapping();
+    Bag bag = new BagReader(mapping).read(bagDir);
+    Assertions.assertEquals(3, bag.getPayLoadManifests().size());
+    try(BagVerifier verifier = new BagVerifier(mapping)){
+      verifier.isValid(bag, true);
+      
+      Files.write(bagDir.resolve("data").resolve("file.txt"), "corrupted".getBytes(StandardCharsets.UTF_8));
+      Assertions.assertThrows(CorruptChecksumException.class, () -> { verifier.isValid(bag, true); });
+    }
+  }
+  
+  @Test
+  public void testManySmallFilesAreVerifiedInBatches() throws Exception{
+    Path bagDir = createDirectory("manySmallFilesBag");
+    for(int i=0; i<300; i++){
+      Path dir = Files.createDirectories(bagDir.resolve("dir" + (i % 2)));
+      Files.write(dir.resolve("file" + i + ".txt"), ("content " + i).getBytes(StandardCharsets.UTF_8));
+    }
+    Files.write(bagDir.resolve("large.bin"), new byte[200_000]);
+    BagCreator.bagInPlace(bagDir, Arrays.asList(StandardSupportedAlgorithms.MD5, StandardSupportedAlgorithms.SHA256), false);
+    
+    Bag bag = reader.read(bagDir);
+    sut.isValid(bag, true);
+    
+    Files.write(bagDir.resolve("data").resolve("dir1").resolve("file299.txt"), "corrupted".getBytes(StandardCharsets.UTF_8));
+    Assertions.assertThrows(CorruptChecksumException.class, () -> { sut.isValid(bag, true); });
+  }
+  
+  @Test
+  public void testSmallBoundedThreadPoolDoesNotDeadlock() throws Exception{
+    Path bagDir = createDirectory("boundedPoolBag");
+    for(int i=0; i<50; i++){
+      Files.write(bagDir.resolve("file" + i + ".txt"), new byte[(i % 2) * 100_000 + i]);
+    }
+    BagCreator.bagInPlace(bagDir, Arrays.asList(StandardSupportedAlgorithms.MD5), false);
+    
+    Bag bag = reader.read(bagDir);
+    try(BagVerifier verifier = new BagVerifier(new BoundedThreadPoolExecutor(1, 1))){
+      verifier.isValid(bag, true);
+    }
+  }
+  
+  @Test
+  public void testLargestFirstOrdering() throws Exception{
+    Path bagDir = createDirectory("largestFirstBag");
+    for(int i=0; i<20; i++){
+      Path dir = Files.createDirectories(bagDir.resolve("dir" + (i % 2)));
+      Files.write(dir.resolve("file" + i + ".txt"), new byte[(i % 4) * 50_000 + i]);
+    }
+    BagCreator.bagInPlace(bagDir, Arrays.asList(StandardSupportedAlgorithms.MD5), false);
+    
+    Bag bag = reader.read(bagDir);
+    LargestFirstFileOrderingStrategy ordering = new LargestFirstFileOrderingStrategy(3);
+    sut.setFileOrderingStrategy(ordering);
+    sut.isValid(bag, true);
+    Assertions.assertTrue(ordering.getBusiestThreadBytes() > 0);
+    
+    Files.write(bagDir.resolve("data").resolve("dir1").resolve("file19.txt"), "corrupted".getBytes(StandardCharsets.UTF_8));
+    Assertions.assertThrows(CorruptChecksumException.class, () -> { sut.isValid(bag, true); });
+  }
+  
+  @Test
+  public void testOrderingIsGivenKnownSizes() throws Exception{
+    Path bagDir = createDirectory("knownSizesBag");
+    for(int i=0; i<5; i++){
+      Files.write(bagDir.resolve("file" + i + ".txt"), new byte[i * 100]);
+    }
+    BagCreator.bagInPlace(bagDir, Arrays.asList(StandardSupportedAlgorithms.MD5), false);
+    
+    Bag bag = reader.read(bagDir);
+    Map<Path, Long> givenSizes = new HashMap<>();
+    sut.setFileOrderingStrategy(new FileOrderingStrategy(){
+      @Override
+      public List<Path> order(final Collection<Path> files){
+        return new DirectoryFileOrderingStrategy().order(files);
+      }
+
+      @Override
+      public List<Path> order(final Map<Path, Long> sizes){
+        givenSizes.putAll(sizes);
+        return order(sizes.keySet());
+      }
+    });
+    sut.isValid(bag, true);
+    
+    for(int i=0; i<5; i++){
+      Assertions.assertEquals(Long.valueOf(i * 100), givenSizes.get(bagDir.resolve("data").resolve("file" + i + ".txt")));
+    }
+  }
+  
+  @Test
+  public void testFileStoreScheduler() throws Exception{
+    Path bagDir = createDirectory("fileStoreBag");
+    for(int i=0; i<10; i++){
+      Files.write(bagDir.resolve("file" + i + ".txt"), new byte[i * 300_000 + i]);
+    }
+    BagCreator.bagInPlace(bagDir, Arrays.asList(StandardSupportedAlgorithms.MD5, StandardSupportedAlgorithms.SHA256), false);
+    
+    Bag bag = reader.read(bagDir);
+    try(FileStoreScheduler scheduler = new FileStoreScheduler(2, 2)){
+      sut.setFileStoreScheduler(scheduler);
+      sut.setReadStrategy(scheduler.getReadStrategy());
+      sut.isValid(bag, true);
+      
+      Files.write(bagDir.resolve("data").resolve("file9.txt"), "corrupted".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+      Assertions.assertThrows(CorruptChecksumException.class, () -> { sut.isValid(bag, true); });
+    }
+  }
+  
+  @Test
+  public void testPhysicalLayoutOrderingWithConcurrencyWindow() throws Exception{
+    Path bagDir = createDirectory("physicalLayoutBag");
+    for(int i=0; i<20; i++){
+      Path dir = Files.createDirectories(bagDir.resolve("dir" + (i % 3)));
+      Files.write(dir.resolve("file" + i + ".txt"), new byte[i * 10_000]);
+    }
+    BagCreator.bagInPlace(bagDir, Arrays.asList(StandardSupportedAlgorithms.MD5), false);
+    
+    Bag bag = reader.read(bagDir);
+    sut.setFileOrderingStrategy(new PhysicalLayoutFileOrderingStrategy(2));
+    sut.isValid(bag, true);
+    
+    Files.write(bagDir.resolve("data").resolve("dir1").resolve("file19.txt"), "corrupted".getBytes(StandardCharsets.UTF_8));
+    Assertions.assertThrows(CorruptChecksumException.class, () -> { sut.isValid(bag, true); });
+  }
+  
+  @Test
+  public void testFailFastStopsReadingOtherFiles() throws Exception{
+    Path bagDir = createDirectory("failFastBag");
+    Files.write(bagDir.resolve("large.bin"), new byte[2 * 1024 * 1024]);
+    Files.write(bagDir.resolve("small.txt"), "small".getBytes(StandardCharsets.UTF_8));
+    BagCreator.bagInPlace(bagDir, Arrays.asList(StandardSupportedAlgorithms.MD5), false);
+    Files.write(bagDir.resolve("data").resolve("small.txt"), "corrupted".getBytes(StandardCharsets.UTF_8));
+    
+    //reading the large file this way would take more than 2 seconds
+    AtomicInteger chunksRead = new AtomicInteger();
+    ReadStrategy slowStrategy = (path, hashers) -> {
+      byte[] chunk = new byte[4096];
+      for(long read = 0; read < Files.size(path); read += chunk.length){
+        try{
+          Thread.sleep(5);
+        }
+        catch(InterruptedException e){
+          throw new InterruptedIOException();
+        }
+        chunksRead.incrementAndGet();
+        for(StreamingHasher hasher : hashers){
+          hasher.update(ByteBuffer.wrap(chunk));
+        }
+      }
+      return null;
+    };
+    
+    Bag bag = reader.read(bagDir);
+    sut.setReadStrategy(slowStrategy);
+    sut.setFailFast(true);
+    long start = System.nanoTime();
+    Assertions.assertThrows(CorruptChecksumException.class, () -> { sut.isValid(bag, true); });
+    Assertions.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1), "fail fast should not wait for the large file");
+    
+    Thread.sleep(100);
+    int chunksAfterFailing = chunksRead.get();
+    Thread.sleep(100);
+    Assertions.assertEquals(chunksAfterFailing, chunksRead.get(), "the large file should no longer be read");
+    Assertions.assertTrue(chunksAfterFailing < 512);
+  }
+  
+  @Test
+  public void testFailFastStopsSubmittingToBoundedPool() throws Exception{
+    Path bagDir = createDirectory("failFastBoundedBag");
+    byte[] content = new byte[70 * 1024];
+    for(int i = 0; i < 200; i++){
+      Path dir = Files.createDirectory(bagDir.resolve("dir" + i));
+      new Random(i).nextBytes(content);
+      Files.write(dir.resolve("file.bin"), content);
+    }
+    BagCreator.bagInPlace(bagDir, Arrays.asList(StandardSupportedAlgorithms.MD5), false);
+    
+    //hashes nothing, so every file is corrupt
+    AtomicInteger filesRead = new AtomicInteger();
+    ReadStrategy corruptingStrategy = (path, hashers) -> {
+      filesRead.incrementAndGet();
+      try{
+        Thread.sleep(5);
+      }
+      catch(InterruptedException e){
+        throw new InterruptedIOException();
+      }
+      return null;
+    };
+    
+    Bag bag = reader.read(bagDir);
+    try(BagVerifier verifier = new BagVerifier(new BoundedThreadPoolExecutor(2, 2))){
+      verifier.setReadStrategy(corruptingStrategy);
+      verifier.setFailFast(true);
+      Assertions.assertThrows(CorruptChecksumException.class, () -> { verifier.isValid(bag, true); });
+    }
+    
+    Assertions.assertTrue(filesRead.get() < 50, "read " + filesRead.get() + " of 200 files");
+  }
+  
+  @Test
+  public void testVerifyReportsEveryProblem() throws Exception{
+    Path bagDir = createMultipleManifestBag();
+    Path dataDir = bagDir.resolve("data");
+    Files.write(dataDir.resolve("file0.txt"), "corrupted".getBytes(StandardCharsets.UTF_8));
+    Files.write(dataDir.resolve("file1.txt"), "corrupted".getBytes(StandardCharsets.UTF_8));
+    Files.delete(dataDir.resolve("file2.txt"));
+    Files.write(dataDir.resolve("extra.txt"), "extra".getBytes(StandardCharsets.UTF_8));
+    Files.write(bagDir.resolve("bag-info.txt"), "Extra-Field: corrupted\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    
+    Bag bag = reader.read(bagDir);
+    VerificationReport report = sut.verify(bag, true);
+    
+    Assertions.assertFalse(report.isValid());
+    Set<Path> corruptFiles = new HashSet<>();
+    for(CorruptChecksumException corruptFile : report.getCorruptFiles()){
+      corruptFiles.add(corruptFile.getPath());
+      Assertions.assertNotEquals(corruptFile.getHash(), corruptFile.getComputedHash());
+    }
+    Assertions.assertEquals(new HashSet<>(Arrays.asList(dataDir.resolve("file0.txt"), dataDir.resolve("file1.txt"), bagDir.resolve("bag-info.txt"))), corruptFiles);
+    Assertions.assertEquals(Collections.singleton(dataDir.resolve("file2.txt")), report.getMissingFiles());
+    Assertions.assertEquals(Collections.singleton(dataDir.resolve("extra.txt")), report.getFilesNotInManifests());
+    Assertions.assertTrue(report.getErrors().isEmpty());
+    
+    Assertions.assertThrows(FileNotInPayloadDirectoryException.class, () -> { sut.isValid(bag, true); });
+  }
+  
+  @Test
+  public void testVerifyValidBag() throws Exception{
+    Bag bag = reader.read(createMultipleManifestBag());
+    
+    Assertions.assertTrue(sut.verify(bag, true).isValid());
+  }
+  
+  @Test
+  public void testJournalSkipsFilesAlreadyVerified() throws Exception{
+    Path bagDir = createMultipleManifestBag();
+    Path journalFile = folder.resolve("journal.txt");
+    Bag bag = reader.read(bagDir);
+    Path file = bagDir.resolve("data").resolve("file0.txt");
+    Map<SupportedAlgorithm, String> checksums = new HashMap<>();
+    for(Manifest manifest : bag.getPayLoadManifests()){
+      checksums.put(manifest.getAlgorithm(), manifest.getFileToChecksumMap().get(file));
+    }
+    //like a run that was stopped right after checking the file
+    try(VerificationJournal journal = new VerificationJournal(journalFile)){
+      journal.fileVerified(file, checksums);
+    }
+    
+    //change the contents without changing the size or last modified time, so the journal can't tell
+    FileTime lastModified = Files.getLastModifiedTime(file);
+    Files.write(file, "some content X".getBytes(StandardCharsets.UTF_8));
+    Files.setLastModifiedTime(file, lastModified);
+    
+    try(VerificationJournal journal = new VerificationJournal(journalFile)){
+      sut.setJournal(journal);
+      sut.isValid(bag, true);
+    }
+    
+    //that pass is complete, so the next one checks every file again
+    try(VerificationJournal journal = new VerificationJournal(journalFile)){
+      sut.setJournal(journal);
+      Assertions.assertThrows(CorruptChecksumException.class, () -> { sut.isValid(bag, true); });
+    }
+  }
+  
+  @Test
+  public void testJournalChecksFileAgainWhenManifestChecksumChanged() throws Exception{
+    Path bagDir = createMultipleManifestBag();
+    Path journalFile = folder.resolve("journal.txt");
+    Bag bag = reader.read(bagDir);
+    Path file = bagDir.resolve("data").resolve("file0.txt");
+    try(VerificationJournal journal = new VerificationJournal(journalFile)){
+      Map<SupportedAlgorithm, String> checksums = new HashMap<>();
+      for(Manifest manifest : bag.getPayLoadManifests()){
+        checksums.put(manifest.getAlgorithm(), manifest.getFileToChecksumMap().get(file));
+      }
+      journal.fileVerified(file, checksums);
+    }
+    
+    Manifest manifest = bag.getPayLoadManifests().iterator().next();
+    manifest.getFileToChecksumMap().put(file, "0000");
+    
+    try(VerificationJournal journal = new VerificationJournal(journalFile)){
+      sut.setJournal(journal);
+      Assertions.assertThrows(CorruptChecksumException.class, () -> { sut.isValid(bag, true); });
+    }
+  }
+  
+  @Test
+  public void testRateLimitedReadStrategyCountsSmallFiles() throws Exception{
+    Path bagDir = createMultipleManifestBag();
+    Bag bag = reader.read(bagDir);
+    long totalSize = 0;
+    for(Path file : bag.getPayLoadManifests().iterator().next().getFileToChecksumMap().keySet()){
+      totalSize += Files.size(file);
+    }
+    for(Path file : bag.getTagManifests().iterator().next().getFileToChecksumMap().keySet()){
+      totalSize += Files.size(file);
+    }
+    ReadRateLimiter limiter = new ReadRateLimiter(ReadRateLimiter.UNLIMITED);
+    
+    sut.setReadStrategy(new RateLimitedReadStrategy(new FileChannelReadStrategy(), limiter));
+    sut.isValid(bag, true);
+    
+    Assertions.assertEquals(totalSize, limiter.getBytesAcquired());
+  }
+  
+  @Test
+  public void testProgressListenerIsToldEachPhaseAndTheTotals() throws Exception{
+    Bag bag = reader.read(createMultipleManifestBag());
+    long payloadSize = 0;
+    for(Path file : bag.getPayLoadManifests().iterator().next().getFileToChecksumMap().keySet()){
+      payloadSize += Files.size(file);
+    }
+    List<VerificationPhase> phases = Collections.synchronizedList(new ArrayList<>());
+    List<VerificationProgress> reports = Collections.synchronizedList(new ArrayList<>());
+    sut.setProgressListener(new ProgressListener(){
+      @Override
+      public void phaseStarted(VerificationPhase phase){
+        phases.add(phase);
+      }
+      @Override
+      public void progress(VerificationProgress progress){
+        reports.add(progress);
+      }
+    });
+    
+    sut.isValid(bag, true);
+    
+    Assertions.assertEquals(Arrays.asList(VerificationPhase.values()), phases);
+    VerificationProgress payload = reports.stream().filter(report -> report.getPhase() == VerificationPhase.PAYLOAD_CHECKSUMS)
+        .reduce((first, second) -> second).get();
+    Assertions.assertEquals(5, payload.getFilesChecked());
+    Assertions.assertEquals(5, payload.getTotalFiles());
+    Assertions.assertEquals(payloadSize, payload.getBytesRead());
+    Assertions.assertEquals(payloadSize, payload.getTotalBytes());
+    Assertions.assertTrue(reports.stream().anyMatch(report -> report.getPhase() == VerificationPhase.TAG_CHECKSUMS));
+  }
+  
+  private Path createMultipleManifestBag() throws Exception{
+    Path bagDir = createDirectory("multipleManifestBag");
+    for(int i=0; i<5; i++){
+      Files.write(bagDir.resolve("file" + i + ".txt"), ("some content " + i).getBytes(StandardCharsets.UTF_8));
+    }
+    BagCreator.bagInPlace(bagDir, Arrays.asList(StandardSupportedAlgorithms.MD5, 
+        StandardSupportedAlgorithms.SHA1, StandardSupportedAlgorithms.SHA256), false);
+    
+    return bagDir;
+  }
+  
   @Test
   public void testCanQuickVerify() throws Exception{
     Bag bag = reader.read(rootDir);
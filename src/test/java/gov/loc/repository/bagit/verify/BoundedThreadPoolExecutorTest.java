@@ -0,0 +1,95 @@
+package gov.loc.repository.bagit.verify;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class BoundedThreadPoolExecutorTest {
+  
+  @Test
+  public void testThreadsAndQueuedTasksStayBounded() throws Exception{
+    BoundedThreadPoolExecutor sut = new BoundedThreadPoolExecutor(2, 4);
+    CountDownLatch latch = new CountDownLatch(1000);
+    AtomicInteger largestQueue = new AtomicInteger();
+    
+    try{
+      for(int i=0; i<1000; i++){
+        sut.execute(() -> {
+          largestQueue.accumulateAndGet(sut.getQueue().size(), Math::max);
+          latch.countDown();
+        });
+      }
+      
+      Assertions.assertTrue(latch.await(10, TimeUnit.SECONDS));
+      Assertions.assertEquals(2, sut.getLargestPoolSize());
+      Assertions.assertTrue(largestQueue.get() <= 4);
+    }
+    finally{
+      sut.shutdown();
+    }
+  }
+  
+  @Test
+  public void testTasksSubmittedFromThePoolRunInsteadOfWaiting() throws Exception{
+    BoundedThreadPoolExecutor sut = new BoundedThreadPoolExecutor(1, 1);
+    CountDownLatch latch = new CountDownLatch(10);
+    
+    try{
+      sut.execute(() -> {
+        for(int i=0; i<10; i++){
+          sut.execute(latch::countDown);
+        }
+      });
+      
+      Assertions.assertTrue(latch.await(10, TimeUnit.SECONDS));
+    }
+    finally{
+      sut.shutdown();
+    }
+  }
+  
+  @Test
+  public void testRejectsTasksAfterShutdown() throws Exception{
+    BoundedThreadPoolExecutor sut = new BoundedThreadPoolExecutor();
+    sut.shutdown();
+    
+    Assertions.assertThrows(RejectedExecutionException.class, () -> { sut.execute(() -> {}); });
+  }
+  
+  @Test
+  public void testTaskWaitingForRoomIsRejectedOnShutdown() throws Exception{
+    BoundedThreadPoolExecutor sut = new BoundedThreadPoolExecutor(1, 1);
+    CountDownLatch release = new CountDownLatch(1);
+    Runnable blocked = () -> {
+      try{
+        release.await();
+      }
+      catch(InterruptedException e){
+        Thread.currentThread().interrupt();
+      }
+    };
+    sut.execute(blocked);
+    sut.execute(blocked);
+    
+    CountDownLatch rejected = new CountDownLatch(1);
+    Thread submitter = new Thread(() -> {
+      try{
+        sut.execute(() -> {});
+      }
+      catch(RejectedExecutionException e){
+        rejected.countDown();
+      }
+    });
+    submitter.start();
+    Thread.sleep(50);
+    sut.shutdown();
+    
+    Assertions.assertTrue(rejected.await(5, TimeUnit.SECONDS), "the waiting task was never rejected");
+    release.countDown();
+    Assertions.assertTrue(sut.awaitTermination(5, TimeUnit.SECONDS));
+  }
+}
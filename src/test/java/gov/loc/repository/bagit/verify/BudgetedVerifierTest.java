@@ -0,0 +1,95 @@
+package gov.loc.repository.bagit.verify;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import gov.loc.repository.bagit.TempFolderTest;
+import gov.loc.repository.bagit.creator.BagCreator;
+import gov.loc.repository.bagit.domain.Bag;
+import gov.loc.repository.bagit.hash.StandardSupportedAlgorithms;
+import gov.loc.repository.bagit.reader.BagReader;
+
+public class BudgetedVerifierTest extends TempFolderTest {
+  private BagReader reader = new BagReader();
+
+  @Test
+  public void testByteBudgetSpreadsPassOverSeveralRuns() throws Exception{
+    Bag bag = reader.read(createBag());
+    Path cursorFile = folder.resolve("cursor.properties");
+    
+    try(BagVerifier verifier = new BagVerifier()){
+      BudgetedVerifier sut = new BudgetedVerifier(verifier, 2, 1024, 1024*1024);
+      int runs = 0;
+      VerificationCursor cursor = new VerificationCursor(cursorFile);
+      while(cursor.getCompletedPasses() == 0){
+        VerificationReport report = sut.verify(bag, cursor, BudgetedVerifier.UNLIMITED, 500);
+        Assertions.assertTrue(report.isValid(), report.toString());
+        runs++;
+        //like a new JVM picking up where the last run stopped
+        cursor = new VerificationCursor(cursorFile);
+        Assertions.assertTrue(runs < 100, "the cursor should always move forward");
+      }
+      
+      Assertions.assertTrue(runs > 2, "was " + runs);
+      Assertions.assertNull(cursor.getLastFileChecked());
+      Assertions.assertEquals(0, cursor.getFilesCheckedInPass());
+    }
+  }
+  
+  @Test
+  public void testFileLargerThanBudgetIsStillChecked() throws Exception{
+    Bag bag = reader.read(createBag());
+    VerificationCursor cursor = new VerificationCursor(folder.resolve("cursor.properties"));
+    
+    try(BagVerifier verifier = new BagVerifier()){
+      new BudgetedVerifier(verifier).verify(bag, cursor, BudgetedVerifier.UNLIMITED, 1);
+      
+      Assertions.assertEquals(1, cursor.getFilesCheckedInPass());
+      Assertions.assertNotNull(cursor.getLastFileChecked());
+    }
+  }
+  
+  @Test
+  public void testUnlimitedBudgetFindsCorruptAndMissingFiles() throws Exception{
+    Path bagDir = createBag();
+    Bag bag = reader.read(bagDir);
+    Files.write(bagDir.resolve("data").resolve("file3.txt"), "corrupted".getBytes(StandardCharsets.UTF_8));
+    Files.delete(bagDir.resolve("data").resolve("file4.txt"));
+    VerificationCursor cursor = new VerificationCursor(folder.resolve("cursor.properties"));
+    
+    try(BagVerifier verifier = new BagVerifier()){
+      VerificationReport report = new BudgetedVerifier(verifier).verify(bag, cursor, BudgetedVerifier.UNLIMITED, BudgetedVerifier.UNLIMITED);
+      
+      Assertions.assertEquals(1, report.getCorruptFiles().size());
+      Assertions.assertEquals(1, report.getMissingFiles().size());
+      Assertions.assertEquals(1, cursor.getCompletedPasses());
+    }
+  }
+  
+  @Test
+  public void testResumePositionWhenFileWasRemoved() throws Exception{
+    Path rootDir = folder.resolve("bag");
+    VerificationCursor cursor = new VerificationCursor(folder.resolve("cursor.properties"));
+    cursor.advance(rootDir.relativize(rootDir.resolve("data/b")), 1, 1);
+    
+    Assertions.assertEquals(1, BudgetedVerifier.resumePosition(Arrays.asList(rootDir.resolve("data/a"), rootDir.resolve("data/c")), rootDir, cursor));
+    Assertions.assertEquals(2, BudgetedVerifier.resumePosition(Arrays.asList(rootDir.resolve("data/a"), rootDir.resolve("data/b"), rootDir.resolve("data/c")), rootDir, cursor));
+  }
+  
+  private Path createBag() throws Exception{
+    Path bagDir = createDirectory("budgetedBag");
+    byte[] content = new byte[100];
+    Arrays.fill(content, (byte) 'a');
+    for(int i=0; i<20; i++){
+      content[0] = (byte) ('a' + i);
+      Files.write(bagDir.resolve("file" + i + ".txt"), content);
+    }
+    BagCreator.bagInPlace(bagDir, Arrays.asList(StandardSupportedAlgorithms.MD5), false);
+    return bagDir;
+  }
+}
@@ -0,0 +1,128 @@
+package gov.loc.repository.bagit.verify;
+
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import gov.loc.repository.bagit.TempFolderTest;
+import gov.loc.repository.bagit.exceptions.CorruptChecksumException;
+import gov.loc.repository.bagit.hash.FileChannelReadStrategy;
+import gov.loc.repository.bagit.hash.ReadStrategy;
+import gov.loc.repository.bagit.hash.SmallFileReadStrategy;
+import gov.loc.repository.bagit.hash.StandardSupportedAlgorithms;
+import gov.loc.repository.bagit.hash.SupportedAlgorithm;
+
+public class CheckFileBatchHashesTaskTest extends TempFolderTest {
+  private static final String HELLO_MD5 = "5d41402abc4b2a76b9719d911017c592";
+
+  @Test
+  public void testEveryFileIsCountedDown() throws Exception{
+    Path small = createFile("small.txt");
+    Files.write(small, "hello".getBytes(StandardCharsets.UTF_8));
+    Path large = createFile("large.txt");
+    Files.write(large, "hello".getBytes(StandardCharsets.UTF_8));
+    Path corrupt = createFile("corrupt.txt");
+    Files.write(corrupt, "goodbye".getBytes(StandardCharsets.UTF_8));
+    Path missing = folder.resolve("missing.txt");
+    
+    Map<Path, Map<SupportedAlgorithm, String>> batch = new LinkedHashMap<>();
+    batch.put(small, md5(HELLO_MD5));
+    batch.put(large, md5(HELLO_MD5));
+    batch.put(corrupt, md5(HELLO_MD5));
+    batch.put(missing, md5(HELLO_MD5));
+    
+    ExecutorService executor = Executors.newCachedThreadPool();
+    CountDownLatch latch = new CountDownLatch(batch.size());
+    Collection<Exception> exceptions = Collections.synchronizedCollection(new ArrayList<>());
+    SmallFileReadStrategy smallFileStrategy = new SmallFileReadStrategy(6, new FileChannelReadStrategy());
+    Files.write(large, "hello world".getBytes(StandardCharsets.UTF_8));
+    
+    new CheckFileBatchHashesTask(batch, latch, exceptions, executor, smallFileStrategy, new FileChannelReadStrategy()).run();
+    latch.await();
+    executor.shutdown();
+    
+    Assertions.assertEquals(2, exceptions.size());
+    for(Exception e : exceptions){
+      Assertions.assertTrue(e instanceof CorruptChecksumException);
+    }
+  }
+  
+  @Test
+  public void testLargeFilesAreRunOnTheExecutorForEachFile() throws Exception{
+    Path small = createFile("small.txt");
+    Files.write(small, "hello".getBytes(StandardCharsets.UTF_8));
+    Path large = createFile("large.txt");
+    Files.write(large, "hello world".getBytes(StandardCharsets.UTF_8));
+    
+    Map<Path, Map<SupportedAlgorithm, String>> batch = new LinkedHashMap<>();
+    batch.put(small, md5(HELLO_MD5));
+    batch.put(large, md5("5eb63bbbe01eeed093cb22bb8f5acdc3"));
+    
+    List<Path> handedOff = new ArrayList<>();
+    Function<Path, Executor> executorForFile = file -> {
+      handedOff.add(file);
+      return Runnable::run;
+    };
+    CountDownLatch latch = new CountDownLatch(batch.size());
+    Collection<Exception> exceptions = Collections.synchronizedCollection(new ArrayList<>());
+    
+    new CheckFileBatchHashesTask(batch, latch, exceptions, executorForFile, new SmallFileReadStrategy(6, new FileChannelReadStrategy()), 
+        new FileChannelReadStrategy(), new AtomicBoolean(), Collections.emptyMap(), FileCheckListener.NONE).run();
+    
+    Assertions.assertEquals(0, latch.getCount());
+    Assertions.assertTrue(exceptions.isEmpty());
+    Assertions.assertEquals(Collections.singletonList(large), handedOff);
+  }
+  
+  @Test
+  public void testInterruptedCheckFailsUnlessCancelled() throws Exception{
+    Path large = createFile("large.txt");
+    Files.write(large, "hello world".getBytes(StandardCharsets.UTF_8));
+    Map<Path, Map<SupportedAlgorithm, String>> batch = Collections.singletonMap(large, md5("5eb63bbbe01eeed093cb22bb8f5acdc3"));
+    ReadStrategy interrupted = (path, hashers) -> {
+      CancellationException e = new CancellationException("interrupted");
+      e.initCause(new InterruptedIOException("interrupted while waiting to read"));
+      throw e;
+    };
+    
+    Collection<Exception> exceptions = Collections.synchronizedCollection(new ArrayList<>());
+    new CheckFileBatchHashesTask(batch, new CountDownLatch(1), exceptions, Runnable::run, new SmallFileReadStrategy(6, new FileChannelReadStrategy()), 
+        interrupted, new AtomicBoolean()).run();
+    Assertions.assertEquals(1, exceptions.size());
+    Assertions.assertTrue(exceptions.iterator().next() instanceof InterruptedIOException);
+    
+    exceptions.clear();
+    AtomicBoolean cancelled = new AtomicBoolean();
+    ReadStrategy cancelling = (path, hashers) -> {
+      cancelled.set(true);
+      return interrupted.updateHashers(path, hashers);
+    };
+    new CheckFileBatchHashesTask(batch, new CountDownLatch(1), exceptions, Runnable::run, new SmallFileReadStrategy(6, new FileChannelReadStrategy()), 
+        cancelling, cancelled).run();
+    Assertions.assertTrue(exceptions.isEmpty());
+  }
+  
+  private static Map<SupportedAlgorithm, String> md5(final String hash){
+    Map<SupportedAlgorithm, String> checksums = new HashMap<>();
+    checksums.put(StandardSupportedAlgorithms.MD5, hash);
+    return checksums;
+  }
+}
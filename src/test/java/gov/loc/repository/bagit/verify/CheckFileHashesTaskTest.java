@@ -0,0 +1,53 @@
+package gov.loc.repository.bagit.verify;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import gov.loc.repository.bagit.TempFolderTest;
+import gov.loc.repository.bagit.hash.ReadStrategy;
+import gov.loc.repository.bagit.hash.StandardSupportedAlgorithms;
+import gov.loc.repository.bagit.hash.SupportedAlgorithm;
+
+public class CheckFileHashesTaskTest extends TempFolderTest {
+
+  @Test
+  public void testUnexpectedExceptionIsReportedAsFailure() throws Exception{
+    Path file = createFile("file.txt");
+    Files.write(file, "hello".getBytes(StandardCharsets.UTF_8));
+    Map<SupportedAlgorithm, String> checksums = Collections.singletonMap(StandardSupportedAlgorithms.MD5, "5d41402abc4b2a76b9719d911017c592");
+    ReadStrategy failing = (path, hashers) -> { throw new IllegalStateException("rejected"); };
+
+    CountDownLatch latch = new CountDownLatch(1);
+    Collection<Exception> exceptions = Collections.synchronizedCollection(new ArrayList<>());
+    List<Path> failedFiles = new ArrayList<>();
+    FileCheckListener listener = new FileCheckListener(){
+      @Override
+      public void fileVerified(final Path path, final Map<SupportedAlgorithm, String> algorithmToChecksumMap){
+        Assertions.fail("the file was never hashed");
+      }
+
+      @Override
+      public void fileFailed(final Path path, final Exception e){
+        failedFiles.add(path);
+      }
+    };
+
+    new CheckFileHashesTask(file, checksums, latch, exceptions, failing, new AtomicBoolean(), listener).run();
+
+    Assertions.assertEquals(0, latch.getCount());
+    Assertions.assertEquals(1, exceptions.size());
+    Assertions.assertTrue(exceptions.iterator().next() instanceof IllegalStateException);
+    Assertions.assertEquals(Collections.singletonList(file), failedFiles);
+  }
+}
@@ -12,6 +12,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import gov.loc.repository.bagit.TempFolderTest;
+import gov.loc.repository.bagit.util.NormalizedFilenameIndex;
 
 public class CheckIfFileExistsTaskTest extends TempFolderTest {
 
@@ -35,4 +36,21 @@ public class CheckIfFileExistsTaskTest extends TempFolderTest {
     
     Assertions.assertTrue(missingFiles.size() == 0);
   }
+  
+  @Test
+  public void testSharedIndexStillFindsMissingFiles() throws Exception{
+    CountDownLatch latch = new CountDownLatch(2);
+    Set<Path> missingFiles = new ConcurrentSkipListSet<>();
+    String filename = "Núñez.txt";
+    createFile(Normalizer.normalize(filename, Normalizer.Form.NFD));
+    Path missingFile = folder.resolve("missing.txt");
+    NormalizedFilenameIndex index = new NormalizedFilenameIndex();
+    
+    new CheckIfFileExistsTask(folder.resolve(Normalizer.normalize(filename, Normalizer.Form.NFC)), missingFiles, latch, index).run();
+    new CheckIfFileExistsTask(missingFile, missingFiles, latch, index).run();
+    
+    Assertions.assertEquals(0, latch.getCount());
+    Assertions.assertEquals(1, missingFiles.size());
+    Assertions.assertTrue(missingFiles.contains(missingFile));
+  }
 }
@@ -0,0 +1,119 @@
+package gov.loc.repository.bagit.verify;
+
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import gov.loc.repository.bagit.PrivateConstructorTest;
+import gov.loc.repository.bagit.creator.BagCreator;
+import gov.loc.repository.bagit.creator.ChunkFixityCreator;
+import gov.loc.repository.bagit.domain.Bag;
+import gov.loc.repository.bagit.exceptions.CorruptChecksumException;
+import gov.loc.repository.bagit.exceptions.CorruptChunksException;
+import gov.loc.repository.bagit.hash.StandardSupportedAlgorithms;
+import gov.loc.repository.bagit.reader.BagReader;
+
+public class ChunkFixityVerifierTest extends PrivateConstructorTest {
+  private static final int CHUNK_SIZE = 4096;
+  
+  @Test
+  public void testClassIsWellDefined() throws NoSuchMethodException, InvocationTargetException, InstantiationException, IllegalAccessException{
+    assertUtilityClassWellDefined(ChunkFixityVerifier.class);
+  }
+  
+  @Test
+  public void testCorruptByteRangeIsReported() throws Exception{
+    Path bagDir = createBagWithChunkFixity();
+    Path file = bagDir.resolve("data").resolve("large.bin");
+    byte[] content = Files.readAllBytes(file);
+    content[5000]++;
+    Files.write(file, content);
+    
+    Bag bag = new BagReader().read(bagDir);
+    try(BagVerifier verifier = new BagVerifier()){
+      CorruptChunksException e = Assertions.assertThrows(CorruptChunksException.class, () -> { verifier.isValid(bag, false); });
+      
+      Assertions.assertEquals(file, e.getPath());
+      Assertions.assertEquals(1, e.getCorruptChunks().size());
+      Assertions.assertEquals(CHUNK_SIZE, e.getCorruptChunks().get(0).getOffset());
+      Assertions.assertEquals(CHUNK_SIZE, e.getCorruptChunks().get(0).getLength());
+      Assertions.assertTrue(e.getMessage().contains("4096-8191"));
+    }
+  }
+  
+  @Test
+  public void testAppendedBytesAreReported() throws Exception{
+    Path bagDir = createBagWithChunkFixity();
+    Path file = bagDir.resolve("data").resolve("large.bin");
+    Files.write(file, new byte[]{1, 2, 3}, StandardOpenOption.APPEND);
+    
+    Bag bag = new BagReader().read(bagDir);
+    try(BagVerifier verifier = new BagVerifier()){
+      CorruptChunksException e = Assertions.assertThrows(CorruptChunksException.class, () -> { verifier.isValid(bag, false); });
+      
+      Assertions.assertEquals(1, e.getCorruptChunks().size());
+      Assertions.assertEquals(10_000, e.getCorruptChunks().get(0).getOffset());
+      Assertions.assertEquals(3, e.getCorruptChunks().get(0).getLength());
+    }
+  }
+  
+  @Test
+  public void testFileWithoutChunkFixityKeepsOriginalException() throws Exception{
+    Path bagDir = createBagWithChunkFixity();
+    Files.write(bagDir.resolve("data").resolve("small.bin"), new byte[]{3, 2, 1});
+    
+    Bag bag = new BagReader().read(bagDir);
+    try(BagVerifier verifier = new BagVerifier()){
+      CorruptChecksumException e = Assertions.assertThrows(CorruptChecksumException.class, () -> { verifier.isValid(bag, false); });
+      
+      Assertions.assertFalse(e instanceof CorruptChunksException);
+      Assertions.assertEquals(bagDir.resolve("data").resolve("small.bin"), e.getPath());
+    }
+  }
+  
+  @Test
+  public void testEveryCorruptFileInReportIsChecked() throws Exception{
+    Path bagDir = createBagWithChunkFixity();
+    Path large = bagDir.resolve("data").resolve("large.bin");
+    Path small = bagDir.resolve("data").resolve("small.bin");
+    Files.write(large, new byte[]{1, 2, 3}, StandardOpenOption.APPEND);
+    Files.write(small, new byte[]{3, 2, 1});
+    
+    Bag bag = new BagReader().read(bagDir);
+    try(BagVerifier verifier = new BagVerifier()){
+      VerificationReport report = verifier.verify(bag, false);
+      
+      Assertions.assertEquals(2, report.getCorruptFiles().size());
+      for(CorruptChecksumException e : report.getCorruptFiles()){
+        Assertions.assertEquals(e.getPath().equals(large), e instanceof CorruptChunksException, e.getPath().toString());
+      }
+    }
+  }
+  
+  private Path createBagWithChunkFixity() throws Exception{
+    Path bagDir = createDirectory("chunkFixityBag");
+    byte[] content = new byte[10_000];
+    new Random(9).nextBytes(content);
+    Files.write(bagDir.resolve("large.bin"), content);
+    Files.write(bagDir.resolve("small.bin"), new byte[]{1, 2, 3});
+    Bag bag = BagCreator.bagInPlace(bagDir, Arrays.asList(StandardSupportedAlgorithms.MD5), false);
+    
+    ExecutorService executor = Executors.newCachedThreadPool();
+    try{
+      ChunkFixityCreator.addChunkFixity(bag, StandardSupportedAlgorithms.SHA256, CHUNK_SIZE, executor);
+    }
+    finally{
+      executor.shutdown();
+    }
+    
+    return bagDir;
+  }
+}
@@ -0,0 +1,25 @@
+package gov.loc.repository.bagit.verify;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DirectoryFileOrderingStrategyTest {
+
+  @Test
+  public void testFilesAreGroupedByDirectoryInGivenOrder(){
+    Path a1 = Paths.get("/bag/data/a/1");
+    Path b1 = Paths.get("/bag/data/b/1");
+    Path a2 = Paths.get("/bag/data/a/2");
+    Path b2 = Paths.get("/bag/data/b/2");
+    
+    List<Path> ordered = new DirectoryFileOrderingStrategy().order(Arrays.asList(a1, b1, a2, b2));
+    
+    Assertions.assertEquals(Arrays.asList(a1, a2, b1, b2), ordered);
+    Assertions.assertEquals(0, new DirectoryFileOrderingStrategy().getConcurrencyWindow());
+  }
+}
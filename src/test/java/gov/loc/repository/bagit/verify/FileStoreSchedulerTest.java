@@ -0,0 +1,86 @@
+package gov.loc.repository.bagit.verify;
+
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import gov.loc.repository.bagit.TempFolderTest;
+import gov.loc.repository.bagit.hash.DigestExecutorReadStrategy;
+
+public class FileStoreSchedulerTest extends TempFolderTest {
+  
+  @Test
+  public void testFilesOnTheSameStoreShareAnExecutor() throws Exception{
+    Path file1 = createFile("file1");
+    Path file2 = createFile("file2");
+    
+    try(FileStoreScheduler sut = new FileStoreScheduler()){
+      Assertions.assertSame(sut.getExecutor(file1), sut.getExecutor(file2));
+    }
+  }
+  
+  @Test
+  public void testFilesOnTheSameStoreAreOnTheSameDevice() throws Exception{
+    Path file1 = createFile("file1");
+    Path file2 = createFile("file2");
+    
+    try(FileStoreScheduler sut = new FileStoreScheduler()){
+      Assertions.assertNotNull(sut.getDevice(file1));
+      Assertions.assertEquals(sut.getDevice(file1), sut.getDevice(file2));
+      Assertions.assertNull(sut.getDevice(folder.resolve("doesNotExist")));
+    }
+  }
+  
+  @Test
+  public void testFilesOnDifferentStoresHaveTheirOwnExecutor() throws Exception{
+    Path otherStoreDir = Paths.get("/dev/shm");
+    Assumptions.assumeTrue(Files.isDirectory(otherStoreDir) && Files.isWritable(otherStoreDir));
+    Path file = createFile("file");
+    Assumptions.assumeFalse(Files.getFileStore(file).equals(Files.getFileStore(otherStoreDir)));
+    Path otherFile = Files.createTempFile(otherStoreDir, "bagit", ".txt");
+    
+    try(FileStoreScheduler sut = new FileStoreScheduler()){
+      Assertions.assertNotSame(sut.getExecutor(file), sut.getExecutor(otherFile));
+      Assertions.assertNotEquals(sut.getDevice(file), sut.getDevice(otherFile));
+    }
+    finally{
+      Files.delete(otherFile);
+    }
+  }
+  
+  @Test
+  public void testConcurrencyByNameTakesPrecedenceOverType() throws Exception{
+    Path file = createFile("file");
+    FileStore store = Files.getFileStore(file);
+    
+    try(FileStoreScheduler sut = new FileStoreScheduler(4, 2)){
+      sut.setTypeConcurrency(store.type(), 2);
+      sut.setStoreConcurrency(store.name(), 1);
+      
+      ExecutorService executor = sut.getExecutor(file);
+      Assertions.assertEquals(1, ((ThreadPoolExecutor) executor).getMaximumPoolSize());
+    }
+  }
+  
+  @Test
+  public void testMissingFilesUseTheExecutorForUnknownStores() throws Exception{
+    try(FileStoreScheduler sut = new FileStoreScheduler()){
+      ExecutorService executor = sut.getExecutor(folder.resolve("doesNotExist"));
+      
+      Assertions.assertSame(executor, sut.getExecutor(folder.resolve("alsoDoesNotExist")));
+      Assertions.assertTrue(sut.getReadStrategy() instanceof DigestExecutorReadStrategy);
+    }
+  }
+  
+  @Test
+  public void testConcurrencyMustBePositive(){
+    Assertions.assertThrows(IllegalArgumentException.class, () -> { new FileStoreScheduler(0, 1); });
+  }
+}
@@ -0,0 +1,75 @@
+package gov.loc.repository.bagit.verify;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import gov.loc.repository.bagit.TempFolderTest;
+
+public class LargestFirstFileOrderingStrategyTest extends TempFolderTest {
+  
+  @Test
+  public void testLargestFilesAreFirstAndSmallFilesAreGroupedByDirectory() throws Exception{
+    Path dir1 = createDirectory("dir1");
+    Path dir2 = createDirectory("dir2");
+    Path small1 = Files.write(dir1.resolve("small1"), new byte[10]);
+    Path small2 = Files.write(dir2.resolve("small2"), new byte[10]);
+    Path small3 = Files.write(dir1.resolve("small3"), new byte[10]);
+    Path large = Files.write(dir2.resolve("large"), new byte[100_000]);
+    Path largest = Files.write(dir1.resolve("largest"), new byte[200_000]);
+    
+    LargestFirstFileOrderingStrategy sut = new LargestFirstFileOrderingStrategy(2);
+    List<Path> ordered = sut.order(Arrays.asList(small1, small2, large, small3, largest));
+    
+    Assertions.assertEquals(Arrays.asList(largest, large, small1, small3, small2), ordered);
+    Assertions.assertFalse(sut.canGroup(largest));
+    Assertions.assertTrue(sut.canGroup(small1));
+    Assertions.assertEquals(2, sut.getConcurrencyWindow());
+  }
+  
+  @Test
+  public void testPredictionAssignsEachFileToTheLeastBusyThread(){
+    Map<Path, Long> sizes = new HashMap<>();
+    sizes.put(folder.resolve("a"), 300_000L);
+    sizes.put(folder.resolve("b"), 200_000L);
+    sizes.put(folder.resolve("c"), 100_000L);
+    sizes.put(folder.resolve("d"), 100_000L);
+    
+    LargestFirstFileOrderingStrategy sut = new LargestFirstFileOrderingStrategy(2, 100_000);
+    sut.order(sizes);
+    
+    //a on one thread, b c and d on the other
+    Assertions.assertEquals(400_000, sut.getBusiestThreadBytes());
+    Assertions.assertEquals(4000, sut.getPredictedMilliseconds());
+    Assertions.assertEquals(0, sut.getActualMilliseconds());
+  }
+  
+  @Test
+  public void testActualTimeImprovesTheNextPrediction(){
+    Map<Path, Long> sizes = new HashMap<>();
+    sizes.put(folder.resolve("a"), 1_000_000L);
+    
+    LargestFirstFileOrderingStrategy sut = new LargestFirstFileOrderingStrategy(1, 100_000);
+    sut.order(sizes);
+    Assertions.assertEquals(10_000, sut.getPredictedMilliseconds());
+    
+    sut.finished(TimeUnit.SECONDS.toNanos(2));
+    Assertions.assertEquals(2000, sut.getActualMilliseconds());
+    
+    sut.order(sizes);
+    Assertions.assertEquals(2000, sut.getPredictedMilliseconds());
+  }
+  
+  @Test
+  public void testParallelismMustBePositive(){
+    Assertions.assertThrows(IllegalArgumentException.class, () -> { new LargestFirstFileOrderingStrategy(0); });
+    Assertions.assertThrows(IllegalArgumentException.class, () -> { new LargestFirstFileOrderingStrategy(1, 0); });
+  }
+}
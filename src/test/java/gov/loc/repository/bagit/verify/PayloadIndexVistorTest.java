@@ -0,0 +1,28 @@
+package gov.loc.repository.bagit.verify;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import gov.loc.repository.bagit.TempFolderTest;
+
+public class PayloadIndexVistorTest extends TempFolderTest {
+
+  @Test
+  public void testRecordsSizeOfEachFile() throws Exception{
+    Path file = createFile("aNewFile");
+    Files.write(file, "foo".getBytes());
+    Path hiddenDir = createDirectory(".hidden");
+    Files.write(hiddenDir.resolve("hiddenFile"), "foobar".getBytes());
+    Map<Path, Long> fileToSizeMap = new HashMap<>();
+    
+    Files.walkFileTree(folder, new PayloadIndexVistor(fileToSizeMap, true));
+    
+    Assertions.assertEquals(1, fileToSizeMap.size());
+    Assertions.assertEquals(Long.valueOf(3), fileToSizeMap.get(file.normalize()));
+  }
+}
@@ -72,4 +72,64 @@ public class PayloadVerifierTest {
     Assertions.assertThrows(FileNotInManifestException.class, 
         () -> { sut.verifyPayload(bag, true); });
   }
+  
+  @Test
+  public void testReportCollectsFilesThatDontExist() throws Exception{
+    rootDir = Paths.get(new File("src/test/resources/filesInManifestDontExist").toURI());
+    Bag bag = reader.read(rootDir);
+    VerificationReport report = new VerificationReport();
+    
+    sut.verifyPayload(bag, true, report);
+    
+    Assertions.assertFalse(report.getMissingFiles().isEmpty());
+    Assertions.assertFalse(report.isValid());
+  }
+  
+  @Test
+  public void testReportCollectsFilesNotInManifest() throws Exception{
+    rootDir = Paths.get(new File("src/test/resources/filesInPayloadDirAreNotInManifest").toURI());
+    Bag bag = reader.read(rootDir);
+    VerificationReport report = new VerificationReport();
+    
+    sut.verifyPayload(bag, true, report);
+    
+    Assertions.assertFalse(report.getFilesNotInManifests().isEmpty());
+    Assertions.assertTrue(report.getMissingFiles().isEmpty());
+  }
+  
+  @Test
+  public void testReportCollectsFilesNotInAllManifests() throws Exception{
+    Path bagDir = Paths.get(new File("src/test/resources/notAllFilesListedInAllManifestsBag").toURI());
+    Bag bag = reader.read(bagDir);
+    VerificationReport report = new VerificationReport();
+    
+    sut.verifyPayload(bag, true, report);
+    
+    Assertions.assertFalse(report.getFilesNotInManifests().isEmpty());
+  }
+  
+  @Test
+  public void testIndexPayloadRecordsFileSizes() throws Exception{
+    Bag bag = reader.read(rootDir);
+    
+    PayloadIndex index = sut.indexPayload(bag, true);
+    
+    Assertions.assertTrue(index.isComplete());
+    Assertions.assertEquals(Long.valueOf(5), index.getFileToSizeMap().get(rootDir.resolve("data/test1.txt").normalize()));
+    Assertions.assertFalse(index.getFileToSizeMap().containsKey(rootDir.resolve("bag-info.txt").normalize()), 
+        "tag files are looked up individually, they are not part of the walk");
+  }
+  
+  @Test
+  public void testIndexPayloadNamesTheManifestMissingAFile() throws Exception{
+    Path bagDir = Paths.get(new File("src/test/resources/notAllFilesListedInAllManifestsBag").toURI());
+    Bag bag = reader.read(bagDir);
+    
+    PayloadIndex index = sut.indexPayload(bag, true);
+    
+    Assertions.assertTrue(index.getFilesNotInManifests().contains(bagDir.resolve("data/ham").normalize()));
+    FileNotInManifestException e = Assertions.assertThrows(FileNotInManifestException.class, 
+        () -> { PayloadVerifier.verifyPayload(index); });
+    Assertions.assertTrue(e.getMessage().contains("manifest-sha256.txt"));
+  }
 }
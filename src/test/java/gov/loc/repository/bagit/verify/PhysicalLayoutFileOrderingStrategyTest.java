@@ -0,0 +1,69 @@
+package gov.loc.repository.bagit.verify;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import gov.loc.repository.bagit.TempFolderTest;
+
+public class PhysicalLayoutFileOrderingStrategyTest extends TempFolderTest {
+
+  @Test
+  public void testFilesAreSortedByInodeWithinEachDirectory() throws Exception{
+    Assumptions.assumeTrue(Files.getFileStore(folder).supportsFileAttributeView("unix"), "inode numbers are not available");
+    List<Path> files = new ArrayList<>();
+    for(String directory : Arrays.asList("x", "y")){
+      Path dir = createDirectory(directory);
+      for(int i=0; i<10; i++){
+        files.add(Files.createFile(dir.resolve("file" + i)));
+      }
+    }
+    List<Path> shuffled = new ArrayList<>(files);
+    Collections.shuffle(shuffled);
+    
+    List<Path> ordered = new PhysicalLayoutFileOrderingStrategy().order(shuffled);
+    
+    Assertions.assertEquals(files.size(), ordered.size());
+    Path firstDirectory = ordered.get(0).getParent();
+    for(int i=0; i<ordered.size(); i++){
+      Assertions.assertEquals(i < 10, ordered.get(i).getParent().equals(firstDirectory), "files of a directory must be next to each other");
+    }
+    List<Path> firstHalf = ordered.subList(0, 10);
+    List<Path> sortedByInode = new ArrayList<>(firstHalf);
+    sortedByInode.sort(Comparator.comparing(PhysicalLayoutFileOrderingStrategyTest::inode));
+    Assertions.assertEquals(sortedByInode, firstHalf);
+  }
+  
+  @Test
+  public void testMissingFilesAreOrderedLast() throws Exception{
+    Path existing = createFile("existing");
+    Path missing = folder.resolve("missing");
+    
+    List<Path> ordered = new PhysicalLayoutFileOrderingStrategy().order(Arrays.asList(missing, existing));
+    
+    Assertions.assertEquals(Arrays.asList(existing, missing), ordered);
+  }
+  
+  @Test
+  public void testConcurrencyWindowMustBePositive(){
+    Assertions.assertEquals(4, new PhysicalLayoutFileOrderingStrategy().getConcurrencyWindow());
+    Assertions.assertThrows(IllegalArgumentException.class, () -> { new PhysicalLayoutFileOrderingStrategy(0); });
+  }
+  
+  private static Long inode(final Path file){
+    try{
+      return (Long) Files.getAttribute(file, "unix:ino");
+    }
+    catch(Exception e){
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,123 @@
+package gov.loc.repository.bagit.verify;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import gov.loc.repository.bagit.TempFolderTest;
+import gov.loc.repository.bagit.hash.FileChannelReadStrategy;
+import gov.loc.repository.bagit.hash.MessageDigestStreamingHasher;
+import gov.loc.repository.bagit.hash.SmallFileReadStrategy;
+import gov.loc.repository.bagit.hash.SupportedAlgorithm;
+
+public class ProgressTrackerTest extends TempFolderTest {
+  
+  @Test
+  public void testSmallFilesAreCountedWhenChecked() throws Exception{
+    Path file1 = createFile("file1");
+    Files.write(file1, new byte[10]);
+    Path file2 = createFile("file2");
+    Files.write(file2, new byte[20]);
+    List<VerificationProgress> reports = new ArrayList<>();
+    
+    ProgressTracker sut = new ProgressTracker(new RecordingListener(reports), FileCheckListener.NONE, VerificationPhase.PAYLOAD_CHECKSUMS, 
+        new HashSet<>(Arrays.asList(file1, file2)), Collections.emptyMap(), new SmallFileReadStrategy(), 0);
+    sut.fileVerified(file1, Collections.emptyMap());
+    sut.fileFailed(file2, new Exception());
+    
+    Assertions.assertEquals(2, reports.size());
+    VerificationProgress last = reports.get(1);
+    Assertions.assertEquals(2, last.getFilesChecked());
+    Assertions.assertEquals(2, last.getTotalFiles());
+    Assertions.assertEquals(30, last.getBytesRead());
+    Assertions.assertEquals(30, last.getTotalBytes());
+    Assertions.assertEquals(0, last.getEstimatedMillisecondsRemaining());
+  }
+  
+  @Test
+  public void testLargeFilesAreCountedAsTheyAreRead() throws Exception{
+    Path file = createFile("largeFile");
+    Files.write(file, new byte[100_000]);
+    List<VerificationProgress> reports = new ArrayList<>();
+    
+    ProgressTracker sut = new ProgressTracker(new RecordingListener(reports), FileCheckListener.NONE, VerificationPhase.PAYLOAD_CHECKSUMS, 
+        Collections.singleton(file), Collections.emptyMap(), new SmallFileReadStrategy(1000, new FileChannelReadStrategy()), 0);
+    sut.countBytes(new FileChannelReadStrategy()).updateHashers(file, Arrays.asList(
+        new MessageDigestStreamingHasher(MessageDigest.getInstance("MD5")), new MessageDigestStreamingHasher(MessageDigest.getInstance("SHA-1"))));
+    sut.fileVerified(file, Collections.emptyMap());
+    
+    VerificationProgress last = reports.get(reports.size() - 1);
+    Assertions.assertEquals(100_000, last.getBytesRead(), "the bytes are counted once no matter how many hashers there are");
+    Assertions.assertEquals(1, last.getFilesChecked());
+  }
+  
+  @Test
+  public void testReportsAreSampled() throws Exception{
+    Path file = createFile("file");
+    List<VerificationProgress> reports = new ArrayList<>();
+    
+    ProgressTracker sut = new ProgressTracker(new RecordingListener(reports), FileCheckListener.NONE, VerificationPhase.TAG_CHECKSUMS, 
+        Collections.singleton(file), Collections.emptyMap(), new SmallFileReadStrategy(), 60_000);
+    for(int i=0; i<1000; i++){
+      sut.fileVerified(file, Collections.emptyMap());
+    }
+    Assertions.assertTrue(reports.isEmpty());
+    
+    sut.finish();
+    Assertions.assertEquals(1, reports.size());
+    Assertions.assertEquals(VerificationPhase.TAG_CHECKSUMS, reports.get(0).getPhase());
+  }
+  
+  @Test
+  public void testBrokenListenerDoesNotFailTheFile() throws Exception{
+    Path file = createFile("file");
+    List<Path> verified = new ArrayList<>();
+    ProgressListener broken = new ProgressListener(){
+      @Override
+      public void phaseStarted(VerificationPhase phase){}
+      @Override
+      public void progress(VerificationProgress progress){
+        throw new IllegalStateException("broken");
+      }
+    };
+    FileCheckListener next = new FileCheckListener(){
+      @Override
+      public void fileVerified(Path checked, Map<SupportedAlgorithm, String> checksums){
+        verified.add(checked);
+      }
+      @Override
+      public void fileFailed(Path checked, Exception problem){}
+    };
+    
+    ProgressTracker sut = new ProgressTracker(broken, next, VerificationPhase.PAYLOAD_CHECKSUMS, 
+        Collections.singleton(file), Collections.emptyMap(), new SmallFileReadStrategy(), 0);
+    sut.fileVerified(file, Collections.emptyMap());
+    
+    Assertions.assertEquals(Collections.singletonList(file), verified);
+  }
+  
+  private static final class RecordingListener implements ProgressListener {
+    private final List<VerificationProgress> reports;
+    
+    private RecordingListener(List<VerificationProgress> reports){
+      this.reports = reports;
+    }
+    
+    @Override
+    public void phaseStarted(VerificationPhase phase){}
+    
+    @Override
+    public void progress(VerificationProgress progress){
+      reports.add(progress);
+    }
+  }
+}
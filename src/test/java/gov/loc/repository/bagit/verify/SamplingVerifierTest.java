@@ -0,0 +1,163 @@
+package gov.loc.repository.bagit.verify;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import gov.loc.repository.bagit.TempFolderTest;
+import gov.loc.repository.bagit.creator.BagCreator;
+import gov.loc.repository.bagit.domain.Bag;
+import gov.loc.repository.bagit.hash.StandardSupportedAlgorithms;
+import gov.loc.repository.bagit.reader.BagReader;
+
+public class SamplingVerifierTest extends TempFolderTest {
+  private BagReader reader = new BagReader();
+
+  @Test
+  public void testSampleSize(){
+    int sampleSize = SamplingVerifier.sampleSize(0.95, 0.01, 1_000_000);
+    Assertions.assertTrue(sampleSize > 290 && sampleSize <= 299, "was " + sampleSize);
+    
+    Assertions.assertEquals(0, SamplingVerifier.sampleSize(0.95, 0.01, 0));
+    Assertions.assertEquals(10, SamplingVerifier.sampleSize(0.99, 0.01, 10), "a small population needs every file checked");
+    Assertions.assertTrue(SamplingVerifier.sampleSize(0.95, 0.01, 1000) < sampleSize, "a smaller population needs fewer files");
+    Assertions.assertThrows(IllegalArgumentException.class, () -> { SamplingVerifier.sampleSize(1, 0.01, 10); });
+  }
+  
+  @Test
+  public void testUpperBound(){
+    double bound = SamplingVerifier.upperBound(299, 0, 1_000_000, 0.95);
+    Assertions.assertTrue(bound > 0.009 && bound <= 0.01, "was " + bound);
+    Assertions.assertTrue(SamplingVerifier.upperBound(299, 1, 1_000_000, 0.95) > bound);
+    Assertions.assertEquals(1, SamplingVerifier.upperBound(10, 10, 100, 0.95));
+    Assertions.assertEquals(0.2, SamplingVerifier.upperBound(10, 2, 10, 0.95), 0.0000001);
+  }
+  
+  @Test
+  public void testUpperBoundMatchesSampleSize(){
+    int sampleSize = SamplingVerifier.sampleSize(0.95, 0.01, 100);
+    Assertions.assertEquals(0.01, SamplingVerifier.upperBound(sampleSize, 0, 100, 0.95), 0.0000001);
+    sampleSize = SamplingVerifier.sampleSize(0.99, 0.05, 10_000);
+    double bound = SamplingVerifier.upperBound(sampleSize, 0, 10_000, 0.99);
+    Assertions.assertTrue(bound > 0.049 && bound <= 0.05, "was " + bound);
+    Assertions.assertTrue(SamplingVerifier.upperBound(sampleSize - 1, 0, 10_000, 0.99) > 0.05);
+  }
+  
+  @Test
+  public void testSizeWeightedUpperBound(){
+    double bound = SamplingVerifier.sizeWeightedUpperBound(299, 0, 1_000_000, 0.95);
+    Assertions.assertTrue(bound > 0.0099 && bound <= 0.01, "was " + bound);
+    Assertions.assertEquals(0, SamplingVerifier.sizeWeightedUpperBound(100, 0, 100, 0.95));
+    Assertions.assertTrue(Double.isNaN(SamplingVerifier.sizeWeightedUpperBound(299, 1, 1_000_000, 0.95)), "no bound once a corrupt file is found");
+    Assertions.assertTrue(Double.isNaN(SamplingVerifier.sizeWeightedUpperBound(100, 1, 100, 0.95)));
+  }
+  
+  @Test
+  public void testSameSeedPicksSameSample(){
+    List<Path> files = createPaths(1000);
+    
+    Assertions.assertEquals(SamplingVerifier.sampleRandomly(files, 50, new Random(42)), SamplingVerifier.sampleRandomly(files, 50, new Random(42)));
+    Assertions.assertNotEquals(SamplingVerifier.sampleRandomly(files, 50, new Random(42)), SamplingVerifier.sampleRandomly(files, 50, new Random(43)));
+    Assertions.assertEquals(50, new HashSet<>(SamplingVerifier.sampleRandomly(files, 50, new Random(42))).size());
+  }
+  
+  @Test
+  public void testSampleByDirectoryCoversEveryDirectory(){
+    List<Path> files = createPaths(1000);
+    
+    List<Path> sample = SamplingVerifier.sampleByDirectory(files, 20, new Random(42));
+    
+    Assertions.assertEquals(20, sample.size());
+    Set<Path> directories = new HashSet<>();
+    for(Path file : sample){
+      directories.add(file.getParent());
+    }
+    Assertions.assertEquals(10, directories.size());
+  }
+  
+  @Test
+  public void testSampleBySizePrefersLargeFiles(){
+    List<Path> files = createPaths(1000);
+    Map<Path, Long> sizes = new HashMap<>();
+    for(Path file : files){
+      sizes.put(file, 1L);
+    }
+    Path largeFile = files.get(500);
+    sizes.put(largeFile, 1_000_000_000L);
+    
+    List<Path> sample = SamplingVerifier.sampleBySize(files, sizes, 5, new Random(42));
+    
+    Assertions.assertEquals(5, sample.size());
+    Assertions.assertTrue(sample.contains(largeFile));
+  }
+  
+  @Test
+  public void testSampleValidBag() throws Exception{
+    Bag bag = reader.read(createBag());
+    
+    try(BagVerifier verifier = new BagVerifier()){
+      SamplingVerifier sut = new SamplingVerifier(verifier);
+      for(SamplingMethod method : SamplingMethod.values()){
+        SamplingReport report = sut.sample(bag, method, 0.9, 0.2, 42);
+        Assertions.assertTrue(report.isValid(), report.toString());
+        Assertions.assertEquals(20, report.getPopulationSize());
+        Assertions.assertTrue(report.getSampleSize() > 0 && report.getSampleSize() < 20);
+        Assertions.assertTrue(report.getBytesRead() > 0);
+        Assertions.assertEquals(42, report.getSeed());
+        Assertions.assertTrue(report.getUpperBound() >= 0 && report.getUpperBound() <= 1, method + " bound was " + report.getUpperBound());
+      }
+    }
+  }
+  
+  @Test
+  public void testSampleFindsCorruptAndMissingFiles() throws Exception{
+    Path bagDir = createBag();
+    Bag bag = reader.read(bagDir);
+    List<Path> payloadFiles = new ArrayList<>(bag.getPayLoadManifests().iterator().next().getFileToChecksumMap().keySet());
+    for(Path file : payloadFiles){
+      Files.write(file, "corrupted".getBytes(StandardCharsets.UTF_8));
+    }
+    Files.delete(payloadFiles.get(0));
+    
+    try(BagVerifier verifier = new BagVerifier()){
+      SamplingReport report = new SamplingVerifier(verifier).sample(bag, SamplingMethod.RANDOM, 0.99, 0.01, 7);
+      
+      Assertions.assertEquals(20, report.getSampleSize());
+      Assertions.assertEquals(19, report.getCorruptFiles().size());
+      Assertions.assertEquals(1, report.getMissingFiles().size());
+      Assertions.assertEquals(1, report.getUpperBound());
+      
+      report = new SamplingVerifier(verifier).sample(bag, SamplingMethod.BY_SIZE, 0.99, 0.01, 7);
+      Assertions.assertTrue(Double.isNaN(report.getUpperBound()), "the bound on the corrupt bytes is unknown");
+    }
+  }
+  
+  private List<Path> createPaths(int count){
+    List<Path> files = new ArrayList<>();
+    for(int i=0; i<count; i++){
+      files.add(Paths.get("data", "dir" + (i % 10), "file" + i));
+    }
+    return files;
+  }
+  
+  private Path createBag() throws Exception{
+    Path bagDir = createDirectory("sampledBag");
+    for(int i=0; i<20; i++){
+      Files.write(bagDir.resolve("file" + i + ".txt"), ("some content " + i).getBytes(StandardCharsets.UTF_8));
+    }
+    BagCreator.bagInPlace(bagDir, Arrays.asList(StandardSupportedAlgorithms.MD5, StandardSupportedAlgorithms.SHA256), false);
+    return bagDir;
+  }
+}
@@ -0,0 +1,50 @@
+package gov.loc.repository.bagit.verify;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import gov.loc.repository.bagit.TempFolderTest;
+
+public class VerificationCursorTest extends TempFolderTest {
+
+  @Test
+  public void testNewCursorStartsAtFirstFile() throws Exception{
+    VerificationCursor sut = new VerificationCursor(folder.resolve("cursor.properties"));
+    
+    Assertions.assertNull(sut.getLastFileChecked());
+    Assertions.assertEquals(0, sut.getCompletedPasses());
+    Assertions.assertFalse(Files.exists(sut.getCursorFile()));
+  }
+  
+  @Test
+  public void testCursorIsSavedAsItAdvances() throws Exception{
+    Path cursorFile = folder.resolve("cursor.properties");
+    VerificationCursor sut = new VerificationCursor(cursorFile);
+    sut.advance(Paths.get("data", "dir with spaces", "file=1.txt"), 3, 300);
+    sut.advance(Paths.get("data", "dir with spaces", "file=2.txt"), 2, 200);
+    
+    VerificationCursor reopened = new VerificationCursor(cursorFile);
+    Assertions.assertEquals(Paths.get("data", "dir with spaces", "file=2.txt"), reopened.getLastFileChecked());
+    Assertions.assertEquals(5, reopened.getFilesCheckedInPass());
+    Assertions.assertEquals(500, reopened.getBytesCheckedInPass());
+    Assertions.assertFalse(Files.exists(folder.resolve("cursor.properties.tmp")));
+  }
+  
+  @Test
+  public void testFinishPassStartsOver() throws Exception{
+    Path cursorFile = folder.resolve("cursor.properties");
+    VerificationCursor sut = new VerificationCursor(cursorFile);
+    sut.advance(Paths.get("data", "file.txt"), 1, 100);
+    sut.finishPass();
+    
+    VerificationCursor reopened = new VerificationCursor(cursorFile);
+    Assertions.assertNull(reopened.getLastFileChecked());
+    Assertions.assertEquals(1, reopened.getCompletedPasses());
+    Assertions.assertEquals(0, reopened.getFilesCheckedInPass());
+    Assertions.assertEquals(0, reopened.getBytesCheckedInPass());
+  }
+}
@@ -0,0 +1,153 @@
+package gov.loc.repository.bagit.verify;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import gov.loc.repository.bagit.TempFolderTest;
+import gov.loc.repository.bagit.hash.FileChannelReadStrategy;
+import gov.loc.repository.bagit.hash.ReadStrategy;
+import gov.loc.repository.bagit.hash.StandardSupportedAlgorithms;
+import gov.loc.repository.bagit.hash.SupportedAlgorithm;
+
+public class VerificationJournalTest extends TempFolderTest {
+  private static final Map<SupportedAlgorithm, String> CHECKSUMS = Collections.singletonMap(StandardSupportedAlgorithms.MD5, "acbd18db4cc2f85cedef654fccc4a4d8");
+  private Path journalFile;
+  private Path file;
+  
+  @BeforeEach
+  public void setup() throws Exception{
+    journalFile = folder.resolve("journal.txt");
+    file = createFile("file.txt");
+    Files.write(file, "foo".getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testResumesWithVerifiedFiles() throws Exception{
+    try(VerificationJournal sut = new VerificationJournal(journalFile)){
+      Assertions.assertFalse(sut.isAlreadyVerified(file, CHECKSUMS));
+      sut.fileVerified(file, CHECKSUMS);
+      Assertions.assertTrue(sut.isAlreadyVerified(file, CHECKSUMS));
+    }
+    
+    try(VerificationJournal sut = new VerificationJournal(journalFile)){
+      Assertions.assertTrue(sut.isAlreadyVerified(file, CHECKSUMS));
+    }
+  }
+  
+  @Test
+  public void testChangedFileIsCheckedAgain() throws Exception{
+    try(VerificationJournal sut = new VerificationJournal(journalFile)){
+      sut.fileVerified(file, CHECKSUMS);
+    }
+    Files.write(file, "foobar".getBytes(StandardCharsets.UTF_8));
+    
+    try(VerificationJournal sut = new VerificationJournal(journalFile)){
+      Assertions.assertFalse(sut.isAlreadyVerified(file, CHECKSUMS));
+    }
+  }
+  
+  @Test
+  public void testFailedFileIsCheckedAgain() throws Exception{
+    try(VerificationJournal sut = new VerificationJournal(journalFile)){
+      sut.fileVerified(file, CHECKSUMS);
+      sut.fileFailed(file, new Exception("corrupt"));
+    }
+    
+    try(VerificationJournal sut = new VerificationJournal(journalFile)){
+      Assertions.assertFalse(sut.isAlreadyVerified(file, CHECKSUMS));
+    }
+  }
+  
+  @Test
+  public void testLinesAreWrittenInBatches() throws Exception{
+    try(VerificationJournal sut = new VerificationJournal(journalFile, 2, Long.MAX_VALUE / 2)){
+      sut.fileVerified(file, CHECKSUMS);
+      Assertions.assertEquals(0, Files.size(journalFile));
+      sut.fileVerified(file, CHECKSUMS);
+      Assertions.assertEquals(2, Files.readAllLines(journalFile).size());
+    }
+  }
+  
+  @Test
+  public void testIncompleteLastLineIsSkipped() throws Exception{
+    try(VerificationJournal sut = new VerificationJournal(journalFile)){
+      sut.fileVerified(file, CHECKSUMS);
+    }
+    Files.write(journalFile, "VERIFIED\t12".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    
+    try(VerificationJournal sut = new VerificationJournal(journalFile)){
+      Assertions.assertTrue(sut.isAlreadyVerified(file, CHECKSUMS));
+      sut.fileVerified(file, CHECKSUMS);
+    }
+    
+    Assertions.assertEquals(3, Files.readAllLines(journalFile).size());
+    try(VerificationJournal sut = new VerificationJournal(journalFile)){
+      Assertions.assertTrue(sut.isAlreadyVerified(file, CHECKSUMS));
+    }
+  }
+  
+  @Test
+  public void testFileIsCheckedAgainWhenChecksumsChange() throws Exception{
+    try(VerificationJournal sut = new VerificationJournal(journalFile)){
+      sut.fileVerified(file, CHECKSUMS);
+    }
+    
+    try(VerificationJournal sut = new VerificationJournal(journalFile)){
+      Assertions.assertFalse(sut.isAlreadyVerified(file, Collections.singletonMap(StandardSupportedAlgorithms.MD5, "0000")));
+      Map<SupportedAlgorithm, String> withNewAlgorithm = new HashMap<>(CHECKSUMS);
+      withNewAlgorithm.put(StandardSupportedAlgorithms.SHA1, "0beec7b5ea3f0fdbc95d0dd47f3c5bc275da8a33");
+      Assertions.assertFalse(sut.isAlreadyVerified(file, withNewAlgorithm));
+      Assertions.assertTrue(sut.isAlreadyVerified(file, CHECKSUMS));
+    }
+  }
+  
+  @Test
+  public void testFinishedPassIsNotTrusted() throws Exception{
+    try(VerificationJournal sut = new VerificationJournal(journalFile)){
+      sut.fileVerified(file, CHECKSUMS);
+      sut.finishPass();
+      Assertions.assertFalse(sut.isAlreadyVerified(file, CHECKSUMS));
+    }
+    
+    try(VerificationJournal sut = new VerificationJournal(journalFile)){
+      Assertions.assertFalse(sut.isAlreadyVerified(file, CHECKSUMS));
+      sut.fileVerified(file, CHECKSUMS);
+    }
+    
+    try(VerificationJournal sut = new VerificationJournal(journalFile)){
+      Assertions.assertTrue(sut.isAlreadyVerified(file, CHECKSUMS), "files checked after the marker start the next pass");
+    }
+  }
+  
+  @Test
+  public void testFileChangedAfterBeingReadIsCheckedAgain() throws Exception{
+    ReadStrategy readThenRewrite = (path, hashers) -> {
+      ReadStrategy used = new FileChannelReadStrategy().updateHashers(path, hashers);
+      Files.write(path, "foobar".getBytes(StandardCharsets.UTF_8));
+      return used;
+    };
+    
+    try(VerificationJournal sut = new VerificationJournal(journalFile)){
+      CountDownLatch latch = new CountDownLatch(1);
+      new CheckFileHashesTask(file, CHECKSUMS, latch, new ArrayList<>(), readThenRewrite, new AtomicBoolean(), sut).run();
+      Assertions.assertEquals(0, latch.getCount());
+      Assertions.assertFalse(sut.isAlreadyVerified(file, CHECKSUMS), "the content that was hashed is gone");
+    }
+    
+    try(VerificationJournal sut = new VerificationJournal(journalFile)){
+      Assertions.assertFalse(sut.isAlreadyVerified(file, CHECKSUMS));
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package gov.loc.repository.bagit.verify;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class VerificationProgressTest {
+
+  @Test
+  public void testEstimateFromBytes(){
+    VerificationProgress sut = new VerificationProgress(VerificationPhase.PAYLOAD_CHECKSUMS, 10, 40, 1000, 4000, 2000);
+    
+    Assertions.assertEquals(500, sut.getBytesPerSecond(), 0.0001);
+    Assertions.assertEquals(6000, sut.getEstimatedMillisecondsRemaining());
+  }
+  
+  @Test
+  public void testEstimateFromFilesWhenTheyAreEmpty(){
+    VerificationProgress sut = new VerificationProgress(VerificationPhase.PAYLOAD_CHECKSUMS, 10, 20, 0, 0, 1000);
+    
+    Assertions.assertEquals(1000, sut.getEstimatedMillisecondsRemaining());
+  }
+  
+  @Test
+  public void testEstimateUnknownBeforeAnythingIsChecked(){
+    VerificationProgress sut = new VerificationProgress(VerificationPhase.TAG_CHECKSUMS, 0, 20, 0, 100, 0);
+    
+    Assertions.assertEquals(VerificationProgress.UNKNOWN, sut.getEstimatedMillisecondsRemaining());
+    Assertions.assertEquals(0, sut.getBytesPerSecond());
+  }
+}
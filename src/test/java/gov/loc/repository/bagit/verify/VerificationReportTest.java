@@ -0,0 +1,50 @@
+package gov.loc.repository.bagit.verify;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import gov.loc.repository.bagit.exceptions.CorruptChecksumException;
+
+public class VerificationReportTest {
+  
+  @Test
+  public void testEmptyReportIsValid(){
+    Assertions.assertTrue(new VerificationReport().isValid());
+  }
+  
+  @Test
+  public void testAnyProblemMakesReportInvalid(){
+    Path file = Paths.get("data", "file.txt");
+    
+    VerificationReport report = new VerificationReport();
+    report.addCorruptFile(new CorruptChecksumException("corrupt", file, "md5", "abc", "def"));
+    Assertions.assertFalse(report.isValid());
+    Assertions.assertEquals("def", report.getCorruptFiles().get(0).getComputedHash());
+    
+    report = new VerificationReport();
+    report.addMissingFiles(Collections.singleton(file));
+    Assertions.assertFalse(report.isValid());
+    
+    report = new VerificationReport();
+    report.addFilesNotInManifests(Collections.singleton(file));
+    Assertions.assertFalse(report.isValid());
+    
+    report = new VerificationReport();
+    report.addError(new Exception("unreadable"));
+    Assertions.assertFalse(report.isValid());
+  }
+  
+  @Test
+  public void testFilesAreSortedAndCannotBeChanged(){
+    VerificationReport report = new VerificationReport();
+    report.addMissingFiles(Arrays.asList(Paths.get("b"), Paths.get("a")));
+    
+    Assertions.assertEquals(Arrays.asList(Paths.get("a"), Paths.get("b")), Arrays.asList(report.getMissingFiles().toArray()));
+    Assertions.assertThrows(UnsupportedOperationException.class, () -> { report.getMissingFiles().clear(); });
+  }
+}
@@ -0,0 +1,44 @@
+package gov.loc.repository.bagit.writer;
+
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import gov.loc.repository.bagit.PrivateConstructorTest;
+import gov.loc.repository.bagit.domain.ChunkFixity;
+import gov.loc.repository.bagit.domain.FileChunk;
+import gov.loc.repository.bagit.hash.StandardBagitAlgorithmNameToSupportedAlgorithmMapping;
+import gov.loc.repository.bagit.hash.StandardSupportedAlgorithms;
+import gov.loc.repository.bagit.reader.ChunkFixityReader;
+
+public class ChunkFixityWriterTest extends PrivateConstructorTest {
+  
+  @Test
+  public void testClassIsWellDefined() throws NoSuchMethodException, InvocationTargetException, InstantiationException, IllegalAccessException{
+    assertUtilityClassWellDefined(ChunkFixityWriter.class);
+  }
+  
+  @Test
+  public void testWriteChunkFixity() throws Exception{
+    Path rootDir = createDirectory("chunkFixityBag");
+    Path file = rootDir.resolve("data").resolve("big file.bin");
+    List<FileChunk> chunks = Arrays.asList(new FileChunk(0, 10, "aaaa"), new FileChunk(10, 3, "bbbb"));
+    ChunkFixity chunkFixity = new ChunkFixity(StandardSupportedAlgorithms.SHA256);
+    chunkFixity.getFileToChunksMap().put(file, chunks);
+    
+    Path written = ChunkFixityWriter.writeChunkFixity(chunkFixity, rootDir, rootDir, StandardCharsets.UTF_8);
+    
+    Assertions.assertEquals(rootDir.resolve("chunk-fixity-sha256.txt"), written);
+    List<String> lines = Files.readAllLines(written, StandardCharsets.UTF_8);
+    Assertions.assertEquals(Arrays.asList("aaaa 0 10  data/big file.bin", "bbbb 10 3  data/big file.bin"), lines);
+    
+    ChunkFixity read = ChunkFixityReader.readChunkFixity(new StandardBagitAlgorithmNameToSupportedAlgorithmMapping(), written, rootDir, StandardCharsets.UTF_8);
+    Assertions.assertEquals(chunkFixity, read);
+  }
+}